@@ -51,7 +51,9 @@ public class CorsConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "If-None-Match",
+            "If-Match"
         ));
         
         // Headers expuestos al cliente
@@ -59,7 +61,9 @@ public class CorsConfig {
             "Authorization",
             "Content-Type",
             "Access-Control-Allow-Origin",
-            "Access-Control-Allow-Credentials"
+            "Access-Control-Allow-Credentials",
+            "X-Next-Cursor",
+            "ETag"
         ));
         
         // Permitir credenciales (cookies, auth headers)
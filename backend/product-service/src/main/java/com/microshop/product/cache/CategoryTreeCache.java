@@ -0,0 +1,207 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.dto.CategoryDTO;
+import com.microshop.product.event.CategoryChangedEvent;
+import com.microshop.product.model.Category;
+import com.microshop.product.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copia en memoria del árbol de categorías, para construir menús y migas de pan
+ * sin consultar la base de datos.
+ *
+ * El árbol se carga completo en una instantánea inmutable que se sustituye de una
+ * vez: las lecturas no toman ningún bloqueo. Se recarga tras confirmar la creación
+ * de una categoría en esta instancia y periódicamente
+ * ({@code product.categories.refresh-interval-ms}) para incorporar las creadas en
+ * otras instancias.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class CategoryTreeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Tree tree;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param categoryRepository Repositorio de categorías
+     */
+    @Autowired
+    public CategoryTreeCache(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * @return Categorías raíz con sus subcategorías, por nombre
+     */
+    public List<CategoryDTO> roots() {
+        return current().roots;
+    }
+
+    /**
+     * Busca una categoría por su ID.
+     *
+     * @param id ID de la categoría
+     * @return Categoría, si existe
+     */
+    public Optional<Node> findById(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    /**
+     * Busca una categoría por nombre sin distinguir mayúsculas.
+     *
+     * @param name Nombre de la categoría
+     * @return Categoría, si existe
+     */
+    public Optional<Node> findByName(String name) {
+        return Optional.ofNullable(current().byName.get(key(name)));
+    }
+
+    /**
+     * Obtiene la cadena de categorías desde la raíz hasta la indicada, incluida.
+     *
+     * @param id ID de la categoría
+     * @return Migas de pan, o una lista vacía si la categoría no existe
+     */
+    public List<CategoryDTO> breadcrumb(Long id) {
+        Tree snapshot = current();
+        List<CategoryDTO> breadcrumb = new ArrayList<>();
+        for (Node node = snapshot.byId.get(id); node != null; node = snapshot.byId.get(node.parentId())) {
+            breadcrumb.add(0, node.toDTO(null));
+        }
+        return breadcrumb;
+    }
+
+    /**
+     * Recarga el árbol tras confirmar la creación de una categoría.
+     *
+     * @param event Evento de cambio de la categoría
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Carga el árbol al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Recarga periódicamente el árbol para incorporar las categorías creadas en otras instancias.
+     */
+    @Scheduled(initialDelayString = "${product.categories.refresh-interval-ms:60000}",
+               fixedDelayString = "${product.categories.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            log.error("No se pudo recargar el árbol de categorías", ex);
+        }
+    }
+
+    /**
+     * Lee todas las categorías y sustituye el árbol actual.
+     */
+    public void reload() {
+        tree = new Tree(categoryRepository.findAllByOrderByPathAsc());
+    }
+
+    // Métodos privados auxiliares
+
+    private Tree current() {
+        Tree snapshot = tree;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (tree == null) {
+                    reload();
+                }
+                snapshot = tree;
+            }
+        }
+        return snapshot;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Nodo del árbol en memoria.
+     *
+     * @param id ID de la categoría
+     * @param name Nombre de la categoría
+     * @param parentId ID de la categoría padre, o null en las raíces
+     * @param path Ruta materializada
+     * @param depth Profundidad en el árbol
+     */
+    public record Node(Long id, String name, Long parentId, String path, int depth) {
+
+        CategoryDTO toDTO(List<CategoryDTO> children) {
+            return new CategoryDTO(id, name, parentId, depth, children);
+        }
+    }
+
+    /**
+     * Instantánea inmutable del árbol. Las categorías llegan en orden de ruta, así
+     * que cada padre se procesa antes que sus hijos.
+     */
+    private static final class Tree {
+
+        private final Map<Long, Node> byId = new HashMap<>();
+        private final Map<String, Node> byName = new HashMap<>();
+        private final List<CategoryDTO> roots;
+
+        Tree(List<Category> categories) {
+            Map<Long, List<Node>> children = new HashMap<>();
+            List<Node> rootNodes = new ArrayList<>();
+            for (Category category : categories) {
+                Node node = new Node(category.getId(), category.getName(), category.getParentId(),
+                        category.getPath(), category.getDepth());
+                byId.put(node.id(), node);
+                byName.put(key(node.name()), node);
+                if (node.parentId() == null) {
+                    rootNodes.add(node);
+                } else {
+                    children.computeIfAbsent(node.parentId(), parent -> new ArrayList<>()).add(node);
+                }
+            }
+            this.roots = toDTOs(rootNodes, children);
+        }
+
+        private static List<CategoryDTO> toDTOs(List<Node> nodes, Map<Long, List<Node>> children) {
+            List<CategoryDTO> dtos = new ArrayList<>(nodes.size());
+            for (Node node : nodes) {
+                dtos.add(node.toDTO(toDTOs(children.getOrDefault(node.id(), List.of()), children)));
+            }
+            dtos.sort((first, second) -> first.getName().compareToIgnoreCase(second.getName()));
+            return List.copyOf(dtos);
+        }
+    }
+}
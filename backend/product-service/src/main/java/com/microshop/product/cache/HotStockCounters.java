@@ -0,0 +1,611 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductStockDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.exception.InsufficientStockException;
+import com.microshop.product.exception.ProductNotFoundException;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.service.ProductChangeFeedService;
+import com.microshop.product.util.StripedStockCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Stock en memoria de los productos muy demandados (ventas relámpago), configurados
+ * en {@code product.stock.hot.product-ids}.
+ *
+ * Con miles de descuentos por segundo sobre un mismo producto, el UPDATE
+ * condicional de {@link com.microshop.product.service.ProductStockService} serializa
+ * todas las peticiones en el bloqueo de su fila. Para estos productos cada instancia
+ * vende desde un {@link StripedStockCounter}, repartido en una franja por núcleo,
+ * y solo va a la base de datos para:
+ * <ul>
+ *   <li>Reservar un bloque de unidades ({@code product.stock.hot.block-size}) cuando
+ *       el contador se queda sin ellas: se suman a {@code products.reserved_stock} y
+ *       a la fila de la instancia en {@code product_stock_reservations}. El resto de
+ *       instancias y el descuento en base de datos solo venden el stock no reservado,
+ *       así que nunca se vende la misma unidad dos veces. Cada producto tiene como
+ *       mucho una reserva en curso: los hilos que se quedan sin unidades esperan su
+ *       resultado sin bloquear el producto, y los que aún tienen unidades en el
+ *       contador siguen vendiendo mientras tanto.</li>
+ *   <li>Volcar las ventas cada {@code product.stock.hot.flush-interval-ms}, en una
+ *       transacción con sentencias por lotes: se descuentan de {@code stock} y de las
+ *       reservas, el producto recibe versión y número del feed de cambios y se publica
+ *       el cambio para caches e índices. El volcado renueva además la marca de vida
+ *       de las reservas de la instancia.</li>
+ * </ul>
+ *
+ * Las reservas forman el registro que permite recuperarse de una caída: las
+ * unidades de la fila de una instancia son las reservadas y aún no volcadas, sin
+ * distinguir las vendidas desde el último volcado de las que quedan en memoria.
+ * Si una instancia deja de volcar durante {@code product.stock.hot.stale-after-ms},
+ * otra da por vendidas todas esas unidades y las descuenta del stock: una caída
+ * nunca provoca sobreventa, y como mucho deja sin vender lo que la instancia caída
+ * tenía reservado en memoria. Si la instancia seguía viva, sus ventas pendientes
+ * ya están descontadas y no se vuelven a volcar. La tabla
+ * exige {@code stock >= reserved_stock}, de modo que una escritura absoluta del
+ * stock no puede dejar sin respaldo las unidades reservadas, y el volcado resta
+ * las ventas sin recortar el resultado: si aun así no hay stock para cubrirlas,
+ * el volcado falla y se registra como error en lugar de descartarlas. Para no
+ * seguir vendiendo reservas que otra instancia podría estar liberando, los
+ * contadores se suspenden cuando el último volcado correcto supera la mitad de
+ * ese plazo, y las ventas vuelven al descuento en base de datos.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class HotStockCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockCounters.class);
+
+    /**
+     * Bloques que puede reservar como mucho una petición antes de rechazar la venta.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String LOCK_PRODUCT =
+            "SELECT stock, reserved_stock, version FROM products WHERE id = ? FOR UPDATE";
+    private static final String RESERVE = "UPDATE products SET reserved_stock = reserved_stock + ? WHERE id = ?";
+    private static final String ADD_RESERVATION = "UPDATE product_stock_reservations SET units = units + ?, "
+            + "heartbeat_at = ? WHERE product_id = ? AND instance_id = ?";
+    private static final String INSERT_RESERVATION = "INSERT INTO product_stock_reservations "
+            + "(product_id, instance_id, units, heartbeat_at) VALUES (?, ?, ?, ?)";
+    private static final String CONSUME_RESERVATION = "UPDATE product_stock_reservations "
+            + "SET units = GREATEST(units - ?, 0), heartbeat_at = ? WHERE product_id = ? AND instance_id = ?";
+    private static final String SELL = "UPDATE products SET stock = stock - ?, reserved_stock = reserved_stock - ?, "
+            + "version = version + 1, change_seq = ? WHERE id = ?";
+    private static final String FIND_STALE = "SELECT product_id, instance_id FROM product_stock_reservations "
+            + "WHERE heartbeat_at < ? AND instance_id <> ? ORDER BY product_id";
+    private static final String LOCK_STALE = "SELECT units FROM product_stock_reservations "
+            + "WHERE product_id = ? AND instance_id = ? AND heartbeat_at < ? FOR UPDATE";
+    private static final String LOCK_OWN = "SELECT units FROM product_stock_reservations "
+            + "WHERE product_id = ? AND instance_id = ? FOR UPDATE";
+    private static final String FIND_STALE_UNITS = "SELECT count(*) FROM product_stock_reservations "
+            + "WHERE heartbeat_at < ? AND instance_id <> ?";
+    private static final String RELEASE =
+            "UPDATE products SET reserved_stock = GREATEST(reserved_stock - ?, 0) WHERE id = ?";
+    private static final String DELETE_RESERVATION =
+            "DELETE FROM product_stock_reservations WHERE product_id = ? AND instance_id = ?";
+
+    private final ProductRepository productRepository;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<Long, HotSku> skus;
+    private final int blockSize;
+    private final long staleAfterMs;
+    private final Counter reservations;
+    private final Counter suspended;
+
+    /**
+     * Serializa los volcados entre sí y con la liberación al detenerse; las ventas y
+     * las reservas de bloques no lo usan.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
+     * @param eventPublisher Publicador de eventos de cambio de productos
+     * @param jdbcTemplate JdbcTemplate para las reservas y los volcados
+     * @param transactionManager Gestor de transacciones de las reservas y los volcados
+     * @param meterRegistry Registro de métricas
+     * @param productIds IDs de los productos cuyo stock se vende desde memoria
+     * @param blockSize Unidades que se reservan cada vez que un contador se queda sin ellas
+     * @param staleAfterMs Tiempo sin volcados tras el que una reserva se considera abandonada
+     */
+    @Autowired
+    public HotStockCounters(ProductRepository productRepository, ProductChangeFeedService productChangeFeedService,
+                            ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${product.stock.hot.product-ids:}") List<Long> productIds,
+                            @Value("${product.stock.hot.block-size:100}") int blockSize,
+                            @Value("${product.stock.hot.stale-after-ms:30000}") long staleAfterMs) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque de las reservas debe ser positivo: " + blockSize);
+        }
+        if (staleAfterMs < 1) {
+            throw new IllegalArgumentException("La caducidad de las reservas debe ser positiva: " + staleAfterMs);
+        }
+        this.productRepository = productRepository;
+        this.productChangeFeedService = productChangeFeedService;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.blockSize = blockSize;
+        this.staleAfterMs = staleAfterMs;
+        Map<Long, HotSku> configured = new HashMap<>();
+        productIds.forEach(id -> configured.put(id, new HotSku(id)));
+        this.skus = Collections.unmodifiableMap(configured);
+        this.reservations = Counter.builder("product.stock.hot.reservations")
+                .description("Bloques de stock reservados para venderlos desde memoria")
+                .register(meterRegistry);
+        this.suspended = Counter.builder("product.stock.hot.suspended")
+                .description("Ventas de productos con stock en memoria desviadas a la base de datos por falta de volcados")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.hot.held", this, HotStockCounters::heldUnits)
+                .description("Unidades reservadas en memoria pendientes de vender")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el stock del producto se vende desde memoria.
+     *
+     * @param productId ID del producto
+     * @return true si el producto está configurado como muy demandado
+     */
+    public boolean isHot(Long productId) {
+        return skus.containsKey(productId);
+    }
+
+    /**
+     * Descuenta unidades del stock de un producto muy demandado desde memoria,
+     * reservando bloques en la base de datos cuando el contador se queda sin ellas.
+     * El stock devuelto incluye las ventas aún no volcadas; la versión es la del
+     * último volcado o reserva.
+     *
+     * @param productId ID del producto
+     * @param quantity Unidades a descontar
+     * @return Stock resultante, o vacío si el producto no se vende desde memoria o sus
+     *         contadores están suspendidos y la venta debe hacerse en la base de datos
+     * @throws ProductNotFoundException si el producto no existe
+     * @throws InsufficientStockException si no quedan unidades suficientes sin reservar
+     */
+    public Optional<ProductStockDTO> tryDecrement(Long productId, int quantity) {
+        HotSku sku = skus.get(productId);
+        if (sku == null || closed) {
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() - lastHeartbeat > staleAfterMs / 2) {
+            suspended.increment();
+            return Optional.empty();
+        }
+        int reserved = 0;
+        while (!sku.counter.tryTake(quantity)) {
+            Refill refill = reserved < MAX_ATTEMPTS ? reserve(sku, quantity) : Refill.EXHAUSTED;
+            if (refill == Refill.EXHAUSTED) {
+                throw new InsufficientStockException("Stock insuficiente para el producto con ID " + productId
+                        + ": disponibles " + (sku.counter.available() + Math.max(sku.unreserved, 0))
+                        + ", solicitadas " + quantity);
+            }
+            if (refill == Refill.RESERVED) {
+                reserved++;
+            }
+        }
+        return Optional.of(new ProductStockDTO(productId,
+                (int) Math.max(sku.stock - sku.counter.sold(), 0), sku.version));
+    }
+
+    /**
+     * Descarta el contador de los productos eliminados una vez confirmado el borrado.
+     * La reserva se borra en cascada con el producto.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        HotSku sku = skus.get(event.getProductId());
+        if (sku != null && event.getType() == ProductChangedEvent.Type.DELETED) {
+            discard(sku);
+        }
+    }
+
+    /**
+     * Tras un cambio masivo del catálogo, que puede haber eliminado productos sin
+     * publicar un evento por cada uno, descarta el contador de los que ya no existen.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (skus.isEmpty()) {
+            return;
+        }
+        List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM products WHERE id IN ("
+                + String.join(", ", Collections.nCopies(skus.size(), "?")) + ")", Long.class,
+                skus.keySet().toArray());
+        skus.forEach((productId, sku) -> {
+            if (!existing.contains(productId)) {
+                discard(sku);
+            }
+        });
+    }
+
+    /**
+     * Vuelca periódicamente las ventas hechas en memoria.
+     */
+    @Scheduled(initialDelayString = "${product.stock.hot.flush-interval-ms:1000}",
+               fixedDelayString = "${product.stock.hot.flush-interval-ms:1000}")
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    /**
+     * Da por vendidas periódicamente las reservas de las instancias que han dejado de volcar.
+     */
+    @Scheduled(initialDelayString = "${product.stock.hot.recovery-interval-ms:15000}",
+               fixedDelayString = "${product.stock.hot.recovery-interval-ms:15000}")
+    public void recover() {
+        try {
+            int released = releaseStale(System.currentTimeMillis() - staleAfterMs);
+            if (released > 0) {
+                log.warn("Descontadas del stock {} reservas de instancias sin volcados recientes", released);
+            }
+        } catch (RuntimeException ex) {
+            log.error("No se pudieron descontar las reservas de stock caducadas", ex);
+        }
+    }
+
+    /**
+     * Al detener la aplicación deja de vender desde memoria, vuelca las ventas y
+     * devuelve al stock disponible las unidades reservadas sin vender.
+     */
+    @PreDestroy
+    public void releaseOnShutdown() {
+        closed = true;
+        flushLock.lock();
+        try {
+            flush();
+            transaction.executeWithoutResult(status -> skus.values().forEach(sku -> {
+                List<Integer> units = jdbcTemplate.queryForList(LOCK_OWN, Integer.class, sku.productId, instanceId);
+                if (!units.isEmpty()) {
+                    jdbcTemplate.update(RELEASE, units.get(0), sku.productId);
+                    jdbcTemplate.update(DELETE_RESERVATION, sku.productId, instanceId);
+                }
+            }));
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron liberar las reservas de stock; caducarán en {} ms", staleAfterMs, ex);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Vuelca las ventas pendientes como si el instante actual fuera {@code now}.
+     * Las ventas de cada producto se toman con su monitor, el mismo con el que se
+     * publican los bloques reservados, y se escriben fuera de él: las ventas y las
+     * reservas nunca esperan a la base de datos por un volcado.
+     *
+     * @param now Instante del volcado, en ms desde epoch
+     */
+    void flush(long now) {
+        flushLock.lock();
+        try {
+            Map<HotSku, Long> sold = new TreeMap<>((a, b) -> Long.compare(a.productId, b.productId));
+            skus.values().forEach(sku -> {
+                synchronized (sku) {
+                    if (sku.reserved || sku.counter.sold() > 0) {
+                        sold.put(sku, sku.counter.drainSold());
+                    }
+                }
+            });
+            if (sold.isEmpty()) {
+                lastHeartbeat = now;
+                return;
+            }
+            List<ProductResponseDTO> changed;
+            try {
+                changed = transaction.execute(status -> write(sold, now));
+            } catch (DataIntegrityViolationException ex) {
+                sold.forEach((sku, units) -> sku.counter.restoreSold(units));
+                log.error("Las ventas en memoria de {} productos superan su stock o sus reservas: posible sobreventa; "
+                        + "se reintentará el volcado", sold.size(), ex);
+                return;
+            } catch (RuntimeException ex) {
+                sold.forEach((sku, units) -> sku.counter.restoreSold(units));
+                log.warn("No se pudieron volcar las ventas de {} productos con stock en memoria; se reintentará",
+                        sold.size(), ex);
+                return;
+            }
+            lastHeartbeat = now;
+            publishUpdated(changed);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Da por vendidas las reservas de otras instancias cuyo último volcado es
+     * anterior a {@code staleBefore}: sus unidades se descuentan del stock y de
+     * {@code reserved_stock}, porque parte de ellas puede estar vendida sin volcar.
+     *
+     * @param staleBefore Instante límite, en ms desde epoch
+     * @return Reservas descontadas
+     */
+    int releaseStale(long staleBefore) {
+        List<Long> writtenOff = new ArrayList<>();
+        transaction.executeWithoutResult(status -> {
+            int stale = jdbcTemplate.queryForObject(FIND_STALE_UNITS, Integer.class, staleBefore, instanceId);
+            if (stale == 0) {
+                return;
+            }
+            long[] seqs = productChangeFeedService.nextSequences(stale);
+            for (Map<String, Object> row : jdbcTemplate.queryForList(FIND_STALE, staleBefore, instanceId)) {
+                long productId = ((Number) row.get("product_id")).longValue();
+                String owner = (String) row.get("instance_id");
+                // La fila del producto se bloquea antes que la reserva, como en las reservas y los volcados
+                jdbcTemplate.queryForList(LOCK_PRODUCT, productId);
+                List<Integer> units = jdbcTemplate.queryForList(LOCK_STALE, Integer.class, productId, owner, staleBefore);
+                if (!units.isEmpty() && writtenOff.size() < stale) {
+                    jdbcTemplate.update(SELL, units.get(0), units.get(0), seqs[writtenOff.size()], productId);
+                    jdbcTemplate.update(DELETE_RESERVATION, productId, owner);
+                    writtenOff.add(productId);
+                }
+            }
+        });
+        if (!writtenOff.isEmpty()) {
+            publishUpdated(productRepository.findByIdIn(writtenOff.stream().distinct().toList()));
+        }
+        return writtenOff.size();
+    }
+
+    /**
+     * Identificador de esta instancia en las reservas.
+     *
+     * @return Identificador aleatorio, distinto en cada arranque
+     */
+    String instanceId() {
+        return instanceId;
+    }
+
+    // Métodos privados auxiliares
+
+    private void publishUpdated(List<ProductResponseDTO> changed) {
+        changed.forEach(product -> eventPublisher.publishEvent(
+                ProductChangedEvent.updated(product, product.getCategory())));
+    }
+
+    /**
+     * Descarta las unidades y las ventas pendientes del contador de un producto
+     * eliminado, junto con los bloques que se estén reservando. La reserva se
+     * borra en cascada con el producto.
+     */
+    private static void discard(HotSku sku) {
+        synchronized (sku) {
+            sku.generation++;
+            sku.counter.drainAvailable();
+            sku.counter.drainSold();
+            sku.reserved = false;
+        }
+    }
+
+    /**
+     * Resultado de reponer el contador de un producto.
+     */
+    private enum Refill {
+        /** Este hilo reservó un bloque nuevo. */
+        RESERVED,
+        /** Otro hilo repuso el contador, o ya tenía unidades suficientes. */
+        REFILLED,
+        /** No queda stock sin reservar. */
+        EXHAUSTED
+    }
+
+    /**
+     * Repone el contador del producto con un bloque de al menos {@code quantity}
+     * unidades. Si otro hilo ya está reservando, espera a su resultado en lugar de
+     * reservar otro bloque. La reserva se hace sin retener el monitor del producto;
+     * el bloque se publica en el contador de una vez al confirmarse, salvo que el
+     * producto se haya eliminado entretanto.
+     */
+    private Refill reserve(HotSku sku, int quantity) {
+        if (sku.counter.available() >= quantity) {
+            return Refill.REFILLED;
+        }
+        CompletableFuture<Integer> refill = new CompletableFuture<>();
+        CompletableFuture<Integer> running = sku.refill.compareAndExchange(null, refill);
+        if (running != null) {
+            return await(running) > 0 ? Refill.REFILLED : Refill.EXHAUSTED;
+        }
+        long generation = sku.generation;
+        int granted;
+        try {
+            granted = transaction.execute(status -> reserveBlock(sku, Math.max(blockSize, quantity)));
+        } catch (RuntimeException ex) {
+            sku.refill.set(null);
+            refill.completeExceptionally(ex);
+            throw ex;
+        }
+        if (granted > 0) {
+            synchronized (sku) {
+                if (sku.generation == generation) {
+                    sku.counter.add(granted);
+                }
+            }
+            reservations.increment();
+        }
+        sku.refill.set(null);
+        refill.complete(granted);
+        return granted > 0 ? Refill.RESERVED : Refill.EXHAUSTED;
+    }
+
+    /**
+     * Espera a la reserva en curso de otro hilo y devuelve las unidades concedidas,
+     * o relanza su error.
+     */
+    private static int await(CompletableFuture<Integer> refill) {
+        try {
+            return refill.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Reserva hasta {@code wanted} unidades no reservadas del producto; debe
+     * ejecutarse dentro de una transacción.
+     *
+     * @return Unidades reservadas
+     */
+    private int reserveBlock(HotSku sku, int wanted) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(LOCK_PRODUCT, sku.productId);
+        if (rows.isEmpty()) {
+            throw new ProductNotFoundException("Producto no encontrado con ID: " + sku.productId);
+        }
+        int stock = ((Number) rows.get(0).get("stock")).intValue();
+        int unreserved = stock - ((Number) rows.get(0).get("reserved_stock")).intValue();
+        int granted = Math.max(Math.min(wanted, unreserved), 0);
+        sku.stock = stock;
+        sku.unreserved = unreserved - granted;
+        sku.version = ((Number) rows.get(0).get("version")).longValue();
+        if (granted > 0) {
+            long now = System.currentTimeMillis();
+            jdbcTemplate.update(RESERVE, granted, sku.productId);
+            if (jdbcTemplate.update(ADD_RESERVATION, granted, now, sku.productId, instanceId) == 0) {
+                jdbcTemplate.update(INSERT_RESERVATION, sku.productId, instanceId, granted, now);
+            }
+            sku.reserved = true;
+        }
+        return granted;
+    }
+
+    /**
+     * Escribe las ventas y renueva las reservas; debe ejecutarse dentro de una
+     * transacción. Toma los números del feed y bloquea las filas de los productos
+     * en orden de ID, antes que sus reservas, como el resto de escrituras.
+     *
+     * @return Productos modificados, para publicar sus cambios
+     */
+    private List<ProductResponseDTO> write(Map<HotSku, Long> sold, long now) {
+        List<HotSku> selling = sold.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        long[] seqs = selling.isEmpty() ? new long[0] : productChangeFeedService.nextSequences(selling.size());
+
+        Map<Long, Map<String, Object>> locked = new HashMap<>();
+        for (HotSku sku : sold.keySet()) {
+            jdbcTemplate.queryForList(LOCK_PRODUCT, sku.productId).forEach(row -> locked.put(sku.productId, row));
+        }
+        List<HotSku> held = new ArrayList<>(sold.keySet());
+        int[] renewed = jdbcTemplate.batchUpdate(CONSUME_RESERVATION, held.stream()
+                .map(sku -> new Object[] {sold.get(sku), now, sku.productId, instanceId})
+                .toList());
+        List<HotSku> writtenOff = new ArrayList<>();
+        for (int i = 0; i < renewed.length; i++) {
+            HotSku sku = held.get(i);
+            if (renewed[i] == 0 || !locked.containsKey(sku.productId)) {
+                // Producto eliminado o reserva dada por vendida por otra instancia: sus unidades ya no son
+                // nuestras, y las vendidas ya se descontaron con ella
+                synchronized (sku) {
+                    sku.counter.drainAvailable();
+                    sku.reserved = false;
+                }
+                writtenOff.add(sku);
+            }
+        }
+
+        List<Object[]> sales = new ArrayList<>(selling.size());
+        for (HotSku sku : selling) {
+            Map<String, Object> row = locked.get(sku.productId);
+            if (row == null || writtenOff.contains(sku)) {
+                continue;
+            }
+            long units = sold.get(sku);
+            sales.add(new Object[] {units, units, seqs[sales.size()], sku.productId});
+            sku.stock = (int) (((Number) row.get("stock")).intValue() - units);
+            sku.version = ((Number) row.get("version")).longValue() + 1;
+        }
+        if (sales.isEmpty()) {
+            return List.of();
+        }
+        jdbcTemplate.batchUpdate(SELL, sales);
+        return productRepository.findByIdIn(sales.stream().map(sale -> (Long) sale[3])
+                .collect(Collectors.toList()));
+    }
+
+    private double heldUnits() {
+        return skus.values().stream().mapToLong(sku -> sku.counter.available()).sum();
+    }
+
+    /**
+     * Estado en memoria de un producto muy demandado. Los valores de la fila son
+     * los leídos en la última reserva o volcado.
+     */
+    private static final class HotSku {
+
+        private final long productId;
+        private final StripedStockCounter counter = new StripedStockCounter();
+
+        /**
+         * Reserva en curso, o null si no hay ninguna.
+         */
+        private final AtomicReference<CompletableFuture<Integer>> refill = new AtomicReference<>();
+
+        /**
+         * Se incrementa al eliminar el producto, para descartar los bloques reservados
+         * antes. Se modifica y se compara con el monitor del producto.
+         */
+        private volatile long generation;
+        private volatile int stock;
+        private volatile int unreserved;
+        private volatile long version;
+        private volatile boolean reserved;
+
+        private HotSku(long productId) {
+            this.productId = productId;
+        }
+    }
+}
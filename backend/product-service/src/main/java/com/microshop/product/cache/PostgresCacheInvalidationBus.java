@@ -0,0 +1,248 @@
+package com.microshop.product.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Bus de invalidación de cache entre instancias basado en LISTEN/NOTIFY de PostgreSQL.
+ *
+ * Cada cambio local de un producto se notifica con {@code pg_notify} dentro de la
+ * misma transacción de la escritura: PostgreSQL solo entrega la notificación cuando
+ * la transacción confirma, y la descarta si se deshace. Cada instancia mantiene un
+ * hilo con una conexión dedicada en LISTEN que republica los cambios de las demás
+ * instancias como {@link ProductChangedEvent} remotos, de modo que la cache local
+ * se invalida por el mismo camino que con los cambios propios.
+ *
+ * Se desactiva con {@code product.cache.invalidation.enabled=false} (por ejemplo
+ * en tests con H2, que no soporta LISTEN/NOTIFY).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "product.cache.invalidation.enabled", havingValue = "true")
+public class PostgresCacheInvalidationBus implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate JdbcTemplate sobre el DataSource del servicio
+     * @param dataSourceProperties Propiedades de conexión para abrir la conexión de escucha
+     * @param eventPublisher Publicador de los eventos remotos recibidos
+     * @param productCache Cache local de productos
+     * @param objectMapper ObjectMapper para codificar los mensajes
+     * @param channel Canal de notificación de PostgreSQL
+     * @param pollTimeoutMs Tiempo máximo de espera de notificaciones por iteración
+     * @param reconnectDelayMs Espera antes de reintentar tras perder la conexión
+     */
+    @Autowired
+    public PostgresCacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                        DataSourceProperties dataSourceProperties,
+                                        ApplicationEventPublisher eventPublisher,
+                                        ProductCache productCache,
+                                        ObjectMapper objectMapper,
+                                        @Value("${product.cache.invalidation.channel:product_cache_invalidation}") String channel,
+                                        @Value("${product.cache.invalidation.poll-timeout-ms:500}") int pollTimeoutMs,
+                                        @Value("${product.cache.invalidation.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Nombre de canal de invalidación inválido: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.productCache = productCache;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    /**
+     * Notifica un cambio local al resto de instancias. Se ejecuta antes del commit,
+     * dentro de la transacción de la escritura, para que PostgreSQL entregue la
+     * notificación exactamente cuando el cambio sea visible.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void publish(ProductChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        notify(new InvalidationMessage(instanceId, event.getType(), event.getProductId(),
+                event.getPreviousCategory(), event.getCurrentCategory(), false));
+    }
+
+    /**
+     * Notifica un cambio masivo local del catálogo al resto de instancias, igual
+     * que {@link #publish(ProductChangedEvent)}.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void publishCatalog(CatalogChangedEvent event) {
+        if (!event.isRemote()) {
+            notify(new InvalidationMessage(instanceId, null, null, null, null, true));
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "product-cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            try {
+                listenerThread.join(pollTimeoutMs * 2L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Bucle del hilo de escucha. Ante cualquier fallo de conexión reintenta tras una
+     * espera; al (re)conectar vacía la cache local, porque las notificaciones emitidas
+     * mientras no había conexión se han perdido.
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                productCache.clear();
+                log.info("Escuchando invalidaciones de cache en el canal {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        dispatch(notifications);
+                    }
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Conexión de invalidación de cache perdida, reintentando en {} ms: {}",
+                            reconnectDelayMs, ex.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica las notificaciones recibidas una a una. Un fallo al aplicar una (un
+     * listener que lanza una excepción) se registra y no impide aplicar las
+     * siguientes ni termina el hilo de escucha.
+     */
+    void dispatch(PGNotification[] notifications) {
+        for (PGNotification notification : notifications) {
+            try {
+                handle(notification.getParameter());
+            } catch (RuntimeException ex) {
+                log.error("No se pudo aplicar la notificación de invalidación {}", notification.getParameter(), ex);
+            }
+        }
+    }
+
+    private void notify(InvalidationMessage message) {
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { },
+                    channel, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo codificar la invalidación del producto "
+                    + message.productId(), ex);
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            InvalidationMessage message = objectMapper.readValue(payload, InvalidationMessage.class);
+            if (instanceId.equals(message.origin())) {
+                return;
+            }
+            if (message.catalog()) {
+                eventPublisher.publishEvent(CatalogChangedEvent.remote());
+                return;
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.remote(message.type(), message.productId(),
+                    message.previousCategory(), message.currentCategory()));
+        } catch (JsonProcessingException ex) {
+            log.warn("Notificación de invalidación ignorada por formato inválido: {}", payload);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mensaje enviado como payload de la notificación; {@code catalog} indica un
+     * cambio masivo del catálogo, sin producto concreto.
+     */
+    record InvalidationMessage(String origin, ProductChangedEvent.Type type, Long productId,
+                               String previousCategory, String currentCategory, boolean catalog) {
+    }
+}
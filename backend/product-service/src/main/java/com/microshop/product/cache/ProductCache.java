@@ -0,0 +1,229 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.dto.ProductPageDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.util.KeysetCursor;
+import com.microshop.product.util.ProductSort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache de lectura (read-through) delante de las consultas de productos por ID
+ * y por categoría. Los límites de tamaño y TTL y el registro de estadísticas se
+ * configuran en {@code spring.cache.caffeine.spec}; las métricas de hits, misses
+ * y evictions se publican en Actuator ({@code /actuator/metrics/cache.gets}).
+ *
+ * Las entradas se invalidan de forma precisa tras cada escritura confirmada:
+ * la del producto afectado y las páginas de su categoría anterior y actual.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductCache {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+
+    private final Cache products;
+    private final Cache productsByCategory;
+
+    /**
+     * Se incrementa con cada invalidación. Una lectura solo se guarda en cache si
+     * no hubo invalidaciones mientras se cargaba, para no reintroducir datos que
+     * una escritura concurrente acaba de dejar obsoletos.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param cacheManager Gestor de caches configurado por Spring Boot
+     */
+    @Autowired
+    public ProductCache(CacheManager cacheManager) {
+        this.products = Objects.requireNonNull(cacheManager.getCache(PRODUCTS),
+                "Cache no configurada: " + PRODUCTS);
+        this.productsByCategory = Objects.requireNonNull(cacheManager.getCache(PRODUCTS_BY_CATEGORY),
+                "Cache no configurada: " + PRODUCTS_BY_CATEGORY);
+    }
+
+    /**
+     * Obtiene un producto de la cache o lo carga con el loader indicado.
+     *
+     * @param id ID del producto
+     * @param loader Carga el producto desde la base de datos en caso de fallo de cache
+     * @return Producto
+     */
+    public ProductResponseDTO getProduct(Long id, Supplier<ProductResponseDTO> loader) {
+        return getOrLoad(products, id, ProductResponseDTO.class, loader);
+    }
+
+    /**
+     * Obtiene varios productos, sirviendo los presentes en cache y cargando el resto
+     * con una única llamada al loader.
+     *
+     * @param ids IDs de los productos
+     * @param loader Carga los productos ausentes de la cache, indexados por ID
+     * @return Productos existentes indexados por ID (los inexistentes no aparecen)
+     */
+    public Map<Long, ProductResponseDTO> getProducts(Collection<Long> ids,
+                                                     Function<Collection<Long>, Map<Long, ProductResponseDTO>> loader) {
+        Map<Long, ProductResponseDTO> result = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ProductResponseDTO cached = products.get(id, ProductResponseDTO.class);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long generation = invalidations.get();
+        Map<Long, ProductResponseDTO> loaded = loader.apply(missing);
+        if (generation == invalidations.get()) {
+            loaded.forEach(products::putIfAbsent);
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Obtiene una página de productos de una categoría de la cache o la carga con el loader indicado.
+     *
+     * @param category Categoría consultada
+     * @param minPrice Precio mínimo filtrado, o null
+     * @param maxPrice Precio máximo filtrado, o null
+     * @param sort Criterio de ordenación
+     * @param cursor Cursor de la página, o null para la primera
+     * @param limit Tamaño de página
+     * @param loader Carga la página desde la base de datos en caso de fallo de cache
+     * @return Página de productos
+     */
+    public ProductPageDTO getCategoryPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                          ProductSort sort, KeysetCursor cursor, int limit,
+                                          Supplier<ProductPageDTO> loader) {
+        CategoryPageKey key = new CategoryPageKey(normalizeCategory(category), minPrice, maxPrice, sort,
+                cursor == null ? null : cursor.encode(), limit);
+        return getOrLoad(productsByCategory, key, ProductPageDTO.class, loader);
+    }
+
+    /**
+     * Invalida las entradas afectadas por un cambio confirmado en un producto.
+     * Se ejecuta tras el commit para que ninguna lectura posterior vea datos anteriores;
+     * sin transacción activa se ejecuta inmediatamente.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductId(), event.getPreviousCategory(), event.getCurrentCategory());
+    }
+
+    /**
+     * Vacía las caches tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        clear();
+    }
+
+    /**
+     * Elimina de la cache el producto y las páginas de las categorías indicadas.
+     *
+     * @param productId ID del producto
+     * @param categories Categorías cuyas páginas deben invalidarse (se ignoran los null)
+     */
+    public void evict(Long productId, String... categories) {
+        invalidations.incrementAndGet();
+        if (productId != null) {
+            products.evict(productId);
+        }
+        for (String category : categories) {
+            if (category != null) {
+                evictCategory(category);
+            }
+        }
+    }
+
+    /**
+     * Vacía por completo las caches de productos.
+     */
+    public void clear() {
+        invalidations.incrementAndGet();
+        products.clear();
+        productsByCategory.clear();
+    }
+
+    // Métodos privados auxiliares
+
+    private <K, V> V getOrLoad(Cache cache, K key, Class<V> type, Supplier<V> loader) {
+        V cached = cache.get(key, type);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        V loaded = loader.get();
+        if (loaded != null && generation == invalidations.get()) {
+            cache.putIfAbsent(key, loaded);
+        }
+        return loaded;
+    }
+
+    private void evictCategory(String category) {
+        String normalized = normalizeCategory(category);
+        Map<?, ?> entries = nativeMap(productsByCategory);
+        if (entries != null) {
+            entries.keySet().removeIf(key -> key instanceof CategoryPageKey pageKey
+                    && pageKey.category().equals(normalized));
+        } else {
+            productsByCategory.clear();
+        }
+    }
+
+    private static Map<?, ?> nativeMap(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            return caffeineCache.asMap();
+        }
+        if (nativeCache instanceof Map<?, ?> map) {
+            return map;
+        }
+        return null;
+    }
+
+    private static String normalizeCategory(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Clave de una página de productos de una categoría.
+     */
+    private record CategoryPageKey(String category, BigDecimal minPrice, BigDecimal maxPrice, ProductSort sort,
+                                   String cursor, int limit) {
+    }
+}
@@ -0,0 +1,520 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.model.Product;
+import com.microshop.product.model.ProductIdAllocation;
+import com.microshop.product.repository.ProductIdAllocationRepository;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.service.ProductChangeFeedService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de pertenencia de IDs de producto: un bitmap en memoria con un bit por
+ * ID que permite responder sin consultar la base de datos a las búsquedas de IDs
+ * que con seguridad no existen (enlaces antiguos, scrapers).
+ *
+ * Como cada instancia reserva los IDs por bloques de la secuencia, otra instancia
+ * puede crear un producto con un ID inferior al máximo existente. Por eso cada
+ * instancia publica en {@code product_id_allocations} su suelo, el ID mínimo que
+ * aún puede asignar, y el bitmap solo cubre los IDs por debajo del menor suelo de
+ * las instancias vivas leído en la última sincronización: todo producto con un ID
+ * menor ya estaba confirmado entonces y figura en el bitmap, así que el filtro
+ * nunca descarta un producto existente. Los IDs a partir de ese suelo se consultan
+ * siempre en la base de datos. Las transacciones que asignan IDs retienen el suelo
+ * de la instancia hasta que terminan ({@link #holdFloorUntilCompletion()}), y una
+ * instancia que deja de renovar su suelo durante
+ * {@code product.id-filter.allocation-ttl-ms} deja de contar. El suelo solo se
+ * escribe cuando cambia o cuando han pasado la mitad de ese tiempo desde la
+ * última renovación, de modo que una instancia sin altas no escribe en cada
+ * sincronización.
+ *
+ * Las altas locales marcan su bit en cuanto se asigna el ID (antes del commit) y
+ * las bajas lo desmarcan tras el commit. Las altas de otras instancias se marcan
+ * al recibir la notificación del bus de invalidación y, en cualquier caso, al leer
+ * el feed de cambios en cada sincronización
+ * ({@code product.id-filter.catch-up-interval-ms}), antes de subir el suelo. Los
+ * falsos positivos (altas deshechas, bajas en otra instancia aún no notificadas)
+ * solo cuestan una consulta y se publican como métricas.
+ *
+ * Se reconstruye al arrancar y periódicamente ({@code product.id-filter.rebuild-interval-ms}).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductIdFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIdFilter.class);
+
+    /**
+     * Cambios leídos del feed por consulta al sincronizar.
+     */
+    private static final int CATCH_UP_PAGE_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ProductIdAllocationRepository productIdAllocationRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final long allocationTtlMs;
+    private final Counter rejected;
+    private final Counter passed;
+    private final Counter falsePositives;
+
+    private volatile AtomicLongArray words = new AtomicLongArray(0);
+
+    /**
+     * ID máximo cubierto por el filtro: uno menos que el menor suelo de las
+     * instancias vivas en la última sincronización; -1 mientras no se haya construido.
+     */
+    private volatile long coveredUpTo = -1;
+
+    /**
+     * Suelo de la instancia antes de asignar ningún ID: el ID máximo del catálogo
+     * al arrancar más uno, o 0 si no se pudo leer.
+     */
+    private volatile long startFloor;
+
+    /**
+     * Último ID asignado por Hibernate en esta instancia; -1 si aún no ha asignado ninguno.
+     */
+    private final AtomicLong lastAssignedId = new AtomicLong(-1);
+
+    /**
+     * Suelos retenidos por las transacciones en curso que asignan IDs.
+     */
+    private final Map<Object, Long> heldFloors = new ConcurrentHashMap<>();
+
+    /**
+     * Serializa las sincronizaciones, que fijan el suelo cubierto con lo último leído.
+     */
+    private final Object syncLock = new Object();
+
+    /**
+     * Último suelo publicado por la instancia, -1 mientras no se haya publicado, e
+     * instante de la publicación. Protegidos por {@link #syncLock}.
+     */
+    private long publishedFloor = -1;
+    private long publishedAt;
+
+    /**
+     * Indica que el contexto se está cerrando: las sincronizaciones programadas ya
+     * no acceden a la base de datos, cuyo esquema puede estar eliminándose.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Número de secuencia del feed de cambios hasta el que se han marcado las altas;
+     * -1 mientras no se haya construido.
+     */
+    private volatile long syncedSeq = -1;
+
+    /**
+     * Cambios recibidos durante una reconstrucción, que se aplican al nuevo bitmap
+     * antes de publicarlo. Protegido por el monitor de la instancia.
+     */
+    private List<ProductChangedEvent> pendingChanges;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param productChangeFeedService Servicio del feed de cambios, para leer su horizonte
+     * @param productIdAllocationRepository Repositorio de los suelos de IDs de las instancias
+     * @param transactionManager Gestor de transacciones para leer los IDs en streaming
+     * @param meterRegistry Registro de métricas
+     * @param enabled Si es false el filtro deja pasar todos los IDs
+     * @param allocationTtlMs Tiempo sin renovar tras el que el suelo de una instancia deja de contar
+     */
+    @Autowired
+    public ProductIdFilter(ProductRepository productRepository,
+                           ProductChangeFeedService productChangeFeedService,
+                           ProductIdAllocationRepository productIdAllocationRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${product.id-filter.enabled:true}") boolean enabled,
+                           @Value("${product.id-filter.allocation-ttl-ms:600000}") long allocationTtlMs) {
+        if (allocationTtlMs < 1) {
+            throw new IllegalArgumentException("La caducidad de los suelos de IDs debe ser positiva: "
+                    + allocationTtlMs);
+        }
+        this.productRepository = productRepository;
+        this.productChangeFeedService = productChangeFeedService;
+        this.productIdAllocationRepository = productIdAllocationRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.allocationTtlMs = allocationTtlMs;
+        this.rejected = Counter.builder("product.id_filter.rejected")
+                .description("Búsquedas por ID descartadas sin consultar la base de datos")
+                .register(meterRegistry);
+        this.passed = Counter.builder("product.id_filter.passed")
+                .description("Búsquedas por ID que el filtro dejó pasar a la base de datos")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("product.id_filter.false_positives")
+                .description("IDs que el filtro dejó pasar y no existían")
+                .register(meterRegistry);
+        Gauge.builder("product.id_filter.false_positive.ratio", this, ProductIdFilter::falsePositiveRatio)
+                .description("Proporción de falsos positivos entre las búsquedas que pasaron el filtro")
+                .register(meterRegistry);
+        Gauge.builder("product.id_filter.memory", this, filter -> filter.words.length() * (double) Long.BYTES)
+                .description("Memoria ocupada por el bitmap de IDs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si un producto puede existir. Un resultado false es definitivo.
+     *
+     * @param id ID del producto
+     * @return false solo si el producto con seguridad no existe
+     */
+    public boolean mightContain(Long id) {
+        if (!enabled || id == null || id < 0 || id > coveredUpTo) {
+            return true;
+        }
+        boolean present = isSet(words, id);
+        (present ? passed : rejected).increment();
+        return present;
+    }
+
+    /**
+     * Registra que un ID que pasó el filtro no existía en la base de datos.
+     * Solo cuenta como falso positivo si el ID estaba dentro del rango cubierto.
+     *
+     * @param id ID buscado
+     */
+    public void recordFalsePositive(Long id) {
+        if (enabled && id != null && id >= 0 && id <= coveredUpTo) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Retiene el suelo actual de la instancia hasta que termine la transacción en
+     * curso. Deben llamarlo, antes de asignar ningún ID, las transacciones que crean
+     * productos: así el suelo publicado no supera un ID asignado y aún sin confirmar
+     * aunque entretanto otra transacción pase a un bloque posterior. Sin transacción
+     * activa no hace nada.
+     */
+    public void holdFloorUntilCompletion() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Object hold = new Object();
+        heldFloors.put(hold, floor());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                heldFloors.remove(hold);
+            }
+        });
+    }
+
+    /**
+     * Marca el ID de un producto recién creado en cuanto se publica el evento,
+     * dentro de la transacción de alta, para que ninguna lectura posterior al
+     * commit lo descarte. Las altas locales avanzan además el suelo de la instancia.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @EventListener
+    public void onProductCreated(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.CREATED) {
+            apply(event);
+            if (!event.isRemote() && event.getProductId() != null) {
+                lastAssignedId.accumulateAndGet(event.getProductId(), Math::max);
+            }
+        }
+    }
+
+    /**
+     * Desmarca el ID de un producto eliminado una vez confirmada la baja.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductDeleted(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            apply(event);
+        }
+    }
+
+    /**
+     * Publica el suelo inicial de la instancia antes de que pueda asignar ningún ID:
+     * los bloques que reserve después de leer el ID máximo quedan por encima.
+     */
+    @PostConstruct
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            startFloor = productRepository.findMaxId() + 1;
+            heartbeat(System.currentTimeMillis());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo registrar el suelo de IDs de la instancia; se reintentará al sincronizar", ex);
+        }
+    }
+
+    /**
+     * Detiene las sincronizaciones al cerrarse el contexto, antes de que se
+     * destruyan los beans. Espera a que termine la sincronización en curso.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        synchronized (syncLock) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Reconstruye el filtro al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el filtro periódicamente para descartar falsos positivos acumulados
+     * y cubrir los IDs creados desde la última reconstrucción.
+     */
+    @Scheduled(initialDelayString = "${product.id-filter.rebuild-interval-ms:3600000}",
+               fixedDelayString = "${product.id-filter.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Renueva periódicamente el suelo de la instancia, marca los productos creados
+     * o modificados en cualquier instancia desde la última sincronización,
+     * leyéndolos del feed de cambios, y sube el suelo cubierto.
+     */
+    @Scheduled(initialDelayString = "${product.id-filter.catch-up-interval-ms:5000}",
+               fixedDelayString = "${product.id-filter.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (closed) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            heartbeat(now);
+            long since = syncedSeq;
+            if (since < 0) {
+                return;
+            }
+            long[] synced = readOnlyTransaction.execute(status -> {
+                // El suelo se lee antes que el feed: los IDs menores ya estaban confirmados
+                long floor = productIdAllocationRepository.findMinFloor(now - allocationTtlMs).orElse(0L);
+                long upTo = productChangeFeedService.horizon();
+                long from = since;
+                List<ProductChangeDTO> changes;
+                do {
+                    changes = productRepository.findChanges(from, upTo, Limit.of(CATCH_UP_PAGE_SIZE));
+                    for (ProductChangeDTO change : changes) {
+                        apply(ProductChangedEvent.remote(ProductChangedEvent.Type.CREATED, change.getProductId(),
+                                null, null));
+                        from = change.getSeq();
+                    }
+                } while (changes.size() == CATCH_UP_PAGE_SIZE);
+                return new long[] {upTo, floor};
+            });
+            synchronized (this) {
+                syncedSeq = Math.max(syncedSeq, synced[0]);
+                coveredUpTo = synced[1] - 1;
+            }
+        }
+    }
+
+    /**
+     * Lee todos los IDs del catálogo y sustituye el bitmap actual.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (closed) {
+                return;
+            }
+            synchronized (this) {
+                pendingChanges = new ArrayList<>();
+            }
+            try {
+                long start = System.nanoTime();
+                long now = System.currentTimeMillis();
+                heartbeat(now);
+                long[] seq = new long[2];
+                long[] built = readOnlyTransaction.execute(status -> {
+                    // El suelo se lee primero: todo ID menor estaba confirmado y aparece en la lectura de IDs
+                    seq[1] = productIdAllocationRepository.findMinFloor(now - allocationTtlMs).orElse(0L);
+                    // Todo cambio hasta el horizonte está confirmado y aparece en la lectura de IDs
+                    seq[0] = productChangeFeedService.horizon();
+                    try (Stream<Long> ids = productRepository.streamAllIds()) {
+                        return load(ids.iterator());
+                    }
+                });
+                AtomicLongArray rebuilt = new AtomicLongArray(built.length - 1);
+                for (int i = 0; i < rebuilt.length(); i++) {
+                    rebuilt.set(i, built[i]);
+                }
+                synchronized (this) {
+                    for (ProductChangedEvent change : pendingChanges) {
+                        rebuilt = applyTo(rebuilt, change);
+                    }
+                    words = rebuilt;
+                    coveredUpTo = seq[1] - 1;
+                    syncedSeq = seq[0];
+                }
+                log.info("Filtro de IDs de producto reconstruido hasta el ID {} ({} bytes) en {} ms",
+                        seq[1] - 1, rebuilt.length() * Long.BYTES, (System.nanoTime() - start) / 1_000_000);
+            } finally {
+                synchronized (this) {
+                    pendingChanges = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Suelo actual de la instancia: ningún ID que asigne a partir de ahora será
+     * menor. El bloque del último ID asignado empieza como mucho
+     * {@link Product#ID_ALLOCATION_SIZE} - 1 IDs antes, y los bloques siguientes
+     * quedan por encima; las transacciones en curso pueden retenerlo más abajo.
+     *
+     * @return Suelo de IDs de la instancia
+     */
+    long floor() {
+        long assigned = lastAssignedId.get();
+        long floor = assigned < 0 ? startFloor : assigned - (Product.ID_ALLOCATION_SIZE - 1);
+        for (long held : heldFloors.values()) {
+            floor = Math.min(floor, held);
+        }
+        return Math.max(floor, 0);
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Publica el suelo de la instancia, si ha cambiado o hay que renovarlo antes de
+     * que caduque, y elimina los de las instancias caducadas.
+     */
+    private void heartbeat(long now) {
+        synchronized (syncLock) {
+            long floor = floor();
+            if (floor == publishedFloor && now - publishedAt < allocationTtlMs / 2) {
+                return;
+            }
+            transaction.executeWithoutResult(status -> {
+                productIdAllocationRepository.save(new ProductIdAllocation(instanceId, floor, now));
+                productIdAllocationRepository.deleteExpired(now - allocationTtlMs);
+            });
+            publishedFloor = floor;
+            publishedAt = now;
+        }
+    }
+
+    /**
+     * Construye las palabras del bitmap a partir de los IDs; el último elemento
+     * del array devuelto es el ID máximo leído.
+     */
+    private static long[] load(Iterator<Long> ids) {
+        long[] bits = new long[1024];
+        long maxId = 0;
+        while (ids.hasNext()) {
+            long id = ids.next();
+            int word = (int) (id >>> 6);
+            if (word >= bits.length) {
+                long[] grown = new long[Math.max(bits.length * 2, word + 1)];
+                System.arraycopy(bits, 0, grown, 0, bits.length);
+                bits = grown;
+            }
+            bits[word] |= 1L << id;
+            maxId = Math.max(maxId, id);
+        }
+        int used = (int) (maxId >>> 6) + 1;
+        long[] result = new long[used + 1];
+        System.arraycopy(bits, 0, result, 0, used);
+        result[used] = maxId;
+        return result;
+    }
+
+    private synchronized void apply(ProductChangedEvent change) {
+        if (!enabled || change.getProductId() == null) {
+            return;
+        }
+        words = applyTo(words, change);
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    private static AtomicLongArray applyTo(AtomicLongArray target, ProductChangedEvent change) {
+        long id = change.getProductId();
+        int word = (int) (id >>> 6);
+        long mask = 1L << id;
+        if (change.getType() == ProductChangedEvent.Type.DELETED) {
+            if (word < target.length()) {
+                target.getAndUpdate(word, bits -> bits & ~mask);
+            }
+            return target;
+        }
+        AtomicLongArray result = target;
+        if (word >= target.length()) {
+            // Los lectores siguen usando el array anterior hasta que se publica el nuevo
+            result = new AtomicLongArray(Math.max(word + 1, target.length() + target.length() / 2));
+            for (int i = 0; i < target.length(); i++) {
+                result.set(i, target.get(i));
+            }
+        }
+        result.getAndUpdate(word, bits -> bits | mask);
+        return result;
+    }
+
+    private static boolean isSet(AtomicLongArray bits, long id) {
+        int word = (int) (id >>> 6);
+        return word < bits.length() && (bits.get(word) & (1L << id)) != 0;
+    }
+
+    private double falsePositiveRatio() {
+        double total = passed.count();
+        return total == 0 ? 0 : falsePositives.count() / total;
+    }
+}
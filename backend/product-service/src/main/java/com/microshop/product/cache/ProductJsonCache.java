@@ -0,0 +1,179 @@
+package com.microshop.product.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microshop.product.dto.ProductBatchItemDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cache de respuestas JSON ya serializadas (UTF-8) de cada producto.
+ * Evita ejecutar Jackson, incluido el formateo de precios y fechas, en cada
+ * petición del catálogo: los listados se construyen concatenando fragmentos.
+ *
+ * Cada fragmento guarda el estado del producto a partir del cual se serializó y
+ * solo se reutiliza si coincide con el estado actual, por lo que nunca se sirve
+ * un JSON distinto del que produciría Jackson. Además se eliminan tras cada
+ * cambio confirmado para liberar memoria.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductJsonCache {
+
+    public static final String PRODUCT_JSON = "productJson";
+
+    private static final byte[] TRUE = ",\"found\":true,\"product\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = ",\"found\":false,\"product\":null}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ID = "{\"id\":".getBytes(StandardCharsets.UTF_8);
+
+    private final Cache fragments;
+    private final ObjectWriter writer;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param cacheManager Gestor de caches configurado por Spring Boot
+     * @param objectMapper ObjectMapper configurado por Spring, el mismo que usan las respuestas JSON
+     */
+    @Autowired
+    public ProductJsonCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.fragments = Objects.requireNonNull(cacheManager.getCache(PRODUCT_JSON),
+                "Cache no configurada: " + PRODUCT_JSON);
+        this.writer = objectMapper.writerFor(ProductResponseDTO.class);
+    }
+
+    /**
+     * Obtiene el JSON de un producto, serializándolo solo si no está en cache
+     * o si el fragmento guardado corresponde a otro estado del producto.
+     *
+     * @param product Producto
+     * @return JSON del producto en UTF-8 (no debe modificarse)
+     */
+    public byte[] toJson(ProductResponseDTO product) {
+        JsonFragment cached = fragments.get(product.getId(), JsonFragment.class);
+        if (cached != null && cached.matches(product)) {
+            return cached.json();
+        }
+        byte[] json = serialize(product);
+        fragments.put(product.getId(), new JsonFragment(product, json));
+        return json;
+    }
+
+    /**
+     * Construye el array JSON de una lista de productos concatenando sus fragmentos.
+     *
+     * @param products Productos
+     * @return Array JSON en UTF-8
+     */
+    public byte[] toJsonArray(List<ProductResponseDTO> products) {
+        byte[][] parts = new byte[products.size()][];
+        int size = 2 + Math.max(0, products.size() - 1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = toJson(products.get(i));
+            size += parts[i].length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(parts[i]);
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Construye el array JSON de una consulta por lotes con el mismo formato que
+     * la serialización de {@link ProductBatchItemDTO}.
+     *
+     * @param items Resultado por cada ID solicitado
+     * @return Array JSON en UTF-8
+     */
+    public byte[] toBatchJsonArray(List<ProductBatchItemDTO> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + items.size() * 256);
+        out.write('[');
+        for (int i = 0; i < items.size(); i++) {
+            ProductBatchItemDTO item = items.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(ID);
+            out.writeBytes(Long.toString(item.getId()).getBytes(StandardCharsets.US_ASCII));
+            if (item.isFound()) {
+                out.writeBytes(TRUE);
+                out.writeBytes(toJson(item.getProduct()));
+                out.write('}');
+            } else {
+                out.writeBytes(FALSE);
+            }
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Elimina el fragmento del producto modificado tras confirmarse el cambio.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getProductId() != null) {
+            fragments.evict(event.getProductId());
+        }
+    }
+
+    /**
+     * Vacía la cache de fragmentos tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        clear();
+    }
+
+    /**
+     * Vacía por completo la cache de fragmentos.
+     */
+    public void clear() {
+        fragments.clear();
+    }
+
+    // Métodos privados auxiliares
+
+    private byte[] serialize(ProductResponseDTO product) {
+        try {
+            return writer.writeValueAsBytes(product);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el producto " + product.getId(), ex);
+        }
+    }
+
+    /**
+     * JSON serializado junto con el estado del producto del que procede.
+     */
+    private record JsonFragment(ProductResponseDTO source, byte[] json) {
+
+        boolean matches(ProductResponseDTO product) {
+            return source == product || source.equals(product);
+        }
+    }
+}
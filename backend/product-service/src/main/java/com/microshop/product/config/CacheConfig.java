@@ -0,0 +1,17 @@
+package com.microshop.product.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la cache en memoria del servicio de productos.
+ * Habilita la autoconfiguración de Spring Cache; el proveedor (Caffeine), las caches
+ * y sus límites se definen en {@code spring.cache.*} de application.yml.
+ * 
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,17 @@
+package com.microshop.product.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas del servicio de productos (reconstrucciones
+ * periódicas de estructuras en memoria). Los intervalos se configuran en
+ * las propiedades {@code product.*} de application.yml.
+ * 
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,192 @@
+package com.microshop.product.controller;
+
+import com.microshop.product.cache.ProductJsonCache;
+import com.microshop.product.dto.CategoryDTO;
+import com.microshop.product.dto.CategoryRequestDTO;
+import com.microshop.product.dto.ProductPageDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.service.CategoryService;
+import com.microshop.product.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para el árbol de categorías.
+ * Expone el árbol para menús, las migas de pan y los productos de un subárbol.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/categories")
+@Tag(name = "Categorías", description = "API para gestión del árbol de categorías")
+public class CategoryController {
+
+    private static final String DEFAULT_PAGE_SIZE = "50";
+
+    private final CategoryService categoryService;
+    private final ProductJsonCache productJsonCache;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param categoryService Servicio de categorías
+     * @param productJsonCache Cache de respuestas JSON ya serializadas
+     */
+    @Autowired
+    public CategoryController(CategoryService categoryService, ProductJsonCache productJsonCache) {
+        this.categoryService = categoryService;
+        this.productJsonCache = productJsonCache;
+    }
+
+    /**
+     * Obtiene el árbol completo de categorías.
+     *
+     * @return Categorías raíz con sus subcategorías
+     */
+    @Operation(
+        summary = "Obtener árbol de categorías",
+        description = "Obtiene todas las categorías anidadas bajo sus categorías raíz, ordenadas por nombre"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Árbol de categorías obtenido exitosamente",
+        content = @Content(mediaType = "application/json",
+                          schema = @Schema(implementation = CategoryDTO.class))
+    )
+    @GetMapping
+    public ResponseEntity<List<CategoryDTO>> getCategoryTree() {
+        return ResponseEntity.ok(categoryService.findTree());
+    }
+
+    /**
+     * Obtiene las migas de pan de una categoría.
+     *
+     * @param id ID de la categoría
+     * @return Categorías desde la raíz hasta la indicada
+     */
+    @Operation(
+        summary = "Obtener migas de pan",
+        description = "Obtiene la cadena de categorías desde la raíz hasta la categoría indicada, incluida"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Migas de pan obtenidas exitosamente",
+            content = @Content(mediaType = "application/json",
+                              schema = @Schema(implementation = CategoryDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Categoría no encontrada",
+            content = @Content
+        )
+    })
+    @GetMapping("/{id}/breadcrumb")
+    public ResponseEntity<List<CategoryDTO>> getBreadcrumb(
+            @Parameter(description = "ID de la categoría", required = true, example = "1")
+            @PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.findBreadcrumb(id));
+    }
+
+    /**
+     * Crea una nueva categoría.
+     *
+     * @param categoryRequestDTO Nombre y padre de la categoría
+     * @return Categoría creada
+     */
+    @Operation(
+        summary = "Crear categoría",
+        description = "Crea una categoría raíz o, si se indica parentId, una subcategoría"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Categoría creada exitosamente",
+            content = @Content(mediaType = "application/json",
+                              schema = @Schema(implementation = CategoryDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Datos inválidos, nombre duplicado o profundidad máxima superada",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Categoría padre no encontrada",
+            content = @Content
+        )
+    })
+    @PostMapping
+    public ResponseEntity<CategoryDTO> createCategory(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Datos de la categoría a crear",
+                required = true,
+                content = @Content(schema = @Schema(implementation = CategoryRequestDTO.class))
+            )
+            @Valid @RequestBody CategoryRequestDTO categoryRequestDTO) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(categoryService.create(categoryRequestDTO));
+    }
+
+    /**
+     * Obtiene una página de los productos de una categoría y de todas sus subcategorías.
+     *
+     * @param id ID de la categoría
+     * @param cursor Cursor opaco devuelto en la cabecera X-Next-Cursor
+     * @param limit Tamaño de página
+     * @return Lista de productos de la página
+     */
+    @Operation(
+        summary = "Listar productos de un subárbol",
+        description = "Obtiene los productos de la categoría y de todas sus subcategorías, ordenados por " +
+                     "categoría e ID. Si existen más resultados, la cabecera " +
+                     ProductController.NEXT_CURSOR_HEADER + " contiene el cursor de la página siguiente."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Página de productos obtenida exitosamente",
+            content = @Content(mediaType = "application/json",
+                              schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Parámetros de paginación inválidos",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Categoría no encontrada",
+            content = @Content
+        )
+    })
+    @GetMapping("/{id}/products")
+    public ResponseEntity<byte[]> getSubtreeProducts(
+            @Parameter(description = "ID de la categoría", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Cursor opaco de la página siguiente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo " + ProductService.MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        ProductPageDTO page = categoryService.findSubtreeProducts(id, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(ProductController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.contentType(MediaType.APPLICATION_JSON)
+                .body(productJsonCache.toJsonArray(page.getItems()));
+    }
+}
@@ -1,22 +1,67 @@
 package com.microshop.product.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microshop.product.cache.ProductJsonCache;
+import com.microshop.product.dto.ProductBatchItemDTO;
+import com.microshop.product.dto.ProductBatchRequestDTO;
+import com.microshop.product.dto.ProductBulkItemDTO;
+import com.microshop.product.dto.ProductBulkResultDTO;
+import com.microshop.product.dto.ProductBulkUpdateResultDTO;
+import com.microshop.product.dto.ProductChangesDTO;
+import com.microshop.product.dto.ProductCsvImportResultDTO;
+import com.microshop.product.dto.ProductFacetsDTO;
+import com.microshop.product.dto.ProductPageDTO;
+import com.microshop.product.dto.ProductPriceAdjustmentDTO;
 import com.microshop.product.dto.ProductRequestDTO;
 import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductRestockRequestDTO;
+import com.microshop.product.dto.ProductSelectionDTO;
+import com.microshop.product.dto.ProductStockDTO;
+import com.microshop.product.dto.ProductStockRequestDTO;
+import com.microshop.product.dto.ProductSuggestionDTO;
+import com.microshop.product.search.CatalogQuery;
+import com.microshop.product.search.ProductPopularityIndex;
+import com.microshop.product.search.ProductSuggestIndex;
+import com.microshop.product.service.ProductBulkAdminService;
+import com.microshop.product.service.ProductBulkService;
+import com.microshop.product.service.ProductChangeFeedService;
+import com.microshop.product.service.ProductCsvImportService;
+import com.microshop.product.service.ProductSearchService;
 import com.microshop.product.service.ProductService;
+import com.microshop.product.service.ProductStockService;
+import com.microshop.product.util.KeysetCursor;
+import com.microshop.product.util.ProductETags;
+import com.microshop.product.util.ProductSort;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de productos.
@@ -30,44 +75,113 @@ import java.util.List;
 @Tag(name = "Productos", description = "API para gestión de productos del catálogo")
 public class ProductController {
 
+    /**
+     * Cabecera con el cursor opaco de la página siguiente.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Tipo de contenido de la exportación del catálogo (JSON delimitado por saltos de línea).
+     */
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    private static final String DEFAULT_PAGE_SIZE = "50";
+    private static final String DEFAULT_SEARCH_RESULTS = "20";
+    private static final String DEFAULT_SUGGESTIONS = "10";
+    private static final String DEFAULT_CHANGES = "100";
+    private static final Duration SUGGESTIONS_MAX_AGE = Duration.ofSeconds(30);
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ProductBulkService productBulkService;
+    private final ProductCsvImportService productCsvImportService;
+    private final ProductStockService productStockService;
+    private final ProductBulkAdminService productBulkAdminService;
+    private final ProductJsonCache productJsonCache;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param productService Servicio de productos
+     * @param productSearchService Servicio de búsqueda de productos
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
+     * @param productBulkService Servicio de importación masiva de productos
+     * @param productCsvImportService Servicio de importación del catálogo desde CSV
+     * @param productStockService Servicio de operaciones atómicas sobre el stock
+     * @param productBulkAdminService Servicio de operaciones de administración por lotes
+     * @param productJsonCache Cache de respuestas JSON ya serializadas
+     * @param objectMapper ObjectMapper configurado por Spring para serializar productos
      */
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService,
+                             ProductChangeFeedService productChangeFeedService, ProductBulkService productBulkService,
+                             ProductCsvImportService productCsvImportService, ProductStockService productStockService,
+                             ProductBulkAdminService productBulkAdminService, ProductJsonCache productJsonCache,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productChangeFeedService = productChangeFeedService;
+        this.productBulkService = productBulkService;
+        this.productCsvImportService = productCsvImportService;
+        this.productStockService = productStockService;
+        this.productBulkAdminService = productBulkAdminService;
+        this.productJsonCache = productJsonCache;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Obtiene todos los productos del catálogo.
+     * Obtiene una página de productos del catálogo.
      * 
-     * @return Lista de productos
+     * @param after ID del último producto recibido (solo con ordenación por ID)
+     * @param cursor Cursor opaco devuelto en la cabecera X-Next-Cursor
+     * @param sort Criterio de ordenación
+     * @param limit Tamaño de página
+     * @param webRequest Petición actual, para evaluar If-None-Match
+     * @return Lista de productos de la página
      */
     @Operation(
-        summary = "Listar todos los productos",
-        description = "Obtiene una lista de todos los productos disponibles en el catálogo"
-    )
-    @ApiResponse(
-        responseCode = "200",
-        description = "Lista de productos obtenida exitosamente",
-        content = @Content(mediaType = "application/json", 
-                          schema = @Schema(implementation = ProductResponseDTO.class))
+        summary = "Listar productos",
+        description = "Obtiene una página de productos del catálogo mediante paginación por cursor. " +
+                     "Si existen más resultados, la cabecera " + NEXT_CURSOR_HEADER +
+                     " contiene el cursor de la página siguiente."
     )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Página de productos obtenida exitosamente",
+            content = @Content(mediaType = "application/json", 
+                              schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Parámetros de paginación inválidos",
+            content = @Content
+        )
+    })
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
-        List<ProductResponseDTO> products = productService.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts(
+            @Parameter(description = "ID del último producto recibido (ordenación por id)", example = "100")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Cursor opaco de la página siguiente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Ordenación: id, created_at o price", example = "id")
+            @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Tamaño de página (máximo " + ProductService.MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            WebRequest webRequest) {
+        ProductSort productSort = ProductSort.fromParameter(sort);
+        ProductPageDTO page = productService.findAll(productSort, resolveCursor(productSort, cursor, after), limit);
+        return toResponse(page, webRequest);
     }
 
     /**
      * Obtiene un producto por su ID.
      * 
      * @param id ID del producto
-     * @return Producto encontrado
+     * @param webRequest Petición actual, para evaluar If-None-Match
+     * @return Producto encontrado, o 304 si no ha cambiado
      */
     @Operation(
         summary = "Obtener producto por ID",
@@ -80,6 +194,11 @@ public class ProductController {
             content = @Content(mediaType = "application/json",
                              schema = @Schema(implementation = ProductResponseDTO.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "El producto no ha cambiado respecto a la ETag de If-None-Match",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Producto no encontrado",
@@ -87,23 +206,104 @@ public class ProductController {
         )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDTO> getProductById(
+    public ResponseEntity<byte[]> getProductById(
             @Parameter(description = "ID del producto", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest webRequest) {
         ProductResponseDTO product = productService.findById(id);
-        return ResponseEntity.ok(product);
+        productSearchService.recordView(id);
+        String etag = ProductETags.of(product);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return jsonResponse(ResponseEntity.ok().eTag(etag), productJsonCache.toJson(product));
+    }
+
+    /**
+     * Obtiene varios productos por ID en una sola petición.
+     * 
+     * @param ids IDs de los productos separados por comas
+     * @return Un elemento por ID solicitado, en el mismo orden
+     */
+    @Operation(
+        summary = "Obtener productos por lote de IDs",
+        description = "Obtiene varios productos en una sola petición. El resultado conserva el orden " +
+                     "de los IDs solicitados y marca con found=false los que no existen. " +
+                     "Máximo " + ProductService.MAX_BATCH_SIZE + " IDs; para listas largas use POST /products/batch."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Resultado por cada ID solicitado",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductBatchItemDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lista de IDs inválida",
+            content = @Content
+        )
+    })
+    @GetMapping("/batch")
+    public ResponseEntity<byte[]> getProductsByIds(
+            @Parameter(description = "IDs de los productos separados por comas", required = true, example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return jsonResponse(ResponseEntity.ok(), productJsonCache.toBatchJsonArray(productService.findByIds(ids)));
     }
 
     /**
-     * Busca productos por categoría.
+     * Obtiene varios productos por ID recibiendo la lista en el cuerpo de la petición.
+     * 
+     * @param batchRequest DTO con los IDs de los productos
+     * @return Un elemento por ID solicitado, en el mismo orden
+     */
+    @Operation(
+        summary = "Obtener productos por lote de IDs (POST)",
+        description = "Variante de GET /products/batch para listas de IDs demasiado largas para la URL"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Resultado por cada ID solicitado",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductBatchItemDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lista de IDs inválida",
+            content = @Content
+        )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<byte[]> getProductsByIdsInBody(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "IDs de los productos solicitados",
+                required = true,
+                content = @Content(schema = @Schema(implementation = ProductBatchRequestDTO.class))
+            )
+            @Valid @RequestBody ProductBatchRequestDTO batchRequest) {
+        return jsonResponse(ResponseEntity.ok(),
+                productJsonCache.toBatchJsonArray(productService.findByIds(batchRequest.getIds())));
+    }
+
+    /**
+     * Busca productos por categoría, opcionalmente limitados a un rango de precio.
      * 
      * @param category Categoría a buscar
+     * @param minPrice Precio mínimo (incluido)
+     * @param maxPrice Precio máximo (excluido)
+     * @param after ID del último producto recibido (solo con ordenación por ID)
+     * @param cursor Cursor opaco devuelto en la cabecera X-Next-Cursor
+     * @param sort Criterio de ordenación
+     * @param limit Tamaño de página
+     * @param webRequest Petición actual, para evaluar If-None-Match
      * @return Lista de productos de la categoría
      */
     @Operation(
         summary = "Buscar productos por categoría",
-        description = "Obtiene una lista de productos filtrados por categoría. " +
-                     "La búsqueda es case-insensitive."
+        description = "Obtiene una página de productos filtrados por categoría y, opcionalmente, por rango " +
+                     "de precio. La búsqueda es case-insensitive, admite la misma paginación por cursor que " +
+                     "el listado y además la ordenación por nombre."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -111,14 +311,401 @@ public class ProductController {
             description = "Lista de productos de la categoría",
             content = @Content(mediaType = "application/json",
                              schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Parámetros de paginación o rango de precio inválidos",
+            content = @Content
         )
     })
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDTO>> searchProductsByCategory(
+    public ResponseEntity<byte[]> searchProductsByCategory(
             @Parameter(description = "Categoría del producto", required = true, example = "Electrónica")
-            @RequestParam String category) {
-        List<ProductResponseDTO> products = productService.findByCategory(category);
-        return ResponseEntity.ok(products);
+            @RequestParam String category,
+            @Parameter(description = "Precio mínimo, incluido", example = "10")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo, excluido", example = "100")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "ID del último producto recibido (ordenación por id)", example = "100")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Cursor opaco de la página siguiente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Ordenación: id, created_at, price o name", example = "id")
+            @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Tamaño de página (máximo " + ProductService.MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            WebRequest webRequest) {
+        ProductSort productSort = ProductSort.fromParameter(sort);
+        ProductPageDTO page = productService.findByCategory(category, minPrice, maxPrice,
+                productSort, resolveCursor(productSort, cursor, after), limit);
+        return toResponse(page, webRequest);
+    }
+
+    /**
+     * Busca productos por texto libre en el nombre y la descripción.
+     * 
+     * @param q Texto de búsqueda
+     * @param limit Número máximo de resultados
+     * @param fuzzy true para tolerar erratas en los términos de la consulta
+     * @return Productos encontrados ordenados por relevancia
+     */
+    @Operation(
+        summary = "Buscar productos por texto",
+        description = "Busca productos cuyo nombre o descripción contengan alguno de los términos indicados, " +
+                     "ordenados por relevancia. No distingue mayúsculas ni tildes y los términos del nombre " +
+                     "pesan más que los de la descripción. Con fuzzy=true, los términos que no aparecen en " +
+                     "el catálogo se sustituyen por los nombres de producto más parecidos (hasta dos errores)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Productos encontrados, los más relevantes primero",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Texto de búsqueda vacío o límite inválido",
+            content = @Content
+        )
+    })
+    @GetMapping("/search/text")
+    public ResponseEntity<byte[]> searchProductsByText(
+            @Parameter(description = "Texto de búsqueda", required = true, example = "portátil gaming")
+            @RequestParam String q,
+            @Parameter(description = "Número máximo de resultados (máximo " +
+                       ProductSearchService.MAX_SEARCH_RESULTS + ")", example = "20")
+            @RequestParam(defaultValue = DEFAULT_SEARCH_RESULTS) int limit,
+            @Parameter(description = "Tolerar erratas en los términos de búsqueda", example = "true")
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return jsonResponse(ResponseEntity.ok(),
+                productJsonCache.toJsonArray(productSearchService.searchText(q, limit, fuzzy)));
+    }
+
+    /**
+     * Obtiene los cambios del catálogo posteriores a un número de secuencia.
+     * 
+     * @param since Último número de secuencia leído, o 0 para el catálogo completo
+     * @param limit Número máximo de cambios
+     * @return Página de cambios con el número de secuencia de la siguiente petición
+     */
+    @Operation(
+        summary = "Feed de cambios del catálogo",
+        description = "Devuelve, en orden de secuencia, los productos creados o modificados (con su estado " +
+                     "actual) y las lápidas de los eliminados después de since. Para sincronizar de forma " +
+                     "incremental se envía como since el lastSeq de la respuesta anterior; since=0 recorre el " +
+                     "catálogo completo. Las lápidas se compactan pasado un periodo de retención: si since es " +
+                     "anterior a la compactación la respuesta es 410 y hay que volver a empezar desde 0."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Cambios posteriores a since",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductChangesDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Número de secuencia o límite inválido",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "410",
+            description = "Los cambios posteriores a since ya se han compactado; sincronizar desde 0",
+            content = @Content
+        )
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDTO> getChanges(
+            @Parameter(description = "Último número de secuencia leído (0 para el catálogo completo)", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Número máximo de cambios (máximo " +
+                       ProductChangeFeedService.MAX_CHANGES + ")", example = "100")
+            @RequestParam(defaultValue = DEFAULT_CHANGES) int limit) {
+        return ResponseEntity.ok(productChangeFeedService.changesSince(since, limit));
+    }
+
+    /**
+     * Obtiene los productos más vistos recientemente.
+     * 
+     * @param category Categoría filtrada
+     * @param limit Número máximo de productos
+     * @return Productos más populares, el primero el más visto
+     */
+    @Operation(
+        summary = "Productos populares",
+        description = "Devuelve los productos más vistos, del catálogo o de una categoría. Las visitas al " +
+                     "detalle de cada producto se cuentan en memoria, se vuelcan periódicamente y pierden " +
+                     "peso con el tiempo, de modo que el ranking refleja las visitas recientes."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Productos más populares, el primero el más visto",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Categoría vacía o límite inválido",
+            content = @Content
+        )
+    })
+    @GetMapping("/popular")
+    public ResponseEntity<byte[]> getPopularProducts(
+            @Parameter(description = "Categoría (sin distinguir mayúsculas)", example = "Electrónica")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Número máximo de productos (máximo " +
+                       ProductPopularityIndex.MAX_POPULAR + ")", example = "20")
+            @RequestParam(defaultValue = DEFAULT_SEARCH_RESULTS) int limit) {
+        return jsonResponse(ResponseEntity.ok(),
+                productJsonCache.toJsonArray(productSearchService.findPopular(category, limit)));
+    }
+
+    /**
+     * Obtiene sugerencias de autocompletado para el texto que el usuario está escribiendo.
+     * 
+     * @param prefix Prefijo escrito por el usuario
+     * @param limit Número máximo de sugerencias
+     * @return Categorías y productos cuyo nombre empieza por el prefijo
+     */
+    @Operation(
+        summary = "Autocompletar",
+        description = "Devuelve las categorías (por número de productos) y los productos (los más recientes " +
+                     "primero) cuyo nombre empieza por el prefijo, sin distinguir mayúsculas ni tildes. " +
+                     "Se sirve desde memoria; los cambios del catálogo se incorporan periódicamente."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Sugerencias, primero las categorías y después los productos",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductSuggestionDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Prefijo vacío o límite inválido",
+            content = @Content
+        )
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+            @Parameter(description = "Texto escrito por el usuario", required = true, example = "port")
+            @RequestParam String prefix,
+            @Parameter(description = "Número máximo de sugerencias (máximo " +
+                       ProductSuggestIndex.MAX_SUGGESTIONS + ")", example = "10")
+            @RequestParam(defaultValue = DEFAULT_SUGGESTIONS) int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(SUGGESTIONS_MAX_AGE).cachePublic())
+                .body(productSearchService.suggest(prefix, limit));
+    }
+
+    /**
+     * Obtiene los recuentos de productos por categoría y por rango de precio para
+     * la navegación por facetas.
+     * 
+     * @param category Categoría filtrada
+     * @param minPrice Precio mínimo filtrado (incluido)
+     * @param maxPrice Precio máximo filtrado (excluido)
+     * @return Recuentos por categoría y por rango de precio
+     */
+    @Operation(
+        summary = "Facetas del catálogo",
+        description = "Devuelve el número de productos por categoría y por rango de precio. Los recuentos por " +
+                     "categoría aplican el filtro de precio y los recuentos por rango aplican el de categoría. " +
+                     "Los precios del filtro deben ser 0 o uno de los límites de rango configurados. Se sirve " +
+                     "desde contadores en memoria que se mantienen con cada cambio del catálogo."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Recuentos de las facetas",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductFacetsDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Categoría vacía o precios que no coinciden con los rangos",
+            content = @Content
+        )
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDTO> getFacets(
+            @Parameter(description = "Categoría", example = "Electronics")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Precio mínimo (incluido)", example = "100")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo (excluido)", example = "500")
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        return ResponseEntity.ok(productSearchService.facets(category, minPrice, maxPrice));
+    }
+
+    /**
+     * Filtra el catálogo por categoría, rango de precio y disponibilidad, ordenado.
+     * 
+     * @param category Categoría filtrada
+     * @param minPrice Precio mínimo (incluido)
+     * @param maxPrice Precio máximo (excluido)
+     * @param inStock true para devolver solo productos con stock
+     * @param sort Criterio de ordenación
+     * @param order Sentido de la ordenación: asc o desc
+     * @param limit Número máximo de resultados
+     * @return Productos que cumplen los filtros, en el orden pedido
+     */
+    @Operation(
+        summary = "Consultar el catálogo",
+        description = "Devuelve los primeros productos que cumplen los filtros de categoría, rango de precio y " +
+                     "stock, en el orden indicado. Se resuelve sobre una réplica del catálogo en memoria que se " +
+                     "mantiene con cada cambio de producto."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Productos encontrados",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Filtros, ordenación o límite inválidos",
+            content = @Content
+        )
+    })
+    @GetMapping("/query")
+    public ResponseEntity<byte[]> queryProducts(
+            @Parameter(description = "Categoría", example = "Electronics")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Precio mínimo (incluido)", example = "100")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Precio máximo (excluido)", example = "500")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Solo productos con stock", example = "true")
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @Parameter(description = "Ordenación: id, created_at o price", example = "price")
+            @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Sentido de la ordenación: asc o desc", example = "asc")
+            @RequestParam(defaultValue = "asc") String order,
+            @Parameter(description = "Número máximo de resultados (máximo " +
+                       ProductSearchService.MAX_SEARCH_RESULTS + ")", example = "20")
+            @RequestParam(defaultValue = DEFAULT_SEARCH_RESULTS) int limit) {
+        CatalogQuery query = new CatalogQuery(category, minPrice, maxPrice, inStock,
+                ProductSort.fromParameter(sort), isDescending(order), limit);
+        return jsonResponse(ResponseEntity.ok(),
+                productJsonCache.toJsonArray(productSearchService.queryCatalog(query)));
+    }
+
+    /**
+     * Filtra los productos por sus atributos.
+     * 
+     * @param q Expresión de filtrado
+     * @param cursor Cursor opaco devuelto en la cabecera X-Next-Cursor
+     * @param limit Tamaño de página
+     * @param webRequest Petición actual, para evaluar If-None-Match
+     * @return Lista de productos de la página
+     */
+    @Operation(
+        summary = "Filtrar productos por atributos",
+        description = "Obtiene, en orden de ID, los productos cuyos atributos cumplen la expresión. " +
+                     "Los términos nombre:valor (sin distinguir mayúsculas; valores con espacios entre " +
+                     "comillas) se combinan con NOT, AND, OR y paréntesis, p. ej. " +
+                     "brand:acme AND (color:rojo OR color:azul) AND NOT size:xl. Si existen más " +
+                     "resultados, la cabecera " + NEXT_CURSOR_HEADER + " contiene el cursor de la página siguiente."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Página de productos obtenida exitosamente",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductResponseDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Expresión de filtrado o parámetros de paginación inválidos",
+            content = @Content
+        )
+    })
+    @GetMapping("/filter")
+    public ResponseEntity<byte[]> filterProducts(
+            @Parameter(description = "Expresión de filtrado por atributos", required = true,
+                       example = "brand:acme AND NOT color:rojo")
+            @RequestParam String q,
+            @Parameter(description = "Cursor opaco de la página siguiente")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo " + ProductService.MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            WebRequest webRequest) {
+        return toResponse(productSearchService.filterByAttributes(q, cursor, limit), webRequest);
+    }
+
+    /**
+     * Obtiene los atributos de un producto.
+     * 
+     * @param id ID del producto
+     * @return Atributos del producto por nombre
+     */
+    @Operation(
+        summary = "Obtener atributos de un producto",
+        description = "Obtiene los atributos (marca, color, talla...) de un producto, ordenados por nombre"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Atributos del producto",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Producto no encontrado",
+            content = @Content
+        )
+    })
+    @GetMapping("/{id}/attributes")
+    public ResponseEntity<Map<String, String>> getProductAttributes(
+            @Parameter(description = "ID del producto", required = true, example = "1")
+            @PathVariable Long id) {
+        return ResponseEntity.ok(productService.findAttributes(id));
+    }
+
+    /**
+     * Exporta el catálogo completo en formato NDJSON (un producto JSON por línea).
+     * La respuesta se escribe fila a fila mientras se lee la base de datos, sin
+     * construir la lista completa en memoria.
+     * 
+     * @param response Respuesta HTTP sobre la que se escribe el catálogo
+     * @throws IOException si falla la escritura de la respuesta
+     */
+    @Operation(
+        summary = "Exportar catálogo",
+        description = "Exporta todos los productos en formato NDJSON (application/x-ndjson), " +
+                     "ordenados por ID, pensado para indexadores y sincronizaciones externas"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Catálogo exportado",
+        content = @Content(mediaType = NDJSON_MEDIA_TYPE,
+                          schema = @Schema(implementation = ProductResponseDTO.class))
+    )
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        // Sin flush por valor: el generador y el buffer del contenedor agrupan las escrituras
+        ObjectWriter writer = objectMapper.writerFor(ProductResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            productService.exportAll(product -> {
+                try {
+                    writer.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
     }
 
     /**
@@ -153,7 +740,185 @@ public class ProductController {
             )
             @Valid @RequestBody ProductRequestDTO productRequestDTO) {
         ProductResponseDTO createdProduct = productService.create(productRequestDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ProductETags.of(createdProduct)).body(createdProduct);
+    }
+
+    /**
+     * Crea o actualiza productos de forma masiva.
+     * 
+     * @param body Cuerpo de la petición: array JSON de productos
+     * @return Resultado de cada elemento, en el orden de la petición
+     * @throws IOException si falla la lectura del cuerpo
+     */
+    @Operation(
+        summary = "Importación masiva de productos",
+        description = "Recibe un array JSON de productos, que se lee en streaming. Los elementos con id " +
+                     "actualizan el producto existente y el resto se crean. Cada elemento se valida por " +
+                     "separado y los válidos se guardan en transacciones por bloques con inserciones por " +
+                     "lotes; la respuesta indica el resultado de cada elemento. Si el JSON está mal formado " +
+                     "la respuesta es 400, pero los bloques ya guardados se conservan."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Resultado de la importación",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductBulkResultDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "El cuerpo no es un array JSON bien formado",
+            content = @Content
+        )
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductBulkResultDTO> bulkImportProducts(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Productos a crear o actualizar",
+                required = true,
+                content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductBulkItemDTO.class)))
+            )
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(productBulkService.importProducts(body));
+    }
+
+    /**
+     * Importa el catálogo desde un fichero CSV.
+     * 
+     * @param body Contenido del fichero CSV
+     * @return Totales de la importación y errores por línea
+     */
+    @Operation(
+        summary = "Importación CSV del catálogo",
+        description = "Recarga el catálogo desde un CSV con cabecera y columnas id,name,description,price,stock," +
+                     "category. El fichero se copia en streaming a una tabla temporal con COPY, se valida " +
+                     "línea a línea y las líneas válidas se integran en una sola sentencia: las que tienen id " +
+                     "actualizan el producto y el resto se crean. Las líneas inválidas se descartan y se " +
+                     "informan con su número (hasta " + ProductCsvImportService.MAX_REPORTED_ERRORS + "). " +
+                     "Requiere PostgreSQL."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Resultado de la importación",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductCsvImportResultDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "CSV mal formado o la integración viola una restricción; no se guarda nada",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "501",
+            description = "La base de datos no es PostgreSQL",
+            content = @Content
+        )
+    })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductCsvImportResultDTO> importProductsCsv(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Fichero CSV del catálogo",
+                required = true,
+                content = @Content(mediaType = "text/csv")
+            )
+            InputStream body) {
+        return ResponseEntity.ok(productCsvImportService.importCsv(body));
+    }
+
+    /**
+     * Ajusta por lotes el precio de los productos de una lista de IDs o de una categoría.
+     * 
+     * @param request Productos seleccionados, tipo y valor del ajuste
+     * @return Productos modificados e IDs inexistentes
+     */
+    @Operation(
+        summary = "Ajuste de precios por lotes",
+        description = "Ajusta el precio de los productos indicados por IDs o por categoría en un porcentaje " +
+                     "(PERCENTAGE, redondeado a céntimos) o en un importe fijo (AMOUNT); valores negativos " +
+                     "bajan el precio. Se aplica con una sentencia por bloque de productos y vacía las " +
+                     "caches una sola vez. Si algún producto quedaría con un precio no válido se rechaza sin " +
+                     "modificar nada; la comprobación se repite en cada bloque y la operación no es atómica en " +
+                     "conjunto: si otra escritura invalida un bloque posterior, los bloques ya confirmados se " +
+                     "conservan y el error indica cuántos productos se modificaron."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Productos modificados",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductBulkUpdateResultDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Selección o ajuste inválidos, o algún precio quedaría fuera de rango " +
+                          "(con los bloques anteriores ya confirmados si ocurre a mitad de la operación)",
+            content = @Content
+        )
+    })
+    @PostMapping("/bulk/price")
+    public ResponseEntity<ProductBulkUpdateResultDTO> adjustPrices(
+            @Valid @RequestBody ProductPriceAdjustmentDTO request) {
+        return ResponseEntity.ok(productBulkAdminService.adjustPrices(request));
+    }
+
+    /**
+     * Repone por lotes el stock de una lista de productos.
+     * 
+     * @param request IDs de los productos y unidades a sumar
+     * @return Productos modificados e IDs inexistentes
+     */
+    @Operation(
+        summary = "Reposición de stock por lotes",
+        description = "Suma las mismas unidades al stock de cada producto de la lista, con una sentencia " +
+                     "por bloque de productos, y vacía las caches una sola vez"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Productos modificados",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductBulkUpdateResultDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Lista o cantidad inválidas, o el stock de algún producto superaría el máximo",
+            content = @Content
+        )
+    })
+    @PostMapping("/bulk/restock")
+    public ResponseEntity<ProductBulkUpdateResultDTO> restockProducts(
+            @Valid @RequestBody ProductRestockRequestDTO request) {
+        return ResponseEntity.ok(productBulkAdminService.restock(request));
+    }
+
+    /**
+     * Elimina por lotes los productos de una lista de IDs o de una categoría.
+     * 
+     * @param request Productos seleccionados
+     * @return Productos eliminados e IDs inexistentes
+     */
+    @Operation(
+        summary = "Eliminación por lotes",
+        description = "Elimina los productos indicados por IDs o por categoría con una sentencia por bloque " +
+                     "de productos, deja sus lápidas en el feed de cambios y vacía las caches una sola vez"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Productos eliminados",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductBulkUpdateResultDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Selección inválida",
+            content = @Content
+        )
+    })
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<ProductBulkUpdateResultDTO> deleteProducts(@Valid @RequestBody ProductSelectionDTO request) {
+        return ResponseEntity.ok(productBulkAdminService.delete(request));
     }
 
     /**
@@ -161,11 +926,13 @@ public class ProductController {
      * 
      * @param id ID del producto a actualizar
      * @param productRequestDTO DTO con los nuevos datos
+     * @param ifMatch ETag esperada del producto (opcional)
      * @return Producto actualizado
      */
     @Operation(
         summary = "Actualizar producto",
-        description = "Actualiza la información de un producto existente"
+        description = "Actualiza la información de un producto existente. Con la cabecera If-Match " +
+                     "la actualización solo se aplica si el producto conserva la versión indicada"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -183,6 +950,16 @@ public class ProductController {
             responseCode = "400",
             description = "Datos de entrada inválidos",
             content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "El producto fue modificado concurrentemente por otra petición",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "412",
+            description = "La versión de If-Match no coincide con la actual",
+            content = @Content
         )
     })
     @PutMapping("/{id}")
@@ -194,9 +971,103 @@ public class ProductController {
                 required = true,
                 content = @Content(schema = @Schema(implementation = ProductRequestDTO.class))
             )
-            @Valid @RequestBody ProductRequestDTO productRequestDTO) {
-        ProductResponseDTO updatedProduct = productService.update(id, productRequestDTO);
-        return ResponseEntity.ok(updatedProduct);
+            @Valid @RequestBody ProductRequestDTO productRequestDTO,
+            @Parameter(description = "ETag del producto leído; si no coincide con la versión actual responde 412",
+                       example = "\"1-0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProductResponseDTO updatedProduct = productService.update(
+                id, productRequestDTO, ProductETags.expectedVersion(ifMatch, id));
+        return ResponseEntity.ok().eTag(ProductETags.of(updatedProduct)).body(updatedProduct);
+    }
+
+    /**
+     * Descuenta unidades del stock de un producto.
+     * 
+     * @param id ID del producto
+     * @param request Unidades a descontar
+     * @return Stock resultante
+     */
+    @Operation(
+        summary = "Descontar stock",
+        description = "Descuenta unidades del stock de un producto de forma atómica, con una única sentencia " +
+                     "condicional: solo se aplica si hay stock suficiente, también con peticiones concurrentes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stock descontado",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductStockDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Cantidad inválida",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Producto no encontrado",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Stock insuficiente; el stock no se modifica",
+            content = @Content
+        )
+    })
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<ProductStockDTO> decrementStock(
+            @Parameter(description = "ID del producto", required = true, example = "1")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Unidades a descontar",
+                required = true,
+                content = @Content(schema = @Schema(implementation = ProductStockRequestDTO.class))
+            )
+            @Valid @RequestBody ProductStockRequestDTO request) {
+        return ResponseEntity.ok(productStockService.decrement(id, request.getQuantity()));
+    }
+
+    /**
+     * Suma unidades al stock de un producto.
+     * 
+     * @param id ID del producto
+     * @param request Unidades a sumar
+     * @return Stock resultante
+     */
+    @Operation(
+        summary = "Reponer stock",
+        description = "Suma unidades al stock de un producto de forma atómica, con una única sentencia"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stock repuesto",
+            content = @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = ProductStockDTO.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Cantidad inválida",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Producto no encontrado",
+            content = @Content
+        )
+    })
+    @PostMapping("/{id}/stock/increment")
+    public ResponseEntity<ProductStockDTO> incrementStock(
+            @Parameter(description = "ID del producto", required = true, example = "1")
+            @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Unidades a sumar",
+                required = true,
+                content = @Content(schema = @Schema(implementation = ProductStockRequestDTO.class))
+            )
+            @Valid @RequestBody ProductStockRequestDTO request) {
+        return ResponseEntity.ok(productStockService.increment(id, request.getQuantity()));
     }
 
     /**
@@ -228,5 +1099,89 @@ public class ProductController {
         productService.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    // Métodos privados auxiliares
+
+    /**
+     * Interpreta el parámetro de sentido de la ordenación.
+     * 
+     * @param order Valor recibido: asc o desc (case-insensitive)
+     * @return true si la ordenación es descendente
+     * @throws IllegalArgumentException si el valor no es asc ni desc
+     */
+    private static boolean isDescending(String order) {
+        if ("asc".equalsIgnoreCase(order)) {
+            return false;
+        }
+        if ("desc".equalsIgnoreCase(order)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Sentido de ordenación no soportado: " + order);
+    }
+
+    /**
+     * Determina el cursor de la petición a partir de los parámetros after y cursor.
+     * 
+     * @param sort Criterio de ordenación solicitado
+     * @param cursor Cursor opaco recibido
+     * @param after ID del último producto recibido
+     * @return Cursor a aplicar, o null para la primera página
+     * @throws IllegalArgumentException si los parámetros son incompatibles
+     */
+    private KeysetCursor resolveCursor(ProductSort sort, String cursor, Long after) {
+        if (cursor != null && after != null) {
+            throw new IllegalArgumentException("Los parámetros 'after' y 'cursor' son excluyentes");
+        }
+        if (after != null) {
+            if (sort != ProductSort.ID) {
+                throw new IllegalArgumentException(
+                        "El parámetro 'after' solo admite la ordenación por id; use 'cursor'");
+            }
+            return KeysetCursor.afterId(after);
+        }
+        return cursor != null ? KeysetCursor.decode(cursor, sort) : null;
+    }
+
+    /**
+     * Construye la respuesta de una página añadiendo la ETag de la página y la cabecera
+     * con el cursor siguiente. Si la ETag coincide con If-None-Match responde 304 sin
+     * construir el cuerpo.
+     * 
+     * @param page Página de productos
+     * @param webRequest Petición actual, para evaluar If-None-Match
+     * @return Respuesta con los productos y, si procede, el cursor siguiente
+     */
+    private ResponseEntity<byte[]> toResponse(ProductPageDTO page, WebRequest webRequest) {
+        String etag = ProductETags.ofPage(page.getItems(), page.getNextCursor());
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return jsonResponse(response, productJsonCache.toJsonArray(page.getItems()));
+    }
+
+    /**
+     * Construye la respuesta 304 de una petición condicional cuya ETag sigue vigente.
+     * 
+     * @param etag ETag actual del recurso
+     * @return Respuesta sin cuerpo
+     */
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Construye una respuesta JSON con un cuerpo ya serializado, que se copia
+     * tal cual al stream de salida sin pasar por Jackson.
+     * 
+     * @param response Respuesta en construcción
+     * @param json Cuerpo JSON en UTF-8
+     * @return Respuesta con el cuerpo
+     */
+    private static ResponseEntity<byte[]> jsonResponse(ResponseEntity.BodyBuilder response, byte[] json) {
+        return response.contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+}
@@ -0,0 +1,89 @@
+package com.microshop.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * DTO de un nodo del árbol de categorías. En el árbol completo incluye sus
+ * subcategorías; en las migas de pan y en las respuestas de un único nodo se
+ * omiten.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class CategoryDTO {
+
+    private Long id;
+    private String name;
+    private Long parentId;
+    private int depth;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CategoryDTO> children;
+
+    /**
+     * Constructor por defecto.
+     */
+    public CategoryDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param id ID de la categoría
+     * @param name Nombre de la categoría
+     * @param parentId ID de la categoría padre, o null en las raíces
+     * @param depth Profundidad en el árbol (0 en las raíces)
+     * @param children Subcategorías, o null si no se incluyen
+     */
+    public CategoryDTO(Long id, String name, Long parentId, int depth, List<CategoryDTO> children) {
+        this.id = id;
+        this.name = name;
+        this.parentId = parentId;
+        this.depth = depth;
+        this.children = children;
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public List<CategoryDTO> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryDTO> children) {
+        this.children = children;
+    }
+}
@@ -0,0 +1,54 @@
+package com.microshop.product.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO para recibir los datos de creación de una categoría.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class CategoryRequestDTO {
+
+    @NotBlank(message = "El nombre de la categoría es obligatorio")
+    @Size(max = 100, message = "El nombre de la categoría no puede exceder 100 caracteres")
+    private String name;
+
+    private Long parentId;
+
+    /**
+     * Constructor por defecto.
+     */
+    public CategoryRequestDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param name Nombre de la categoría
+     * @param parentId ID de la categoría padre, o null para crear una raíz
+     */
+    public CategoryRequestDTO(String name, Long parentId) {
+        this.name = name;
+        this.parentId = parentId;
+    }
+
+    // Getters y Setters
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
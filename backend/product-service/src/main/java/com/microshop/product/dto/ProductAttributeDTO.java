@@ -0,0 +1,42 @@
+package com.microshop.product.dto;
+
+/**
+ * Proyección de un valor de atributo de un producto, leída directamente de la
+ * tabla de atributos sin cargar la entidad.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductAttributeDTO {
+
+    private final Long productId;
+    private final String name;
+    private final String value;
+
+    /**
+     * Constructor con parámetros, usado por las consultas de proyección.
+     *
+     * @param productId ID del producto
+     * @param name Nombre del atributo
+     * @param value Valor del atributo
+     */
+    public ProductAttributeDTO(Long productId, String name, String value) {
+        this.productId = productId;
+        this.name = name;
+        this.value = value;
+    }
+
+    // Getters
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
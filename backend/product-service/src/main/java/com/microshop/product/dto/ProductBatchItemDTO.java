@@ -0,0 +1,81 @@
+package com.microshop.product.dto;
+
+/**
+ * DTO que representa el resultado de un ID dentro de una consulta por lotes.
+ * Cada ID solicitado produce un elemento, en el mismo orden de la petición,
+ * indicando explícitamente si el producto existe.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductBatchItemDTO {
+
+    private Long id;
+    private boolean found;
+    private ProductResponseDTO product;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductBatchItemDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param id ID solicitado
+     * @param found true si el producto existe
+     * @param product Producto encontrado, o null si no existe
+     */
+    public ProductBatchItemDTO(Long id, boolean found, ProductResponseDTO product) {
+        this.id = id;
+        this.found = found;
+        this.product = product;
+    }
+
+    /**
+     * Crea el elemento de un producto encontrado.
+     *
+     * @param product Producto encontrado
+     * @return Elemento con el producto
+     */
+    public static ProductBatchItemDTO found(ProductResponseDTO product) {
+        return new ProductBatchItemDTO(product.getId(), true, product);
+    }
+
+    /**
+     * Crea el elemento de un ID que no corresponde a ningún producto.
+     *
+     * @param id ID solicitado
+     * @return Elemento marcado como no encontrado
+     */
+    public static ProductBatchItemDTO notFound(Long id) {
+        return new ProductBatchItemDTO(id, false, null);
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    public ProductResponseDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductResponseDTO product) {
+        this.product = product;
+    }
+}
@@ -0,0 +1,43 @@
+package com.microshop.product.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * DTO para recibir la lista de IDs de una consulta por lotes enviada en el cuerpo
+ * de la petición, pensado para listas demasiado largas para la query string.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductBatchRequestDTO {
+
+    @NotEmpty(message = "La lista de IDs es obligatoria")
+    private List<Long> ids;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductBatchRequestDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param ids IDs de los productos solicitados
+     */
+    public ProductBatchRequestDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters y Setters
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,47 @@
+package com.microshop.product.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de un elemento de una importación masiva de productos: los datos del
+ * producto y, opcionalmente, el ID del producto existente que se actualiza.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductBulkItemDTO extends ProductRequestDTO {
+
+    private Long id;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductBulkItemDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param id ID del producto a actualizar, o null para crearlo
+     * @param name Nombre del producto
+     * @param description Descripción del producto
+     * @param price Precio del producto
+     * @param stock Stock disponible
+     * @param category Categoría del producto
+     */
+    public ProductBulkItemDTO(Long id, String name, String description, BigDecimal price, Integer stock,
+                              String category) {
+        super(name, description, price, stock, category);
+        this.id = id;
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
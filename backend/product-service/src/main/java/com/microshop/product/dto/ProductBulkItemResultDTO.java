@@ -0,0 +1,92 @@
+package com.microshop.product.dto;
+
+/**
+ * DTO con el resultado de un elemento de una importación masiva de productos,
+ * identificado por su posición en la petición.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductBulkItemResultDTO {
+
+    /**
+     * Resultado de un elemento.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private String error;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductBulkItemResultDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param index Posición del elemento en la petición (desde 0)
+     * @param id ID del producto, o null si no se llegó a crear
+     * @param status Resultado del elemento
+     * @param error Motivo del fallo, o null si se guardó
+     */
+    public ProductBulkItemResultDTO(int index, Long id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    /**
+     * Crea el resultado de un elemento que no se ha guardado.
+     *
+     * @param index Posición del elemento en la petición
+     * @param id ID indicado en el elemento, o null
+     * @param error Motivo del fallo
+     * @return Resultado fallido
+     */
+    public static ProductBulkItemResultDTO failed(int index, Long id, String error) {
+        return new ProductBulkItemResultDTO(index, id, Status.FAILED, error);
+    }
+
+    // Getters y Setters
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,74 @@
+package com.microshop.product.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de productos: los totales y
+ * un resultado por elemento, en el orden de la petición.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductBulkResultDTO {
+
+    private int created;
+    private int updated;
+    private int failed;
+    private List<ProductBulkItemResultDTO> items;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductBulkResultDTO() {
+    }
+
+    /**
+     * Construye el resultado contando los elementos de cada tipo.
+     *
+     * @param items Resultado de cada elemento, en el orden de la petición
+     */
+    public ProductBulkResultDTO(List<ProductBulkItemResultDTO> items) {
+        this.items = items;
+        for (ProductBulkItemResultDTO item : items) {
+            switch (item.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+    }
+
+    // Getters y Setters
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ProductBulkItemResultDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductBulkItemResultDTO> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,51 @@
+package com.microshop.product.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una operación de administración por lotes: los
+ * productos modificados o eliminados y los IDs solicitados que no existían.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductBulkUpdateResultDTO {
+
+    private long affected;
+    private List<Long> notFound;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductBulkUpdateResultDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param affected Productos modificados o eliminados
+     * @param notFound IDs solicitados que no existían (vacía al seleccionar por categoría)
+     */
+    public ProductBulkUpdateResultDTO(long affected, List<Long> notFound) {
+        this.affected = affected;
+        this.notFound = notFound;
+    }
+
+    // Getters y Setters
+
+    public long getAffected() {
+        return affected;
+    }
+
+    public void setAffected(long affected) {
+        this.affected = affected;
+    }
+
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<Long> notFound) {
+        this.notFound = notFound;
+    }
+}
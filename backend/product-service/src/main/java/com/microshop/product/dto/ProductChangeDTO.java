@@ -0,0 +1,69 @@
+package com.microshop.product.dto;
+
+/**
+ * DTO de una entrada del feed de cambios del catálogo: el estado actual de un
+ * producto creado o modificado, o la lápida de un producto eliminado.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductChangeDTO {
+
+    private Long seq;
+    private Long productId;
+    private boolean deleted;
+    private ProductResponseDTO product;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductChangeDTO() {
+    }
+
+    /**
+     * Constructor usado por las consultas de proyección; el producto se añade después.
+     *
+     * @param seq Número de secuencia del cambio
+     * @param productId ID del producto
+     * @param deleted true si el producto se eliminó
+     */
+    public ProductChangeDTO(Long seq, Long productId, boolean deleted) {
+        this.seq = seq;
+        this.productId = productId;
+        this.deleted = deleted;
+    }
+
+    // Getters y Setters
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public ProductResponseDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductResponseDTO product) {
+        this.product = product;
+    }
+}
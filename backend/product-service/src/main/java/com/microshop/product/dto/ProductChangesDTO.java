@@ -0,0 +1,65 @@
+package com.microshop.product.dto;
+
+import java.util.List;
+
+/**
+ * DTO de una página del feed de cambios del catálogo.
+ *
+ * Los cambios llegan en orden de número de secuencia; {@code lastSeq} es el valor
+ * que el consumidor debe enviar como {@code since} en la siguiente petición, y
+ * {@code hasMore} indica si ya hay más cambios disponibles.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductChangesDTO {
+
+    private List<ProductChangeDTO> changes;
+    private long lastSeq;
+    private boolean hasMore;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductChangesDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param changes Cambios de la página, en orden de secuencia
+     * @param lastSeq Número de secuencia hasta el que la página está completa
+     * @param hasMore true si hay más cambios después de lastSeq
+     */
+    public ProductChangesDTO(List<ProductChangeDTO> changes, long lastSeq, boolean hasMore) {
+        this.changes = changes;
+        this.lastSeq = lastSeq;
+        this.hasMore = hasMore;
+    }
+
+    // Getters y Setters
+
+    public List<ProductChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ProductChangeDTO> changes) {
+        this.changes = changes;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,48 @@
+package com.microshop.product.dto;
+
+/**
+ * DTO con el error de validación de una línea de una importación CSV.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductCsvImportErrorDTO {
+
+    private long line;
+    private String error;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductCsvImportErrorDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param line Línea del fichero (la cabecera es la línea 1)
+     * @param error Motivo por el que se descartó la línea
+     */
+    public ProductCsvImportErrorDTO(long line, String error) {
+        this.line = line;
+        this.error = error;
+    }
+
+    // Getters y Setters
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
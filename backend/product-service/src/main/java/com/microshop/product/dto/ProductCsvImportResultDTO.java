@@ -0,0 +1,85 @@
+package com.microshop.product.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación CSV del catálogo: los totales y los
+ * errores de las primeras líneas descartadas.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductCsvImportResultDTO {
+
+    private long rows;
+    private long created;
+    private long updated;
+    private long failed;
+    private List<ProductCsvImportErrorDTO> errors;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductCsvImportResultDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param rows Líneas de datos leídas
+     * @param created Productos creados
+     * @param updated Productos actualizados
+     * @param failed Líneas descartadas por errores de validación
+     * @param errors Errores de las primeras líneas descartadas, en orden de línea
+     */
+    public ProductCsvImportResultDTO(long rows, long created, long updated, long failed,
+                                     List<ProductCsvImportErrorDTO> errors) {
+        this.rows = rows;
+        this.created = created;
+        this.updated = updated;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    // Getters y Setters
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ProductCsvImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ProductCsvImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
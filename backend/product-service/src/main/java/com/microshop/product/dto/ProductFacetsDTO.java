@@ -0,0 +1,162 @@
+package com.microshop.product.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con los recuentos de productos para la navegación por facetas del catálogo.
+ *
+ * Cada faceta se cuenta aplicando los filtros de las demás: los recuentos por
+ * categoría respetan el rango de precio filtrado y los recuentos por rango de
+ * precio respetan la categoría filtrada, de modo que el usuario ve cuántos
+ * productos obtendría al cambiar cada filtro.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductFacetsDTO {
+
+    private long total;
+    private List<CategoryFacet> categories;
+    private List<PriceRangeFacet> priceRanges;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductFacetsDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param total Productos que cumplen todos los filtros
+     * @param categories Recuentos por categoría, de mayor a menor
+     * @param priceRanges Recuentos por rango de precio, en orden creciente de precio
+     */
+    public ProductFacetsDTO(long total, List<CategoryFacet> categories, List<PriceRangeFacet> priceRanges) {
+        this.total = total;
+        this.categories = categories;
+        this.priceRanges = priceRanges;
+    }
+
+    // Getters y Setters
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<CategoryFacet> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<CategoryFacet> categories) {
+        this.categories = categories;
+    }
+
+    public List<PriceRangeFacet> getPriceRanges() {
+        return priceRanges;
+    }
+
+    public void setPriceRanges(List<PriceRangeFacet> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+
+    /**
+     * Número de productos de una categoría.
+     */
+    public static class CategoryFacet {
+
+        private String category;
+        private long count;
+
+        /**
+         * Constructor por defecto.
+         */
+        public CategoryFacet() {
+        }
+
+        /**
+         * Constructor con parámetros.
+         *
+         * @param category Nombre de la categoría
+         * @param count Número de productos
+         */
+        public CategoryFacet(String category, long count) {
+            this.category = category;
+            this.count = count;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * Número de productos con precio en un rango.
+     */
+    public static class PriceRangeFacet {
+
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+
+        /**
+         * Constructor por defecto.
+         */
+        public PriceRangeFacet() {
+        }
+
+        /**
+         * Constructor con parámetros.
+         *
+         * @param from Precio mínimo, incluido
+         * @param to Precio máximo, excluido (null en el último rango)
+         * @param count Número de productos
+         */
+        public PriceRangeFacet(BigDecimal from, BigDecimal to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public BigDecimal getFrom() {
+            return from;
+        }
+
+        public void setFrom(BigDecimal from) {
+            this.from = from;
+        }
+
+        public BigDecimal getTo() {
+            return to;
+        }
+
+        public void setTo(BigDecimal to) {
+            this.to = to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
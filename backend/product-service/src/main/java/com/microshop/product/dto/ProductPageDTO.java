@@ -0,0 +1,59 @@
+package com.microshop.product.dto;
+
+import java.util.List;
+
+/**
+ * DTO que representa una página de productos obtenida mediante paginación keyset.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductPageDTO {
+
+    private List<ProductResponseDTO> items;
+    private String nextCursor;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductPageDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param items Productos de la página
+     * @param nextCursor Cursor opaco de la página siguiente, o null si es la última
+     */
+    public ProductPageDTO(List<ProductResponseDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Indica si existen más productos tras esta página.
+     *
+     * @return true si hay página siguiente
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Getters y Setters
+
+    public List<ProductResponseDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ProductResponseDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
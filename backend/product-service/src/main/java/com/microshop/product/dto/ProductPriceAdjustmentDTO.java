@@ -0,0 +1,73 @@
+package com.microshop.product.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO para ajustar por lotes el precio de los productos de una lista de IDs o de
+ * una categoría, en un porcentaje o en un importe fijo (positivos para subir,
+ * negativos para bajar).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductPriceAdjustmentDTO extends ProductSelectionDTO {
+
+    /**
+     * Forma de aplicar el ajuste al precio actual.
+     */
+    public enum Type {
+        /** Porcentaje del precio actual; el resultado se redondea a céntimos. */
+        PERCENTAGE,
+        /** Importe que se suma al precio actual. */
+        AMOUNT
+    }
+
+    @NotNull(message = "El tipo de ajuste es obligatorio")
+    private Type type;
+
+    @NotNull(message = "El valor del ajuste es obligatorio")
+    @Digits(integer = 8, fraction = 2, message = "El valor del ajuste admite hasta 8 enteros y 2 decimales")
+    private BigDecimal value;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductPriceAdjustmentDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param ids IDs de los productos, o null para seleccionar por categoría
+     * @param category Categoría de los productos, o null para seleccionar por IDs
+     * @param type Tipo de ajuste
+     * @param value Porcentaje o importe del ajuste
+     */
+    public ProductPriceAdjustmentDTO(List<Long> ids, String category, Type type, BigDecimal value) {
+        super(ids, category);
+        this.type = type;
+        this.value = value;
+    }
+
+    // Getters y Setters
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public void setValue(BigDecimal value) {
+        this.value = value;
+    }
+}
@@ -4,9 +4,11 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
+import java.util.Map;
 
 /**
  * DTO para recibir datos de creación y actualización de productos.
@@ -35,6 +37,18 @@ public class ProductRequestDTO {
     @Size(max = 100, message = "La categoría no puede exceder 100 caracteres")
     private String category;
 
+    /**
+     * Atributos del producto. En una actualización, null conserva los atributos actuales.
+     */
+    @Size(max = 20, message = "El producto no puede tener más de 20 atributos")
+    private Map<
+            @Pattern(regexp = "[a-z][a-z0-9_]{0,49}",
+                     message = "Los nombres de atributo deben empezar por una letra minúscula y contener solo minúsculas, dígitos y guiones bajos (máximo 50)")
+            String,
+            @NotBlank(message = "El valor del atributo es obligatorio")
+            @Size(max = 100, message = "El valor del atributo no puede exceder 100 caracteres")
+            String> attributes;
+
     /**
      * Constructor por defecto.
      */
@@ -99,5 +113,12 @@ public class ProductRequestDTO {
     public void setCategory(String category) {
         this.category = category;
     }
-}
 
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(Map<String, String> attributes) {
+        this.attributes = attributes;
+    }
+}
@@ -4,6 +4,7 @@ import com.microshop.product.model.Product;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * DTO para devolver información de productos al cliente.
@@ -20,6 +21,7 @@ public class ProductResponseDTO {
     private Integer stock;
     private String category;
     private LocalDateTime createdAt;
+    private Long version;
 
     /**
      * Constructor por defecto.
@@ -37,9 +39,10 @@ public class ProductResponseDTO {
      * @param stock Stock disponible
      * @param category Categoría del producto
      * @param createdAt Fecha de creación
+     * @param version Versión del producto
      */
     public ProductResponseDTO(Long id, String name, String description, BigDecimal price, 
-                             Integer stock, String category, LocalDateTime createdAt) {
+                             Integer stock, String category, LocalDateTime createdAt, Long version) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -47,6 +50,7 @@ public class ProductResponseDTO {
         this.stock = stock;
         this.category = category;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     /**
@@ -63,7 +67,8 @@ public class ProductResponseDTO {
             product.getPrice(),
             product.getStock(),
             product.getCategory(),
-            product.getCreatedAt()
+            product.getCreatedAt(),
+            product.getVersion()
         );
     }
 
@@ -124,5 +129,35 @@ public class ProductResponseDTO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
-}
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductResponseDTO that)) {
+            return false;
+        }
+        return Objects.equals(id, that.id)
+                && Objects.equals(name, that.name)
+                && Objects.equals(description, that.description)
+                && Objects.equals(price, that.price)
+                && Objects.equals(stock, that.stock)
+                && Objects.equals(category, that.category)
+                && Objects.equals(createdAt, that.createdAt)
+                && Objects.equals(version, that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, description, price, stock, category, createdAt, version);
+    }
+}
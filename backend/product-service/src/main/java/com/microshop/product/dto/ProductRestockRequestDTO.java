@@ -0,0 +1,65 @@
+package com.microshop.product.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para reponer por lotes el stock de una lista de productos, sumando a cada
+ * uno las mismas unidades.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductRestockRequestDTO {
+
+    @NotEmpty(message = "La lista de IDs es obligatoria")
+    @Size(max = ProductSelectionDTO.MAX_IDS,
+          message = "La lista no puede tener más de " + ProductSelectionDTO.MAX_IDS + " IDs")
+    private List<Long> ids;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = ProductStockRequestDTO.MAX_QUANTITY,
+         message = "La cantidad no puede exceder " + ProductStockRequestDTO.MAX_QUANTITY)
+    private Integer quantity;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductRestockRequestDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param ids IDs de los productos
+     * @param quantity Unidades a sumar al stock de cada producto
+     */
+    public ProductRestockRequestDTO(List<Long> ids, Integer quantity) {
+        this.ids = ids;
+        this.quantity = quantity;
+    }
+
+    // Getters y Setters
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
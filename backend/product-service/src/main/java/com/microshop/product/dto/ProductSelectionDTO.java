@@ -0,0 +1,61 @@
+package com.microshop.product.dto;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO con los productos a los que se aplica una operación de administración por
+ * lotes: una lista de IDs o una categoría, pero no ambas.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductSelectionDTO {
+
+    /**
+     * Número máximo de IDs por petición.
+     */
+    public static final int MAX_IDS = 10_000;
+
+    @Size(max = MAX_IDS, message = "La lista no puede tener más de " + MAX_IDS + " IDs")
+    private List<Long> ids;
+
+    @Size(max = 100, message = "La categoría no puede exceder 100 caracteres")
+    private String category;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductSelectionDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param ids IDs de los productos, o null para seleccionar por categoría
+     * @param category Categoría de los productos, o null para seleccionar por IDs
+     */
+    public ProductSelectionDTO(List<Long> ids, String category) {
+        this.ids = ids;
+        this.category = category;
+    }
+
+    // Getters y Setters
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
@@ -0,0 +1,47 @@
+package com.microshop.product.dto;
+
+/**
+ * Proyección de las estadísticas de visitas de un producto junto con su
+ * categoría, con la que se mantiene el ranking de popularidad.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductStatsDTO {
+
+    private final Long productId;
+    private final String category;
+    private final Double score;
+    private final Long decayedAt;
+
+    /**
+     * Constructor usado por las consultas de proyección.
+     *
+     * @param productId ID del producto
+     * @param category Categoría del producto
+     * @param score Puntuación de popularidad, o null si el producto no tiene estadísticas
+     * @param decayedAt Instante (ms desde epoch) al que está referida la puntuación, o null
+     */
+    public ProductStatsDTO(Long productId, String category, Double score, Long decayedAt) {
+        this.productId = productId;
+        this.category = category;
+        this.score = score;
+        this.decayedAt = decayedAt;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public Long getDecayedAt() {
+        return decayedAt;
+    }
+}
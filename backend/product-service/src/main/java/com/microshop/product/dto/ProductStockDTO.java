@@ -0,0 +1,59 @@
+package com.microshop.product.dto;
+
+/**
+ * DTO con el stock de un producto tras descontar o sumar unidades.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductStockDTO {
+
+    private Long productId;
+    private int stock;
+    private Long version;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductStockDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param productId ID del producto
+     * @param stock Stock tras la operación
+     * @param version Versión del producto tras la operación
+     */
+    public ProductStockDTO(Long productId, int stock, Long version) {
+        this.productId = productId;
+        this.stock = stock;
+        this.version = version;
+    }
+
+    // Getters y Setters
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public void setStock(int stock) {
+        this.stock = stock;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
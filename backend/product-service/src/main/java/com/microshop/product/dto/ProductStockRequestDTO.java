@@ -0,0 +1,49 @@
+package com.microshop.product.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO para recibir las unidades a descontar o sumar al stock de un producto.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductStockRequestDTO {
+
+    /**
+     * Unidades máximas por operación.
+     */
+    public static final int MAX_QUANTITY = 1_000_000;
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = MAX_QUANTITY, message = "La cantidad no puede exceder " + MAX_QUANTITY)
+    private Integer quantity;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductStockRequestDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param quantity Unidades a descontar o sumar
+     */
+    public ProductStockRequestDTO(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    // Getters y Setters
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
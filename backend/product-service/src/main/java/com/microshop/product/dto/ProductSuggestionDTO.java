@@ -0,0 +1,68 @@
+package com.microshop.product.dto;
+
+/**
+ * DTO de una sugerencia de autocompletado: el nombre de un producto o de una
+ * categoría que empieza por el prefijo escrito por el usuario.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductSuggestionDTO {
+
+    /**
+     * Tipo de sugerencia.
+     */
+    public enum Type {
+        CATEGORY,
+        PRODUCT
+    }
+
+    private String text;
+    private Type type;
+    private Long productId;
+
+    /**
+     * Constructor por defecto.
+     */
+    public ProductSuggestionDTO() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param text Texto sugerido tal como se muestra al usuario
+     * @param type Tipo de sugerencia
+     * @param productId ID del producto sugerido (null en las categorías)
+     */
+    public ProductSuggestionDTO(String text, Type type, Long productId) {
+        this.text = text;
+        this.type = type;
+        this.productId = productId;
+    }
+
+    // Getters y Setters
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+}
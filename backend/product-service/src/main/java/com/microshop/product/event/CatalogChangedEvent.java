@@ -0,0 +1,59 @@
+package com.microshop.product.event;
+
+/**
+ * Evento publicado tras un cambio masivo del catálogo (importaciones y operaciones
+ * de administración por lotes) en lugar de un {@link ProductChangedEvent} por
+ * producto. Las caches se vacían y las estructuras en memoria se reconstruyen
+ * desde la base de datos una sola vez.
+ *
+ * Los eventos remotos son los recibidos de otra instancia del servicio a través
+ * del bus de invalidación.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class CatalogChangedEvent {
+
+    private final long affectedProducts;
+    private final boolean remote;
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param affectedProducts Número de productos afectados (0 si se desconoce)
+     * @param remote true si el cambio se realizó en otra instancia del servicio
+     */
+    public CatalogChangedEvent(long affectedProducts, boolean remote) {
+        this.affectedProducts = affectedProducts;
+        this.remote = remote;
+    }
+
+    /**
+     * Crea el evento de un cambio masivo realizado en esta instancia.
+     *
+     * @param affectedProducts Número de productos afectados
+     * @return Evento local
+     */
+    public static CatalogChangedEvent bulk(long affectedProducts) {
+        return new CatalogChangedEvent(affectedProducts, false);
+    }
+
+    /**
+     * Crea el evento correspondiente a un cambio masivo realizado en otra instancia.
+     *
+     * @return Evento remoto
+     */
+    public static CatalogChangedEvent remote() {
+        return new CatalogChangedEvent(0, true);
+    }
+
+    // Getters
+
+    public long getAffectedProducts() {
+        return affectedProducts;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -0,0 +1,26 @@
+package com.microshop.product.event;
+
+/**
+ * Evento publicado por CategoryService cada vez que se crea una categoría, para que
+ * el árbol de categorías en memoria se recargue tras confirmar la transacción.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param categoryId ID de la categoría afectada
+     */
+    public CategoryChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
@@ -0,0 +1,127 @@
+package com.microshop.product.event;
+
+import com.microshop.product.dto.ProductResponseDTO;
+
+/**
+ * Evento publicado por ProductService cada vez que se crea, actualiza o elimina
+ * un producto. Las caches y estructuras en memoria lo escuchan para mantenerse
+ * coherentes con la base de datos.
+ *
+ * Los eventos remotos son los recibidos de otra instancia del servicio a través
+ * del bus de invalidación; solo contienen el ID y las categorías afectadas, no
+ * el estado del producto.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ProductChangedEvent {
+
+    /**
+     * Tipo de cambio realizado sobre el producto.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final ProductResponseDTO product;
+    private final String previousCategory;
+    private final String currentCategory;
+    private final boolean remote;
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param type Tipo de cambio
+     * @param productId ID del producto afectado
+     * @param product Estado del producto tras el cambio (null si se eliminó o si el evento es remoto)
+     * @param previousCategory Categoría antes del cambio (null si se creó)
+     * @param currentCategory Categoría tras el cambio (null si se eliminó)
+     * @param remote true si el cambio se realizó en otra instancia del servicio
+     */
+    public ProductChangedEvent(Type type, Long productId, ProductResponseDTO product,
+                               String previousCategory, String currentCategory, boolean remote) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.previousCategory = previousCategory;
+        this.currentCategory = currentCategory;
+        this.remote = remote;
+    }
+
+    /**
+     * Crea el evento de alta de un producto.
+     *
+     * @param product Producto creado
+     * @return Evento de creación
+     */
+    public static ProductChangedEvent created(ProductResponseDTO product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product, null, product.getCategory(), false);
+    }
+
+    /**
+     * Crea el evento de modificación de un producto.
+     *
+     * @param product Producto tras la modificación
+     * @param previousCategory Categoría que tenía antes de la modificación
+     * @return Evento de actualización
+     */
+    public static ProductChangedEvent updated(ProductResponseDTO product, String previousCategory) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product,
+                previousCategory, product.getCategory(), false);
+    }
+
+    /**
+     * Crea el evento de baja de un producto.
+     *
+     * @param productId ID del producto eliminado
+     * @param previousCategory Categoría que tenía el producto
+     * @return Evento de eliminación
+     */
+    public static ProductChangedEvent deleted(Long productId, String previousCategory) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, previousCategory, null, false);
+    }
+
+    /**
+     * Crea el evento correspondiente a un cambio realizado en otra instancia.
+     *
+     * @param type Tipo de cambio
+     * @param productId ID del producto afectado
+     * @param previousCategory Categoría antes del cambio
+     * @param currentCategory Categoría tras el cambio
+     * @return Evento remoto
+     */
+    public static ProductChangedEvent remote(Type type, Long productId, String previousCategory,
+                                             String currentCategory) {
+        return new ProductChangedEvent(type, productId, null, previousCategory, currentCategory, true);
+    }
+
+    // Getters
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public ProductResponseDTO getProduct() {
+        return product;
+    }
+
+    public String getPreviousCategory() {
+        return previousCategory;
+    }
+
+    public String getCurrentCategory() {
+        return currentCategory;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
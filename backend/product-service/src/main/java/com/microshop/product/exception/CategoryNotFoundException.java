@@ -0,0 +1,19 @@
+package com.microshop.product.exception;
+
+/**
+ * Excepción lanzada cuando no se encuentra una categoría.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class CategoryNotFoundException extends RuntimeException {
+
+    /**
+     * Constructor con mensaje.
+     *
+     * @param message Mensaje de error
+     */
+    public CategoryNotFoundException(String message) {
+        super(message);
+    }
+}
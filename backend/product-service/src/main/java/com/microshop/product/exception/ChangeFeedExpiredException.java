@@ -0,0 +1,21 @@
+package com.microshop.product.exception;
+
+/**
+ * Excepción lanzada cuando un consumidor pide el feed de cambios desde un número
+ * de secuencia cuyas lápidas ya se han compactado: debe volver a sincronizar el
+ * catálogo completo con {@code since=0}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class ChangeFeedExpiredException extends RuntimeException {
+
+    /**
+     * Constructor con mensaje.
+     *
+     * @param message Mensaje de error
+     */
+    public ChangeFeedExpiredException(String message) {
+        super(message);
+    }
+}
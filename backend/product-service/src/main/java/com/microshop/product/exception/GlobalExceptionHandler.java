@@ -1,11 +1,14 @@
 package com.microshop.product.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -64,6 +67,133 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * Maneja excepciones cuando no se encuentra una categoría.
+     * 
+     * @param ex Excepción de categoría no encontrada
+     * @return Respuesta con error 404
+     */
+    @ExceptionHandler(CategoryNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleCategoryNotFoundException(CategoryNotFoundException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.NOT_FOUND.value(),
+            "Categoría no encontrada",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    /**
+     * Maneja actualizaciones condicionales cuya versión esperada no coincide con la actual.
+     * 
+     * @param ex Excepción de precondición fallida
+     * @return Respuesta con error 412
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.PRECONDITION_FAILED.value(),
+            "Precondición fallida",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    /**
+     * Maneja descuentos de stock mayores que el stock disponible.
+     * 
+     * @param ex Excepción de stock insuficiente
+     * @return Respuesta con error 409
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Stock insuficiente",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Maneja peticiones del feed de cambios desde un punto ya compactado.
+     * 
+     * @param ex Excepción de feed caducado
+     * @return Respuesta con error 410
+     */
+    @ExceptionHandler(ChangeFeedExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleChangeFeedExpiredException(ChangeFeedExpiredException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.GONE.value(),
+            "Feed de cambios caducado",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+    }
+
+    /**
+     * Maneja operaciones que la base de datos configurada no admite.
+     * 
+     * @param ex Excepción de operación no soportada
+     * @return Respuesta con error 501
+     */
+    @ExceptionHandler(UnsupportedOperationException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedOperationException(UnsupportedOperationException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.NOT_IMPLEMENTED.value(),
+            "Operación no disponible",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(errorResponse);
+    }
+
+    /**
+     * Maneja modificaciones concurrentes detectadas por el control de versión optimista.
+     * 
+     * @param ex Excepción de bloqueo optimista
+     * @return Respuesta con error 409
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Conflicto de concurrencia",
+            "El producto fue modificado por otra petición; vuelva a leerlo y reintente",
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Maneja parámetros de petición inválidos (paginación, ordenación, tipos incorrectos).
+     * 
+     * @param ex Excepción de argumento inválido
+     * @return Respuesta con error 400
+     */
+    @ExceptionHandler({IllegalArgumentException.class, MethodArgumentTypeMismatchException.class,
+                       MissingServletRequestParameterException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidArgumentException(Exception ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.BAD_REQUEST.value(),
+            "Parámetros inválidos",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     /**
      * Maneja excepciones genéricas no controladas.
      * 
@@ -0,0 +1,20 @@
+package com.microshop.product.exception;
+
+/**
+ * Excepción lanzada cuando se intenta descontar más unidades de las que hay
+ * en stock de un producto.
+ * 
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    /**
+     * Constructor con mensaje.
+     * 
+     * @param message Mensaje de error
+     */
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
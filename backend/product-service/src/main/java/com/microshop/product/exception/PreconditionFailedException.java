@@ -0,0 +1,20 @@
+package com.microshop.product.exception;
+
+/**
+ * Excepción lanzada cuando la versión indicada en una petición condicional
+ * (cabecera If-Match) no coincide con la versión actual del producto.
+ * 
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Constructor con mensaje.
+     * 
+     * @param message Mensaje de error
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
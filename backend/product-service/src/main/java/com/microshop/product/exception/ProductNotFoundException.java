@@ -9,12 +9,14 @@ package com.microshop.product.exception;
 public class ProductNotFoundException extends RuntimeException {
 
     /**
-     * Constructor con mensaje.
+     * Constructor con mensaje. No captura la traza de la pila: es un resultado
+     * esperado de la API (se traduce a 404) y las búsquedas de IDs inexistentes
+     * son frecuentes, por lo que no se paga el coste de recorrer la pila.
      * 
      * @param message Mensaje de error
      */
     public ProductNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     /**
@@ -0,0 +1,157 @@
+package com.microshop.product.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un nodo del árbol de categorías.
+ *
+ * Cada categoría guarda su ruta materializada: los IDs de sus ancestros y el suyo
+ * separados por barras, por ejemplo {@code /3/17/}. Todas las rutas de un subárbol
+ * empiezan por la ruta de su raíz, de modo que el subárbol es un rango de rutas
+ * consecutivas ({@link #subtreeUpperBound(String)}) que se resuelve con un índice.
+ * Los nombres son únicos sin distinguir mayúsculas, porque los productos referencian
+ * su categoría por nombre.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "categories", indexes = {
+    @Index(name = "idx_category_path", columnList = "path")
+})
+public class Category {
+
+    /**
+     * Longitud máxima de una ruta materializada.
+     */
+    public static final int MAX_PATH_LENGTH = 1000;
+
+    /**
+     * Separador de los IDs de una ruta.
+     */
+    public static final char PATH_SEPARATOR = '/';
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "El nombre de la categoría es obligatorio")
+    @Size(max = 100, message = "El nombre de la categoría no puede exceder 100 caracteres")
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(nullable = false, length = MAX_PATH_LENGTH)
+    private String path;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public Category() {
+    }
+
+    /**
+     * Constructor con parámetros principales.
+     *
+     * @param name Nombre de la categoría
+     * @param parent Categoría padre, o null para una categoría raíz
+     */
+    public Category(String name, Category parent) {
+        this.name = name;
+        this.parentId = parent == null ? null : parent.getId();
+        this.path = parent == null ? String.valueOf(PATH_SEPARATOR) : parent.getPath();
+        this.depth = parent == null ? 0 : parent.getDepth() + 1;
+    }
+
+    /**
+     * Callback de JPA para establecer la fecha de creación antes de persistir.
+     */
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Completa la ruta con el ID asignado al persistir, que hasta entonces contiene
+     * solo la ruta del padre.
+     */
+    public void completePath() {
+        path = path + id + PATH_SEPARATOR;
+    }
+
+    /**
+     * Límite superior, excluido, del rango de rutas del subárbol con la ruta indicada:
+     * la ruta con su barra final sustituida por el carácter siguiente ('0'). Requiere
+     * comparar las rutas por código de carácter (collation "C" en PostgreSQL).
+     *
+     * @param path Ruta de la raíz del subárbol
+     * @return Primera ruta que ya no pertenece al subárbol
+     */
+    public static String subtreeUpperBound(String path) {
+        return path.substring(0, path.length() - 1) + (char) (PATH_SEPARATOR + 1);
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -6,24 +6,48 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Entidad que representa un producto en el catálogo.
  * 
+ * Los índices funcionales sobre {@code lower(category)} que usan los listados por
+ * categoría no se pueden declarar con {@link Index} y se crean en la migración V4.
+ * El stock nunca puede quedar por debajo de las unidades reservadas (migración V10).
+ * 
  * @author Microshop Platform
  * @version 1.0.0
  */
 @Entity
 @Table(name = "products", indexes = {
-    @Index(name = "idx_product_category", columnList = "category")
+    @Index(name = "idx_product_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_product_price_id", columnList = "price, id"),
+    @Index(name = "idx_product_category_path_id", columnList = "category_path, id"),
+    @Index(name = "idx_product_change_seq", columnList = "change_seq")
 })
+@Check(constraints = "stock >= reserved_stock")
 public class Product {
 
+    /**
+     * Tamaño de los bloques de IDs que cada instancia reserva de la secuencia.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Identificador tomado de la secuencia products_id_seq por bloques de
+     * {@value #ID_ALLOCATION_SIZE}: Hibernate conoce el ID antes del INSERT, de modo
+     * que puede agrupar las inserciones en lotes JDBC (con IDENTITY no puede).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "products_id_seq",
+                       allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "El nombre es obligatorio")
@@ -50,9 +74,53 @@ public class Product {
     @Column(nullable = false, length = 100)
     private String category;
 
+    /**
+     * Ruta materializada de la categoría en el árbol de categorías (ver {@link Category}),
+     * copiada en el producto para obtener un subárbol completo con un único rango del índice.
+     */
+    @Column(name = "category_path", length = Category.MAX_PATH_LENGTH)
+    private String categoryPath;
+
+    /**
+     * Atributos del producto (marca, color, talla...) como pares nombre-valor con
+     * sus propias columnas en la tabla product_attributes. Se indexan en memoria
+     * en {@link com.microshop.product.search.ProductAttributeIndex} para filtrar por ellos.
+     */
+    @ElementCollection
+    @CollectionTable(name = "product_attributes", joinColumns = @JoinColumn(name = "product_id"))
+    @MapKeyColumn(name = "attribute_name", length = 50)
+    @Column(name = "attribute_value", nullable = false, length = 100)
+    private Map<String, String> attributes = new HashMap<>();
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Versión para control de concurrencia optimista; se incrementa en cada modificación
+     * y sirve también como validador (ETag) de las respuestas HTTP.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Número de secuencia del último cambio del producto en el feed de cambios
+     * ({@link com.microshop.product.service.ProductChangeFeedService}); lo asigna el
+     * servicio en cada alta y modificación.
+     */
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    /**
+     * Unidades del stock reservadas en bloques por las instancias que venden el
+     * producto desde memoria ({@link com.microshop.product.cache.HotStockCounters}).
+     * Solo se escribe con SQL desde esos contadores: Hibernate no la incluye en sus
+     * INSERT ni UPDATE, de modo que guardar una entidad leída antes no pisa las reservas.
+     */
+    @ColumnDefault("0")
+    @Column(name = "reserved_stock", nullable = false, insertable = false, updatable = false)
+    private Integer reservedStock;
+
     /**
      * Constructor por defecto requerido por JPA.
      */
@@ -137,6 +205,22 @@ public class Product {
         this.category = category;
     }
 
+    public String getCategoryPath() {
+        return categoryPath;
+    }
+
+    public void setCategoryPath(String categoryPath) {
+        this.categoryPath = categoryPath;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(Map<String, String> attributes) {
+        this.attributes = attributes;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -144,5 +228,25 @@ public class Product {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Integer getReservedStock() {
+        return reservedStock;
+    }
 }
 
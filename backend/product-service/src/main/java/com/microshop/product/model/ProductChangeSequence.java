@@ -0,0 +1,62 @@
+package com.microshop.product.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Entidad con la marca de compactación del feed de cambios del catálogo, en una
+ * única fila: {@code compactedSeq} es el último número cuyas lápidas se han
+ * compactado. Los números del feed se toman de la secuencia
+ * {@code product_change_seq} (migración V11).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "product_change_sequence")
+public class ProductChangeSequence {
+
+    /**
+     * ID de la única fila de la tabla.
+     */
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "compacted_seq", nullable = false)
+    private Long compactedSeq;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public ProductChangeSequence() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param compactedSeq Último número de secuencia compactado
+     */
+    public ProductChangeSequence(Long compactedSeq) {
+        this.id = SINGLETON_ID;
+        this.compactedSeq = compactedSeq;
+    }
+
+    // Getters y Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getCompactedSeq() {
+        return compactedSeq;
+    }
+
+    public void setCompactedSeq(Long compactedSeq) {
+        this.compactedSeq = compactedSeq;
+    }
+}
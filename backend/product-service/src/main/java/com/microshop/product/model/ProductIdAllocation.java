@@ -0,0 +1,78 @@
+package com.microshop.product.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Entidad con el ID mínimo que una instancia puede llegar a asignar a un producto
+ * nuevo. Como cada instancia toma los IDs de la secuencia por bloques, un producto
+ * creado en otra instancia puede recibir un ID inferior al máximo ya existente;
+ * {@link com.microshop.product.cache.ProductIdFilter} solo descarta IDs por debajo
+ * del menor de estos suelos. Solo se escribe desde el filtro.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "product_id_allocations", indexes = {
+    @Index(name = "idx_id_allocation_heartbeat", columnList = "heartbeat_at")
+})
+public class ProductIdAllocation {
+
+    @Id
+    @Column(name = "instance_id", length = 36)
+    private String instanceId;
+
+    @Column(name = "floor_id", nullable = false)
+    private Long floorId;
+
+    /**
+     * Última renovación de la instancia, en milisegundos desde epoch.
+     */
+    @Column(name = "heartbeat_at", nullable = false)
+    private Long heartbeatAt;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public ProductIdAllocation() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param instanceId Identificador de la instancia
+     * @param floorId ID mínimo que la instancia puede asignar
+     * @param heartbeatAt Instante de la renovación, en ms desde epoch
+     */
+    public ProductIdAllocation(String instanceId, Long floorId, Long heartbeatAt) {
+        this.instanceId = instanceId;
+        this.floorId = floorId;
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    // Getters y Setters
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Long getFloorId() {
+        return floorId;
+    }
+
+    public void setFloorId(Long floorId) {
+        this.floorId = floorId;
+    }
+
+    public Long getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Long heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+}
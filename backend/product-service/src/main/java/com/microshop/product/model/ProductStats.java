@@ -0,0 +1,75 @@
+package com.microshop.product.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Entidad con las estadísticas de visitas de un producto.
+ *
+ * La puntuación de popularidad decae exponencialmente con el tiempo: es la suma de
+ * las visitas ponderadas por {@code 2^(-antigüedad / vida media)}, referida al
+ * instante {@link #getDecayedAt()}. Solo se escribe en lotes desde el índice de
+ * popularidad, nunca en cada visita.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "product_stats")
+public class ProductStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(nullable = false)
+    private Long views;
+
+    /**
+     * Instante (milisegundos desde epoch) al que está referida la puntuación.
+     */
+    @Column(name = "decayed_at", nullable = false)
+    private Long decayedAt;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public ProductStats() {
+    }
+
+    // Getters y Setters
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Long getViews() {
+        return views;
+    }
+
+    public void setViews(Long views) {
+        this.views = views;
+    }
+
+    public Long getDecayedAt() {
+        return decayedAt;
+    }
+
+    public void setDecayedAt(Long decayedAt) {
+        this.decayedAt = decayedAt;
+    }
+}
@@ -0,0 +1,117 @@
+package com.microshop.product.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Entidad con las unidades de stock de un producto reservadas por una instancia
+ * para venderlas desde memoria. Es el registro que permite devolver al stock
+ * disponible las reservas de una instancia caída; solo se escribe con SQL desde
+ * {@link com.microshop.product.cache.HotStockCounters}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Entity
+@IdClass(ProductStockReservation.Key.class)
+@Table(name = "product_stock_reservations", indexes = {
+    @Index(name = "idx_stock_reservation_heartbeat", columnList = "heartbeat_at")
+})
+public class ProductStockReservation {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "instance_id", length = 36)
+    private String instanceId;
+
+    @Column(nullable = false)
+    private Integer units;
+
+    /**
+     * Último volcado de la instancia, en milisegundos desde epoch.
+     */
+    @Column(name = "heartbeat_at", nullable = false)
+    private Long heartbeatAt;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public ProductStockReservation() {
+    }
+
+    // Getters y Setters
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Integer getUnits() {
+        return units;
+    }
+
+    public void setUnits(Integer units) {
+        this.units = units;
+    }
+
+    public Long getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Long heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    /**
+     * Clave primaria compuesta: producto e instancia.
+     */
+    public static class Key implements Serializable {
+
+        private Long productId;
+        private String instanceId;
+
+        /**
+         * Constructor por defecto requerido por JPA.
+         */
+        public Key() {
+        }
+
+        /**
+         * Constructor con parámetros.
+         *
+         * @param productId ID del producto
+         * @param instanceId Identificador de la instancia
+         */
+        public Key(Long productId, String instanceId) {
+            this.productId = productId;
+            this.instanceId = instanceId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key
+                    && Objects.equals(productId, key.productId) && Objects.equals(instanceId, key.instanceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, instanceId);
+        }
+    }
+}
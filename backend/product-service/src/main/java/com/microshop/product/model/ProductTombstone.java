@@ -0,0 +1,75 @@
+package com.microshop.product.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que registra la eliminación de un producto en el feed de cambios, para
+ * que los consumidores que sincronizan de forma incremental la vean. Las lápidas
+ * antiguas se compactan pasado el periodo de retención. Su número de secuencia se
+ * toma de {@code product_change_seq} al persistirla.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+    @Index(name = "idx_product_tombstone_deleted_at", columnList = "deleted_at")
+})
+public class ProductTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_seq")
+    @SequenceGenerator(name = "product_change_seq", sequenceName = "product_change_seq", allocationSize = 1)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public ProductTombstone() {
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param productId ID del producto eliminado
+     */
+    public ProductTombstone(Long productId) {
+        this.productId = productId;
+        this.deletedAt = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
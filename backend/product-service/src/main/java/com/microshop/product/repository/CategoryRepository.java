@@ -0,0 +1,38 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para operaciones de acceso a datos del árbol de categorías.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    /**
+     * Obtiene todas las categorías en orden de ruta, de modo que cada categoría
+     * aparece después de su padre.
+     *
+     * @return Categorías del árbol completo
+     */
+    List<Category> findAllByOrderByPathAsc();
+
+    /**
+     * Busca una categoría por nombre sin distinguir mayúsculas, usando el índice
+     * único sobre {@code lower(name)}.
+     *
+     * @param name Nombre de la categoría
+     * @return Categoría, si existe
+     */
+    @Query("SELECT c FROM Category c WHERE LOWER(c.name) = LOWER(:name)")
+    Optional<Category> findByNameIgnoreCase(@Param("name") String name);
+}
@@ -0,0 +1,37 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.model.ProductChangeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositorio de la marca de compactación del feed de cambios del catálogo.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Repository
+public interface ProductChangeSequenceRepository extends JpaRepository<ProductChangeSequence, Integer> {
+
+    /**
+     * @return Último número de secuencia cuyas lápidas se han compactado, si la fila existe
+     */
+    @Query("SELECT s.compactedSeq FROM ProductChangeSequence s WHERE s.id = " + ProductChangeSequence.SINGLETON_ID)
+    Optional<Long> findCompactedSeq();
+
+    /**
+     * Avanza la marca de compactación, sin retroceder nunca.
+     *
+     * @param seq Último número de secuencia compactado
+     * @return Filas actualizadas
+     */
+    @Modifying
+    @Query("UPDATE ProductChangeSequence s SET s.compactedSeq = :seq " +
+           "WHERE s.id = " + ProductChangeSequence.SINGLETON_ID + " AND s.compactedSeq < :seq")
+    int advanceCompactedSeq(@Param("seq") long seq);
+}
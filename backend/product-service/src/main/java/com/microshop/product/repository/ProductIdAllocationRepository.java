@@ -0,0 +1,37 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.model.ProductIdAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositorio de los suelos de IDs de producto de cada instancia.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Repository
+public interface ProductIdAllocationRepository extends JpaRepository<ProductIdAllocation, String> {
+
+    /**
+     * @param since Instante mínimo de la última renovación, en ms desde epoch
+     * @return Menor suelo de las instancias renovadas desde {@code since}, si hay alguna
+     */
+    @Query("SELECT MIN(a.floorId) FROM ProductIdAllocation a WHERE a.heartbeatAt >= :since")
+    Optional<Long> findMinFloor(@Param("since") long since);
+
+    /**
+     * Elimina los suelos de las instancias que han dejado de renovarlos.
+     *
+     * @param before Instante límite, en ms desde epoch
+     * @return Filas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM ProductIdAllocation a WHERE a.heartbeatAt < :before")
+    int deleteExpired(@Param("before") long before);
+}
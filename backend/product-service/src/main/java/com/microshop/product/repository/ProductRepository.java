@@ -1,10 +1,26 @@
 package com.microshop.product.repository;
 
+import com.microshop.product.dto.ProductAttributeDTO;
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.dto.ProductResponseDTO;
 import com.microshop.product.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para operaciones de acceso a datos de productos.
@@ -17,6 +33,43 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Número de filas que el driver JDBC lee por bloque al recorrer el catálogo completo.
+     */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Proyección de las consultas de lectura: construye directamente el DTO de
+     * respuesta con una expresión de constructor, sin instanciar entidades gestionadas
+     * ni tomar las instantáneas que Hibernate usa para detectar cambios.
+     */
+    String SELECT_PRODUCT_VIEW = "SELECT new com.microshop.product.dto.ProductResponseDTO(" +
+            "p.id, p.name, p.description, p.price, p.stock, p.category, p.createdAt, p.version) FROM Product p ";
+
+    /**
+     * Proyección de los valores de atributo de los productos, una fila por atributo.
+     */
+    String SELECT_PRODUCT_ATTRIBUTES = "SELECT new com.microshop.product.dto.ProductAttributeDTO(" +
+            "p.id, KEY(a), VALUE(a)) FROM Product p JOIN p.attributes a ";
+
+    /**
+     * Obtiene la vista de respuesta de un producto por su ID.
+     * 
+     * @param id ID del producto
+     * @return Producto proyectado, si existe
+     */
+    @Query(SELECT_PRODUCT_VIEW + "WHERE p.id = :id")
+    Optional<ProductResponseDTO> findViewById(@Param("id") Long id);
+
+    /**
+     * Busca los productos cuyos IDs estén en la colección indicada, en una sola consulta.
+     * 
+     * @param ids IDs de los productos
+     * @return Productos existentes, sin orden garantizado
+     */
+    @Query(SELECT_PRODUCT_VIEW + "WHERE p.id IN :ids")
+    List<ProductResponseDTO> findByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Busca productos por categoría.
      * 
@@ -26,12 +79,15 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
 
     /**
-     * Busca productos por categoría ignorando mayúsculas/minúsculas.
+     * Busca productos por categoría ignorando mayúsculas/minúsculas. Compara con
+     * LOWER en lugar del UPPER que genera la consulta derivada para poder usar el
+     * índice funcional sobre {@code lower(category)}.
      * 
      * @param category Categoría a buscar (case-insensitive)
      * @return Lista de productos de la categoría especificada
      */
-    List<Product> findByCategoryIgnoreCase(String category);
+    @Query("SELECT p FROM Product p WHERE LOWER(p.category) = LOWER(:category)")
+    List<Product> findByCategoryIgnoreCase(@Param("category") String category);
 
     /**
      * Busca productos cuyo nombre contenga el texto especificado.
@@ -40,5 +96,402 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return Lista de productos que coinciden
      */
     List<Product> findByNameContainingIgnoreCase(String name);
-}
 
+    /**
+     * Busca productos cuyo nombre o descripción contengan el texto indicado.
+     * Recorre la tabla completa: solo se usa mientras el índice de texto en
+     * memoria no está disponible.
+     *
+     * @param text Texto a buscar (case-insensitive)
+     * @param limit Número máximo de productos a devolver
+     * @return Productos que contienen el texto, ordenados por ID
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :text, '%')) " +
+           "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :text, '%')) " +
+           "ORDER BY p.id ASC")
+    List<ProductResponseDTO> searchByText(@Param("text") String text, Limit limit);
+
+    /**
+     * Cuenta los productos de cada combinación de categoría y precio. Recorre la
+     * tabla completa: solo se usa mientras los contadores de facetas en memoria no
+     * están disponibles.
+     *
+     * @return Filas con la categoría, el precio y el número de productos
+     */
+    @Query("SELECT p.category, p.price, COUNT(p) FROM Product p GROUP BY p.category, p.price")
+    List<Object[]> countByCategoryAndPrice();
+
+    /**
+     * Filtra el catálogo por categoría, rango de precio y disponibilidad, con
+     * filtros opcionales. Solo se usa mientras la réplica por columnas del catálogo
+     * no está disponible.
+     *
+     * @param category Categoría (case-insensitive), o null
+     * @param minPrice Precio mínimo (incluido), o null
+     * @param maxPrice Precio máximo (excluido), o null
+     * @param inStock true para devolver solo productos con stock
+     * @param sort Ordenación
+     * @param limit Número máximo de productos a devolver
+     * @return Productos que cumplen los filtros
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE (:category IS NULL OR LOWER(p.category) = LOWER(:category)) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price < :maxPrice) " +
+           "AND (:inStock = false OR p.stock > 0)")
+    List<ProductResponseDTO> queryCatalog(@Param("category") String category,
+                                          @Param("minPrice") BigDecimal minPrice,
+                                          @Param("maxPrice") BigDecimal maxPrice,
+                                          @Param("inStock") boolean inStock,
+                                          Sort sort, Limit limit);
+
+    // Paginación keyset: cada consulta recorre el índice desde la posición del cursor,
+    // por lo que el coste no depende de la profundidad de la página.
+
+    /**
+     * Obtiene la página de productos posterior al ID indicado, ordenada por ID.
+     *
+     * @param id Último ID devuelto en la página anterior
+     * @param limit Número máximo de productos a devolver
+     * @return Productos con ID mayor que el indicado
+     */
+    @Query(SELECT_PRODUCT_VIEW + "WHERE p.id > :id ORDER BY p.id ASC")
+    List<ProductResponseDTO> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Limit limit);
+
+    /**
+     * Obtiene la primera página de productos ordenada por fecha de creación.
+     *
+     * @param limit Número máximo de productos a devolver
+     * @return Productos más antiguos primero
+     */
+    @Query(SELECT_PRODUCT_VIEW + "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductResponseDTO> findByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    /**
+     * Obtiene la página de productos posterior al cursor (fecha de creación, ID).
+     *
+     * @param createdAt Fecha de creación del último producto devuelto
+     * @param id ID del último producto devuelto
+     * @param limit Número máximo de productos a devolver
+     * @return Productos posteriores al cursor
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductResponseDTO> findPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id, Limit limit);
+
+    /**
+     * Obtiene la primera página de productos ordenada por precio.
+     *
+     * @param limit Número máximo de productos a devolver
+     * @return Productos más baratos primero
+     */
+    @Query(SELECT_PRODUCT_VIEW + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductResponseDTO> findByOrderByPriceAscIdAsc(Limit limit);
+
+    /**
+     * Obtiene la página de productos posterior al cursor (precio, ID).
+     *
+     * @param price Precio del último producto devuelto
+     * @param id ID del último producto devuelto
+     * @param limit Número máximo de productos a devolver
+     * @return Productos posteriores al cursor
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE p.price > :price OR (p.price = :price AND p.id > :id) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductResponseDTO> findPageAfterPrice(@Param("price") BigDecimal price,
+                                                @Param("id") Long id, Limit limit);
+
+    // Listados por categoría: filtran por LOWER(category), que coincide con la expresión
+    // de los índices compuestos de V4, y por un rango de precio siempre acotado (el
+    // servicio sustituye los límites ausentes por los extremos de la columna), de modo
+    // que el predicado se resuelve por índice y no con un filtro sobre toda la categoría.
+
+    /**
+     * Obtiene la página de productos de una categoría posterior al ID indicado.
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param id Último ID devuelto en la página anterior
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría con ID mayor que el indicado
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "AND p.id > :id " +
+           "ORDER BY p.id ASC")
+    List<ProductResponseDTO> findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(@Param("category") String category,
+                                                                                  @Param("minPrice") BigDecimal minPrice,
+                                                                                  @Param("maxPrice") BigDecimal maxPrice,
+                                                                                  @Param("id") Long id, Limit limit);
+
+    /**
+     * Obtiene la primera página de productos de una categoría ordenada por fecha de creación.
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría, más antiguos primero
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductResponseDTO> findByCategoryIgnoreCaseOrderByCreatedAtAscIdAsc(@Param("category") String category,
+                                                                              @Param("minPrice") BigDecimal minPrice,
+                                                                              @Param("maxPrice") BigDecimal maxPrice,
+                                                                              Limit limit);
+
+    /**
+     * Obtiene la página de productos de una categoría posterior al cursor (fecha de creación, ID).
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param createdAt Fecha de creación del último producto devuelto
+     * @param id ID del último producto devuelto
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría posteriores al cursor
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "AND (p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<ProductResponseDTO> findCategoryPageAfterCreatedAt(@Param("category") String category,
+                                                            @Param("minPrice") BigDecimal minPrice,
+                                                            @Param("maxPrice") BigDecimal maxPrice,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id, Limit limit);
+
+    /**
+     * Obtiene la primera página de productos de una categoría ordenada por precio.
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría, más baratos primero
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductResponseDTO> findByCategoryIgnoreCaseOrderByPriceAscIdAsc(@Param("category") String category,
+                                                                          @Param("minPrice") BigDecimal minPrice,
+                                                                          @Param("maxPrice") BigDecimal maxPrice,
+                                                                          Limit limit);
+
+    /**
+     * Obtiene la página de productos de una categoría posterior al cursor (precio, ID).
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param price Precio del último producto devuelto
+     * @param id ID del último producto devuelto
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría posteriores al cursor
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "AND (p.price > :price OR (p.price = :price AND p.id > :id)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductResponseDTO> findCategoryPageAfterPrice(@Param("category") String category,
+                                                        @Param("minPrice") BigDecimal minPrice,
+                                                        @Param("maxPrice") BigDecimal maxPrice,
+                                                        @Param("price") BigDecimal price,
+                                                        @Param("id") Long id, Limit limit);
+
+    /**
+     * Obtiene la primera página de productos de una categoría ordenada por nombre.
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría por orden alfabético
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "ORDER BY p.name ASC, p.id ASC")
+    List<ProductResponseDTO> findByCategoryIgnoreCaseOrderByNameAscIdAsc(@Param("category") String category,
+                                                                         @Param("minPrice") BigDecimal minPrice,
+                                                                         @Param("maxPrice") BigDecimal maxPrice,
+                                                                         Limit limit);
+
+    /**
+     * Obtiene la página de productos de una categoría posterior al cursor (nombre, ID).
+     *
+     * @param category Categoría a buscar (case-insensitive)
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param name Nombre del último producto devuelto
+     * @param id ID del último producto devuelto
+     * @param limit Número máximo de productos a devolver
+     * @return Productos de la categoría posteriores al cursor
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE LOWER(p.category) = LOWER(:category) AND p.price >= :minPrice AND p.price < :maxPrice " +
+           "AND (p.name > :name OR (p.name = :name AND p.id > :id)) " +
+           "ORDER BY p.name ASC, p.id ASC")
+    List<ProductResponseDTO> findCategoryPageAfterName(@Param("category") String category,
+                                                       @Param("minPrice") BigDecimal minPrice,
+                                                       @Param("maxPrice") BigDecimal maxPrice,
+                                                       @Param("name") String name,
+                                                       @Param("id") Long id, Limit limit);
+
+    // Subárboles de categorías: las rutas del subárbol forman un rango del índice
+    // (category_path, id), que se recorre en orden sin ordenar el resultado.
+
+    /**
+     * Obtiene la primera página de productos de un subárbol de categorías.
+     *
+     * @param fromPath Ruta de la raíz del subárbol, incluida
+     * @param toPath Límite superior del rango de rutas, excluido
+     * @param limit Número máximo de productos a devolver
+     * @return Productos del subárbol ordenados por ruta de categoría e ID
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE p.categoryPath >= :fromPath AND p.categoryPath < :toPath " +
+           "ORDER BY p.categoryPath ASC, p.id ASC")
+    List<ProductResponseDTO> findCategorySubtree(@Param("fromPath") String fromPath,
+                                                 @Param("toPath") String toPath, Limit limit);
+
+    /**
+     * Obtiene la página de productos de un subárbol posterior al cursor (ruta, ID).
+     *
+     * @param fromPath Ruta de la raíz del subárbol, incluida
+     * @param toPath Límite superior del rango de rutas, excluido
+     * @param path Ruta de categoría del último producto devuelto
+     * @param id ID del último producto devuelto
+     * @param limit Número máximo de productos a devolver
+     * @return Productos del subárbol posteriores al cursor
+     */
+    @Query(SELECT_PRODUCT_VIEW +
+           "WHERE p.categoryPath >= :fromPath AND p.categoryPath < :toPath " +
+           "AND (p.categoryPath > :path OR (p.categoryPath = :path AND p.id > :id)) " +
+           "ORDER BY p.categoryPath ASC, p.id ASC")
+    List<ProductResponseDTO> findCategorySubtreeAfter(@Param("fromPath") String fromPath,
+                                                      @Param("toPath") String toPath,
+                                                      @Param("path") String path,
+                                                      @Param("id") Long id, Limit limit);
+
+    /**
+     * Recorre todo el catálogo ordenado por ID como un stream respaldado por un
+     * cursor JDBC. El fetch size hace que el driver lea las filas por bloques en
+     * lugar de cargar el resultado completo en memoria (en PostgreSQL requiere
+     * ejecutarse dentro de una transacción). Al ser una proyección, las filas no
+     * quedan retenidas en el contexto de persistencia. El stream debe cerrarse tras su uso.
+     *
+     * @return Stream de productos ordenados por ID
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_PRODUCT_VIEW + "ORDER BY p.id ASC")
+    Stream<ProductResponseDTO> streamAllByOrderByIdAsc();
+
+    /**
+     * Recorre los IDs de todo el catálogo en orden, leyendo por bloques como
+     * {@link #streamAllByOrderByIdAsc()}. El stream debe cerrarse tras su uso.
+     *
+     * @return Stream de IDs de producto ordenados
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p.id FROM Product p ORDER BY p.id ASC")
+    Stream<Long> streamAllIds();
+
+    /**
+     * @return ID máximo del catálogo, o 0 si está vacío
+     */
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Product p")
+    long findMaxId();
+
+    /**
+     * @return Mayor número de secuencia del feed de cambios de los productos, o 0 si no hay
+     */
+    @Query("SELECT COALESCE(MAX(p.changeSeq), 0) FROM Product p")
+    long findMaxChangeSeq();
+
+    /**
+     * Obtiene los productos creados o modificados en un rango de números de
+     * secuencia del feed de cambios, usando el índice sobre {@code change_seq}.
+     * Cada producto aparece solo con su último cambio.
+     *
+     * @param since Número de secuencia a partir del cual buscar (excluido)
+     * @param upTo Último número de secuencia incluido
+     * @param limit Número máximo de productos
+     * @return Cambios en orden de secuencia, sin el estado del producto
+     */
+    @Query("SELECT new com.microshop.product.dto.ProductChangeDTO(p.changeSeq, p.id, false) FROM Product p " +
+           "WHERE p.changeSeq > :since AND p.changeSeq <= :upTo ORDER BY p.changeSeq ASC")
+    List<ProductChangeDTO> findChanges(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+
+    /**
+     * Obtiene los atributos de un producto.
+     *
+     * @param id ID del producto
+     * @return Valores de atributo del producto, vacío si no tiene o no existe
+     */
+    @Query(SELECT_PRODUCT_ATTRIBUTES + "WHERE p.id = :id")
+    List<ProductAttributeDTO> findAttributesByProductId(@Param("id") Long id);
+
+    /**
+     * Recorre los atributos de todo el catálogo, leyendo por bloques como
+     * {@link #streamAllByOrderByIdAsc()}. El stream debe cerrarse tras su uso.
+     *
+     * @return Stream de valores de atributo
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_PRODUCT_ATTRIBUTES)
+    Stream<ProductAttributeDTO> streamAllAttributes();
+
+    /**
+     * Obtiene el stock actual de un producto.
+     *
+     * @param id ID del producto
+     * @return Stock del producto, si existe
+     */
+    @Query(value = "SELECT stock FROM products WHERE id = :id", nativeQuery = true)
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    /**
+     * Obtiene el stock de un producto que no está reservado por ningún contador en memoria.
+     *
+     * @param id ID del producto
+     * @return Stock sin reservar del producto, si existe
+     */
+    @Query(value = "SELECT stock - reserved_stock FROM products WHERE id = :id", nativeQuery = true)
+    Optional<Integer> findUnreservedStockById(@Param("id") Long id);
+
+    /**
+     * Bloquea la fila de un producto y obtiene las unidades reservadas por los
+     * contadores en memoria, que no pueden cambiar hasta el final de la transacción.
+     *
+     * @param id ID del producto
+     * @return Stock reservado del producto, si existe
+     */
+    @Query(value = "SELECT reserved_stock FROM products WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockReservedStockById(@Param("id") Long id);
+
+    /**
+     * Obtiene de la base de datos las unidades reservadas por los contadores en
+     * memoria de varios productos. Las entidades no sirven para esto: la columna
+     * no se rellena en las creadas o guardadas dentro de la sesión.
+     *
+     * @param ids IDs de los productos
+     * @return Filas con el ID y el stock reservado de los productos existentes
+     */
+    @Query("SELECT p.id, p.reservedStock FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findReservedStockByIdIn(@Param("ids") Collection<Long> ids);
+}
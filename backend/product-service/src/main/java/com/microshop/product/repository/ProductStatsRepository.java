@@ -0,0 +1,67 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.dto.ProductStatsDTO;
+import com.microshop.product.model.ProductStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio de lectura de las estadísticas de visitas de los productos. Las
+ * escrituras se hacen por lotes con JDBC desde el índice de popularidad.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Repository
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long> {
+
+    /**
+     * Obtiene la categoría y las estadísticas actuales de varios productos. Los
+     * productos sin estadísticas aparecen con puntuación null y los que ya no
+     * existen no aparecen.
+     *
+     * @param ids IDs de los productos
+     * @return Una fila por producto existente
+     */
+    @Query("SELECT new com.microshop.product.dto.ProductStatsDTO(p.id, p.category, s.score, s.decayedAt) " +
+           "FROM Product p LEFT JOIN ProductStats s ON s.productId = p.id WHERE p.id IN :ids")
+    List<ProductStatsDTO> findByProductIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recorre las estadísticas de todos los productos existentes, leyendo por
+     * bloques como {@link ProductRepository#streamAllByOrderByIdAsc()}. El stream
+     * debe cerrarse tras su uso.
+     *
+     * @return Stream de estadísticas con la categoría de cada producto
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ProductRepository.EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.microshop.product.dto.ProductStatsDTO(p.id, p.category, s.score, s.decayedAt) " +
+           "FROM ProductStats s JOIN Product p ON p.id = s.productId")
+    Stream<ProductStatsDTO> streamAllWithCategory();
+
+    /**
+     * Obtiene los IDs de los productos con mayor puntuación almacenada, sin aplicar
+     * el decaimiento transcurrido desde la última escritura de cada uno. Es una
+     * aproximación para cuando el ranking en memoria aún no está construido.
+     *
+     * @param category Categoría (sin distinguir mayúsculas), o null para todo el catálogo
+     * @param limit Número máximo de productos
+     * @return IDs de los productos, los más populares primero
+     */
+    @Query("SELECT s.productId FROM ProductStats s JOIN Product p ON p.id = s.productId " +
+           "WHERE (:category IS NULL OR LOWER(p.category) = LOWER(:category)) ORDER BY s.score DESC, s.productId ASC")
+    List<Long> findTopProductIds(@Param("category") String category, Limit limit);
+}
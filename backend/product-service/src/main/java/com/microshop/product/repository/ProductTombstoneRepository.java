@@ -0,0 +1,58 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de las lápidas de productos eliminados del feed de cambios.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Obtiene las eliminaciones de un rango de números de secuencia.
+     *
+     * @param since Número de secuencia a partir del cual buscar (excluido)
+     * @param upTo Último número de secuencia incluido
+     * @param limit Número máximo de eliminaciones
+     * @return Eliminaciones en orden de secuencia
+     */
+    @Query("SELECT new com.microshop.product.dto.ProductChangeDTO(t.changeSeq, t.productId, true) " +
+           "FROM ProductTombstone t WHERE t.changeSeq > :since AND t.changeSeq <= :upTo ORDER BY t.changeSeq ASC")
+    List<ProductChangeDTO> findChanges(@Param("since") long since, @Param("upTo") long upTo, Limit limit);
+
+    /**
+     * @param cutoff Fecha límite
+     * @return Mayor número de secuencia de las lápidas anteriores a la fecha, o null si no hay
+     */
+    @Query("SELECT MAX(t.changeSeq) FROM ProductTombstone t WHERE t.deletedAt < :cutoff")
+    Long findMaxSeqDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * @return Mayor número de secuencia de las lápidas, o 0 si no hay
+     */
+    @Query("SELECT COALESCE(MAX(t.changeSeq), 0) FROM ProductTombstone t")
+    long findMaxSeq();
+
+    /**
+     * Elimina las lápidas hasta un número de secuencia.
+     *
+     * @param seq Último número de secuencia eliminado
+     * @return Lápidas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM ProductTombstone t WHERE t.changeSeq <= :seq")
+    int deleteUpTo(@Param("seq") long seq);
+}
@@ -0,0 +1,79 @@
+package com.microshop.product.search;
+
+import java.util.List;
+
+/**
+ * Expresión de filtrado por atributos de producto, como
+ * {@code brand:acme AND (color:rojo OR color:azul) AND NOT size:xl}.
+ *
+ * Cada término {@code nombre:valor} selecciona los productos con ese valor de
+ * atributo, sin distinguir mayúsculas; los valores con espacios o paréntesis van
+ * entre comillas dobles. Los términos se combinan con NOT, AND y OR (de mayor a
+ * menor precedencia) y se agrupan con paréntesis.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public sealed interface AttributeFilter {
+
+    /**
+     * Longitud máxima de una expresión.
+     */
+    int MAX_LENGTH = 1000;
+
+    /**
+     * Número máximo de términos de una expresión, que acota el coste de evaluarla.
+     */
+    int MAX_TERMS = 50;
+
+    /**
+     * Productos con un valor concreto de un atributo.
+     *
+     * @param name Nombre del atributo, en minúsculas
+     * @param value Valor del atributo, en minúsculas
+     */
+    record Term(String name, String value) implements AttributeFilter {
+    }
+
+    /**
+     * Productos que cumplen todas las expresiones.
+     *
+     * @param operands Expresiones combinadas
+     */
+    record And(List<AttributeFilter> operands) implements AttributeFilter {
+    }
+
+    /**
+     * Productos que cumplen alguna de las expresiones.
+     *
+     * @param operands Expresiones combinadas
+     */
+    record Or(List<AttributeFilter> operands) implements AttributeFilter {
+    }
+
+    /**
+     * Productos que no cumplen la expresión.
+     *
+     * @param operand Expresión negada
+     */
+    record Not(AttributeFilter operand) implements AttributeFilter {
+    }
+
+    /**
+     * Analiza una expresión de filtrado.
+     *
+     * @param expression Texto de la expresión
+     * @return Expresión analizada
+     * @throws IllegalArgumentException si la expresión está vacía, es demasiado larga o no es válida
+     */
+    static AttributeFilter parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("El filtro de atributos es obligatorio");
+        }
+        if (expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(
+                    "El filtro de atributos no puede exceder " + MAX_LENGTH + " caracteres");
+        }
+        return new AttributeFilterParser(expression).parse();
+    }
+}
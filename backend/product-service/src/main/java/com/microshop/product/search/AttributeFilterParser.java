@@ -0,0 +1,139 @@
+package com.microshop.product.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Analizador descendente recursivo de las expresiones de {@link AttributeFilter}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+final class AttributeFilterParser {
+
+    private final String text;
+    private int position;
+    private int terms;
+
+    AttributeFilterParser(String text) {
+        this.text = text;
+    }
+
+    AttributeFilter parse() {
+        AttributeFilter filter = parseOr();
+        skipSpaces();
+        if (position < text.length()) {
+            throw invalid("carácter inesperado '" + text.charAt(position) + "'");
+        }
+        return filter;
+    }
+
+    private AttributeFilter parseOr() {
+        List<AttributeFilter> operands = new ArrayList<>();
+        operands.add(parseAnd());
+        while (acceptKeyword("OR")) {
+            operands.add(parseAnd());
+        }
+        return operands.size() == 1 ? operands.get(0) : new AttributeFilter.Or(List.copyOf(operands));
+    }
+
+    private AttributeFilter parseAnd() {
+        List<AttributeFilter> operands = new ArrayList<>();
+        operands.add(parseUnary());
+        while (acceptKeyword("AND")) {
+            operands.add(parseUnary());
+        }
+        return operands.size() == 1 ? operands.get(0) : new AttributeFilter.And(List.copyOf(operands));
+    }
+
+    private AttributeFilter parseUnary() {
+        if (acceptKeyword("NOT")) {
+            return new AttributeFilter.Not(parseUnary());
+        }
+        skipSpaces();
+        if (position < text.length() && text.charAt(position) == '(') {
+            position++;
+            AttributeFilter filter = parseOr();
+            skipSpaces();
+            if (position == text.length() || text.charAt(position) != ')') {
+                throw invalid("falta el paréntesis de cierre");
+            }
+            position++;
+            return filter;
+        }
+        return parseTerm();
+    }
+
+    private AttributeFilter parseTerm() {
+        if (++terms > AttributeFilter.MAX_TERMS) {
+            throw new IllegalArgumentException(
+                    "El filtro de atributos admite como máximo " + AttributeFilter.MAX_TERMS + " términos");
+        }
+        int start = position;
+        while (position < text.length() && isNameChar(text.charAt(position))) {
+            position++;
+        }
+        if (position == start) {
+            throw invalid("se esperaba un término nombre:valor en la posición " + (start + 1));
+        }
+        String name = text.substring(start, position);
+        if (position == text.length() || text.charAt(position) != ':') {
+            throw invalid("falta ':' tras el atributo " + name);
+        }
+        position++;
+        String value = position < text.length() && text.charAt(position) == '"' ? quotedValue() : bareValue();
+        if (value.isBlank()) {
+            throw invalid("falta el valor del atributo " + name);
+        }
+        return new AttributeFilter.Term(name.toLowerCase(Locale.ROOT), value.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private String quotedValue() {
+        int end = text.indexOf('"', position + 1);
+        if (end < 0) {
+            throw invalid("faltan las comillas de cierre");
+        }
+        String value = text.substring(position + 1, end);
+        position = end + 1;
+        return value;
+    }
+
+    private String bareValue() {
+        int start = position;
+        while (position < text.length() && !Character.isWhitespace(text.charAt(position))
+                && "()\"".indexOf(text.charAt(position)) < 0) {
+            position++;
+        }
+        return text.substring(start, position);
+    }
+
+    /**
+     * Consume la palabra clave indicada (sin distinguir mayúsculas) si es la
+     * siguiente palabra completa de la expresión.
+     */
+    private boolean acceptKeyword(String keyword) {
+        skipSpaces();
+        int end = position + keyword.length();
+        if (end <= text.length() && text.regionMatches(true, position, keyword, 0, keyword.length())
+                && (end == text.length() || Character.isWhitespace(text.charAt(end)) || text.charAt(end) == '(')) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Filtro de atributos inválido: " + reason);
+    }
+}
@@ -0,0 +1,199 @@
+package com.microshop.product.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bitmaps de productos por valor de atributo, con los que se evalúan las
+ * expresiones de {@link AttributeFilter} mediante operaciones de bitmap.
+ *
+ * Cada valor distinto de cada atributo tiene un {@link CompressedBitmap} con los
+ * IDs de los productos que lo tienen, y un bitmap adicional contiene todos los
+ * productos del catálogo, necesario para evaluar NOT. Los nombres y valores se
+ * comparan en minúsculas. Los IDs de producto deben ser menores que 2^31.
+ *
+ * No es seguro para hilos: {@link ProductAttributeIndex} sincroniza el acceso.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+class AttributePostings {
+
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    private final Map<String, Map<String, CompressedBitmap>> postings = new HashMap<>();
+    private final CompressedBitmap allProducts = new CompressedBitmap();
+
+    /**
+     * Registra un producto del catálogo, con o sin atributos.
+     *
+     * @param productId ID del producto
+     */
+    void addProduct(long productId) {
+        allProducts.add(toInt(productId));
+    }
+
+    /**
+     * Registra un valor de atributo de un producto ya añadido.
+     *
+     * @param productId ID del producto
+     * @param name Nombre del atributo
+     * @param value Valor del atributo
+     */
+    void addAttribute(long productId, String name, String value) {
+        postings.computeIfAbsent(key(name), attribute -> new HashMap<>())
+                .computeIfAbsent(key(value), attributeValue -> new CompressedBitmap())
+                .add(toInt(productId));
+    }
+
+    /**
+     * Sustituye los atributos de un producto, o lo añade si no estaba.
+     *
+     * @param productId ID del producto
+     * @param attributes Atributos actuales del producto
+     */
+    void put(long productId, Map<String, String> attributes) {
+        remove(productId);
+        addProduct(productId);
+        attributes.forEach((name, value) -> addAttribute(productId, name, value));
+    }
+
+    /**
+     * Elimina un producto y todos sus valores de atributo. Recorre los bitmaps de
+     * todos los valores, porque no se guardan los atributos de cada producto.
+     *
+     * @param productId ID del producto
+     */
+    void remove(long productId) {
+        int id = toInt(productId);
+        allProducts.remove(id);
+        Iterator<Map<String, CompressedBitmap>> attributes = postings.values().iterator();
+        while (attributes.hasNext()) {
+            Map<String, CompressedBitmap> values = attributes.next();
+            values.values().removeIf(bitmap -> {
+                bitmap.remove(id);
+                return bitmap.isEmpty();
+            });
+            if (values.isEmpty()) {
+                attributes.remove();
+            }
+        }
+    }
+
+    /**
+     * Evalúa una expresión y devuelve los primeros productos que la cumplen.
+     *
+     * @param filter Expresión de filtrado
+     * @param afterId ID a partir del cual buscar (excluido), o null para empezar por el primero
+     * @param limit Número máximo de productos
+     * @return IDs de los productos, en orden creciente
+     */
+    List<Long> filter(AttributeFilter filter, Long afterId, int limit) {
+        int after = afterId == null ? -1 : (int) Math.min(afterId, Integer.MAX_VALUE);
+        List<Long> result = new ArrayList<>(limit);
+        for (int i = 0; i < allProducts.blockCount() && result.size() < limit; i++) {
+            int key = allProducts.blockKey(i);
+            if (((key << 16) | 0xFFFF) <= after) {
+                continue;
+            }
+            for (int id : evaluate(filter, key).select(after, limit - result.size())) {
+                result.add((long) id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Número de productos registrados
+     */
+    long size() {
+        return allProducts.cardinality();
+    }
+
+    /**
+     * @return Número de valores de atributo distintos indexados
+     */
+    int valueCount() {
+        return postings.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Estima la memoria ocupada por los bitmaps, sin contar las claves de los mapas.
+     *
+     * @return Tamaño aproximado en bytes
+     */
+    long sizeInBytes() {
+        long bytes = allProducts.sizeInBytes();
+        for (Map<String, CompressedBitmap> values : postings.values()) {
+            for (CompressedBitmap bitmap : values.values()) {
+                bytes += bitmap.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Evalúa la expresión sobre un único bloque de 65536 IDs, combinando bitmaps.
+     * Los resultados se piden en orden de ID, así que {@link #filter} evalúa
+     * bloque a bloque y para en cuanto completa la página, sin materializar el
+     * resultado completo. Los operandos de un AND se intersecan de menor a mayor
+     * cardinalidad y los negados se restan al final, sin calcular
+     * su complemento; solo un NOT aislado se resta del bitmap de todo el catálogo.
+     * Los bloques de los términos son vistas sin copia: las operaciones no
+     * modifican sus operandos.
+     */
+    private CompressedBitmap evaluate(AttributeFilter filter, int key) {
+        if (filter instanceof AttributeFilter.Term term) {
+            Map<String, CompressedBitmap> values = postings.get(term.name());
+            CompressedBitmap bitmap = values == null ? null : values.get(term.value());
+            return bitmap == null ? EMPTY : bitmap.block(key);
+        }
+        if (filter instanceof AttributeFilter.Not not) {
+            return allProducts.block(key).andNot(evaluate(not.operand(), key));
+        }
+        if (filter instanceof AttributeFilter.Or or) {
+            CompressedBitmap result = evaluate(or.operands().get(0), key);
+            for (int i = 1; i < or.operands().size(); i++) {
+                result = result.or(evaluate(or.operands().get(i), key));
+            }
+            return result;
+        }
+        AttributeFilter.And and = (AttributeFilter.And) filter;
+        List<CompressedBitmap> included = new ArrayList<>();
+        List<AttributeFilter> excluded = new ArrayList<>();
+        for (AttributeFilter operand : and.operands()) {
+            if (operand instanceof AttributeFilter.Not not) {
+                excluded.add(not.operand());
+            } else {
+                included.add(evaluate(operand, key));
+            }
+        }
+        included.sort(Comparator.comparingLong(CompressedBitmap::cardinality));
+        CompressedBitmap result = included.isEmpty() ? allProducts.block(key) : included.get(0);
+        for (int i = 1; i < included.size() && !result.isEmpty(); i++) {
+            result = result.and(included.get(i));
+        }
+        for (int i = 0; i < excluded.size() && !result.isEmpty(); i++) {
+            result = result.andNot(evaluate(excluded.get(i), key));
+        }
+        return result;
+    }
+
+    private static String key(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int toInt(long productId) {
+        if (productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID de producto fuera del rango del índice de atributos: " + productId);
+        }
+        return (int) productId;
+    }
+}
@@ -0,0 +1,441 @@
+package com.microshop.product.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Réplica del catálogo almacenada por columnas en arrays de tipos primitivos: ID,
+ * precio en céntimos, stock, categoría codificada como entero y fecha de alta en
+ * segundos. Solo guarda los campos por los que se filtra y ordena; los productos
+ * encontrados se cargan después por ID.
+ *
+ * Cada producto ocupa una fila. Las modificaciones sobrescriben su fila y las
+ * bajas la marcan con la categoría -1, que ningún filtro acepta; las filas
+ * eliminadas se descartan al reconstruir la réplica. Cada categoría tiene además
+ * un bitmap con sus filas. Las consultas recorren las columnas en un único bucle
+ * sin crear objetos y mantienen los mejores resultados en un montículo de tamaño fijo.
+ *
+ * No es seguro para uso concurrente: {@link ProductCatalogReplica} serializa el acceso.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+final class CatalogColumns {
+
+    private static final int DELETED = -1;
+
+    /**
+     * Número aproximado de filas por rango de {@link PriceBuckets}.
+     */
+    private static final int PRICE_BUCKET_SIZE = 1024;
+
+    /**
+     * Veces que las filas del filtro de categoría deben superar a las del filtro de
+     * precio para recorrer los rangos de precio en lugar del bitmap, que se visita
+     * con mejor localidad y puede detenerse antes.
+     */
+    private static final int NARROW_PRICE_RANGE_FACTOR = 4;
+
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final List<BitSet> categoryRows = new ArrayList<>();
+    private int[] rowById = new int[1024];
+    private long[] productIds = new long[1024];
+    private long[] priceCents = new long[1024];
+    private int[] stocks = new int[1024];
+    private int[] categories = new int[1024];
+    private long[] createdAt = new long[1024];
+    private PriceBuckets priceBuckets = PriceBuckets.empty();
+    private int rowCount;
+    private int deletedCount;
+
+    /**
+     * Indican si las filas siguen ordenadas por ID y por fecha de alta. Se cumple
+     * tras reconstruir (se carga en orden de ID) mientras las altas lleguen con IDs
+     * y fechas crecientes; permite resolver esas ordenaciones sin recorrer todas las filas.
+     */
+    private boolean idsAscending = true;
+    private boolean createdAtAscending = true;
+
+    /**
+     * Guarda el estado de un producto, sobrescribiendo su fila si ya existía.
+     *
+     * @param productId ID del producto
+     * @param price Precio
+     * @param stock Stock disponible
+     * @param category Categoría
+     * @param createdAtSeconds Fecha de alta en segundos desde epoch
+     */
+    void put(long productId, BigDecimal price, int stock, String category, long createdAtSeconds) {
+        int id = Math.toIntExact(productId);
+        if (id >= rowById.length) {
+            rowById = Arrays.copyOf(rowById, Math.max(id + 1, rowById.length * 2));
+        }
+        int row = rowById[id] - 1;
+        if (row < 0) {
+            if (rowCount == productIds.length) {
+                grow();
+            }
+            row = rowCount++;
+            rowById[id] = row + 1;
+            idsAscending &= row == 0 || productIds[row - 1] < productId;
+        } else if (categories[row] == DELETED) {
+            deletedCount--;
+        } else {
+            categoryRows.get(categories[row]).clear(row);
+        }
+        productIds[row] = productId;
+        priceCents[row] = cents(price, RoundingMode.HALF_UP);
+        priceBuckets.place(row, priceCents[row]);
+        stocks[row] = stock;
+        categories[row] = categoryId(category);
+        categoryRows.get(categories[row]).set(row);
+        createdAt[row] = createdAtSeconds;
+        createdAtAscending &= (row == 0 || createdAt[row - 1] <= createdAtSeconds)
+                && (row == rowCount - 1 || createdAtSeconds <= createdAt[row + 1]);
+    }
+
+    /**
+     * Marca un producto como eliminado. No hace nada si no estaba en la réplica.
+     *
+     * @param productId ID del producto
+     */
+    void remove(long productId) {
+        if (productId < 0 || productId >= rowById.length || rowById[(int) productId] == 0) {
+            return;
+        }
+        int row = rowById[(int) productId] - 1;
+        if (categories[row] != DELETED) {
+            categoryRows.get(categories[row]).clear(row);
+            categories[row] = DELETED;
+            priceBuckets.remove(row);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Recalcula los rangos de precio a partir de los precios actuales. Se invoca
+     * tras la carga inicial; las modificaciones posteriores usan los mismos límites.
+     */
+    void indexPrices() {
+        boolean[] live = new boolean[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            live[row] = categories[row] != DELETED;
+        }
+        priceBuckets = PriceBuckets.build(priceCents, live, rowCount, PRICE_BUCKET_SIZE);
+    }
+
+    /**
+     * Filtra la réplica y devuelve los primeros productos según la ordenación.
+     *
+     * Con filtro de categoría solo se visitan las filas de su bitmap. Si las filas
+     * están ordenadas por la clave de ordenación, se recorren en el sentido pedido
+     * y el recorrido se detiene en cuanto la clave supera la del peor resultado
+     * conservado. La ordenación por precio recorre los rangos de precio en el
+     * sentido pedido con el mismo criterio de parada, salvo en categorías muy
+     * pequeñas, donde es más barato recorrer su bitmap completo. Las demás
+     * ordenaciones también recorren los rangos de precio cuando el filtro de
+     * precio deja bastantes menos filas que el de categoría.
+     *
+     * @param query Filtros, ordenación y número de resultados
+     * @return IDs de los productos encontrados, en el orden pedido
+     */
+    List<Long> query(CatalogQuery query) {
+        BitSet candidates = null;
+        if (query.category() != null) {
+            Integer id = categoryIds.get(key(query.category()));
+            if (id == null) {
+                return List.of();
+            }
+            candidates = categoryRows.get(id);
+        }
+        long minCents = query.minPrice() == null ? Long.MIN_VALUE : cents(query.minPrice(), RoundingMode.CEILING);
+        long maxCents = query.maxPrice() == null ? Long.MAX_VALUE : cents(query.maxPrice(), RoundingMode.CEILING);
+        int minStock = query.inStock() ? 1 : Integer.MIN_VALUE;
+        long[] keys;
+        boolean ordered;
+        switch (query.sort()) {
+            case ID -> {
+                keys = productIds;
+                ordered = idsAscending;
+            }
+            case CREATED_AT -> {
+                keys = createdAt;
+                ordered = createdAtAscending;
+            }
+            case PRICE -> {
+                keys = priceCents;
+                ordered = false;
+            }
+            default -> throw new IllegalArgumentException(
+                    "Ordenación no soportada por la réplica del catálogo: " + query.sort().getParameterName());
+        }
+        boolean reverse = ordered && query.descending();
+        TopRows top = new TopRows(query.limit(), keys, productIds, query.descending());
+        if (keys == priceCents && (candidates == null || !isSmall(candidates, query.limit()))) {
+            scanByPrice(top, candidates, minCents, maxCents, minStock, query.descending(), true);
+            return top.productIds();
+        }
+        if (isNarrowPriceRange(candidates, minCents, maxCents, ordered, query.limit())) {
+            scanByPrice(top, candidates, minCents, maxCents, minStock, false, false);
+            return top.productIds();
+        }
+
+        int row = first(candidates, reverse);
+        while (row >= 0) {
+            // Con el montículo lleno, casi todas las filas se descartan por la clave
+            // antes de evaluar los filtros, una comparación fácil de predecir
+            if (!top.isFull() || top.improves(row)) {
+                long price = priceCents[row];
+                if (categories[row] != DELETED && price >= minCents && price < maxCents
+                        && stocks[row] >= minStock) {
+                    top.offer(row);
+                }
+            } else if (ordered && top.beyondWorst(row)) {
+                break;
+            }
+            row = next(candidates, row, reverse);
+        }
+        return top.productIds();
+    }
+
+    /**
+     * @return Número de productos en la réplica, sin contar los eliminados
+     */
+    int size() {
+        return rowCount - deletedCount;
+    }
+
+    /**
+     * @return Número de filas eliminadas pendientes de descartar
+     */
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    // Métodos privados auxiliares
+
+    private int categoryId(String category) {
+        return categoryIds.computeIfAbsent(key(category), key -> {
+            categoryRows.add(new BitSet());
+            return categoryIds.size();
+        });
+    }
+
+    /**
+     * Indica si es más barato recorrer el bitmap de una categoría completo que los
+     * rangos de precio. Recorriendo los rangos se visitan del orden de
+     * limit / selectividad filas hasta completar el resultado, así que el bitmap
+     * compensa cuando la categoría tiene menos de sqrt(limit × filas) productos.
+     */
+    private boolean isSmall(BitSet candidates, int limit) {
+        long cardinality = candidates.cardinality();
+        return cardinality * cardinality < (long) limit * size();
+    }
+
+    /**
+     * Recorre los rangos de precio que se solapan con el filtro. Si el resultado se
+     * ordena por precio, los rangos se visitan en el sentido pedido y el recorrido
+     * se detiene cuando ya no pueden mejorar el peor resultado conservado. El
+     * precio guardado en el rango y el bitmap de la categoría descartan casi todas
+     * las filas sin acceder a las columnas.
+     */
+    /**
+     * Indica si es más barato recorrer los rangos de precio del filtro que las
+     * filas de la categoría. Recorriendo las filas en orden basta con visitar del
+     * orden de limit / selectividad del precio hasta completar el resultado.
+     */
+    private boolean isNarrowPriceRange(BitSet candidates, long minCents, long maxCents, boolean ordered,
+                                       int limit) {
+        if (minCents == Long.MIN_VALUE && maxCents == Long.MAX_VALUE) {
+            return false;
+        }
+        long rangeRows = Math.max(priceBuckets.rowsBetween(minCents, maxCents), 1);
+        long visited = candidates == null ? size() : candidates.cardinality();
+        if (ordered) {
+            visited = Math.min(visited, (long) limit * size() / rangeRows);
+        }
+        return rangeRows * NARROW_PRICE_RANGE_FACTOR < visited;
+    }
+
+    private void scanByPrice(TopRows top, BitSet candidates, long minCents, long maxCents, int minStock,
+                             boolean descending, boolean sortedByPrice) {
+        int firstBucket = descending
+                ? priceBuckets.bucketOf(maxCents == Long.MAX_VALUE ? maxCents : maxCents - 1)
+                : priceBuckets.bucketOf(minCents);
+        int step = descending ? -1 : 1;
+        for (int bucket = firstBucket; bucket >= 0 && bucket < priceBuckets.bucketCount(); bucket += step) {
+            long lower = priceBuckets.lowerBound(bucket);
+            long upper = priceBuckets.upperBound(bucket);
+            if (descending ? upper <= minCents : lower >= maxCents) {
+                break;
+            }
+            if (sortedByPrice && top.isFull()
+                    && (descending ? upper <= top.worstKey() : lower > top.worstKey())) {
+                break;
+            }
+            for (int i = 0, size = priceBuckets.size(bucket); i < size; i++) {
+                long price = priceBuckets.price(bucket, i);
+                if (price < minCents || price >= maxCents) {
+                    continue;
+                }
+                int row = priceBuckets.row(bucket, i);
+                if ((candidates == null || candidates.get(row)) && (!top.isFull() || top.improves(row))
+                        && stocks[row] >= minStock) {
+                    top.offer(row);
+                }
+            }
+        }
+    }
+
+    private int first(BitSet candidates, boolean reverse) {
+        if (candidates == null) {
+            return reverse ? rowCount - 1 : (rowCount > 0 ? 0 : -1);
+        }
+        return reverse ? candidates.previousSetBit(rowCount - 1) : candidates.nextSetBit(0);
+    }
+
+    private int next(BitSet candidates, int row, boolean reverse) {
+        if (candidates == null) {
+            return reverse ? row - 1 : (row + 1 < rowCount ? row + 1 : -1);
+        }
+        return reverse ? candidates.previousSetBit(row - 1) : candidates.nextSetBit(row + 1);
+    }
+
+    private void grow() {
+        int capacity = productIds.length * 2;
+        productIds = Arrays.copyOf(productIds, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+    }
+
+    private static long cents(BigDecimal price, RoundingMode rounding) {
+        return price.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    private static String key(String category) {
+        return category.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Montículo de filas de tamaño fijo cuya raíz es la peor de las conservadas,
+     * de modo que la mayoría de las filas se descartan con una sola comparación.
+     * Los empates se resuelven por ID ascendente.
+     */
+    private static final class TopRows {
+
+        private final int[] heap;
+        private final long[] keys;
+        private final long[] ids;
+        private final boolean descending;
+        private int size;
+
+        TopRows(int limit, long[] keys, long[] ids, boolean descending) {
+            this.heap = new int[limit];
+            this.keys = keys;
+            this.ids = ids;
+            this.descending = descending;
+        }
+
+        boolean isFull() {
+            return size == heap.length;
+        }
+
+        /**
+         * @return Clave del peor resultado conservado
+         */
+        long worstKey() {
+            return keys[heap[0]];
+        }
+
+        /**
+         * Indica si la fila entraría en lugar del peor resultado conservado.
+         */
+        boolean improves(int row) {
+            return before(row, heap[0]);
+        }
+
+        /**
+         * Indica si la clave de la fila queda estrictamente detrás de la del peor
+         * resultado conservado, sin contar el desempate por ID.
+         */
+        boolean beyondWorst(int row) {
+            long worst = keys[heap[0]];
+            return descending ? keys[row] < worst : keys[row] > worst;
+        }
+
+        void offer(int row) {
+            if (size < heap.length) {
+                heap[size] = row;
+                siftUp(size++);
+            } else if (before(row, heap[0])) {
+                heap[0] = row;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Vacía el montículo extrayendo la raíz (la peor fila) repetidamente y
+         * rellenando el resultado desde el final.
+         */
+        List<Long> productIds() {
+            Long[] ordered = new Long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ordered[i] = ids[heap[0]];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return Arrays.asList(ordered);
+        }
+
+        /**
+         * Indica si la fila a va antes que la b en el resultado.
+         */
+        private boolean before(int a, int b) {
+            long keyA = keys[a];
+            long keyB = keys[b];
+            if (keyA != keyB) {
+                return descending ? keyA > keyB : keyA < keyB;
+            }
+            return ids[a] < ids[b];
+        }
+
+        private void siftUp(int index) {
+            int row = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!before(heap[parent], row)) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = row;
+        }
+
+        private void siftDown(int index) {
+            int row = heap[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && before(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!before(row, heap[child])) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = row;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.microshop.product.search;
+
+import com.microshop.product.util.ProductSort;
+
+import java.math.BigDecimal;
+
+/**
+ * Consulta sobre la réplica por columnas del catálogo: filtros opcionales por
+ * categoría, rango de precio y disponibilidad, ordenación y número de resultados.
+ *
+ * @param category Categoría (sin distinguir mayúsculas), o null para todas
+ * @param minPrice Precio mínimo, incluido, o null
+ * @param maxPrice Precio máximo, excluido, o null
+ * @param inStock true para devolver solo productos con stock
+ * @param sort Criterio de ordenación; los empates se resuelven por ID ascendente
+ * @param descending true para ordenar de mayor a menor
+ * @param limit Número máximo de resultados
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public record CatalogQuery(String category, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock,
+                           ProductSort sort, boolean descending, int limit) {
+}
@@ -0,0 +1,648 @@
+package com.microshop.product.search;
+
+import java.util.Arrays;
+
+/**
+ * Bitmap comprimido de enteros no negativos, con la organización de Roaring.
+ *
+ * Los valores se reparten en bloques de 65536 según sus 16 bits altos. Cada bloque
+ * guarda sus 16 bits bajos en el contenedor más compacto para su densidad: un
+ * array ordenado si tiene hasta {@value #ARRAY_MAX_SIZE} valores (2 bytes por
+ * valor) o un bitmap de 8 KB si tiene más. Los bloques vacíos no ocupan memoria.
+ * Las operaciones AND, OR y AND NOT combinan bloque a bloque y eligen el
+ * algoritmo según el tipo de los dos contenedores.
+ *
+ * No es seguro para hilos: las lecturas concurrentes requieren que nadie lo
+ * modifique a la vez.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public final class CompressedBitmap {
+
+    /**
+     * Número máximo de valores de un contenedor array; por encima ocupa menos un bitmap.
+     */
+    static final int ARRAY_MAX_SIZE = 4096;
+
+    private static final int BITMAP_WORDS = 1 << 10;
+    private static final long OBJECT_OVERHEAD_BYTES = 16;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Crea un bitmap con los valores indicados.
+     *
+     * @param values Valores no negativos, en cualquier orden
+     * @return Bitmap con los valores
+     */
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Añade un valor.
+     *
+     * @param value Valor no negativo
+     * @throws IllegalArgumentException si el valor es negativo
+     */
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("El bitmap solo admite valores no negativos: " + value);
+        }
+        char high = (char) (value >>> 16);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertAt(index, high, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    /**
+     * Elimina un valor, si está presente.
+     *
+     * @param value Valor a eliminar
+     */
+    public void remove(int value) {
+        if (value < 0) {
+            return;
+        }
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            removeAt(index);
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    /**
+     * Indica si el bitmap contiene un valor.
+     *
+     * @param value Valor buscado
+     * @return true si está presente
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * @return Número de valores del bitmap
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return true si el bitmap no contiene ningún valor
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Calcula la intersección con otro bitmap.
+     *
+     * @param other Otro bitmap
+     * @return Nuevo bitmap con los valores presentes en ambos
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calcula la unión con otro bitmap.
+     *
+     * @param other Otro bitmap
+     * @return Nuevo bitmap con los valores presentes en alguno de los dos
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calcula la diferencia con otro bitmap.
+     *
+     * @param other Bitmap con los valores a excluir
+     * @return Nuevo bitmap con los valores de este que no están en el otro
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.size && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j])
+                    : containers[i].copy();
+            if (container.cardinality() > 0) {
+                result.append(keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene, en orden creciente, los primeros valores mayores que el indicado.
+     *
+     * @param after Valor a partir del cual buscar (excluido), o -1 para empezar por el primero
+     * @param limit Número máximo de valores
+     * @return Valores encontrados, en orden creciente
+     */
+    public int[] select(int after, int limit) {
+        int[] selected = new int[limit];
+        int count = 0;
+        int from = after + 1;
+        for (int i = 0; i < size && count < limit; i++) {
+            int base = keys[i] << 16;
+            if (base + 0xFFFF < from) {
+                continue;
+            }
+            char low = base >= from ? 0 : (char) (from - base);
+            count = containers[i].collect(low, base, selected, count);
+        }
+        return count == limit ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * @return Número de bloques de 65536 valores con algún valor
+     */
+    int blockCount() {
+        return size;
+    }
+
+    /**
+     * Obtiene los 16 bits altos comunes a los valores de un bloque.
+     *
+     * @param index Posición del bloque, de 0 a {@link #blockCount()} - 1, en orden creciente
+     * @return Clave del bloque
+     */
+    int blockKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Obtiene una vista con solo los valores de un bloque, que comparte el
+     * contenedor con este bitmap: sirve como operando, pero no debe modificarse.
+     *
+     * @param key Clave del bloque (16 bits altos de sus valores)
+     * @return Bitmap con los valores del bloque, vacío si no tiene ninguno
+     */
+    CompressedBitmap block(int key) {
+        CompressedBitmap block = new CompressedBitmap();
+        int index = indexOf((char) key);
+        if (index >= 0) {
+            block.append((char) key, containers[index]);
+        }
+        return block;
+    }
+
+    /**
+     * Estima la memoria ocupada por el bitmap, incluidos sus contenedores.
+     *
+     * @return Tamaño aproximado en bytes
+     */
+    public long sizeInBytes() {
+        long bytes = OBJECT_OVERHEAD_BYTES + 2L * keys.length + 8L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    // Métodos privados auxiliares
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertAt(int index, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    /**
+     * Añade un bloque al final; las operaciones generan los bloques en orden.
+     */
+    private void append(char high, Container container) {
+        insertAt(size, high, container);
+    }
+
+    /**
+     * Contenedor de los 16 bits bajos de los valores de un bloque. Las
+     * modificaciones devuelven el contenedor resultante, que puede ser de otro tipo.
+     */
+    private interface Container {
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container andNot(Container other);
+
+        Container copy();
+
+        /**
+         * Copia en {@code target} los valores desde {@code from}, sumándoles
+         * {@code base}, hasta llenarlo; devuelve el número de posiciones ocupadas.
+         */
+        int collect(char from, int base, int[] target, int count);
+
+        long sizeInBytes();
+    }
+
+    /**
+     * Contenedor para bloques poco poblados: valores ordenados en un array.
+     */
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX_SIZE) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(cardinality * 2, 4), ARRAY_MAX_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_MAX_SIZE) {
+                return toBitmap().or(array);
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        public int collect(char from, int base, int[] target, int count) {
+            int index = Arrays.binarySearch(values, 0, cardinality, from);
+            for (int i = index >= 0 ? index : -index - 1; i < cardinality && count < target.length; i++) {
+                target[count++] = base + values[i];
+            }
+            return count;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return OBJECT_OVERHEAD_BYTES + 4 + OBJECT_OVERHEAD_BYTES + 2L * values.length;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Contenedor para bloques densos: un bit por cada uno de los 65536 valores posibles.
+     */
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) != 0) {
+                words[value >>> 6] &= ~mask;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX_SIZE) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            return fromWords(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.set(array.values[i]);
+                }
+                return result.cardinality > ARRAY_MAX_SIZE ? result : result.toArray();
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result.words[i] |= bitmap.words[i];
+                count += Long.bitCount(result.words[i]);
+            }
+            result.cardinality = count;
+            return count > ARRAY_MAX_SIZE ? result : result.toArray();
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            long[] result = words.clone();
+            int count;
+            if (other instanceof ArrayContainer array) {
+                count = cardinality;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    long mask = 1L << value;
+                    if ((result[value >>> 6] & mask) != 0) {
+                        result[value >>> 6] &= ~mask;
+                        count--;
+                    }
+                }
+            } else {
+                BitmapContainer bitmap = (BitmapContainer) other;
+                count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] &= ~bitmap.words[i];
+                    count += Long.bitCount(result[i]);
+                }
+            }
+            return fromWords(result, count);
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public int collect(char from, int base, int[] target, int count) {
+            int word = from >>> 6;
+            long bits = words[word] & (-1L << from);
+            while (count < target.length) {
+                while (bits == 0) {
+                    if (++word == BITMAP_WORDS) {
+                        return count;
+                    }
+                    bits = words[word];
+                }
+                target[count++] = base + (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+            return count;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return OBJECT_OVERHEAD_BYTES + 4 + OBJECT_OVERHEAD_BYTES + 8L * BITMAP_WORDS;
+        }
+
+        void set(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            collectLows(words, values);
+            return new ArrayContainer(values, cardinality);
+        }
+
+        /**
+         * Construye el contenedor más compacto para el resultado de una operación.
+         */
+        private static Container fromWords(long[] words, int cardinality) {
+            if (cardinality > ARRAY_MAX_SIZE) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            collectLows(words, values);
+            return new ArrayContainer(values, cardinality);
+        }
+
+        private static void collectLows(long[] words, char[] target) {
+            int count = 0;
+            for (int word = 0; word < BITMAP_WORDS && count < target.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    target[count++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.microshop.product.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Contadores de productos por categoría y rango de precio.
+ *
+ * Guarda una matriz de contadores categoría × rango y, para cada producto, la
+ * celda en la que está contado (un int por ID en un array indexado por ID). Así
+ * una modificación sabe qué contador decrementar aunque el evento no incluya el
+ * estado anterior, y aplicar dos veces el mismo cambio no altera los totales.
+ * Cualquier recuento filtrado por categoría y rango se obtiene sumando celdas, sin
+ * recorrer productos.
+ *
+ * Las categorías se agrupan sin distinguir mayúsculas, igual que los listados por
+ * categoría, y se muestran con la primera grafía encontrada.
+ *
+ * No es seguro para uso concurrente: {@link ProductFacetIndex} serializa el acceso.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+final class FacetCounts {
+
+    private final BigDecimal[] bandLimits;
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private final List<long[]> counts = new ArrayList<>();
+    private int[] cellByProduct = new int[1024];
+
+    /**
+     * @param bandLimits Límites de los rangos de precio en orden creciente: el rango i
+     *                   va de {@code bandLimits[i - 1]} (0 para el primero) a
+     *                   {@code bandLimits[i]}, excluido, y el último no tiene máximo
+     */
+    FacetCounts(BigDecimal[] bandLimits) {
+        this.bandLimits = bandLimits;
+    }
+
+    /**
+     * Cuenta un producto en la celda de su categoría y precio, descontándolo de la
+     * celda en la que estuviera contado antes.
+     *
+     * @param productId ID del producto
+     * @param category Categoría del producto
+     * @param price Precio del producto
+     */
+    void put(long productId, String category, BigDecimal price) {
+        int id = Math.toIntExact(productId);
+        int cell = cell(categoryId(category), band(price)) + 1;
+        if (id >= cellByProduct.length) {
+            cellByProduct = Arrays.copyOf(cellByProduct, Math.max(id + 1, cellByProduct.length * 2));
+        }
+        int previous = cellByProduct[id];
+        if (previous == cell) {
+            return;
+        }
+        if (previous != 0) {
+            increment(previous - 1, -1);
+        }
+        increment(cell - 1, 1);
+        cellByProduct[id] = cell;
+    }
+
+    /**
+     * Descuenta un producto eliminado. No hace nada si no estaba contado.
+     *
+     * @param productId ID del producto
+     */
+    void remove(long productId) {
+        if (productId < 0 || productId >= cellByProduct.length) {
+            return;
+        }
+        int id = (int) productId;
+        if (cellByProduct[id] != 0) {
+            increment(cellByProduct[id] - 1, -1);
+            cellByProduct[id] = 0;
+        }
+    }
+
+    /**
+     * Suma productos a una celda sin asociarlos a IDs concretos. Solo para recuentos
+     * agregados que no van a recibir cambios por producto.
+     *
+     * @param category Categoría
+     * @param price Precio
+     * @param products Número de productos
+     */
+    void add(String category, BigDecimal price, long products) {
+        increment(cell(categoryId(category), band(price)), products);
+    }
+
+    /**
+     * @return Número de rangos de precio
+     */
+    int bandCount() {
+        return bandLimits.length + 1;
+    }
+
+    /**
+     * Busca la categoría sin distinguir mayúsculas.
+     *
+     * @param category Nombre de la categoría
+     * @return Índice interno de la categoría, o -1 si no hay productos en ella
+     */
+    int findCategory(String category) {
+        return categoryIds.getOrDefault(key(category), -1);
+    }
+
+    /**
+     * @return Número de categorías registradas
+     */
+    int categoryCount() {
+        return categoryNames.size();
+    }
+
+    /**
+     * @param category Índice interno de la categoría
+     * @return Nombre de la categoría tal como se muestra
+     */
+    String categoryName(int category) {
+        return categoryNames.get(category);
+    }
+
+    /**
+     * @param category Índice interno de la categoría
+     * @param band Rango de precio
+     * @return Productos de la categoría en el rango
+     */
+    long count(int category, int band) {
+        return counts.get(category)[band];
+    }
+
+    /**
+     * Compara los contadores con otros construidos con los mismos rangos.
+     *
+     * @param other Contadores de referencia
+     * @return Número de productos contados en una celda distinta o ausentes en uno de los dos
+     */
+    long differences(FacetCounts other) {
+        int[] otherCategory = new int[categoryNames.size()];
+        for (int category = 0; category < otherCategory.length; category++) {
+            otherCategory[category] = other.findCategory(categoryNames.get(category));
+        }
+        long differences = 0;
+        int length = Math.max(cellByProduct.length, other.cellByProduct.length);
+        for (int id = 0; id < length; id++) {
+            int cell = id < cellByProduct.length ? cellByProduct[id] - 1 : -1;
+            int otherCell = id < other.cellByProduct.length ? other.cellByProduct[id] - 1 : -1;
+            if (cell < 0 && otherCell < 0) {
+                continue;
+            }
+            if (cell < 0 || otherCell < 0
+                    || otherCategory[cell / bandCount()] != otherCell / bandCount()
+                    || cell % bandCount() != otherCell % bandCount()) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    // Métodos privados auxiliares
+
+    private int categoryId(String category) {
+        Integer id = categoryIds.get(key(category));
+        if (id == null) {
+            id = categoryNames.size();
+            categoryIds.put(key(category), id);
+            categoryNames.add(category);
+            counts.add(new long[bandCount()]);
+        }
+        return id;
+    }
+
+    private int band(BigDecimal price) {
+        int band = 0;
+        while (band < bandLimits.length && price.compareTo(bandLimits[band]) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    private int cell(int category, int band) {
+        return category * bandCount() + band;
+    }
+
+    private void increment(int cell, long delta) {
+        counts.get(cell / bandCount())[cell % bandCount()] += delta;
+    }
+
+    private static String key(String category) {
+        return category.toUpperCase(Locale.ROOT);
+    }
+}
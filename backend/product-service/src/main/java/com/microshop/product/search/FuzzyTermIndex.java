@@ -0,0 +1,238 @@
+package com.microshop.product.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Diccionario de términos para corrección de erratas por vecindario de borrados
+ * (algoritmo SymSpell).
+ *
+ * Cada término se registra bajo todas las cadenas que resultan de borrarle hasta
+ * {@value #MAX_DISTANCE} caracteres de su prefijo de {@value #PREFIX_LENGTH}
+ * caracteres. Dos términos a distancia de edición d comparten al menos una de
+ * esas cadenas, así que una consulta solo genera los borrados de su propio
+ * término y los busca en el diccionario; la distancia real se calcula únicamente
+ * sobre los pocos candidatos encontrados, nunca contra todo el vocabulario.
+ *
+ * Los borrados se guardan como hash de 40 bits y número de término empaquetados
+ * en un array de long ordenado (sin objetos por entrada); los términos añadidos
+ * después de la última compactación van a un mapa auxiliar. Las colisiones de
+ * hash solo añaden candidatos que la verificación descarta.
+ *
+ * Solo admite términos alfabéticos de al menos {@value #MIN_TERM_LENGTH} letras:
+ * códigos y números de modelo no se corrigen. No es seguro para uso concurrente.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+final class FuzzyTermIndex {
+
+    static final int MAX_DISTANCE = 2;
+    static final int MIN_TERM_LENGTH = 3;
+
+    private static final int PREFIX_LENGTH = 7;
+    private static final int TERM_BITS = 24;
+    private static final long TERM_MASK = (1L << TERM_BITS) - 1;
+    private static final long HASH_MASK = (1L << (Long.SIZE - TERM_BITS)) - 1;
+
+    private final List<String> terms = new ArrayList<>();
+    private long[] packed = new long[0];
+    private final Map<Long, List<Integer>> recent = new HashMap<>();
+
+    /**
+     * Indica si un término puede registrarse en el diccionario.
+     *
+     * @param term Término normalizado
+     * @return true si es alfabético y suficientemente largo
+     */
+    static boolean accepts(String term) {
+        if (term.length() < MIN_TERM_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registra un término nuevo. El llamante garantiza que no estaba registrado.
+     *
+     * @param term Término normalizado aceptado por {@link #accepts(String)}
+     */
+    void add(String term) {
+        if (terms.size() > TERM_MASK) {
+            return;
+        }
+        int id = terms.size();
+        terms.add(term);
+        for (String deletion : deletions(term)) {
+            recent.computeIfAbsent(hash(deletion), key -> new ArrayList<>(1)).add(id);
+        }
+    }
+
+    /**
+     * Traslada los términos recientes al array ordenado.
+     */
+    void compact() {
+        if (recent.isEmpty()) {
+            return;
+        }
+        int added = recent.values().stream().mapToInt(List::size).sum();
+        long[] merged = Arrays.copyOf(packed, packed.length + added);
+        int position = packed.length;
+        for (Map.Entry<Long, List<Integer>> entry : recent.entrySet()) {
+            for (int id : entry.getValue()) {
+                merged[position++] = entry.getKey() << TERM_BITS | id;
+            }
+        }
+        Arrays.sort(merged);
+        packed = merged;
+        recent.clear();
+    }
+
+    /**
+     * Busca los términos más cercanos al indicado. Devuelve solo los de menor
+     * distancia encontrada (el propio término si está registrado), hasta
+     * {@value #MAX_DISTANCE} ediciones, o una sola si el término tiene 4 letras o menos.
+     *
+     * @param term Término normalizado de la consulta
+     * @return Términos registrados a la menor distancia encontrada; vacío si no hay ninguno
+     */
+    List<String> closest(String term) {
+        int maxDistance = term.length() <= 4 ? 1 : MAX_DISTANCE;
+        Set<Integer> candidates = new HashSet<>();
+        for (String deletion : deletions(term)) {
+            long hash = hash(deletion);
+            for (int i = lowerBound(hash << TERM_BITS); i < packed.length && packed[i] >>> TERM_BITS == hash; i++) {
+                candidates.add((int) (packed[i] & TERM_MASK));
+            }
+            List<Integer> recentIds = recent.get(hash);
+            if (recentIds != null) {
+                candidates.addAll(recentIds);
+            }
+        }
+
+        List<String> closest = new ArrayList<>();
+        int best = maxDistance;
+        for (int id : candidates) {
+            String candidate = terms.get(id);
+            int distance = distance(term, candidate, best);
+            if (distance < best) {
+                closest.clear();
+                best = distance;
+            }
+            if (distance <= best) {
+                closest.add(candidate);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * @return Número de términos registrados
+     */
+    int size() {
+        return terms.size();
+    }
+
+    /**
+     * Distancia de edición con transposiciones (Damerau-Levenshtein restringida),
+     * abandonando el cálculo en cuanto supera el máximo.
+     *
+     * @param a Primer término
+     * @param b Segundo término
+     * @param max Distancia máxima de interés
+     * @return Distancia entre los términos, o max + 1 si la supera
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Cadenas obtenidas al borrar de 0 a {@value #MAX_DISTANCE} caracteres del prefijo del término.
+     */
+    private static Set<String> deletions(String term) {
+        Set<String> result = new HashSet<>();
+        String prefix = term.length() > PREFIX_LENGTH ? term.substring(0, PREFIX_LENGTH) : term;
+        result.add(prefix);
+        List<String> frontier = List.of(prefix);
+        for (int distance = 1; distance <= MAX_DISTANCE; distance++) {
+            List<String> next = new ArrayList<>();
+            for (String word : frontier) {
+                for (int i = 0; i < word.length(); i++) {
+                    String deletion = word.substring(0, i) + word.substring(i + 1);
+                    if (result.add(deletion)) {
+                        next.add(deletion);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits truncado a los bits disponibles junto al número de término.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash & HASH_MASK;
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = packed.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (packed[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
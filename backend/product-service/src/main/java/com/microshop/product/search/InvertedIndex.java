@@ -0,0 +1,399 @@
+package com.microshop.product.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice invertido en memoria sobre el nombre y la descripción de los productos,
+ * con ranking BM25.
+ *
+ * Cada producto indexado recibe un número de documento interno creciente, por lo
+ * que las listas de postings se mantienen ordenadas solo con añadir al final. Las
+ * bajas marcan el documento como eliminado y las modificaciones lo eliminan y lo
+ * vuelven a añadir con un número nuevo; los postings de documentos eliminados se
+ * descartan al reconstruir el índice. Los términos del nombre cuentan
+ * {@value #NAME_WEIGHT} veces para que pesen más que los de la descripción. Los
+ * términos de nombre se registran además en un {@link FuzzyTermIndex} para poder
+ * corregir las erratas de las consultas.
+ *
+ * No es seguro para uso concurrente: {@link ProductTextIndex} serializa el acceso.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+class InvertedIndex {
+
+    static final int NAME_WEIGHT = 2;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /**
+     * Número de postings por bloque para los que se guarda la cota de puntuación.
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    /**
+     * Número máximo de correcciones por término en las búsquedas tolerantes a erratas.
+     */
+    private static final int MAX_CORRECTIONS = 3;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final FuzzyTermIndex nameTerms = new FuzzyTermIndex();
+    private final Map<Long, Integer> documentByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private int documentCount;
+    private int liveCount;
+    private long totalLength;
+
+    /**
+     * Indexa un producto, sustituyendo su versión anterior si ya estaba indexado.
+     *
+     * @param productId ID del producto
+     * @param name Nombre del producto
+     * @param description Descripción del producto (puede ser null)
+     */
+    void put(long productId, String name, String description) {
+        remove(productId);
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> nameTokens = TextAnalyzer.tokenize(name);
+        int length = 0;
+        for (String term : nameTokens) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+            length++;
+        }
+        for (String term : TextAnalyzer.tokenize(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        int document = documentCount++;
+        if (document == productIds.length) {
+            productIds = Arrays.copyOf(productIds, productIds.length * 2);
+            lengths = Arrays.copyOf(lengths, lengths.length * 2);
+        }
+        productIds[document] = productId;
+        lengths[document] = length;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).add(document, entry.getValue(), length);
+        }
+        for (String term : nameTokens) {
+            PostingList list = postings.get(term);
+            if (!list.inNameTerms && FuzzyTermIndex.accepts(term)) {
+                list.inNameTerms = true;
+                nameTerms.add(term);
+            }
+        }
+        documentByProduct.put(productId, document);
+        liveCount++;
+        totalLength += length;
+    }
+
+    /**
+     * Elimina un producto del índice.
+     *
+     * @param productId ID del producto
+     */
+    void remove(long productId) {
+        Integer document = documentByProduct.remove(productId);
+        if (document != null) {
+            deleted.set(document);
+            liveCount--;
+            totalLength -= lengths[document];
+        }
+    }
+
+    /**
+     * Busca los productos que contienen alguno de los términos de la consulta,
+     * ordenados por relevancia BM25 (a igual relevancia, por ID ascendente).
+     *
+     * Recorre a la vez las listas de postings de los términos (document-at-a-time),
+     * que están ordenadas por documento, manteniendo solo los mejores resultados.
+     * Aplica la poda MaxScore: cuando la puntuación máxima alcanzable con los
+     * términos menos relevantes ya no llega al peor resultado retenido, esos
+     * términos dejan de recorrerse y solo se consultan, saltando, para los
+     * documentos candidatos del resto; cuando queda un único término por recorrer
+     * se saltan además los bloques de postings cuya cota no alcanza el ranking.
+     * Así las consultas con términos muy frecuentes no recorren todas sus listas.
+     *
+     * @param terms Términos normalizados de la consulta
+     * @param limit Número máximo de resultados
+     * @return IDs de producto por relevancia descendente
+     */
+    List<Long> search(Collection<String> terms, int limit) {
+        List<PostingList> found = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                found.add(list);
+            }
+        }
+        if (found.isEmpty() || liveCount == 0) {
+            return List.of();
+        }
+
+        int termCount = found.size();
+        PostingList[] lists = new PostingList[termCount];
+        float[] idf = new float[termCount];
+        float[] maxScore = new float[termCount];
+        Integer[] order = new Integer[termCount];
+        float[] unsortedIdf = new float[termCount];
+        float[] unsortedMax = new float[termCount];
+        for (int i = 0; i < termCount; i++) {
+            PostingList list = found.get(i);
+            // Los postings de documentos eliminados se cuentan en df hasta la reconstrucción
+            unsortedIdf[i] = (float) Math.log(1 + (liveCount - list.size + 0.5) / (list.size + 0.5));
+            // Cota superior de la contribución del término: máxima frecuencia y longitud mínima
+            unsortedMax[i] = unsortedIdf[i] * list.maxFrequency * (K1 + 1)
+                    / (list.maxFrequency + K1 * (1 - B));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> unsortedMax[i]));
+        float[] cumulativeMax = new float[termCount];
+        for (int i = 0; i < termCount; i++) {
+            lists[i] = found.get(order[i]);
+            idf[i] = unsortedIdf[order[i]];
+            maxScore[i] = unsortedMax[order[i]];
+            cumulativeMax[i] = maxScore[i] + (i > 0 ? cumulativeMax[i - 1] : 0);
+        }
+
+        float averageLength = Math.max(1f, totalLength / (float) liveCount);
+        int[] positions = new int[termCount];
+        Comparator<Hit> worstFirst = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Comparator.comparingLong(Hit::productId).reversed());
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, worstFirst);
+        float threshold = -1;
+        // Los términos por debajo de firstEssential no bastan por sí solos para entrar en el ranking
+        int firstEssential = 0;
+
+        while (firstEssential < termCount) {
+            if (firstEssential == termCount - 1) {
+                skipBlocksBelow(threshold - (firstEssential > 0 ? cumulativeMax[firstEssential - 1] : 0),
+                        lists[firstEssential], positions, firstEssential, idf[firstEssential], averageLength);
+            }
+            int document = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < termCount; i++) {
+                if (positions[i] < lists[i].size) {
+                    document = Math.min(document, lists[i].documents[positions[i]]);
+                }
+            }
+            if (document == Integer.MAX_VALUE) {
+                break;
+            }
+
+            float norm = K1 * (1 - B + B * lengths[document] / averageLength);
+            float score = 0;
+            for (int i = firstEssential; i < termCount; i++) {
+                PostingList list = lists[i];
+                if (positions[i] < list.size && list.documents[positions[i]] == document) {
+                    score += bm25(idf[i], list.frequencies[positions[i]], norm);
+                    positions[i]++;
+                }
+            }
+            if (deleted.get(document)) {
+                continue;
+            }
+            for (int i = firstEssential - 1; i >= 0 && score + cumulativeMax[i] >= threshold; i--) {
+                PostingList list = lists[i];
+                positions[i] = list.advance(positions[i], document);
+                if (positions[i] < list.size && list.documents[positions[i]] == document) {
+                    score += bm25(idf[i], list.frequencies[positions[i]], norm);
+                }
+            }
+
+            Hit hit = new Hit(productIds[document], score);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (worstFirst.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            } else {
+                continue;
+            }
+            if (best.size() == limit) {
+                threshold = best.peek().score();
+                while (firstEssential < termCount && cumulativeMax[firstEssential] < threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        Long[] ranked = new Long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().productId();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Libera la capacidad sobrante de las listas tras una carga completa.
+     */
+    void trim() {
+        postings.values().forEach(PostingList::trim);
+        nameTerms.compact();
+    }
+
+    /**
+     * Sustituye cada término de la consulta por los términos de nombre de producto
+     * más cercanos (hasta dos ediciones), priorizando los más frecuentes. Los
+     * términos que existen tal cual o que no admiten corrección se conservan.
+     *
+     * @param terms Términos normalizados de la consulta
+     * @return Términos corregidos
+     */
+    List<String> correct(Collection<String> terms) {
+        List<String> corrected = new ArrayList<>();
+        for (String term : terms) {
+            if (postings.containsKey(term) || !FuzzyTermIndex.accepts(term)) {
+                corrected.add(term);
+                continue;
+            }
+            List<String> closest = nameTerms.closest(term);
+            closest.sort(Comparator.comparingInt((String candidate) -> postings.get(candidate).size).reversed()
+                    .thenComparing(Comparator.naturalOrder()));
+            corrected.addAll(closest.subList(0, Math.min(MAX_CORRECTIONS, closest.size())));
+        }
+        return corrected;
+    }
+
+    /**
+     * @return Número de productos indexados
+     */
+    int size() {
+        return liveCount;
+    }
+
+    /**
+     * @return Número de documentos eliminados cuyos postings siguen en el índice
+     */
+    int deletedCount() {
+        return documentCount - liveCount;
+    }
+
+    /**
+     * @return Número de términos distintos indexados
+     */
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * @return Número de términos de nombre registrados para la corrección de erratas
+     */
+    int nameTermCount() {
+        return nameTerms.size();
+    }
+
+    /**
+     * Lista de documentos que contienen un término, con su frecuencia, en orden de documento.
+     */
+    private static final class PostingList {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] blockMaxFrequencies = new int[1];
+        private int[] blockMinLengths = {Integer.MAX_VALUE};
+        private int size;
+        private int maxFrequency;
+        private boolean inNameTerms;
+
+        void add(int document, int frequency, int length) {
+            if (size == documents.length) {
+                int capacity = Math.max(4, size + (size >> 1));
+                documents = Arrays.copyOf(documents, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            int block = size / BLOCK_SIZE;
+            if (block == blockMaxFrequencies.length) {
+                int blocks = blockMaxFrequencies.length * 2;
+                blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, blocks);
+                blockMinLengths = Arrays.copyOf(blockMinLengths, blocks);
+                Arrays.fill(blockMinLengths, block, blocks, Integer.MAX_VALUE);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+            maxFrequency = Math.max(maxFrequency, frequency);
+            blockMaxFrequencies[block] = Math.max(blockMaxFrequencies[block], frequency);
+            blockMinLengths[block] = Math.min(blockMinLengths[block], length);
+        }
+
+        /**
+         * Cota superior de la puntuación de cualquier documento del bloque de la posición indicada.
+         */
+        float blockMaxScore(int position, float idf, float averageLength) {
+            int block = position / BLOCK_SIZE;
+            float norm = K1 * (1 - B + B * blockMinLengths[block] / averageLength);
+            return bm25(idf, blockMaxFrequencies[block], norm);
+        }
+
+        /**
+         * @return Primera posición del bloque siguiente al de la posición indicada
+         */
+        int nextBlock(int position) {
+            return Math.min(size, (position / BLOCK_SIZE + 1) * BLOCK_SIZE);
+        }
+
+        /**
+         * Devuelve la primera posición desde {@code from} cuyo documento es mayor o
+         * igual que el indicado, avanzando a saltos exponenciales y acotando después
+         * con búsqueda binaria.
+         */
+        int advance(int from, int document) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && documents[high] < document) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (documents[middle] < document) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        void trim() {
+            int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            documents = Arrays.copyOf(documents, size);
+            frequencies = Arrays.copyOf(frequencies, size);
+            blockMaxFrequencies = Arrays.copyOf(blockMaxFrequencies, blocks);
+            blockMinLengths = Arrays.copyOf(blockMinLengths, blocks);
+        }
+    }
+
+    /**
+     * Con un único término esencial, salta los bloques de su lista cuya puntuación
+     * máxima no alcanza el mínimo necesario para entrar en el ranking (Block-Max).
+     */
+    private static void skipBlocksBelow(float minimum, PostingList list, int[] positions, int index,
+                                        float idf, float averageLength) {
+        while (positions[index] < list.size
+                && list.blockMaxScore(positions[index], idf, averageLength) < minimum) {
+            positions[index] = list.nextBlock(positions[index]);
+        }
+    }
+
+    private static float bm25(float idf, int frequency, float norm) {
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private record Hit(long productId, float score) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.microshop.product.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Los productos más populares del catálogo y de cada categoría, en montículos de
+ * tamaño acotado.
+ *
+ * Cada producto se ordena por un rango que no depende del momento de la consulta:
+ * {@code log2(puntuación) + instante / vida media}. Como todas las puntuaciones
+ * decaen al mismo ritmo, comparar rangos equivale a comparar las puntuaciones
+ * decaídas a un mismo instante, sin recalcular el montículo con el paso del tiempo.
+ *
+ * No es seguro para hilos: {@link ProductPopularityIndex} sincroniza el acceso.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+class PopularityRanking {
+
+    private final int capacity;
+    private final TopK global;
+    private final Map<String, TopK> byCategory = new HashMap<>();
+
+    /**
+     * Categoría de cada producto presente en algún montículo.
+     */
+    private final Map<Long, String> categories = new HashMap<>();
+
+    /**
+     * @param capacity Número de productos que se conservan por montículo
+     */
+    PopularityRanking(int capacity) {
+        this.capacity = capacity;
+        this.global = new TopK(capacity);
+    }
+
+    /**
+     * Calcula el rango de una puntuación decaída.
+     *
+     * @param score Puntuación, positiva
+     * @param decayedAt Instante (ms desde epoch) al que está referida
+     * @param halfLifeMs Vida media de la puntuación en ms
+     * @return Rango comparable con el de cualquier otra puntuación
+     */
+    static double rank(double score, long decayedAt, double halfLifeMs) {
+        return Math.log(score) / Math.log(2) + decayedAt / halfLifeMs;
+    }
+
+    /**
+     * Actualiza el rango de un producto, que entra en los montículos del catálogo y
+     * de su categoría si supera al último de cada uno.
+     *
+     * @param productId ID del producto
+     * @param category Categoría actual del producto
+     * @param rank Rango calculado con {@link #rank(double, long, double)}
+     */
+    void offer(long productId, String category, double rank) {
+        String key = key(category);
+        String previous = categories.get(productId);
+        if (previous != null && !previous.equals(key)) {
+            removeFromCategory(productId, previous);
+        }
+        TopK categoryHeap = byCategory.computeIfAbsent(key, ignored -> new TopK(capacity));
+        boolean kept = global.offer(productId, rank) | categoryHeap.offer(productId, rank);
+        if (kept) {
+            categories.put(productId, key);
+        } else if (categoryHeap.isEmpty()) {
+            byCategory.remove(key);
+        }
+        for (Long evicted : global.evicted) {
+            if (!categoryHeap.contains(evicted)) {
+                categories.remove(evicted);
+            }
+        }
+        for (Long evicted : categoryHeap.evicted) {
+            if (!global.contains(evicted)) {
+                categories.remove(evicted);
+            }
+        }
+        global.evicted.clear();
+        categoryHeap.evicted.clear();
+    }
+
+    /**
+     * Elimina un producto del ranking.
+     *
+     * @param productId ID del producto
+     */
+    void remove(long productId) {
+        String category = categories.remove(productId);
+        global.remove(productId);
+        if (category != null) {
+            removeFromCategory(productId, category);
+        }
+    }
+
+    /**
+     * Obtiene los productos más populares.
+     *
+     * @param category Categoría (sin distinguir mayúsculas), o null para todo el catálogo
+     * @param limit Número máximo de productos, como mucho la capacidad de los montículos
+     * @return IDs de los productos, los más populares primero
+     */
+    List<Long> top(String category, int limit) {
+        TopK heap = category == null ? global : byCategory.get(key(category));
+        return heap == null ? List.of() : heap.top(limit);
+    }
+
+    /**
+     * @return Número de productos presentes en algún montículo
+     */
+    int size() {
+        return categories.size();
+    }
+
+    // Métodos privados auxiliares
+
+    private void removeFromCategory(long productId, String category) {
+        TopK heap = byCategory.get(category);
+        if (heap != null) {
+            heap.remove(productId);
+            heap.evicted.clear();
+            if (heap.isEmpty()) {
+                byCategory.remove(category);
+            }
+        }
+    }
+
+    private static String key(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Montículo de mínimos con los {@code capacity} productos de mayor rango; el
+     * de menor rango está en la cima y es el que se desaloja.
+     */
+    private static final class TopK {
+
+        private static final Comparator<Entry> LOWEST_FIRST = Comparator.comparingDouble(Entry::rank)
+                .thenComparing(Entry::productId, Comparator.reverseOrder());
+
+        private final int capacity;
+        private final PriorityQueue<Entry> heap;
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final List<Long> evicted = new ArrayList<>();
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity + 1, LOWEST_FIRST);
+        }
+
+        /**
+         * @return true si el producto queda en el montículo
+         */
+        boolean offer(long productId, double rank) {
+            Entry entry = new Entry(productId, rank);
+            Entry current = entries.remove(productId);
+            if (current != null) {
+                heap.remove(current);
+            } else if (heap.size() >= capacity) {
+                if (LOWEST_FIRST.compare(entry, heap.peek()) <= 0) {
+                    return false;
+                }
+                Entry lowest = heap.poll();
+                entries.remove(lowest.productId());
+                evicted.add(lowest.productId());
+            }
+            heap.add(entry);
+            entries.put(productId, entry);
+            return true;
+        }
+
+        void remove(long productId) {
+            Entry entry = entries.remove(productId);
+            if (entry != null) {
+                heap.remove(entry);
+            }
+        }
+
+        boolean contains(long productId) {
+            return entries.containsKey(productId);
+        }
+
+        boolean isEmpty() {
+            return heap.isEmpty();
+        }
+
+        List<Long> top(int limit) {
+            List<Entry> sorted = new ArrayList<>(heap);
+            sorted.sort(LOWEST_FIRST.reversed());
+            List<Long> ids = new ArrayList<>(Math.min(limit, sorted.size()));
+            for (int i = 0; i < sorted.size() && i < limit; i++) {
+                ids.add(sorted.get(i).productId());
+            }
+            return ids;
+        }
+    }
+
+    private record Entry(long productId, double rank) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.microshop.product.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice inmutable de autocompletado por prefijo.
+ *
+ * Las claves normalizadas se guardan ordenadas y concatenadas en un único array
+ * de caracteres, de modo que todas las claves que empiezan por un prefijo forman
+ * un rango contiguo que se localiza con dos búsquedas binarias. Para los prefijos
+ * cuyo rango tiene al menos {@value #HEAVY_RANGE} claves (los nodos altos del
+ * trie implícito) se precalculan los mejores resultados por peso; los rangos
+ * menores se recorren en la consulta. Así ninguna consulta examina más de
+ * {@value #HEAVY_RANGE} claves.
+ *
+ * Al ser inmutable puede consultarse desde cualquier hilo sin sincronización.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+final class PrefixIndex {
+
+    static final int HEAVY_RANGE = 256;
+
+    private static final PrefixIndex EMPTY = build(List.of(), 1);
+
+    private final char[] keyChars;
+    private final int[] keyOffsets;
+    private final String[] texts;
+    private final long[] weights;
+    private final long[] productIds;
+    private final int topK;
+    private final Map<String, int[]> heavyTop = new HashMap<>();
+
+    /**
+     * Entrada del índice.
+     *
+     * @param key Clave normalizada por la que se busca
+     * @param text Texto que se muestra al usuario
+     * @param weight Peso de la entrada; a mayor peso, antes aparece
+     * @param productId ID del producto asociado, o 0 si no corresponde a un producto
+     */
+    record Entry(String key, String text, long weight, long productId) {
+    }
+
+    private PrefixIndex(List<Entry> sorted, int topK) {
+        int size = sorted.size();
+        int totalChars = 0;
+        for (Entry entry : sorted) {
+            totalChars += entry.key().length();
+        }
+        this.keyChars = new char[totalChars];
+        this.keyOffsets = new int[size + 1];
+        this.texts = new String[size];
+        this.weights = new long[size];
+        this.productIds = new long[size];
+        this.topK = topK;
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            Entry entry = sorted.get(i);
+            entry.key().getChars(0, entry.key().length(), keyChars, offset);
+            keyOffsets[i] = offset;
+            offset += entry.key().length();
+            texts[i] = entry.text();
+            weights[i] = entry.weight();
+            productIds[i] = entry.productId();
+        }
+        keyOffsets[size] = offset;
+        precomputeHeavyRanges(0, size, 0);
+    }
+
+    /**
+     * @return Índice sin entradas
+     */
+    static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construye el índice. Si varias entradas tienen la misma clave se conserva
+     * la de mayor peso.
+     *
+     * @param entries Entradas a indexar; las de clave vacía se descartan
+     * @param topK Número de resultados precalculados por prefijo (límite máximo de las consultas)
+     * @return Índice construido
+     */
+    static PrefixIndex build(List<Entry> entries, int topK) {
+        List<Entry> sorted = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (!entry.key().isEmpty()) {
+                sorted.add(entry);
+            }
+        }
+        sorted.sort(Comparator.comparing(Entry::key)
+                .thenComparing(Comparator.comparingLong(Entry::weight).reversed()));
+        List<Entry> unique = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).key().equals(entry.key())) {
+                unique.add(entry);
+            }
+        }
+        return new PrefixIndex(unique, topK);
+    }
+
+    /**
+     * Obtiene las entradas de mayor peso cuya clave empieza por el prefijo
+     * (a igual peso, en orden alfabético).
+     *
+     * @param prefix Prefijo ya normalizado
+     * @param limit Número máximo de resultados (como mucho el topK del índice)
+     * @return Entradas encontradas, de mayor a menor peso
+     */
+    List<Entry> search(String prefix, int limit) {
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+        int count = Math.min(limit, topK);
+        if (from == to || count <= 0) {
+            return List.of();
+        }
+        int[] best = to - from >= HEAVY_RANGE ? heavyTop.get(prefix) : topOf(from, to);
+        List<Entry> result = new ArrayList<>(Math.min(count, best.length));
+        for (int i = 0; i < best.length && i < count; i++) {
+            int position = best[i];
+            result.add(new Entry(key(position), texts[position], weights[position], productIds[position]));
+        }
+        return result;
+    }
+
+    /**
+     * @return Número de claves distintas indexadas
+     */
+    int size() {
+        return texts.length;
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Precalcula los mejores resultados de los prefijos con rango grande,
+     * descendiendo por el trie implícito mientras los rangos sigan siéndolo.
+     * Todas las claves de [from, to) comparten sus primeros {@code depth} caracteres.
+     */
+    private void precomputeHeavyRanges(int from, int to, int depth) {
+        if (to - from < HEAVY_RANGE) {
+            return;
+        }
+        heavyTop.put(new String(keyChars, keyOffsets[from], depth), topOf(from, to));
+        // Las claves iguales al prefijo van primero y no pertenecen a ningún hijo
+        int child = from;
+        while (child < to && length(child) == depth) {
+            child++;
+        }
+        while (child < to) {
+            char c = charAt(child, depth);
+            int end = child + 1;
+            while (end < to && charAt(end, depth) == c) {
+                end++;
+            }
+            precomputeHeavyRanges(child, end, depth + 1);
+            child = end;
+        }
+    }
+
+    private int[] topOf(int from, int to) {
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingLong(i -> weights[i])
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> best = new PriorityQueue<>(topK + 1, worstFirst);
+        for (int i = from; i < to; i++) {
+            if (best.size() < topK) {
+                best.add(i);
+            } else if (worstFirst.compare(i, best.peek()) > 0) {
+                best.poll();
+                best.add(i);
+            }
+        }
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll();
+        }
+        return result;
+    }
+
+    /**
+     * Primera posición cuya clave es mayor o igual que el prefijo.
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = texts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(middle, prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Primera posición desde {@code from} cuya clave ya no empieza por el prefijo.
+     */
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = texts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(middle, prefix) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compara la clave de una posición con el prefijo: 0 si la clave empieza por él.
+     */
+    private int comparePrefix(int position, String prefix) {
+        int offset = keyOffsets[position];
+        int length = length(position);
+        int common = Math.min(length, prefix.length());
+        for (int i = 0; i < common; i++) {
+            int difference = keyChars[offset + i] - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private int length(int position) {
+        return keyOffsets[position + 1] - keyOffsets[position];
+    }
+
+    private char charAt(int position, int index) {
+        return keyChars[keyOffsets[position] + index];
+    }
+
+    private String key(int position) {
+        return new String(keyChars, keyOffsets[position], length(position));
+    }
+}
@@ -0,0 +1,222 @@
+package com.microshop.product.search;
+
+import java.util.Arrays;
+
+/**
+ * Reparto de las filas de {@link CatalogColumns} en rangos de precio consecutivos,
+ * para resolver las ordenaciones por precio visitando solo los rangos necesarios.
+ *
+ * Los límites se calculan al construir como cuantiles de los precios, de modo que
+ * cada rango tiene aproximadamente el mismo número de filas. Dentro de un rango
+ * las filas no están ordenadas, pero cada una se guarda junto a su precio para
+ * filtrar por precio sin acceder a las columnas. Un cambio de precio mueve la
+ * fila de rango en tiempo constante: cada fila guarda su rango y su posición, y
+ * al sacarla se ocupa su hueco con la última fila del rango.
+ *
+ * No es seguro para uso concurrente.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+final class PriceBuckets {
+
+    private static final int NONE = -1;
+
+    /**
+     * Límites entre rangos, estrictamente crecientes: el rango b contiene los
+     * precios de {@code limits[b - 1]} (incluido) a {@code limits[b]} (excluido).
+     */
+    private final long[] limits;
+    private final int[][] rows;
+    private final long[][] prices;
+    private final int[] sizes;
+    private int[] bucketOfRow;
+    private int[] positionOfRow;
+
+    private PriceBuckets(long[] limits, int capacity) {
+        this.limits = limits;
+        this.rows = new int[limits.length + 1][];
+        this.prices = new long[limits.length + 1][];
+        this.sizes = new int[limits.length + 1];
+        Arrays.setAll(rows, bucket -> new int[16]);
+        Arrays.setAll(prices, bucket -> new long[16]);
+        this.bucketOfRow = new int[Math.max(capacity, 16)];
+        this.positionOfRow = new int[bucketOfRow.length];
+        Arrays.fill(bucketOfRow, NONE);
+    }
+
+    /**
+     * @return Reparto con un único rango, para una réplica vacía
+     */
+    static PriceBuckets empty() {
+        return new PriceBuckets(new long[0], 0);
+    }
+
+    /**
+     * Reparte las filas vivas en rangos de aproximadamente {@code bucketSize} filas.
+     *
+     * @param prices Precio de cada fila
+     * @param live Indica si cada fila está viva
+     * @param rowCount Número de filas
+     * @param bucketSize Número aproximado de filas por rango
+     * @return Reparto de las filas
+     */
+    static PriceBuckets build(long[] prices, boolean[] live, int rowCount, int bucketSize) {
+        long[] sorted = new long[rowCount];
+        int liveCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (live[row]) {
+                sorted[liveCount++] = prices[row];
+            }
+        }
+        Arrays.sort(sorted, 0, liveCount);
+        long[] limits = new long[liveCount / bucketSize];
+        int limitCount = 0;
+        for (int i = bucketSize; i < liveCount; i += bucketSize) {
+            if (limitCount == 0 || sorted[i] > limits[limitCount - 1]) {
+                limits[limitCount++] = sorted[i];
+            }
+        }
+        PriceBuckets buckets = new PriceBuckets(Arrays.copyOf(limits, limitCount), rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            if (live[row]) {
+                buckets.place(row, prices[row]);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Coloca una fila en el rango de su precio, sacándola del que ocupara antes.
+     *
+     * @param row Fila
+     * @param price Precio actual de la fila
+     */
+    void place(int row, long price) {
+        int bucket = bucketOf(price);
+        if (row >= bucketOfRow.length) {
+            int capacity = Math.max(row + 1, bucketOfRow.length * 2);
+            int previousLength = bucketOfRow.length;
+            bucketOfRow = Arrays.copyOf(bucketOfRow, capacity);
+            positionOfRow = Arrays.copyOf(positionOfRow, capacity);
+            Arrays.fill(bucketOfRow, previousLength, capacity, NONE);
+        }
+        if (bucketOfRow[row] == bucket) {
+            prices[bucket][positionOfRow[row]] = price;
+            return;
+        }
+        remove(row);
+        if (sizes[bucket] == rows[bucket].length) {
+            rows[bucket] = Arrays.copyOf(rows[bucket], sizes[bucket] * 2);
+            prices[bucket] = Arrays.copyOf(prices[bucket], sizes[bucket] * 2);
+        }
+        rows[bucket][sizes[bucket]] = row;
+        prices[bucket][sizes[bucket]] = price;
+        positionOfRow[row] = sizes[bucket]++;
+        bucketOfRow[row] = bucket;
+    }
+
+    /**
+     * Saca una fila de su rango. No hace nada si no estaba en ninguno.
+     *
+     * @param row Fila
+     */
+    void remove(int row) {
+        if (row >= bucketOfRow.length || bucketOfRow[row] == NONE) {
+            return;
+        }
+        int bucket = bucketOfRow[row];
+        int position = positionOfRow[row];
+        int lastPosition = --sizes[bucket];
+        int last = rows[bucket][lastPosition];
+        rows[bucket][position] = last;
+        prices[bucket][position] = prices[bucket][lastPosition];
+        positionOfRow[last] = position;
+        bucketOfRow[row] = NONE;
+    }
+
+    /**
+     * @return Número de rangos
+     */
+    int bucketCount() {
+        return sizes.length;
+    }
+
+    /**
+     * @param price Precio en céntimos
+     * @return Rango que contiene el precio
+     */
+    int bucketOf(long price) {
+        int low = 0;
+        int high = limits.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (limits[middle] <= price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param bucket Rango
+     * @return Menor precio que puede contener el rango
+     */
+    long lowerBound(int bucket) {
+        return bucket == 0 ? Long.MIN_VALUE : limits[bucket - 1];
+    }
+
+    /**
+     * @param bucket Rango
+     * @return Precio a partir del cual empieza el rango siguiente
+     */
+    long upperBound(int bucket) {
+        return bucket == limits.length ? Long.MAX_VALUE : limits[bucket];
+    }
+
+    /**
+     * @param bucket Rango
+     * @return Número de filas del rango
+     */
+    int size(int bucket) {
+        return sizes[bucket];
+    }
+
+    /**
+     * @param bucket Rango
+     * @param index Posición dentro del rango
+     * @return Fila en esa posición
+     */
+    int row(int bucket, int index) {
+        return rows[bucket][index];
+    }
+
+    /**
+     * @param bucket Rango
+     * @param index Posición dentro del rango
+     * @return Precio de la fila en esa posición
+     */
+    long price(int bucket, int index) {
+        return prices[bucket][index];
+    }
+
+    /**
+     * Cota superior del número de filas con precio en el intervalo indicado.
+     *
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @return Filas de los rangos que se solapan con el intervalo
+     */
+    long rowsBetween(long minPrice, long maxPrice) {
+        if (minPrice >= maxPrice) {
+            return 0;
+        }
+        long rowCount = 0;
+        for (int bucket = bucketOf(minPrice), last = bucketOf(maxPrice - 1); bucket <= last; bucket++) {
+            rowCount += sizes[bucket];
+        }
+        return rowCount;
+    }
+}
@@ -0,0 +1,269 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductAttributeDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de los atributos de producto: un bitmap comprimido por cada
+ * valor de atributo, con el que las combinaciones AND/OR/NOT de
+ * {@link AttributeFilter} se evalúan como operaciones de bitmap.
+ *
+ * Se construye en segundo plano al arrancar; hasta que termina, cada filtro se
+ * evalúa sobre un índice construido en el momento desde la base de datos
+ * (métrica {@code product.attributes.fallback}). Después se mantiene al día con
+ * los eventos de cambio de productos, locales y de otras instancias, volviendo a
+ * leer los atributos del producto modificado. La memoria ocupada por los bitmaps
+ * se publica en la métrica {@code product.attributes.index.memory}.
+ *
+ * Los filtros comparten un bloqueo de lectura y los cambios toman brevemente el
+ * de escritura.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductAttributeIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAttributeIndex.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Counter fallbacks;
+
+    private AttributePostings postings = new AttributePostings();
+    private volatile boolean ready;
+
+    /**
+     * Cambios recibidos durante una reconstrucción, que se aplican al nuevo índice
+     * antes de publicarlo. Protegido por el bloqueo de escritura.
+     */
+    private List<AttributeChange> pendingChanges;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param transactionManager Gestor de transacciones para leer el catálogo en streaming
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public ProductAttributeIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fallbacks = Counter.builder("product.attributes.fallback")
+                .description("Filtros de atributos evaluados sobre un índice construido en el momento porque el índice no estaba listo")
+                .register(meterRegistry);
+        Gauge.builder("product.attributes.index.memory", this, ProductAttributeIndex::memoryBytes)
+                .description("Memoria ocupada por los bitmaps del índice de atributos")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el índice ya se ha construido.
+     *
+     * @return true tras la primera construcción completa
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Obtiene, en orden de ID, los primeros productos que cumplen el filtro.
+     *
+     * @param filter Expresión de filtrado
+     * @param afterId ID del último producto de la página anterior, o null para la primera página
+     * @param limit Número máximo de productos
+     * @return IDs de los productos encontrados, en orden creciente
+     */
+    public List<Long> filter(AttributeFilter filter, Long afterId, int limit) {
+        if (!ready) {
+            fallbacks.increment();
+            return readOnlyTransaction.execute(status -> load()).filter(filter, afterId, limit);
+        }
+        lock.readLock().lock();
+        try {
+            return postings.filter(filter, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Memoria estimada de los bitmaps del índice, en bytes
+     */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return postings.sizeInBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica al índice un cambio de producto una vez confirmado, leyendo de nuevo
+     * sus atributos: los eventos no los incluyen.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<String, String> attributes = null;
+        if (event.getType() != ProductChangedEvent.Type.DELETED) {
+            attributes = new HashMap<>();
+            for (ProductAttributeDTO attribute : productRepository.findAttributesByProductId(event.getProductId())) {
+                attributes.put(attribute.getName(), attribute.getValue());
+            }
+            if (attributes.isEmpty() && !productRepository.existsById(event.getProductId())) {
+                attributes = null;
+            }
+        }
+        AttributeChange change = new AttributeChange(event.getProductId(), attributes);
+
+        lock.writeLock().lock();
+        try {
+            change.applyTo(postings);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el índice en segundo plano tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        rebuildInBackground();
+    }
+
+    /**
+     * Construye el índice al arrancar la aplicación sin retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    /**
+     * Lanza una reconstrucción completa en un hilo propio, salvo que ya haya una en curso.
+     */
+    public void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread builder = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.error("No se pudo construir el índice de atributos", ex);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "product-attribute-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Lee los atributos de todo el catálogo y sustituye el índice actual. Los
+     * filtros siguen usando el índice anterior mientras se construye el nuevo, y
+     * las reconstrucciones concurrentes se ejecutan una tras otra.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.nanoTime();
+            AttributePostings rebuilt = readOnlyTransaction.execute(status -> load());
+            lock.writeLock().lock();
+            try {
+                for (AttributeChange change : pendingChanges) {
+                    change.applyTo(rebuilt);
+                }
+                postings = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de atributos construido: {} productos, {} valores distintos, {} KB en {} ms",
+                    rebuilt.size(), rebuilt.valueCount(), rebuilt.sizeInBytes() / 1024,
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Lee el catálogo en streaming; debe ejecutarse dentro de una transacción.
+     */
+    private AttributePostings load() {
+        AttributePostings loaded = new AttributePostings();
+        try (Stream<Long> ids = productRepository.streamAllIds()) {
+            ids.forEach(loaded::addProduct);
+        }
+        try (Stream<ProductAttributeDTO> attributes = productRepository.streamAllAttributes()) {
+            attributes.forEach(attribute ->
+                    loaded.addAttribute(attribute.getProductId(), attribute.getName(), attribute.getValue()));
+        }
+        return loaded;
+    }
+
+    /**
+     * Cambio pendiente de aplicar: los atributos actuales del producto, o null si ya no existe.
+     */
+    private record AttributeChange(Long productId, Map<String, String> attributes) {
+
+        void applyTo(AttributePostings target) {
+            if (attributes == null) {
+                target.remove(productId);
+            } else {
+                target.put(productId, attributes);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Réplica en memoria del catálogo, almacenada por columnas, para las consultas
+ * que combinan filtros de categoría, precio y stock con ordenación.
+ *
+ * Se construye en segundo plano al arrancar leyendo el catálogo en streaming;
+ * hasta que termina, {@link #isReady()} devuelve false y las consultas deben
+ * resolverse por otro camino. Después se mantiene al día con los eventos de
+ * cambio de productos, tanto locales como de otras instancias, y se reconstruye
+ * en segundo plano cuando las filas eliminadas superan la cuarta parte.
+ *
+ * Las consultas comparten un bloqueo de lectura y los cambios toman brevemente
+ * el de escritura.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductCatalogReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalogReplica.class);
+    private static final double MAX_DELETED_RATIO = 0.25;
+    private static final int MIN_DELETED_FOR_REBUILD = 1000;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private CatalogColumns columns = new CatalogColumns();
+    private volatile boolean ready;
+
+    /**
+     * Cambios recibidos durante una reconstrucción, que se aplican a la nueva
+     * réplica antes de publicarla. Protegido por el bloqueo de escritura.
+     */
+    private List<ReplicaChange> pendingChanges;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param transactionManager Gestor de transacciones para leer el catálogo en streaming
+     */
+    @Autowired
+    public ProductCatalogReplica(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Indica si la réplica ya se ha construido y puede atender consultas.
+     *
+     * @return true tras la primera construcción completa
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Filtra el catálogo y devuelve los primeros productos según la ordenación.
+     *
+     * @param query Filtros, ordenación y número de resultados
+     * @return IDs de los productos encontrados, en el orden pedido
+     */
+    public List<Long> query(CatalogQuery query) {
+        lock.readLock().lock();
+        try {
+            return columns.query(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica a la réplica un cambio de producto una vez confirmado. Los eventos
+     * remotos no incluyen el estado del producto, que se vuelve a leer de la base de datos.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.getProduct();
+        if (event.getType() != ProductChangedEvent.Type.DELETED && product == null) {
+            product = productRepository.findViewById(event.getProductId()).orElse(null);
+        }
+        ReplicaChange change = new ReplicaChange(event.getProductId(), product);
+
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            change.applyTo(columns);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            int deletedCount = columns.deletedCount();
+            compact = ready && deletedCount > MIN_DELETED_FOR_REBUILD
+                    && deletedCount > columns.size() * MAX_DELETED_RATIO;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            rebuildInBackground();
+        }
+    }
+
+    /**
+     * Reconstruye la réplica en segundo plano tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        rebuildInBackground();
+    }
+
+    /**
+     * Construye la réplica al arrancar la aplicación sin retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    /**
+     * Lanza una reconstrucción completa en un hilo propio, salvo que ya haya una en curso.
+     */
+    public void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread builder = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.error("No se pudo construir la réplica del catálogo", ex);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "product-catalog-replica-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Lee todo el catálogo y sustituye la réplica actual. Las consultas siguen
+     * usando la réplica anterior mientras se construye la nueva, y las
+     * reconstrucciones concurrentes se ejecutan una tras otra.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.nanoTime();
+            CatalogColumns rebuilt = readOnlyTransaction.execute(status -> {
+                try (Stream<ProductResponseDTO> products = productRepository.streamAllByOrderByIdAsc()) {
+                    return load(products.iterator());
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                for (ReplicaChange change : pendingChanges) {
+                    change.applyTo(rebuilt);
+                }
+                columns = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Réplica por columnas del catálogo construida: {} productos en {} ms",
+                    rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private static CatalogColumns load(Iterator<ProductResponseDTO> products) {
+        CatalogColumns loaded = new CatalogColumns();
+        while (products.hasNext()) {
+            put(loaded, products.next());
+        }
+        loaded.indexPrices();
+        return loaded;
+    }
+
+    private static void put(CatalogColumns target, ProductResponseDTO product) {
+        long createdAt = product.getCreatedAt() == null
+                ? 0 : product.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+        target.put(product.getId(), product.getPrice(), product.getStock(), product.getCategory(), createdAt);
+    }
+
+    /**
+     * Cambio pendiente de aplicar: el estado nuevo del producto, o null si ya no existe.
+     */
+    private record ReplicaChange(Long productId, ProductResponseDTO product) {
+
+        void applyTo(CatalogColumns target) {
+            if (product == null) {
+                target.remove(productId);
+            } else {
+                put(target, product);
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductFacetsDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Recuentos de productos por categoría y rango de precio para la navegación por
+ * facetas, mantenidos en memoria.
+ *
+ * Los contadores se construyen en segundo plano al arrancar y después se
+ * actualizan con cada alta, modificación (incluidos cambios de categoría y de
+ * precio) y baja, tanto locales como de otras instancias. Periódicamente
+ * ({@code product.facets.reconcile-interval-ms}) se recalculan desde la tabla
+ * para corregir cualquier desviación, que se registra en la métrica
+ * {@code product.facets.reconcile.drift}.
+ *
+ * Los rangos de precio se configuran con {@code product.facets.price-bands}; los
+ * filtros de precio deben coincidir con sus límites para que los recuentos se
+ * obtengan sumando contadores. Mientras no se ha completado la primera
+ * construcción, los recuentos se calculan con una consulta agregada.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BigDecimal[] bandLimits;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter fallbacks;
+    private final Counter drift;
+
+    private FacetCounts counts;
+    private volatile boolean ready;
+
+    /**
+     * Cambios recibidos durante una reconstrucción, que se aplican a los nuevos
+     * contadores antes de publicarlos. Protegido por el bloqueo de escritura.
+     */
+    private List<FacetChange> pendingChanges;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param transactionManager Gestor de transacciones para leer el catálogo en streaming
+     * @param meterRegistry Registro de métricas
+     * @param bandLimits Límites de los rangos de precio, en orden creciente
+     */
+    @Autowired
+    public ProductFacetIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${product.facets.price-bands:25,50,100,250,500,1000}") BigDecimal[] bandLimits) {
+        for (int i = 0; i < bandLimits.length; i++) {
+            if (bandLimits[i].signum() <= 0 || (i > 0 && bandLimits[i].compareTo(bandLimits[i - 1]) <= 0)) {
+                throw new IllegalArgumentException(
+                        "Los límites de los rangos de precio deben ser positivos y crecientes: "
+                        + Arrays.toString(bandLimits));
+            }
+        }
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.bandLimits = bandLimits.clone();
+        this.counts = new FacetCounts(this.bandLimits);
+        this.fallbacks = Counter.builder("product.facets.fallback")
+                .description("Recuentos de facetas calculados en la base de datos porque los contadores no estaban listos")
+                .register(meterRegistry);
+        this.drift = Counter.builder("product.facets.reconcile.drift")
+                .description("Productos contados en una faceta incorrecta detectados al reconciliar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si los contadores ya se han construido.
+     *
+     * @return true tras la primera construcción completa
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Obtiene los recuentos de las facetas para los filtros indicados. Los recuentos
+     * por categoría aplican solo el filtro de precio y los recuentos por rango de
+     * precio solo el de categoría.
+     *
+     * @param category Categoría filtrada (sin distinguir mayúsculas), o null para todas
+     * @param minPrice Precio mínimo filtrado, incluido, o null para no limitarlo
+     * @param maxPrice Precio máximo filtrado, excluido, o null para no limitarlo
+     * @return Recuentos por categoría y por rango de precio
+     * @throws IllegalArgumentException si los precios no coinciden con límites de rango
+     */
+    public ProductFacetsDTO facets(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        int fromBand = minPrice == null ? 0 : bandStartingAt(minPrice);
+        int toBand = maxPrice == null ? bandLimits.length + 1 : bandStartingAt(maxPrice);
+        if (fromBand >= toBand) {
+            throw new IllegalArgumentException("El precio máximo debe ser mayor que el mínimo");
+        }
+        if (!ready) {
+            fallbacks.increment();
+            return summarize(loadAggregated(), category, fromBand, toBand);
+        }
+        lock.readLock().lock();
+        try {
+            return summarize(counts, category, fromBand, toBand);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica a los contadores un cambio de producto una vez confirmado. Los eventos
+     * remotos no incluyen el estado del producto, que se vuelve a leer de la base de datos.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.getProduct();
+        if (event.getType() != ProductChangedEvent.Type.DELETED && product == null) {
+            product = productRepository.findViewById(event.getProductId()).orElse(null);
+        }
+        FacetChange change = new FacetChange(event.getProductId(), product);
+
+        lock.writeLock().lock();
+        try {
+            change.applyTo(counts);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recalcula los contadores en segundo plano tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        reconcileInBackground();
+    }
+
+    /**
+     * Construye los contadores al arrancar la aplicación sin retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcileInBackground();
+    }
+
+    /**
+     * Recalcula periódicamente los contadores desde la tabla de productos.
+     */
+    @Scheduled(initialDelayString = "${product.facets.reconcile-interval-ms:600000}",
+               fixedDelayString = "${product.facets.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("No se pudieron reconciliar los contadores de facetas", ex);
+        }
+    }
+
+    /**
+     * Lee el catálogo, sustituye los contadores actuales y devuelve cuántos productos
+     * estaban contados en una faceta distinta de la real. Las reconstrucciones
+     * concurrentes se ejecutan una tras otra.
+     *
+     * @return Número de productos corregidos (0 en la primera construcción)
+     */
+    public synchronized long rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.nanoTime();
+            FacetCounts rebuilt = readOnlyTransaction.execute(status -> {
+                try (Stream<ProductResponseDTO> products = productRepository.streamAllByOrderByIdAsc()) {
+                    return load(products.iterator());
+                }
+            });
+            long differences;
+            lock.writeLock().lock();
+            try {
+                for (FacetChange change : pendingChanges) {
+                    change.applyTo(rebuilt);
+                }
+                differences = ready ? counts.differences(rebuilt) : 0;
+                counts = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (differences > 0) {
+                drift.increment(differences);
+                log.warn("Contadores de facetas reconciliados: {} productos estaban contados en una faceta incorrecta",
+                        differences);
+            }
+            log.info("Contadores de facetas construidos: {} categorías en {} ms",
+                    rebuilt.categoryCount(), (System.nanoTime() - start) / 1_000_000);
+            return differences;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private void reconcileInBackground() {
+        Thread builder = new Thread(this::reconcile, "product-facet-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private FacetCounts load(Iterator<ProductResponseDTO> products) {
+        FacetCounts loaded = new FacetCounts(bandLimits);
+        while (products.hasNext()) {
+            ProductResponseDTO product = products.next();
+            loaded.put(product.getId(), product.getCategory(), product.getPrice());
+        }
+        return loaded;
+    }
+
+    private FacetCounts loadAggregated() {
+        FacetCounts aggregated = new FacetCounts(bandLimits);
+        for (Object[] row : productRepository.countByCategoryAndPrice()) {
+            aggregated.add((String) row[0], (BigDecimal) row[1], ((Number) row[2]).longValue());
+        }
+        return aggregated;
+    }
+
+    /**
+     * Rango de precio que empieza en el precio indicado (0 o uno de los límites).
+     */
+    private int bandStartingAt(BigDecimal price) {
+        if (price.signum() == 0) {
+            return 0;
+        }
+        for (int i = 0; i < bandLimits.length; i++) {
+            if (price.compareTo(bandLimits[i]) == 0) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Los precios del filtro deben ser 0 o uno de los límites de rango: "
+                + Arrays.toString(bandLimits));
+    }
+
+    private ProductFacetsDTO summarize(FacetCounts source, String category, int fromBand, int toBand) {
+        int filteredCategory = category == null ? -1 : source.findCategory(category);
+        boolean unknownCategory = category != null && filteredCategory < 0;
+
+        List<ProductFacetsDTO.CategoryFacet> categories = new ArrayList<>();
+        long total = 0;
+        for (int c = 0; c < source.categoryCount(); c++) {
+            long count = 0;
+            for (int band = fromBand; band < toBand; band++) {
+                count += source.count(c, band);
+            }
+            if (count > 0) {
+                categories.add(new ProductFacetsDTO.CategoryFacet(source.categoryName(c), count));
+            }
+            if (category == null || c == filteredCategory) {
+                total += count;
+            }
+        }
+        categories.sort(Comparator.comparingLong(ProductFacetsDTO.CategoryFacet::getCount).reversed()
+                .thenComparing(ProductFacetsDTO.CategoryFacet::getCategory));
+
+        List<ProductFacetsDTO.PriceRangeFacet> priceRanges = new ArrayList<>(source.bandCount());
+        for (int band = 0; band < source.bandCount(); band++) {
+            long count = 0;
+            if (filteredCategory >= 0) {
+                count = source.count(filteredCategory, band);
+            } else if (!unknownCategory) {
+                for (int c = 0; c < source.categoryCount(); c++) {
+                    count += source.count(c, band);
+                }
+            }
+            priceRanges.add(new ProductFacetsDTO.PriceRangeFacet(band == 0 ? BigDecimal.ZERO : bandLimits[band - 1],
+                    band < bandLimits.length ? bandLimits[band] : null, count));
+        }
+        return new ProductFacetsDTO(unknownCategory ? 0 : total, categories, priceRanges);
+    }
+
+    /**
+     * Cambio pendiente de aplicar: el estado nuevo del producto, o null si ya no existe.
+     */
+    private record FacetChange(Long productId, ProductResponseDTO product) {
+
+        void applyTo(FacetCounts target) {
+            if (product == null) {
+                target.remove(productId);
+            } else {
+                target.put(productId, product.getCategory(), product.getPrice());
+            }
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductStatsDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Ranking de los productos más vistos, con decaimiento temporal.
+ *
+ * Cada visita al detalle de un producto solo incrementa un {@link LongAdder} en
+ * memoria, sin bloqueos ni acceso a la base de datos. Periódicamente
+ * ({@code product.popularity.flush-interval-ms}) las visitas acumuladas se vuelcan
+ * en la tabla {@code product_stats} con actualizaciones e inserciones por lotes:
+ * la puntuación guardada se decae hasta el instante del volcado, con vida media
+ * {@code product.popularity.half-life-hours}, y se le suman las visitas nuevas.
+ * Cada actualización comprueba que la fila no ha cambiado desde que se leyó; si
+ * otra instancia se adelantó, o el volcado falla, las visitas vuelven a los
+ * contadores y se reintentan en el siguiente.
+ *
+ * Las puntuaciones resultantes alimentan montículos con los {@link #MAX_POPULAR}
+ * productos más populares del catálogo y de cada categoría
+ * ({@link PopularityRanking}), que se reconstruyen desde la tabla al arrancar y
+ * cada {@code product.popularity.reload-interval-ms} para incorporar las visitas
+ * volcadas por otras instancias. Hasta la primera construcción, el ranking se
+ * aproxima con una consulta (métrica {@code product.popularity.fallback}).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductPopularityIndex {
+
+    /**
+     * Número máximo de productos del ranking por categoría y del catálogo completo.
+     */
+    public static final int MAX_POPULAR = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPopularityIndex.class);
+
+    /**
+     * Número de productos cuyas estadísticas se leen en cada consulta del volcado.
+     */
+    private static final int FLUSH_CHUNK_SIZE = 1000;
+
+    private static final String UPDATE_STATS = "UPDATE product_stats SET score = ?, views = views + ?, "
+            + "decayed_at = ? WHERE product_id = ? AND decayed_at = ?";
+    private static final String INSERT_STATS =
+            "INSERT INTO product_stats (product_id, score, views, decayed_at) VALUES (?, ?, ?, ?)";
+
+    private final ProductStatsRepository productStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double halfLifeMs;
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Counter fallbacks;
+    private final Counter retries;
+
+    private PopularityRanking ranking = new PopularityRanking(MAX_POPULAR);
+    private volatile boolean ready;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productStatsRepository Repositorio de estadísticas de productos
+     * @param jdbcTemplate JdbcTemplate para escribir las estadísticas por lotes
+     * @param transactionManager Gestor de transacciones de los volcados y las reconstrucciones
+     * @param meterRegistry Registro de métricas
+     * @param halfLifeHours Horas tras las que una visita cuenta la mitad
+     */
+    @Autowired
+    public ProductPopularityIndex(ProductStatsRepository productStatsRepository, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                  @Value("${product.popularity.half-life-hours:24}") double halfLifeHours) {
+        if (halfLifeHours <= 0) {
+            throw new IllegalArgumentException("La vida media de la popularidad debe ser positiva: " + halfLifeHours);
+        }
+        this.productStatsRepository = productStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.halfLifeMs = halfLifeHours * 3_600_000;
+        this.fallbacks = Counter.builder("product.popularity.fallback")
+                .description("Rankings de popularidad aproximados en la base de datos porque el índice no estaba listo")
+                .register(meterRegistry);
+        this.retries = Counter.builder("product.popularity.flush.retries")
+                .description("Productos cuyas visitas no se pudieron volcar y se reintentan en el siguiente volcado")
+                .register(meterRegistry);
+        Gauge.builder("product.popularity.pending", pendingViews, Map::size)
+                .description("Productos con visitas contadas en memoria pendientes de volcar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si el ranking ya se ha construido.
+     *
+     * @return true tras la primera construcción completa
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Cuenta una visita al detalle de un producto. Solo incrementa un contador en
+     * memoria: es seguro llamarlo desde cualquier hilo en cada petición.
+     *
+     * @param productId ID del producto visitado
+     */
+    public void recordView(long productId) {
+        LongAdder views = pendingViews.get(productId);
+        if (views == null) {
+            views = pendingViews.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    /**
+     * Obtiene los productos más populares.
+     *
+     * @param category Categoría (sin distinguir mayúsculas), o null para todo el catálogo
+     * @param limit Número máximo de productos (como mucho {@link #MAX_POPULAR})
+     * @return IDs de los productos, los más populares primero
+     */
+    public List<Long> top(String category, int limit) {
+        if (!ready) {
+            fallbacks.increment();
+            return productStatsRepository.findTopProductIds(category, Limit.of(limit));
+        }
+        lock.readLock().lock();
+        try {
+            return ranking.top(category, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retira del ranking los productos eliminados una vez confirmado el borrado. La
+     * fila de estadísticas se borra en cascada con el producto.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ProductChangedEvent.Type.DELETED) {
+            return;
+        }
+        pendingViews.remove(event.getProductId());
+        lock.writeLock().lock();
+        try {
+            ranking.remove(event.getProductId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el ranking tras confirmarse un cambio masivo del catálogo, que
+     * puede haber eliminado productos sin publicar un evento por cada uno.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        reloadInBackground();
+    }
+
+    /**
+     * Construye el ranking al arrancar la aplicación sin retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadInBackground();
+    }
+
+    /**
+     * Vuelca periódicamente las visitas contadas en memoria.
+     */
+    @Scheduled(initialDelayString = "${product.popularity.flush-interval-ms:10000}",
+               fixedDelayString = "${product.popularity.flush-interval-ms:10000}")
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    /**
+     * Vuelca las visitas pendientes al detener la aplicación, para no perderlas.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Reconstruye periódicamente el ranking desde la tabla de estadísticas.
+     */
+    @Scheduled(initialDelayString = "${product.popularity.reload-interval-ms:300000}",
+               fixedDelayString = "${product.popularity.reload-interval-ms:300000}")
+    public void reload() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("No se pudo construir el ranking de popularidad", ex);
+        }
+    }
+
+    /**
+     * Lee las estadísticas de todo el catálogo y sustituye el ranking actual. Se
+     * excluye mutuamente con los volcados, de modo que ninguna puntuación volcada
+     * durante la lectura se pierde al publicar el nuevo ranking.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        PopularityRanking rebuilt = readOnlyTransaction.execute(status -> {
+            PopularityRanking loaded = new PopularityRanking(MAX_POPULAR);
+            try (Stream<ProductStatsDTO> stats = productStatsRepository.streamAllWithCategory()) {
+                stats.forEach(row -> loaded.offer(row.getProductId(), row.getCategory(),
+                        PopularityRanking.rank(row.getScore(), row.getDecayedAt(), halfLifeMs)));
+            }
+            return loaded;
+        });
+        lock.writeLock().lock();
+        try {
+            ranking = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Ranking de popularidad construido: {} productos en {} ms",
+                rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Vuelca las visitas pendientes como si el instante actual fuera {@code now}.
+     *
+     * @param now Instante del volcado, en ms desde epoch
+     */
+    synchronized void flush(long now) {
+        Map<Long, Long> views = drainPendingViews();
+        if (views.isEmpty()) {
+            return;
+        }
+        FlushResult result;
+        try {
+            result = transaction.execute(status -> write(views, now));
+        } catch (RuntimeException ex) {
+            views.forEach(this::restoreViews);
+            retries.increment(views.size());
+            log.warn("No se pudieron volcar las visitas de {} productos; se reintentará", views.size(), ex);
+            return;
+        }
+        result.conflicts().forEach(productId -> restoreViews(productId, views.get(productId)));
+        retries.increment(result.conflicts().size());
+
+        lock.writeLock().lock();
+        try {
+            for (RankChange change : result.changes()) {
+                ranking.offer(change.productId(), change.category(), change.rank());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private void reloadInBackground() {
+        Thread builder = new Thread(this::reload, "product-popularity-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Toma las visitas acumuladas de cada producto y retira los contadores que no
+     * han recibido visitas desde el volcado anterior.
+     */
+    private Map<Long, Long> drainPendingViews() {
+        Map<Long, Long> views = new HashMap<>();
+        Iterator<Map.Entry<Long, LongAdder>> entries = pendingViews.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, LongAdder> entry = entries.next();
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                views.put(entry.getKey(), count);
+            } else {
+                entries.remove();
+                // Visitas que llegaron al contador justo antes de retirarlo
+                long late = entry.getValue().sumThenReset();
+                if (late > 0) {
+                    views.put(entry.getKey(), late);
+                }
+            }
+        }
+        return views;
+    }
+
+    private void restoreViews(Long productId, Long count) {
+        pendingViews.computeIfAbsent(productId, id -> new LongAdder()).add(count);
+    }
+
+    /**
+     * Escribe las nuevas puntuaciones; debe ejecutarse dentro de una transacción.
+     * Las visitas de productos que ya no existen se descartan.
+     */
+    private FlushResult write(Map<Long, Long> views, long now) {
+        List<RankChange> changes = new ArrayList<>(views.size());
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(views.keySet());
+        for (int from = 0; from < ids.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, ids.size()));
+            for (ProductStatsDTO stats : productStatsRepository.findByProductIds(chunk)) {
+                long count = views.get(stats.getProductId());
+                double score;
+                long decayedAt;
+                if (stats.getScore() == null) {
+                    score = count;
+                    decayedAt = now;
+                    inserts.add(new Object[] {stats.getProductId(), score, count, decayedAt});
+                } else {
+                    // Con relojes desfasados entre instancias, la puntuación no se lleva hacia atrás
+                    decayedAt = Math.max(now, stats.getDecayedAt());
+                    score = stats.getScore() * Math.pow(0.5, (decayedAt - stats.getDecayedAt()) / halfLifeMs) + count;
+                    updates.add(new Object[] {score, count, decayedAt, stats.getProductId(), stats.getDecayedAt()});
+                    updatedIds.add(stats.getProductId());
+                }
+                changes.add(new RankChange(stats.getProductId(), stats.getCategory(),
+                        PopularityRanking.rank(score, decayedAt, halfLifeMs)));
+            }
+        }
+
+        Set<Long> conflicts = new HashSet<>();
+        if (!updates.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATS, updates);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    conflicts.add(updatedIds.get(i));
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STATS, inserts);
+        }
+        if (!conflicts.isEmpty()) {
+            changes.removeIf(change -> conflicts.contains(change.productId()));
+        }
+        return new FlushResult(changes, conflicts);
+    }
+
+    /**
+     * Nuevo rango de un producto tras un volcado.
+     */
+    private record RankChange(long productId, String category, double rank) {
+    }
+
+    /**
+     * Resultado de un volcado: los rangos escritos y los productos cuya fila había
+     * cambiado desde que se leyó, cuyas visitas se reintentan.
+     */
+    private record FlushResult(List<RankChange> changes, Set<Long> conflicts) {
+    }
+}
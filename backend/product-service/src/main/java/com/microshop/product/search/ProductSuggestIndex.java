@@ -0,0 +1,213 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductSuggestionDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Índice de autocompletado del catálogo sobre los nombres de producto y de categoría.
+ *
+ * Las sugerencias se sirven siempre desde memoria, sin consultar la base de datos:
+ * las categorías se ordenan por número de productos y los productos por fecha de
+ * creación, los más recientes primero. El índice es inmutable; se reconstruye en
+ * un hilo aparte leyendo el catálogo en streaming y se publica con una única
+ * escritura de referencia, por lo que las consultas no usan bloqueos y nunca ven
+ * un índice a medio construir.
+ *
+ * Los cambios de productos no se aplican uno a uno: marcan el índice como
+ * desactualizado y la siguiente reconstrucción programada
+ * ({@code product.suggest.refresh-interval-ms}) los incorpora.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductSuggestIndex {
+
+    /**
+     * Número máximo de sugerencias por consulta.
+     */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = new Snapshot(PrefixIndex.empty(), PrefixIndex.empty());
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param transactionManager Gestor de transacciones para leer el catálogo en streaming
+     */
+    @Autowired
+    public ProductSuggestIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Obtiene sugerencias para un prefijo: primero las categorías y después los
+     * productos, hasta completar el límite. Devuelve una lista vacía mientras el
+     * índice no se ha construido.
+     *
+     * @param prefix Texto escrito por el usuario
+     * @param limit Número máximo de sugerencias (como mucho {@value #MAX_SUGGESTIONS})
+     * @return Sugerencias ordenadas
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = TextAnalyzer.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        List<ProductSuggestionDTO> suggestions = new ArrayList<>(limit);
+        for (PrefixIndex.Entry category : current.categories().search(normalized, limit)) {
+            suggestions.add(new ProductSuggestionDTO(category.text(), ProductSuggestionDTO.Type.CATEGORY, null));
+        }
+        for (PrefixIndex.Entry product : current.names().search(normalized, limit - suggestions.size())) {
+            suggestions.add(new ProductSuggestionDTO(product.text(), ProductSuggestionDTO.Type.PRODUCT,
+                    product.productId()));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Marca el índice como desactualizado tras un cambio confirmado de producto.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Marca el índice como desactualizado tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Construye el índice al arrancar la aplicación sin retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::rebuildSafely, "product-suggest-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Reconstruye el índice si ha habido cambios desde la última construcción.
+     */
+    @Scheduled(initialDelayString = "${product.suggest.refresh-interval-ms:60000}",
+               fixedDelayString = "${product.suggest.refresh-interval-ms:60000}")
+    public void refreshIfStale() {
+        if (stale.get()) {
+            rebuildSafely();
+        }
+    }
+
+    /**
+     * Lee todo el catálogo y publica un índice nuevo. Las reconstrucciones
+     * concurrentes se ejecutan una tras otra; los cambios que lleguen durante una
+     * reconstrucción dejan el índice marcado como desactualizado para la siguiente.
+     */
+    public synchronized void rebuild() {
+        try {
+            stale.set(false);
+            long start = System.nanoTime();
+            Snapshot rebuilt = readOnlyTransaction.execute(status -> {
+                try (Stream<ProductResponseDTO> products = productRepository.streamAllByOrderByIdAsc()) {
+                    return load(products.iterator());
+                }
+            });
+            snapshot = rebuilt;
+            log.info("Índice de sugerencias construido: {} nombres, {} categorías en {} ms",
+                    rebuilt.names().size(), rebuilt.categories().size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            stale.set(true);
+            throw ex;
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("No se pudo construir el índice de sugerencias", ex);
+        }
+    }
+
+    private static Snapshot load(Iterator<ProductResponseDTO> products) {
+        List<PrefixIndex.Entry> names = new ArrayList<>();
+        Map<String, CategoryCount> categories = new HashMap<>();
+        while (products.hasNext()) {
+            ProductResponseDTO product = products.next();
+            long recency = product.getCreatedAt() == null
+                    ? 0 : product.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+            names.add(new PrefixIndex.Entry(TextAnalyzer.normalize(product.getName()), product.getName(),
+                    recency, product.getId()));
+            if (product.getCategory() != null) {
+                categories.computeIfAbsent(TextAnalyzer.normalize(product.getCategory()),
+                        key -> new CategoryCount(product.getCategory())).products++;
+            }
+        }
+        List<PrefixIndex.Entry> categoryEntries = new ArrayList<>(categories.size());
+        categories.forEach((key, count) ->
+                categoryEntries.add(new PrefixIndex.Entry(key, count.text, count.products, 0)));
+        return new Snapshot(PrefixIndex.build(names, MAX_SUGGESTIONS),
+                PrefixIndex.build(categoryEntries, MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Número de productos de una categoría, con el nombre tal como se muestra.
+     */
+    private static final class CategoryCount {
+        private final String text;
+        private long products;
+
+        CategoryCount(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Índices publicados juntos para que una consulta nunca mezcle versiones.
+     */
+    private record Snapshot(PrefixIndex names, PrefixIndex categories) {
+    }
+}
@@ -0,0 +1,257 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice de texto completo del catálogo, mantenido en memoria sobre el nombre y
+ * la descripción de los productos.
+ *
+ * Se construye en segundo plano al arrancar la aplicación leyendo el catálogo en
+ * streaming; hasta que termina, {@link #isReady()} devuelve false y las búsquedas
+ * deben resolverse por otro camino. Después se mantiene al día con los eventos de
+ * cambio de productos, tanto locales como de otras instancias. Cuando los
+ * documentos eliminados o sustituidos superan la cuarta parte del índice se
+ * reconstruye de nuevo en segundo plano para descartarlos.
+ *
+ * Las búsquedas comparten un bloqueo de lectura y los cambios toman brevemente
+ * el de escritura.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Component
+public class ProductTextIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductTextIndex.class);
+    private static final double MAX_DELETED_RATIO = 0.25;
+    private static final int MIN_DELETED_FOR_REBUILD = 1000;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+
+    /**
+     * Cambios recibidos durante una reconstrucción, que se aplican al nuevo índice
+     * antes de publicarlo. Protegido por el bloqueo de escritura.
+     */
+    private List<IndexChange> pendingChanges;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param transactionManager Gestor de transacciones para leer el catálogo en streaming
+     */
+    @Autowired
+    public ProductTextIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Indica si el índice ya se ha construido y puede atender búsquedas.
+     *
+     * @return true tras la primera construcción completa
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Busca productos por texto libre.
+     *
+     * @param query Texto de la consulta
+     * @param limit Número máximo de resultados
+     * @return IDs de producto ordenados por relevancia descendente
+     */
+    public List<Long> search(String query, int limit) {
+        return search(query, limit, false);
+    }
+
+    /**
+     * Busca productos por texto libre, opcionalmente tolerando erratas: cada término
+     * que no aparece en el catálogo se sustituye por los términos de nombre de
+     * producto más cercanos, a una o dos ediciones.
+     *
+     * @param query Texto de la consulta
+     * @param limit Número máximo de resultados
+     * @param fuzzy true para corregir los términos inexistentes
+     * @return IDs de producto ordenados por relevancia descendente
+     */
+    public List<Long> search(String query, int limit, boolean fuzzy) {
+        List<String> terms = TextAnalyzer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(fuzzy ? index.correct(terms) : terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica al índice un cambio de producto una vez confirmado. Los eventos remotos
+     * no incluyen el estado del producto, que se vuelve a leer de la base de datos.
+     *
+     * @param event Evento de cambio del producto
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.getProduct();
+        if (event.getType() != ProductChangedEvent.Type.DELETED && product == null) {
+            product = productRepository.findViewById(event.getProductId()).orElse(null);
+        }
+        IndexChange change = new IndexChange(event.getProductId(), product);
+
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            change.applyTo(index);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            int deletedCount = index.deletedCount();
+            compact = ready && deletedCount > MIN_DELETED_FOR_REBUILD
+                    && deletedCount > index.size() * MAX_DELETED_RATIO;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            rebuildInBackground();
+        }
+    }
+
+    /**
+     * Reconstruye el índice en segundo plano tras confirmarse un cambio masivo del catálogo.
+     *
+     * @param event Evento de cambio masivo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        rebuildInBackground();
+    }
+
+    /**
+     * Construye el índice al arrancar la aplicación sin retrasar el arranque.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    /**
+     * Lanza una reconstrucción completa en un hilo propio, salvo que ya haya una en curso.
+     */
+    public void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread builder = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.error("No se pudo construir el índice de texto de productos", ex);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "product-text-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Lee todo el catálogo y sustituye el índice actual. Las búsquedas siguen
+     * usando el índice anterior mientras se construye el nuevo, y las
+     * reconstrucciones concurrentes se ejecutan una tras otra.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.nanoTime();
+            InvertedIndex rebuilt = readOnlyTransaction.execute(status -> {
+                try (Stream<ProductResponseDTO> products = productRepository.streamAllByOrderByIdAsc()) {
+                    return load(products.iterator());
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                for (IndexChange change : pendingChanges) {
+                    change.applyTo(rebuilt);
+                }
+                index = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de texto de productos construido: {} productos, {} términos ({} de nombre) en {} ms",
+                    rebuilt.size(), rebuilt.termCount(), rebuilt.nameTermCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private static InvertedIndex load(Iterator<ProductResponseDTO> products) {
+        InvertedIndex loaded = new InvertedIndex();
+        while (products.hasNext()) {
+            ProductResponseDTO product = products.next();
+            loaded.put(product.getId(), product.getName(), product.getDescription());
+        }
+        loaded.trim();
+        return loaded;
+    }
+
+    /**
+     * Cambio pendiente de aplicar: el estado nuevo del producto, o null si ya no existe.
+     */
+    private record IndexChange(Long productId, ProductResponseDTO product) {
+
+        void applyTo(InvertedIndex target) {
+            if (product == null) {
+                target.remove(productId);
+            } else {
+                target.put(productId, product.getName(), product.getDescription());
+            }
+        }
+    }
+}
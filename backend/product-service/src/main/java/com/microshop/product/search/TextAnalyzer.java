@@ -0,0 +1,91 @@
+package com.microshop.product.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analizador de texto de las búsquedas del catálogo: divide el texto en términos
+ * alfanuméricos, los pasa a minúsculas y elimina las tildes y diéresis, de modo
+ * que "Cámara" y "camara" generan el mismo término. Se descartan los términos de
+ * una sola letra, que no aportan relevancia.
+ *
+ * Se usa igual al indexar y al consultar para que los términos coincidan.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public final class TextAnalyzer {
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Divide un texto en términos normalizados, en el orden en que aparecen.
+     *
+     * @param text Texto a analizar (puede ser null)
+     * @return Términos normalizados, posiblemente repetidos
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else {
+                addTerm(terms, term);
+            }
+        }
+        addTerm(terms, term);
+        return terms;
+    }
+
+    /**
+     * Normaliza un texto para comparaciones por prefijo: minúsculas, sin tildes y
+     * con cualquier secuencia de caracteres no alfanuméricos reducida a un espacio.
+     * A diferencia de {@link #tokenize(String)} conserva los términos de una letra,
+     * porque el usuario puede estar escribiendo la primera letra de una palabra.
+     *
+     * @param text Texto a normalizar (puede ser null)
+     * @return Texto normalizado, sin espacios al principio ni al final
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(normalized.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && result.length() > 0) {
+                    result.append(' ');
+                }
+                pendingSpace = false;
+                result.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return result.toString();
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder term) {
+        if (term.length() > 1 || (term.length() == 1 && Character.isDigit(term.charAt(0)))) {
+            terms.add(term.toString());
+        }
+        term.setLength(0);
+    }
+}
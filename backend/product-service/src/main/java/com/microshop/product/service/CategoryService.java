@@ -0,0 +1,193 @@
+package com.microshop.product.service;
+
+import com.microshop.product.cache.CategoryTreeCache;
+import com.microshop.product.dto.CategoryDTO;
+import com.microshop.product.dto.CategoryRequestDTO;
+import com.microshop.product.dto.ProductPageDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.CategoryChangedEvent;
+import com.microshop.product.exception.CategoryNotFoundException;
+import com.microshop.product.model.Category;
+import com.microshop.product.repository.CategoryRepository;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.util.SubtreeCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio que contiene la lógica de negocio del árbol de categorías.
+ *
+ * Las lecturas del árbol (menús y migas de pan) se sirven desde
+ * {@link CategoryTreeCache}. Los productos de un subárbol se obtienen con un único
+ * rango sobre la ruta de categoría que cada producto guarda.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+@Transactional
+public class CategoryService {
+
+    /**
+     * Profundidad máxima del árbol (0 en las raíces), que acota la longitud de las rutas.
+     */
+    public static final int MAX_DEPTH = 10;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param categoryRepository Repositorio de categorías
+     * @param productRepository Repositorio de productos
+     * @param categoryTreeCache Árbol de categorías en memoria
+     * @param eventPublisher Publicador de eventos de cambio de categorías
+     */
+    @Autowired
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                           CategoryTreeCache categoryTreeCache, ApplicationEventPublisher eventPublisher) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryTreeCache = categoryTreeCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Obtiene el árbol completo de categorías, sin consultar la base de datos.
+     *
+     * @return Categorías raíz con sus subcategorías
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> findTree() {
+        return categoryTreeCache.roots();
+    }
+
+    /**
+     * Obtiene las migas de pan de una categoría, sin consultar la base de datos.
+     *
+     * @param id ID de la categoría
+     * @return Categorías desde la raíz hasta la indicada
+     * @throws CategoryNotFoundException si no existe
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> findBreadcrumb(Long id) {
+        List<CategoryDTO> breadcrumb = categoryTreeCache.breadcrumb(id);
+        if (breadcrumb.isEmpty()) {
+            throw categoryNotFound(id);
+        }
+        return breadcrumb;
+    }
+
+    /**
+     * Crea una categoría, como raíz o bajo la categoría padre indicada.
+     *
+     * @param request Nombre y padre de la categoría
+     * @return Categoría creada
+     * @throws IllegalArgumentException si ya existe una categoría con ese nombre o se supera la profundidad máxima
+     * @throws CategoryNotFoundException si la categoría padre no existe
+     */
+    public CategoryDTO create(CategoryRequestDTO request) {
+        String name = request.getName().trim();
+        if (categoryRepository.findByNameIgnoreCase(name).isPresent()) {
+            throw new IllegalArgumentException("Ya existe una categoría con el nombre " + name);
+        }
+        Category parent = null;
+        if (request.getParentId() != null) {
+            parent = categoryRepository.findById(request.getParentId())
+                    .orElseThrow(() -> categoryNotFound(request.getParentId()));
+            if (parent.getDepth() >= MAX_DEPTH) {
+                throw new IllegalArgumentException(
+                        "El árbol de categorías admite como máximo " + (MAX_DEPTH + 1) + " niveles");
+            }
+        }
+        Category category = categoryRepository.save(new Category(name, parent));
+        // La ruta incluye el ID, que se conoce tras insertar: se escribe al confirmar
+        category.completePath();
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
+        return new CategoryDTO(category.getId(), category.getName(), category.getParentId(),
+                category.getDepth(), null);
+    }
+
+    /**
+     * Obtiene la ruta materializada de la categoría con el nombre indicado, que se
+     * guarda en los productos. Si la categoría no existe, se crea como raíz, de modo
+     * que los productos pueden seguir usando cualquier nombre de categoría.
+     *
+     * @param name Nombre de la categoría (case-insensitive)
+     * @return Ruta de la categoría
+     */
+    public String resolvePath(String name) {
+        return findPath(name)
+                .orElseGet(() -> {
+                    Long id = create(new CategoryRequestDTO(name, null)).getId();
+                    return String.valueOf(Category.PATH_SEPARATOR) + id + Category.PATH_SEPARATOR;
+                });
+    }
+
+    /**
+     * Obtiene una página de los productos de una categoría y de todas sus
+     * subcategorías, ordenados por categoría e ID.
+     *
+     * @param id ID de la categoría raíz del subárbol
+     * @param cursor Cursor de la página anterior, o null para la primera página
+     * @param limit Tamaño máximo de la página
+     * @return Página de productos con el cursor de la siguiente
+     * @throws CategoryNotFoundException si la categoría no existe
+     * @throws IllegalArgumentException si el cursor o el tamaño de página no son válidos
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDTO findSubtreeProducts(Long id, String cursor, int limit) {
+        if (limit < 1 || limit > ProductService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "El tamaño de página debe estar entre 1 y " + ProductService.MAX_PAGE_SIZE);
+        }
+        CategoryTreeCache.Node root = categoryTreeCache.findById(id).orElseThrow(() -> categoryNotFound(id));
+        String fromPath = root.path();
+        String toPath = Category.subtreeUpperBound(fromPath);
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<ProductResponseDTO> products;
+        if (cursor == null) {
+            products = productRepository.findCategorySubtree(fromPath, toPath, fetchLimit);
+        } else {
+            SubtreeCursor position = SubtreeCursor.decode(cursor);
+            products = productRepository.findCategorySubtreeAfter(fromPath, toPath, position.getPath(),
+                    position.getLastId(), fetchLimit);
+        }
+
+        if (products.size() <= limit) {
+            return new ProductPageDTO(products, null);
+        }
+        List<ProductResponseDTO> items = new ArrayList<>(products.subList(0, limit));
+        ProductResponseDTO last = items.get(limit - 1);
+        return new ProductPageDTO(items, new SubtreeCursor(findPath(last.getCategory())
+                .orElseThrow(() -> new IllegalStateException("Categoría sin ruta: " + last.getCategory())),
+                last.getId()).encode());
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Ruta de la categoría con el nombre indicado, desde el árbol en memoria o, si
+     * aún no la contiene (creada en otra instancia o en la transacción actual), desde
+     * la base de datos.
+     */
+    private Optional<String> findPath(String name) {
+        return categoryTreeCache.findByName(name)
+                .map(CategoryTreeCache.Node::path)
+                .or(() -> categoryRepository.findByNameIgnoreCase(name.trim()).map(Category::getPath));
+    }
+
+    private static CategoryNotFoundException categoryNotFound(Long id) {
+        return new CategoryNotFoundException("Categoría no encontrada con ID: " + id);
+    }
+}
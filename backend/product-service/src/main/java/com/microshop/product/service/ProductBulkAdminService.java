@@ -0,0 +1,376 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductBulkUpdateResultDTO;
+import com.microshop.product.dto.ProductPriceAdjustmentDTO;
+import com.microshop.product.dto.ProductRestockRequestDTO;
+import com.microshop.product.dto.ProductSelectionDTO;
+import com.microshop.product.dto.ProductStockRequestDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+/**
+ * Servicio de operaciones de administración por lotes sobre el catálogo: ajuste
+ * de precios por categoría o lista de IDs, reposición de stock por lista de IDs y
+ * eliminación por lista de IDs o categoría.
+ *
+ * Los productos se procesan en bloques de {@code product.bulk.chunk-size}, cada
+ * uno en su propia transacción y con una sola sentencia SQL sobre el conjunto del
+ * bloque, sin cargar entidades: los precios y el stock se modifican con un UPDATE
+ * que asigna a cada producto su número del feed de cambios, y las eliminaciones
+ * dejan sus lápidas con un único INSERT antes del DELETE. Las categorías se
+ * recorren por rangos de ID con el índice sobre {@code (lower(category), id)}.
+ * Antes de escribir nada se comprueba que ningún producto quedaría con un precio
+ * o un stock fuera de rango, y la comprobación se repite en cada bloque con sus
+ * filas ya bloqueadas, por si otra escritura las cambia entretanto. La operación
+ * no es atómica en conjunto: si un bloque la incumple o falla, los bloques ya
+ * confirmados se conservan y el error indica cuántos productos se modificaron.
+ *
+ * En lugar de un evento por producto se publica un único cambio de catálogo al
+ * terminar, que vacía las caches y reconstruye los índices en memoria, también en
+ * las demás instancias.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+public class ProductBulkAdminService {
+
+    /**
+     * Precio máximo que admite la columna {@code price NUMERIC(10, 2)}.
+     */
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkAdminService.class);
+
+    private static final String SELECT_CATEGORY_CHUNK =
+            "SELECT id FROM products WHERE lower(category) = ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String PERCENTAGE_PRICE = "ROUND(p.price * ?, 2)";
+    private static final String AMOUNT_PRICE = "p.price + ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate JdbcTemplate para las sentencias de cada bloque
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
+     * @param eventPublisher Publicador del evento de cambio masivo
+     * @param entityManager EntityManager que se sincroniza con las sentencias SQL
+     * @param transactionManager Gestor de las transacciones de cada bloque
+     * @param chunkSize Productos por bloque y transacción
+     */
+    @Autowired
+    public ProductBulkAdminService(JdbcTemplate jdbcTemplate, ProductChangeFeedService productChangeFeedService,
+                                   ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${product.bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque de las operaciones por lotes debe ser positivo");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.productChangeFeedService = productChangeFeedService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Ajusta el precio de los productos seleccionados.
+     *
+     * @param request Productos seleccionados, tipo y valor del ajuste
+     * @return Productos modificados e IDs solicitados inexistentes
+     * @throws IllegalArgumentException si la selección o el ajuste no son válidos, o algún
+     *         producto quedaría con un precio fuera de rango
+     */
+    public ProductBulkUpdateResultDTO adjustPrices(ProductPriceAdjustmentDTO request) {
+        Selection selection = selection(request.getIds(), request.getCategory());
+        BigDecimal value = request.getValue();
+        String newPrice;
+        BigDecimal parameter;
+        if (request.getType() == ProductPriceAdjustmentDTO.Type.PERCENTAGE) {
+            if (value.compareTo(HUNDRED.negate()) <= 0) {
+                throw new IllegalArgumentException("El porcentaje de ajuste debe ser mayor que -100");
+            }
+            newPrice = PERCENTAGE_PRICE;
+            parameter = BigDecimal.ONE.add(value.movePointLeft(2));
+        } else {
+            newPrice = AMOUNT_PRICE;
+            parameter = value;
+        }
+        Check check = new Check("NOT (" + newPrice + " BETWEEN 0.01 AND " + MAX_PRICE + ")", parameter,
+                invalid -> "El ajuste dejaría " + invalid
+                        + " productos con un precio fuera del rango permitido (0.01 - " + MAX_PRICE + ")");
+        return apply("ajuste de precios", selection, check,
+                (ids, seqs) -> updateChunk(ids, seqs, "price = " + newPrice, parameter));
+    }
+
+    /**
+     * Suma las mismas unidades al stock de cada producto de la lista.
+     *
+     * @param request IDs de los productos y unidades a sumar
+     * @return Productos modificados e IDs solicitados inexistentes
+     * @throws IllegalArgumentException si la cantidad no es válida o el stock de algún
+     *         producto superaría el máximo
+     */
+    public ProductBulkUpdateResultDTO restock(ProductRestockRequestDTO request) {
+        Selection selection = selection(request.getIds(), null);
+        Integer quantity = request.getQuantity();
+        if (quantity == null || quantity < 1 || quantity > ProductStockRequestDTO.MAX_QUANTITY) {
+            throw new IllegalArgumentException(
+                    "La cantidad debe estar entre 1 y " + ProductStockRequestDTO.MAX_QUANTITY);
+        }
+        Check check = new Check("p.stock > ?", Integer.MAX_VALUE - quantity,
+                overflow -> "El stock de " + overflow + " productos superaría el máximo");
+        return apply("reposición de stock", selection, check,
+                (ids, seqs) -> updateChunk(ids, seqs, "stock = p.stock + ?", quantity));
+    }
+
+    /**
+     * Elimina los productos seleccionados, dejando una lápida de cada uno en el feed de cambios.
+     *
+     * @param request Productos seleccionados
+     * @return Productos eliminados e IDs solicitados inexistentes
+     * @throws IllegalArgumentException si la selección no es válida
+     */
+    public ProductBulkUpdateResultDTO delete(ProductSelectionDTO request) {
+        return apply("eliminación", selection(request.getIds(), request.getCategory()), null, this::deleteChunk);
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Productos seleccionados: IDs distintos ordenados, o la clave de la categoría.
+     */
+    private record Selection(List<Long> ids, String categoryKey) {
+    }
+
+    /**
+     * Condición que ningún producto seleccionado debe cumplir para aplicar la
+     * operación, y mensaje de error según cuántos la cumplen.
+     */
+    private record Check(String condition, Object parameter, LongFunction<String> message) {
+    }
+
+    /**
+     * Sentencia de un bloque sobre productos existentes y bloqueados, con sus números
+     * del feed de cambios en {@code seqs}, uno por producto.
+     */
+    @FunctionalInterface
+    private interface ChunkWriter {
+        int write(List<Long> ids, long[] seqs);
+    }
+
+    private static Selection selection(List<Long> ids, String category) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byCategory = category != null && !category.isBlank();
+        if (byIds == byCategory) {
+            throw new IllegalArgumentException("Se debe indicar una lista de IDs o una categoría, pero no ambas");
+        }
+        if (byCategory) {
+            return new Selection(null, category.trim().toLowerCase(Locale.ROOT));
+        }
+        if (ids.size() > ProductSelectionDTO.MAX_IDS) {
+            throw new IllegalArgumentException(
+                    "La lista no puede tener más de " + ProductSelectionDTO.MAX_IDS + " IDs");
+        }
+        Set<Long> distinct = new TreeSet<>();
+        for (Long id : ids) {
+            if (id == null || id < 1) {
+                throw new IllegalArgumentException("Los IDs deben ser números enteros positivos");
+            }
+            distinct.add(id);
+        }
+        return new Selection(new ArrayList<>(distinct), null);
+    }
+
+    /**
+     * Cuenta los productos seleccionados que cumplen una condición, por bloques de IDs.
+     */
+    private long count(Selection selection, String condition, Object parameter) {
+        if (selection.categoryKey() != null) {
+            return jdbcTemplate.queryForObject("SELECT count(*) FROM products p WHERE lower(p.category) = ? AND "
+                    + condition, Long.class, selection.categoryKey(), parameter);
+        }
+        long total = 0;
+        for (List<Long> chunk : chunks(selection.ids())) {
+            List<Object> args = new ArrayList<>(chunk);
+            args.add(parameter);
+            total += jdbcTemplate.queryForObject("SELECT count(*) FROM products p WHERE p.id IN ("
+                    + placeholders(chunk.size()) + ") AND " + condition, Long.class, args.toArray());
+        }
+        return total;
+    }
+
+    /**
+     * Comprueba la condición sobre todos los productos seleccionados, aplica la
+     * sentencia bloque a bloque y publica un único cambio de catálogo con los
+     * bloques confirmados, aunque alguno falle.
+     */
+    private ProductBulkUpdateResultDTO apply(String operation, Selection selection, Check check, ChunkWriter writer) {
+        if (check != null) {
+            long invalid = count(selection, check.condition(), check.parameter());
+            if (invalid > 0) {
+                throw new IllegalArgumentException(check.message().apply(invalid));
+            }
+        }
+        long start = System.nanoTime();
+        long affected = 0;
+        List<Long> notFound = new ArrayList<>();
+        try {
+            if (selection.ids() != null) {
+                for (List<Long> chunk : chunks(selection.ids())) {
+                    ChunkResult result = transaction.execute(status -> writeChunk(chunk, check, writer));
+                    affected += result.affected();
+                    notFound.addAll(missing(chunk, result.locked()));
+                }
+            } else {
+                long after = 0;
+                while (true) {
+                    long from = after;
+                    ChunkResult result = transaction.execute(status -> writeChunk(jdbcTemplate.queryForList(
+                            SELECT_CATEGORY_CHUNK, Long.class, selection.categoryKey(), from, chunkSize), check, writer));
+                    if (result.selected().isEmpty()) {
+                        break;
+                    }
+                    affected += result.affected();
+                    after = result.selected().get(result.selected().size() - 1);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            if (affected == 0) {
+                throw ex;
+            }
+            throw new IllegalArgumentException(ex.getMessage() + " (se conservan los " + affected
+                    + " productos de los bloques ya confirmados)", ex);
+        } finally {
+            if (affected > 0) {
+                eventPublisher.publishEvent(CatalogChangedEvent.bulk(affected));
+            }
+        }
+        log.info("Operación por lotes ({}): {} productos en {} ms", operation, affected,
+                (System.nanoTime() - start) / 1_000_000);
+        return new ProductBulkUpdateResultDTO(affected, notFound);
+    }
+
+    /**
+     * Resultado de un bloque: los IDs seleccionados, los que existían y quedaron
+     * bloqueados, y las filas escritas.
+     */
+    private record ChunkResult(List<Long> selected, List<Long> locked, int affected) {
+    }
+
+    /**
+     * Escribe un bloque dentro de la transacción actual. Los números del feed se
+     * toman antes de bloquear las filas de los productos, como en el resto de
+     * escrituras, y la condición se comprueba de nuevo con las filas bloqueadas; las escrituras
+     * pendientes de Hibernate se vuelcan antes de las sentencias y el contexto de
+     * persistencia se vacía después, para no servir entidades obsoletas.
+     */
+    private ChunkResult writeChunk(List<Long> selected, Check check, ChunkWriter writer) {
+        if (selected.isEmpty()) {
+            return new ChunkResult(selected, List.of(), 0);
+        }
+        entityManager.flush();
+        long[] seqs = productChangeFeedService.nextSequences(selected.size());
+        List<Long> locked = jdbcTemplate.queryForList("SELECT id FROM products WHERE id IN ("
+                + placeholders(selected.size()) + ") ORDER BY id FOR UPDATE", Long.class, selected.toArray());
+        if (check != null && !locked.isEmpty()) {
+            long invalid = count(new Selection(locked, null), check.condition(), check.parameter());
+            if (invalid > 0) {
+                throw new IllegalArgumentException(check.message().apply(invalid));
+            }
+        }
+        int affected = locked.isEmpty() ? 0 : writer.write(locked, seqs);
+        entityManager.clear();
+        return new ChunkResult(selected, locked, affected);
+    }
+
+    /**
+     * Modifica los productos del bloque con un único UPDATE: cada fila recibe la
+     * asignación indicada, una versión nueva y su número del feed de cambios. Los
+     * números se asignan con CASE en lugar de MERGE o UPDATE ... FROM (VALUES ...),
+     * que PostgreSQL anterior a la versión 15 y H2, respectivamente, no admiten.
+     */
+    private int updateChunk(List<Long> ids, long[] seqs, String assignment, Object parameter) {
+        List<Object> args = new ArrayList<>(ids.size() * 3 + 1);
+        args.add(parameter);
+        for (int i = 0; i < ids.size(); i++) {
+            args.add(ids.get(i));
+            args.add(seqs[i]);
+        }
+        args.addAll(ids);
+        return jdbcTemplate.update("UPDATE products p SET " + assignment
+                + ", version = p.version + 1, change_seq = CASE p.id "
+                + String.join(" ", Collections.nCopies(ids.size(), "WHEN ? THEN ?"))
+                + " END WHERE p.id IN (" + placeholders(ids.size()) + ")", args.toArray());
+    }
+
+    /**
+     * Elimina los productos del bloque dejando antes sus lápidas en el feed.
+     */
+    private int deleteChunk(List<Long> ids, long[] seqs) {
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> tombstones = new ArrayList<>(ids.size() * 3);
+        for (int i = 0; i < ids.size(); i++) {
+            tombstones.add(seqs[i]);
+            tombstones.add(ids.get(i));
+            tombstones.add(deletedAt);
+        }
+        jdbcTemplate.update("INSERT INTO product_tombstones (change_seq, product_id, deleted_at) VALUES "
+                + String.join(", ", Collections.nCopies(ids.size(), "(?, ?, ?)")), tombstones.toArray());
+        // Los atributos se borran en cascada en PostgreSQL, pero no en el esquema que genera Hibernate
+        jdbcTemplate.update("DELETE FROM product_attributes WHERE product_id IN (" + placeholders(ids.size()) + ")",
+                ids.toArray());
+        return jdbcTemplate.update("DELETE FROM products WHERE id IN (" + placeholders(ids.size()) + ")",
+                ids.toArray());
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static List<Long> missing(List<Long> requested, List<Long> existing) {
+        if (requested.size() == existing.size()) {
+            return Collections.emptyList();
+        }
+        Set<Long> found = new TreeSet<>(existing);
+        return requested.stream().filter(id -> !found.contains(id)).toList();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,301 @@
+package com.microshop.product.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microshop.product.cache.ProductIdFilter;
+import com.microshop.product.dto.ProductBulkItemDTO;
+import com.microshop.product.dto.ProductBulkItemResultDTO;
+import com.microshop.product.dto.ProductBulkResultDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.model.Product;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.util.EntityMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de importación masiva de productos (altas y modificaciones).
+ *
+ * El cuerpo de la petición, un array JSON, se lee en streaming elemento a elemento,
+ * de modo que la memoria no depende del tamaño de la importación. Cada elemento se
+ * valida por separado y los válidos se guardan en transacciones de
+ * {@code product.bulk.chunk-size} elementos: como los IDs salen de una secuencia
+ * por bloques, Hibernate agrupa los INSERT y UPDATE de cada transacción en lotes
+ * JDBC. Si un bloque falla en la base de datos se reintenta elemento a elemento
+ * para aislar los que fallan. Los bloques ya confirmados se conservan aunque la
+ * importación se interrumpa. Una modificación no puede dejar el stock por debajo
+ * de las unidades reservadas por los contadores en memoria.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+public class ProductBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkService.class);
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductRepository productRepository;
+    private final ProductIdFilter productIdFilter;
+    private final CategoryService categoryService;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate writeTransaction;
+    private final int chunkSize;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param objectMapper ObjectMapper para leer los elementos de la petición
+     * @param validator Validador de los elementos
+     * @param productRepository Repositorio de productos
+     * @param productIdFilter Filtro de IDs existentes, cuyo suelo retienen las altas
+     * @param categoryService Servicio del árbol de categorías
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
+     * @param eventPublisher Publicador de eventos de cambio de productos
+     * @param entityManager EntityManager que se vacía tras cada bloque
+     * @param transactionManager Gestor de las transacciones de cada bloque
+     * @param chunkSize Elementos guardados por transacción
+     */
+    @Autowired
+    public ProductBulkService(ObjectMapper objectMapper, Validator validator, ProductRepository productRepository,
+                              ProductIdFilter productIdFilter, CategoryService categoryService, ProductChangeFeedService productChangeFeedService,
+                              ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${product.bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque de la importación debe ser positivo");
+        }
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.productRepository = productRepository;
+        this.productIdFilter = productIdFilter;
+        this.categoryService = categoryService;
+        this.productChangeFeedService = productChangeFeedService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Importa los productos de un array JSON. Los elementos con {@code id}
+     * actualizan el producto existente y el resto se crean.
+     *
+     * @param body Cuerpo de la petición
+     * @return Resultado de cada elemento, en el orden de la petición
+     * @throws IllegalArgumentException si el cuerpo no es un array JSON bien formado
+     * @throws IOException si falla la lectura del cuerpo
+     */
+    public ProductBulkResultDTO importProducts(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        List<ProductBulkItemResultDTO> results = new ArrayList<>();
+        List<PendingItem> chunk = new ArrayList<>(chunkSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("El cuerpo debe ser un array JSON de productos");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("El array JSON de productos no está cerrado");
+                }
+                int index = results.size();
+                JsonNode node = parser.readValueAsTree();
+                ProductBulkItemDTO item = null;
+                String error;
+                try {
+                    item = objectMapper.treeToValue(node, ProductBulkItemDTO.class);
+                    error = validate(item);
+                } catch (JsonProcessingException ex) {
+                    error = "Formato inválido: " + ex.getOriginalMessage();
+                }
+                if (error != null) {
+                    results.add(ProductBulkItemResultDTO.failed(index, item == null ? null : item.getId(), error));
+                    continue;
+                }
+                results.add(null);
+                chunk.add(new PendingItem(index, item));
+                if (chunk.size() == chunkSize) {
+                    persist(chunk, results);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("JSON inválido en el elemento " + results.size() + " (se guardaron "
+                    + saved(results) + " productos antes del error): " + ex.getOriginalMessage(), ex);
+        }
+        persist(chunk, results);
+
+        ProductBulkResultDTO result = new ProductBulkResultDTO(results);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Importación masiva: {} creados, {} actualizados, {} fallidos en {} ms ({} productos/s)",
+                result.getCreated(), result.getUpdated(), result.getFailed(), elapsedMs,
+                results.size() * 1000L / elapsedMs);
+        return result;
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Elemento válido pendiente de guardar, con su posición en la petición.
+     */
+    private record PendingItem(int index, ProductBulkItemDTO item) {
+    }
+
+    private String validate(ProductBulkItemDTO item) {
+        Set<ConstraintViolation<ProductBulkItemDTO>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        Map<String, String> errors = new TreeMap<>();
+        for (ConstraintViolation<ProductBulkItemDTO> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors.toString();
+    }
+
+    /**
+     * Guarda un bloque en su propia transacción; si falla, reintenta cada elemento
+     * por separado para que los demás se guarden.
+     */
+    private void persist(List<PendingItem> chunk, List<ProductBulkItemResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ProductBulkItemResultDTO> written;
+        try {
+            written = writeTransaction.execute(status -> write(chunk));
+        } catch (RuntimeException ex) {
+            if (chunk.size() == 1) {
+                PendingItem pending = chunk.get(0);
+                results.set(pending.index(), ProductBulkItemResultDTO.failed(pending.index(), pending.item().getId(),
+                        NestedExceptionUtils.getMostSpecificCause(ex).getMessage()));
+                return;
+            }
+            log.warn("Fallo al guardar un bloque de {} productos; se reintenta elemento a elemento: {}",
+                    chunk.size(), ex.getMessage());
+            for (PendingItem pending : chunk) {
+                persist(List.of(pending), results);
+            }
+            return;
+        }
+        for (ProductBulkItemResultDTO result : written) {
+            results.set(result.getIndex(), result);
+        }
+    }
+
+    /**
+     * Escribe un bloque dentro de la transacción actual: carga de una vez los
+     * productos a modificar, reserva un rango del feed de cambios y hace flush
+     * de todas las escrituras juntas.
+     */
+    private List<ProductBulkItemResultDTO> write(List<PendingItem> chunk) {
+        List<Long> ids = chunk.stream()
+                .map(pending -> pending.item().getId())
+                .filter(id -> id != null)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Product> existing = ids.isEmpty() ? Map.of()
+                : productRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Integer> reservedStock = new HashMap<>();
+        if (!ids.isEmpty()) {
+            productRepository.findReservedStockByIdIn(ids)
+                    .forEach(row -> reservedStock.put((Long) row[0], (Integer) row[1]));
+        }
+
+        List<ProductBulkItemResultDTO> results = new ArrayList<>(chunk.size());
+        List<PendingItem> writable = new ArrayList<>(chunk.size());
+        for (PendingItem pending : chunk) {
+            Long id = pending.item().getId();
+            if (id != null && !existing.containsKey(id)) {
+                results.add(ProductBulkItemResultDTO.failed(pending.index(), id,
+                        "Producto no encontrado con ID: " + id));
+            } else if (id != null && pending.item().getStock() < reservedStock.getOrDefault(id, 0)) {
+                // Si se reservan más unidades antes del flush, lo rechaza la restricción de la tabla
+                results.add(ProductBulkItemResultDTO.failed(pending.index(), id,
+                        "El stock no puede ser " + pending.item().getStock() + ": hay "
+                                + reservedStock.get(id) + " unidades reservadas"));
+            } else {
+                writable.add(pending);
+            }
+        }
+        if (writable.isEmpty()) {
+            return results;
+        }
+
+        productIdFilter.holdFloorUntilCompletion();
+        long[] seqs = productChangeFeedService.nextSequences(writable.size());
+        Map<String, String> categoryPaths = new HashMap<>();
+        List<Product> products = new ArrayList<>(writable.size());
+        List<String> previousCategories = new ArrayList<>(writable.size());
+        for (PendingItem pending : writable) {
+            ProductBulkItemDTO item = pending.item();
+            Product product;
+            if (item.getId() == null) {
+                product = EntityMapper.toEntity(item);
+                previousCategories.add(null);
+            } else {
+                product = existing.get(item.getId());
+                previousCategories.add(product.getCategory());
+                EntityMapper.updateEntity(product, item);
+            }
+            product.setCategoryPath(categoryPaths.computeIfAbsent(product.getCategory().toLowerCase(Locale.ROOT),
+                    key -> categoryService.resolvePath(item.getCategory())));
+            product.setChangeSeq(seqs[products.size()]);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+        productRepository.flush();
+
+        for (int i = 0; i < writable.size(); i++) {
+            PendingItem pending = writable.get(i);
+            ProductResponseDTO saved = ProductResponseDTO.fromEntity(products.get(i));
+            boolean created = pending.item().getId() == null;
+            eventPublisher.publishEvent(created
+                    ? ProductChangedEvent.created(saved)
+                    : ProductChangedEvent.updated(saved, previousCategories.get(i)));
+            results.add(new ProductBulkItemResultDTO(pending.index(), saved.getId(),
+                    created ? ProductBulkItemResultDTO.Status.CREATED : ProductBulkItemResultDTO.Status.UPDATED,
+                    null));
+        }
+        // Las entidades del bloque ya no se necesitan: sin esto se acumularían en el contexto de persistencia
+        entityManager.clear();
+        return results;
+    }
+
+    private static long saved(List<ProductBulkItemResultDTO> results) {
+        return results.stream()
+                .filter(result -> result != null && result.getStatus() != ProductBulkItemResultDTO.Status.FAILED)
+                .count();
+    }
+}
@@ -0,0 +1,373 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.dto.ProductChangesDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.exception.ChangeFeedExpiredException;
+import com.microshop.product.model.ProductChangeSequence;
+import com.microshop.product.model.ProductTombstone;
+import com.microshop.product.repository.ProductChangeSequenceRepository;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.repository.ProductTombstoneRepository;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio del feed de cambios del catálogo, con el que los consumidores (caches,
+ * indexadores, frontend) se sincronizan de forma incremental en lugar de volver a
+ * leer el catálogo completo.
+ *
+ * Cada alta o modificación asigna al producto un número de secuencia creciente
+ * ({@code change_seq}) y cada eliminación deja una lápida con el suyo, así que
+ * {@link #changesSince(long, int)} recorre solo lo cambiado desde el número que
+ * el consumidor leyó por última vez: cada producto aparece una vez, con su estado
+ * actual. Los números se toman de la secuencia {@code product_change_seq} sin
+ * bloquear a las demás escrituras, así que pueden confirmar en otro orden: cada
+ * transacción que escribe retiene antes un número propio, menor que todos los que
+ * asigne ({@link #holdHorizon()}), y los lectores solo avanzan hasta justo antes
+ * del menor número retenido por las transacciones en curso ({@link #horizon()}).
+ * Así un consumidor nunca salta un cambio que confirma tarde.
+ *
+ * Las lápidas se compactan pasado {@code product.changes.tombstone-retention-hours}.
+ * Un consumidor que pide cambios desde un número anterior a la compactación recibe
+ * {@link ChangeFeedExpiredException} y debe sincronizar de nuevo desde 0.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+@Transactional
+public class ProductChangeFeedService {
+
+    /**
+     * Número máximo de cambios por página del feed.
+     */
+    public static final int MAX_CHANGES = 1000;
+
+    /**
+     * Secuencia de la que se toman los números del feed.
+     */
+    public static final String SEQUENCE = "product_change_seq";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeedService.class);
+
+    /**
+     * Espacio de los bloqueos consultivos de PostgreSQL con los que las transacciones
+     * publican su número retenido: los 16 bits altos de la clave.
+     */
+    private static final long HOLD_NAMESPACE = 0x4D53L;
+
+    private static final long HOLD_KEY_BASE = HOLD_NAMESPACE << 48;
+
+    private static final String NEXT_VALUE = "SELECT nextval('" + SEQUENCE + "')";
+
+    private static final String NEXT_VALUES = NEXT_VALUE + " FROM generate_series(1, ?)";
+
+    /**
+     * Toma el número retenido y publica su bloqueo, que se libera al terminar la transacción.
+     */
+    private static final String HOLD =
+            "WITH held AS MATERIALIZED (" + NEXT_VALUE + " AS seq) " +
+            "SELECT held.seq FROM held, LATERAL (SELECT pg_advisory_xact_lock(? + held.seq)) AS locked";
+
+    /**
+     * Menor número retenido por las demás transacciones en curso de cualquier
+     * instancia. La clave de 64 bits del bloqueo se reparte entre classid (alta) y objid (baja).
+     */
+    private static final String MIN_HELD =
+            "SELECT min(((classid::bigint << 32) | objid::bigint) - ?) FROM pg_locks " +
+            "WHERE locktype = 'advisory' AND objsubid = 1 AND classid::bigint >> 16 = ? AND pid <> pg_backend_pid() " +
+            "AND database = (SELECT oid FROM pg_database WHERE datname = current_database())";
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductChangeSequenceRepository productChangeSequenceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration tombstoneRetention;
+
+    /**
+     * Clave del número retenido por la transacción actual entre sus recursos.
+     */
+    private final Object holdKey = new Object();
+
+    /**
+     * Números retenidos por las transacciones en curso de esta instancia, para las
+     * bases de datos sin bloqueos consultivos visibles entre sesiones.
+     */
+    private final NavigableSet<Long> localHolds = new ConcurrentSkipListSet<>();
+
+    private volatile Boolean postgres;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param productTombstoneRepository Repositorio de lápidas de productos eliminados
+     * @param productChangeSequenceRepository Repositorio de la marca de compactación del feed
+     * @param jdbcTemplate Plantilla JDBC para la secuencia y el horizonte del feed
+     * @param tombstoneRetentionHours Horas que se conservan las lápidas
+     */
+    @Autowired
+    public ProductChangeFeedService(ProductRepository productRepository,
+                                    ProductTombstoneRepository productTombstoneRepository,
+                                    ProductChangeSequenceRepository productChangeSequenceRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Value("${product.changes.tombstone-retention-hours:168}") long tombstoneRetentionHours) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productChangeSequenceRepository = productChangeSequenceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tombstoneRetention = Duration.ofHours(tombstoneRetentionHours);
+    }
+
+    /**
+     * Asigna el número de secuencia de un cambio.
+     *
+     * @return Número de secuencia asignado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextSequence() {
+        return nextSequences(1)[0];
+    }
+
+    /**
+     * Asigna números de secuencia para una escritura por lotes. No son
+     * necesariamente consecutivos: otras escrituras toman números a la vez.
+     *
+     * @param count Números a asignar
+     * @return Números asignados, en orden creciente
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long[] nextSequences(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Se debe asignar al menos un número de secuencia");
+        }
+        holdHorizon();
+        long[] seqs = count == 1
+                ? new long[] {jdbcTemplate.queryForObject(NEXT_VALUE, Long.class)}
+                : jdbcTemplate.queryForList(NEXT_VALUES, Long.class, count).stream().mapToLong(Long::longValue)
+                        .sorted().toArray();
+        if (seqs.length != count) {
+            throw new IllegalStateException("La secuencia " + SEQUENCE + " devolvió " + seqs.length
+                    + " números en lugar de " + count);
+        }
+        return seqs;
+    }
+
+    /**
+     * Retiene el horizonte del feed hasta que termine la transacción actual: toma un
+     * número de la secuencia, menor que todos los que la transacción asigne después,
+     * y lo publica para que ningún lector avance hasta él. Deben llamarlo antes de
+     * tomar números de {@link #SEQUENCE} las escrituras que no usan
+     * {@link #nextSequences(int)}; las llamadas repetidas en la misma transacción no
+     * hacen nada.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void holdHorizon() {
+        if (TransactionSynchronizationManager.hasResource(holdKey)) {
+            return;
+        }
+        long held;
+        if (isPostgres()) {
+            // El bloqueo consultivo es visible en pg_locks para todas las sesiones y se libera al confirmar
+            held = jdbcTemplate.queryForObject(HOLD, Long.class, HOLD_KEY_BASE);
+        } else {
+            held = jdbcTemplate.queryForObject(NEXT_VALUE, Long.class);
+            localHolds.add(held);
+        }
+        TransactionSynchronizationManager.bindResource(holdKey, held);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(holdKey);
+                localHolds.remove(held);
+            }
+        });
+    }
+
+    /**
+     * Horizonte del feed: el mayor número de secuencia hasta el que todos los cambios
+     * están confirmados. Se lee el mayor número confirmado y después el menor
+     * retenido por las demás transacciones en curso (los cambios de la actual ya son
+     * visibles para ella); una transacción que retiene su número después de la
+     * primera lectura solo asigna números mayores que ella.
+     *
+     * @return Número de secuencia hasta el que los lectores pueden avanzar
+     */
+    @Transactional(readOnly = true)
+    public long horizon() {
+        // Consultas JPQL: vuelcan antes las escrituras pendientes de la transacción actual
+        long committed = Math.max(Math.max(productRepository.findMaxChangeSeq(),
+                        productTombstoneRepository.findMaxSeq()),
+                productChangeSequenceRepository.findCompactedSeq().orElse(0L));
+        Long held;
+        if (isPostgres()) {
+            held = jdbcTemplate.queryForObject(MIN_HELD, Long.class, HOLD_KEY_BASE, HOLD_NAMESPACE);
+        } else {
+            Object own = TransactionSynchronizationManager.getResource(holdKey);
+            held = localHolds.stream().filter(seq -> !seq.equals(own)).findFirst().orElse(null);
+        }
+        return held == null ? committed : Math.min(committed, held - 1);
+    }
+
+    /**
+     * Registra la eliminación de un producto con una lápida en el feed. La lápida
+     * toma su número de {@link #SEQUENCE} al persistirse.
+     *
+     * @param productId ID del producto eliminado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Long productId) {
+        holdHorizon();
+        productTombstoneRepository.save(new ProductTombstone(productId));
+    }
+
+    /**
+     * Obtiene los cambios del catálogo posteriores a un número de secuencia.
+     *
+     * Solo se devuelven cambios hasta el horizonte al empezar la lectura
+     * ({@link #horizon()}), de modo que el consumidor nunca avanza más allá de un
+     * cambio que aún no podía ver.
+     *
+     * @param since Último número de secuencia leído por el consumidor, o 0 para el catálogo completo
+     * @param limit Número máximo de cambios
+     * @return Página de cambios en orden de secuencia
+     * @throws IllegalArgumentException si el número de secuencia o el límite no son válidos
+     * @throws ChangeFeedExpiredException si las lápidas posteriores a since ya se han compactado
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesDTO changesSince(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("El número de secuencia no puede ser negativo");
+        }
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new IllegalArgumentException("El número de cambios debe estar entre 1 y " + MAX_CHANGES);
+        }
+        long upTo = horizon();
+        List<ProductChangeDTO> changes = merge(
+                productRepository.findChanges(since, upTo, Limit.of(limit + 1)),
+                productTombstoneRepository.findChanges(since, upTo, Limit.of(limit + 1)),
+                limit + 1);
+        // La marca se lee después de las lápidas: si una compactación las borró entretanto, se detecta aquí
+        long compactedSeq = productChangeSequenceRepository.findCompactedSeq().orElse(0L);
+        if (since > 0 && since < compactedSeq) {
+            throw new ChangeFeedExpiredException("Los cambios anteriores a la secuencia " + compactedSeq
+                    + " ya se han compactado; sincronice de nuevo el catálogo con since=0");
+        }
+
+        boolean hasMore = changes.size() > limit;
+        List<ProductChangeDTO> page = hasMore ? new ArrayList<>(changes.subList(0, limit)) : changes;
+        long lastSeq = hasMore ? page.get(page.size() - 1).getSeq() : Math.max(since, upTo);
+        return new ProductChangesDTO(withProducts(page), lastSeq, hasMore);
+    }
+
+    /**
+     * Compacta periódicamente las lápidas más antiguas que el periodo de retención.
+     */
+    @Scheduled(initialDelayString = "${product.changes.compaction-interval-ms:3600000}",
+               fixedDelayString = "${product.changes.compaction-interval-ms:3600000}")
+    public void compactTombstones() {
+        compactTombstones(LocalDateTime.now().minus(tombstoneRetention));
+    }
+
+    /**
+     * Elimina las lápidas anteriores a una fecha y avanza la marca de compactación
+     * hasta la última eliminada.
+     *
+     * @param cutoff Fecha límite: se eliminan las lápidas anteriores
+     * @return Número de lápidas eliminadas
+     */
+    public int compactTombstones(LocalDateTime cutoff) {
+        Long compactedSeq = productTombstoneRepository.findMaxSeqDeletedBefore(cutoff);
+        if (compactedSeq == null) {
+            return 0;
+        }
+        if (productChangeSequenceRepository.advanceCompactedSeq(compactedSeq) == 0
+                && productChangeSequenceRepository.findCompactedSeq().isEmpty()) {
+            // La migración V8 crea la fila; con el esquema generado por Hibernate se crea aquí
+            productChangeSequenceRepository.saveAndFlush(new ProductChangeSequence(compactedSeq));
+        }
+        int deleted = productTombstoneRepository.deleteUpTo(compactedSeq);
+        log.info("Feed de cambios compactado: {} lápidas eliminadas hasta la secuencia {}", deleted, compactedSeq);
+        return deleted;
+    }
+
+    // Métodos privados auxiliares
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.isWrapperFor(PGConnection.class));
+            postgres = result;
+        }
+        return result;
+    }
+
+    /**
+     * Mezcla dos listas de cambios ordenadas por secuencia, hasta un máximo.
+     */
+    private static List<ProductChangeDTO> merge(List<ProductChangeDTO> first, List<ProductChangeDTO> second,
+                                                int max) {
+        List<ProductChangeDTO> merged = new ArrayList<>(Math.min(max, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < first.size() || j < second.size())) {
+            if (j >= second.size() || (i < first.size() && first.get(i).getSeq() < second.get(j).getSeq())) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Añade el estado actual a los cambios de productos no eliminados. Los productos
+     * eliminados después de empezar la lectura se omiten: su lápida llegará en una
+     * página posterior.
+     */
+    private List<ProductChangeDTO> withProducts(List<ProductChangeDTO> changes) {
+        List<Long> ids = changes.stream()
+                .filter(change -> !change.isDeleted())
+                .map(ProductChangeDTO::getProductId)
+                .collect(Collectors.toList());
+        Map<Long, ProductResponseDTO> products = ids.isEmpty() ? Map.of()
+                : productRepository.findByIdIn(ids).stream()
+                        .collect(Collectors.toMap(ProductResponseDTO::getId, Function.identity()));
+        List<ProductChangeDTO> result = new ArrayList<>(changes.size());
+        for (ProductChangeDTO change : changes) {
+            if (!change.isDeleted()) {
+                ProductResponseDTO product = products.get(change.getProductId());
+                if (product == null) {
+                    continue;
+                }
+                change.setProduct(product);
+            }
+            result.add(change);
+        }
+        return result;
+    }
+}
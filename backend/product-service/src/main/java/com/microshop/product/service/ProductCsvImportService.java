@@ -0,0 +1,299 @@
+package com.microshop.product.service;
+
+import com.microshop.product.cache.ProductIdFilter;
+import com.microshop.product.dto.ProductCsvImportErrorDTO;
+import com.microshop.product.dto.ProductCsvImportResultDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.model.Product;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio de importación del catálogo desde CSV para recargas completas.
+ *
+ * El fichero se envía en streaming a PostgreSQL con {@code COPY} (CopyManager del
+ * driver) a una tabla temporal, sin cargarlo en memoria. Las líneas se validan en
+ * la base de datos con una sola sentencia y los errores se informan por línea; las
+ * válidas se integran en {@code products} con un único INSERT ... ON CONFLICT, de
+ * modo que las restricciones de la tabla (por ejemplo {@code chk_price_positive})
+ * se siguen comprobando. Todo se ejecuta en una transacción: si la integración
+ * falla no se guarda nada.
+ *
+ * Formato: cabecera y columnas {@code id,name,description,price,stock,category};
+ * las líneas con {@code id} actualizan el producto existente y el resto se crean.
+ * Se descartan, con su número de línea, las que dejarían el stock por debajo de las
+ * unidades reservadas por los contadores en memoria y las de productos que no
+ * existen; las filas afectadas se bloquean antes de comprobarlo, de modo que una
+ * eliminación o una reserva concurrentes no hacen fallar la importación completa.
+ * Requiere PostgreSQL.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+public class ProductCsvImportService {
+
+    /**
+     * Número máximo de errores de línea incluidos en la respuesta.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCsvImportService.class);
+
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE product_import (line_no BIGSERIAL, id TEXT, name TEXT, description TEXT, " +
+            "price TEXT, stock TEXT, category TEXT, error TEXT) ON COMMIT DROP";
+
+    private static final String COPY_STAGING =
+            "COPY product_import (id, name, description, price, stock, category) FROM STDIN " +
+            "WITH (FORMAT csv, HEADER true, FORCE_NULL (id, name, description, price, stock, category))";
+
+    // Sin parámetros: se ejecuta como Statement y los '?' de las expresiones regulares no son marcadores
+    private static final String VALIDATE_STAGING =
+            "UPDATE product_import SET error = CASE " +
+            "WHEN id IS NOT NULL AND trim(id) !~ '^[0-9]{1,18}$' THEN 'El ID debe ser un número entero positivo' " +
+            "WHEN name IS NULL OR length(trim(name)) NOT BETWEEN 2 AND 200 " +
+            "THEN 'El nombre debe tener entre 2 y 200 caracteres' " +
+            "WHEN length(description) > 1000 THEN 'La descripción no puede exceder 1000 caracteres' " +
+            "WHEN price IS NULL THEN 'El precio es obligatorio' " +
+            "WHEN trim(price) !~ '^[0-9]{1,8}([.][0-9]{1,2})?$' " +
+            "THEN 'El precio debe ser un número con hasta 8 enteros y 2 decimales' " +
+            "WHEN trim(price)::numeric <= 0 THEN 'El precio debe ser mayor que 0' " +
+            "WHEN stock IS NULL THEN 'El stock es obligatorio' " +
+            "WHEN trim(stock) !~ '^[0-9]{1,9}$' THEN 'El stock debe ser un número entero no negativo' " +
+            "WHEN category IS NULL OR trim(category) = '' THEN 'La categoría es obligatoria' " +
+            "WHEN length(trim(category)) > 100 THEN 'La categoría no puede exceder 100 caracteres' " +
+            "END";
+
+    // Las conversiones de tipo de la lista de columnas solo se evalúan para las filas que pasan el WHERE
+    private static final String CREATE_VALID =
+            "CREATE TEMP TABLE product_import_valid ON COMMIT DROP AS " +
+            "SELECT line_no, trim(id)::bigint AS id, trim(name) AS name, description, " +
+            "trim(price)::numeric(10, 2) AS price, trim(stock)::integer AS stock, trim(category) AS category, " +
+            "lower(trim(category)) AS category_key, CAST(NULL AS VARCHAR) AS category_path " +
+            "FROM product_import WHERE error IS NULL";
+
+    private static final String REJECT_DUPLICATE_IDS =
+            "UPDATE product_import s SET error = 'El ID ' || d.id || ' se repite en la línea ' || (d.last_line + 1) " +
+            "FROM (SELECT line_no, id, max(line_no) OVER (PARTITION BY id) AS last_line " +
+            "FROM product_import_valid WHERE id IS NOT NULL) d " +
+            "WHERE s.line_no = d.line_no AND d.line_no < d.last_line";
+
+    /**
+     * Bloquea, en orden de ID, las filas que la importación va a actualizar: a partir
+     * de aquí ninguna otra escritura puede eliminarlas ni cambiar sus unidades
+     * reservadas, así que lo que comprueban las sentencias siguientes se mantiene
+     * hasta la integración.
+     */
+    private static final String LOCK_TARGETS =
+            "SELECT p.id FROM products p JOIN product_import_valid v ON v.id = p.id ORDER BY p.id FOR UPDATE OF p";
+
+    private static final String REJECT_UNKNOWN_IDS =
+            "UPDATE product_import s SET error = 'Producto no encontrado con ID: ' || v.id " +
+            "FROM product_import_valid v WHERE s.line_no = v.line_no AND v.id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM products p WHERE p.id = v.id)";
+
+    private static final String REJECT_BELOW_RESERVED =
+            "UPDATE product_import s SET error = 'El stock no puede ser ' || v.stock || ': hay ' " +
+            "|| p.reserved_stock || ' unidades reservadas' " +
+            "FROM product_import_valid v JOIN products p ON p.id = v.id " +
+            "WHERE s.line_no = v.line_no AND v.stock < p.reserved_stock";
+
+    private static final String DELETE_REJECTED =
+            "DELETE FROM product_import_valid v USING product_import s " +
+            "WHERE s.line_no = v.line_no AND s.error IS NOT NULL";
+
+    private static final String SELECT_CATEGORIES =
+            "SELECT DISTINCT ON (category_key) category_key, category FROM product_import_valid " +
+            "ORDER BY category_key, line_no";
+
+    private static final String SET_CATEGORY_PATH =
+            "UPDATE product_import_valid SET category_path = ? WHERE category_key = ?";
+
+    /**
+     * Integra las líneas válidas en una sentencia. Las altas toman los IDs de bloques
+     * de la secuencia products_id_seq, igual que Hibernate: cada nextval reserva los
+     * {@link Product#ID_ALLOCATION_SIZE} IDs anteriores al valor devuelto. Cada
+     * línea toma su número del feed de cambios de la secuencia product_change_seq.
+     */
+    private static final String MERGE =
+            "WITH numbered AS (" +
+            "  SELECT v.*, row_number() OVER (PARTITION BY v.id IS NULL ORDER BY v.line_no) AS part_rn " +
+            "  FROM product_import_valid v), " +
+            "blocks AS (" +
+            "  SELECT row_number() OVER () AS block, nextval('products_id_seq') AS hi FROM generate_series(1, ?)), " +
+            "merged AS (" +
+            "  INSERT INTO products AS p (id, name, description, price, stock, category, category_path, " +
+            "                             created_at, version, change_seq) " +
+            "  SELECT COALESCE(n.id, b.hi - ? + (n.part_rn - 1) % ? + 1), n.name, n.description, n.price, n.stock, " +
+            "         n.category, n.category_path, now(), 0, nextval('" + ProductChangeFeedService.SEQUENCE + "') " +
+            "  FROM numbered n LEFT JOIN blocks b ON n.id IS NULL AND b.block = (n.part_rn - 1) / ? + 1 " +
+            "  ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, " +
+            "     price = EXCLUDED.price, stock = EXCLUDED.stock, category = EXCLUDED.category, " +
+            "     category_path = EXCLUDED.category_path, version = p.version + 1, change_seq = EXCLUDED.change_seq " +
+            "  RETURNING (p.xmax = 0) AS inserted) " +
+            "SELECT count(*) FILTER (WHERE inserted) AS created, count(*) FILTER (WHERE NOT inserted) AS updated " +
+            "FROM merged";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductIdFilter productIdFilter;
+    private final CategoryService categoryService;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param jdbcTemplate JdbcTemplate sobre el DataSource del servicio
+     * @param productIdFilter Filtro de IDs existentes, cuyo suelo retiene la importación
+     * @param categoryService Servicio del árbol de categorías
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
+     * @param eventPublisher Publicador del evento de cambio masivo
+     * @param transactionManager Gestor de la transacción de la importación
+     */
+    @Autowired
+    public ProductCsvImportService(JdbcTemplate jdbcTemplate, ProductIdFilter productIdFilter,
+                                   CategoryService categoryService,
+                                   ProductChangeFeedService productChangeFeedService,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productIdFilter = productIdFilter;
+        this.categoryService = categoryService;
+        this.productChangeFeedService = productChangeFeedService;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importa los productos de un fichero CSV.
+     *
+     * @param csv Contenido del fichero, con cabecera
+     * @return Totales de la importación y errores de las líneas descartadas
+     * @throws IllegalArgumentException si el CSV está mal formado o la integración viola una restricción
+     * @throws UnsupportedOperationException si la base de datos no es PostgreSQL
+     */
+    public ProductCsvImportResultDTO importCsv(InputStream csv) {
+        long start = System.nanoTime();
+        ProductCsvImportResultDTO result = transaction.execute(status -> {
+            requirePostgres();
+            productIdFilter.holdFloorUntilCompletion();
+            jdbcTemplate.execute(CREATE_STAGING);
+            long rows = copy(csv);
+            jdbcTemplate.update(VALIDATE_STAGING);
+            jdbcTemplate.execute(CREATE_VALID);
+            jdbcTemplate.update(REJECT_DUPLICATE_IDS);
+            jdbcTemplate.queryForList(LOCK_TARGETS, Long.class);
+            jdbcTemplate.update(REJECT_UNKNOWN_IDS);
+            jdbcTemplate.update(REJECT_BELOW_RESERVED);
+            jdbcTemplate.update(DELETE_REJECTED);
+            resolveCategoryPaths();
+
+            long[] merged = merge();
+            long failed = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM product_import WHERE error IS NOT NULL", Long.class);
+            List<ProductCsvImportErrorDTO> errors = jdbcTemplate.query(
+                    "SELECT line_no, error FROM product_import WHERE error IS NOT NULL ORDER BY line_no LIMIT ?",
+                    (rs, rowNum) -> new ProductCsvImportErrorDTO(rs.getLong("line_no") + 1, rs.getString("error")),
+                    MAX_REPORTED_ERRORS);
+            if (merged[0] + merged[1] > 0) {
+                eventPublisher.publishEvent(CatalogChangedEvent.bulk(merged[0] + merged[1]));
+            }
+            return new ProductCsvImportResultDTO(rows, merged[0], merged[1], failed, errors);
+        });
+        log.info("Importación CSV: {} líneas, {} creados, {} actualizados, {} descartadas en {} ms",
+                result.getRows(), result.getCreated(), result.getUpdated(), result.getFailed(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // Métodos privados auxiliares
+
+    private void requirePostgres() {
+        boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.isWrapperFor(PGConnection.class));
+        if (!postgres) {
+            throw new UnsupportedOperationException("La importación CSV requiere PostgreSQL");
+        }
+    }
+
+    /**
+     * Copia el CSV a la tabla temporal por la conexión de la transacción actual.
+     */
+    private long copy(InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, csv);
+            } catch (SQLException ex) {
+                // Clase 22: errores de formato o de datos del fichero
+                if (ex.getSQLState() != null && ex.getSQLState().startsWith("22")) {
+                    throw new IllegalArgumentException("CSV inválido: " + ex.getMessage(), ex);
+                }
+                throw ex;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Obtiene la ruta de cada categoría distinta del fichero, creando las que no
+     * existen, y la copia a las líneas válidas.
+     */
+    private void resolveCategoryPaths() {
+        List<Object[]> paths = new ArrayList<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(SELECT_CATEGORIES)) {
+            paths.add(new Object[] {categoryService.resolvePath((String) row.get("category")),
+                    row.get("category_key")});
+        }
+        if (!paths.isEmpty()) {
+            jdbcTemplate.batchUpdate(SET_CATEGORY_PATH, paths);
+        }
+    }
+
+    /**
+     * Integra las líneas válidas en products.
+     *
+     * @return Productos creados y actualizados
+     */
+    private long[] merge() {
+        Map<String, Object> counts = jdbcTemplate.queryForMap(
+                "SELECT count(*) AS total, count(*) FILTER (WHERE id IS NULL) AS new_products FROM product_import_valid");
+        long total = ((Number) counts.get("total")).longValue();
+        long newProducts = ((Number) counts.get("new_products")).longValue();
+        if (total == 0) {
+            return new long[] {0, 0};
+        }
+        // El horizonte del feed se retiene antes de tomar ningún número, como en las altas individuales
+        productChangeFeedService.holdHorizon();
+        long blocks = (newProducts + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+        try {
+            return jdbcTemplate.queryForObject(MERGE,
+                    (rs, rowNum) -> new long[] {rs.getLong("created"), rs.getLong("updated")},
+                    blocks, Product.ID_ALLOCATION_SIZE, Product.ID_ALLOCATION_SIZE,
+                    Product.ID_ALLOCATION_SIZE);
+        } catch (DataIntegrityViolationException ex) {
+            throw new IllegalArgumentException("La importación viola una restricción de la tabla products: "
+                    + NestedExceptionUtils.getMostSpecificCause(ex).getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductBatchItemDTO;
+import com.microshop.product.dto.ProductFacetsDTO;
+import com.microshop.product.dto.ProductPageDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductSuggestionDTO;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.search.AttributeFilter;
+import com.microshop.product.search.CatalogQuery;
+import com.microshop.product.search.ProductAttributeIndex;
+import com.microshop.product.search.ProductCatalogReplica;
+import com.microshop.product.search.ProductFacetIndex;
+import com.microshop.product.search.ProductPopularityIndex;
+import com.microshop.product.search.ProductSuggestIndex;
+import com.microshop.product.search.ProductTextIndex;
+import com.microshop.product.util.KeysetCursor;
+import com.microshop.product.util.ProductSort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de consultas de lectura del catálogo resueltas en memoria: búsqueda
+ * por texto libre, autocompletado, recuentos de facetas, consultas por
+ * categoría, precio y disponibilidad, filtrado por atributos y ranking de
+ * productos populares.
+ *
+ * Cada consulta se resuelve sobre su índice del paquete {@code search}. Las que
+ * devuelven productos obtienen solo sus IDs y los cargan a través de
+ * {@link ProductService}, aprovechando su cache; las sugerencias y las facetas
+ * se responden directamente desde el índice. Mientras el índice de texto o la
+ * réplica del catálogo se construyen tras el arranque, sus consultas se
+ * resuelven contra la base de datos. No abre transacción propia: las consultas
+ * que se resuelven en memoria no ocupan conexiones del pool.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+public class ProductSearchService {
+
+    /**
+     * Número máximo de resultados de una búsqueda.
+     */
+    public static final int MAX_SEARCH_RESULTS = 100;
+
+    private final ProductTextIndex productTextIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductCatalogReplica productCatalogReplica;
+    private final ProductAttributeIndex productAttributeIndex;
+    private final ProductPopularityIndex productPopularityIndex;
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final Counter textFallbacks;
+    private final Counter queryFallbacks;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productTextIndex Índice de texto completo del catálogo
+     * @param productSuggestIndex Índice de autocompletado del catálogo
+     * @param productFacetIndex Contadores de facetas del catálogo
+     * @param productCatalogReplica Réplica por columnas del catálogo
+     * @param productAttributeIndex Índice de atributos del catálogo
+     * @param productPopularityIndex Contadores de visitas y ranking de popularidad
+     * @param productService Servicio de productos, para cargar los resultados
+     * @param productRepository Repositorio de productos, para la búsqueda de respaldo
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public ProductSearchService(ProductTextIndex productTextIndex, ProductSuggestIndex productSuggestIndex,
+                                ProductFacetIndex productFacetIndex, ProductCatalogReplica productCatalogReplica,
+                                ProductAttributeIndex productAttributeIndex,
+                                ProductPopularityIndex productPopularityIndex, ProductService productService,
+                                ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productTextIndex = productTextIndex;
+        this.productSuggestIndex = productSuggestIndex;
+        this.productFacetIndex = productFacetIndex;
+        this.productCatalogReplica = productCatalogReplica;
+        this.productAttributeIndex = productAttributeIndex;
+        this.productPopularityIndex = productPopularityIndex;
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.textFallbacks = Counter.builder("product.search.text.fallback")
+                .description("Búsquedas de texto resueltas en la base de datos porque el índice no estaba listo")
+                .register(meterRegistry);
+        this.queryFallbacks = Counter.builder("product.query.fallback")
+                .description("Consultas del catálogo resueltas en la base de datos porque la réplica no estaba lista")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca productos cuyo nombre o descripción contengan los términos indicados,
+     * ordenados por relevancia. Mientras el índice se construye tras el arranque,
+     * la búsqueda se resuelve con una consulta LIKE sobre la base de datos,
+     * ordenada por ID y sin corrección de erratas.
+     *
+     * @param query Texto de búsqueda
+     * @param limit Número máximo de resultados
+     * @param fuzzy true para sustituir los términos inexistentes por los nombres más parecidos
+     * @return Productos encontrados, los más relevantes primero
+     * @throws IllegalArgumentException si el texto está vacío o el límite no es válido
+     */
+    public List<ProductResponseDTO> searchText(String query, int limit, boolean fuzzy) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("El texto de búsqueda es obligatorio");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException(
+                    "El número de resultados debe estar entre 1 y " + MAX_SEARCH_RESULTS);
+        }
+        if (!productTextIndex.isReady()) {
+            textFallbacks.increment();
+            return productRepository.searchByText(query.trim(), Limit.of(limit));
+        }
+        return hydrate(productTextIndex.search(query, limit, fuzzy));
+    }
+
+    /**
+     * Filtra el catálogo por categoría, rango de precio y disponibilidad y devuelve
+     * los primeros productos según la ordenación. Se resuelve sobre la réplica por
+     * columnas del catálogo; mientras se construye tras el arranque, con una
+     * consulta sobre la base de datos.
+     *
+     * @param query Filtros, ordenación y número de resultados
+     * @return Productos encontrados, en el orden pedido
+     * @throws IllegalArgumentException si la categoría está vacía, la ordenación no está soportada o el rango de precio o el límite no son válidos
+     */
+    public List<ProductResponseDTO> queryCatalog(CatalogQuery query) {
+        if (query.category() != null && query.category().isBlank()) {
+            throw new IllegalArgumentException("La categoría no puede estar vacía");
+        }
+        if (query.sort() == ProductSort.NAME) {
+            throw new IllegalArgumentException("La ordenación por nombre solo está disponible en las búsquedas por categoría");
+        }
+        if (query.minPrice() != null && query.maxPrice() != null
+                && query.minPrice().compareTo(query.maxPrice()) >= 0) {
+            throw new IllegalArgumentException("El precio máximo debe ser mayor que el mínimo");
+        }
+        if (query.limit() < 1 || query.limit() > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException(
+                    "El número de resultados debe estar entre 1 y " + MAX_SEARCH_RESULTS);
+        }
+        if (!productCatalogReplica.isReady()) {
+            queryFallbacks.increment();
+            Sort.Direction direction = query.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = switch (query.sort()) {
+                case ID -> Sort.by(direction, "id");
+                case CREATED_AT -> Sort.by(direction, "createdAt").and(Sort.by("id"));
+                case PRICE -> Sort.by(direction, "price").and(Sort.by("id"));
+                case NAME -> Sort.by(direction, "name").and(Sort.by("id"));
+            };
+            return productRepository.queryCatalog(query.category(), query.minPrice(), query.maxPrice(),
+                    query.inStock(), sort, Limit.of(query.limit()));
+        }
+        return hydrate(productCatalogReplica.query(query));
+    }
+
+    /**
+     * Obtiene una página, en orden de ID, de los productos cuyos atributos cumplen
+     * la expresión de filtrado, evaluada con los bitmaps del índice de atributos.
+     *
+     * @param expression Expresión de filtrado, como {@code brand:acme AND NOT color:rojo}
+     * @param cursor Cursor de la página anterior, o null para la primera página
+     * @param limit Tamaño máximo de la página
+     * @return Página de productos con el cursor de la siguiente
+     * @throws IllegalArgumentException si la expresión, el cursor o el tamaño de página no son válidos
+     */
+    public ProductPageDTO filterByAttributes(String expression, String cursor, int limit) {
+        if (limit < 1 || limit > ProductService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "El tamaño de página debe estar entre 1 y " + ProductService.MAX_PAGE_SIZE);
+        }
+        AttributeFilter filter = AttributeFilter.parse(expression);
+        Long afterId = cursor == null ? null : KeysetCursor.decode(cursor, ProductSort.ID).getLastId();
+        List<Long> ids = productAttributeIndex.filter(filter, afterId, limit + 1);
+        if (ids.size() <= limit) {
+            return new ProductPageDTO(hydrate(ids), null);
+        }
+        List<Long> pageIds = ids.subList(0, limit);
+        return new ProductPageDTO(hydrate(pageIds), KeysetCursor.afterId(pageIds.get(limit - 1)).encode());
+    }
+
+    /**
+     * Obtiene los productos más vistos recientemente, según el ranking de
+     * popularidad con decaimiento temporal que se mantiene en memoria.
+     *
+     * @param category Categoría (sin distinguir mayúsculas), o null para todo el catálogo
+     * @param limit Número máximo de productos
+     * @return Productos más populares, el primero el más visto
+     * @throws IllegalArgumentException si la categoría está vacía o el límite no es válido
+     */
+    public List<ProductResponseDTO> findPopular(String category, int limit) {
+        if (category != null && category.isBlank()) {
+            throw new IllegalArgumentException("La categoría no puede estar vacía");
+        }
+        if (limit < 1 || limit > ProductPopularityIndex.MAX_POPULAR) {
+            throw new IllegalArgumentException(
+                    "El número de resultados debe estar entre 1 y " + ProductPopularityIndex.MAX_POPULAR);
+        }
+        String trimmed = category == null ? null : category.trim();
+        List<ProductResponseDTO> products = hydrate(productPopularityIndex.top(trimmed, limit));
+        if (trimmed == null) {
+            return products;
+        }
+        // El ranking conserva la categoría de la última visita volcada: descarta los productos recategorizados
+        return products.stream()
+                .filter(product -> trimmed.equalsIgnoreCase(product.getCategory()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cuenta una visita al detalle de un producto para el ranking de popularidad.
+     * No accede a la base de datos: las visitas se vuelcan por lotes.
+     *
+     * @param productId ID del producto visitado
+     */
+    public void recordView(Long productId) {
+        productPopularityIndex.recordView(productId);
+    }
+
+    /**
+     * Obtiene sugerencias de autocompletado para el texto que el usuario está
+     * escribiendo. Se resuelve siempre en memoria, sin consultar la base de datos.
+     *
+     * @param prefix Prefijo escrito por el usuario
+     * @param limit Número máximo de sugerencias
+     * @return Categorías y productos cuyo nombre empieza por el prefijo
+     * @throws IllegalArgumentException si el prefijo está vacío o el límite no es válido
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("El prefijo es obligatorio");
+        }
+        if (limit < 1 || limit > ProductSuggestIndex.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException(
+                    "El número de sugerencias debe estar entre 1 y " + ProductSuggestIndex.MAX_SUGGESTIONS);
+        }
+        return productSuggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Obtiene los recuentos de productos por categoría y por rango de precio para
+     * los filtros indicados, sin recorrer la tabla de productos.
+     *
+     * @param category Categoría filtrada, o null para todas
+     * @param minPrice Precio mínimo filtrado (incluido), o null
+     * @param maxPrice Precio máximo filtrado (excluido), o null
+     * @return Recuentos de las facetas
+     * @throws IllegalArgumentException si la categoría está vacía o los precios no coinciden con los rangos
+     */
+    public ProductFacetsDTO facets(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (category != null && category.isBlank()) {
+            throw new IllegalArgumentException("La categoría no puede estar vacía");
+        }
+        return productFacetIndex.facets(category == null ? null : category.trim(), minPrice, maxPrice);
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Carga los productos por ID a través de la cache, conservando el orden.
+     */
+    private List<ProductResponseDTO> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return productService.findByIds(ids).stream()
+                .filter(ProductBatchItemDTO::isFound)
+                .map(ProductBatchItemDTO::getProduct)
+                .collect(Collectors.toList());
+    }
+}
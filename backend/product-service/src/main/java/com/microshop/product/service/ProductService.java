@@ -1,21 +1,52 @@
 package com.microshop.product.service;
 
+import com.microshop.product.cache.ProductCache;
+import com.microshop.product.cache.ProductIdFilter;
+import com.microshop.product.dto.ProductAttributeDTO;
+import com.microshop.product.dto.ProductBatchItemDTO;
+import com.microshop.product.dto.ProductPageDTO;
 import com.microshop.product.dto.ProductRequestDTO;
 import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.exception.InsufficientStockException;
+import com.microshop.product.exception.PreconditionFailedException;
 import com.microshop.product.exception.ProductNotFoundException;
 import com.microshop.product.model.Product;
 import com.microshop.product.repository.ProductRepository;
 import com.microshop.product.util.EntityMapper;
+import com.microshop.product.util.KeysetCursor;
+import com.microshop.product.util.ProductSort;
+import com.microshop.product.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio que contiene la lógica de negocio para la gestión de productos.
  * 
+ * Las lecturas se ejecutan en transacciones de solo lectura, en las que Hibernate
+ * no hace flush ni guarda instantáneas, y se resuelven con proyecciones que
+ * construyen los DTOs de respuesta sin cargar entidades gestionadas.
+ * 
  * @author Microshop Platform
  * @version 1.0.0
  */
@@ -23,58 +54,216 @@ import java.util.stream.Collectors;
 @Transactional
 public class ProductService {
 
+    /**
+     * Tamaño máximo de página admitido en los listados.
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Número máximo de IDs admitidos en una consulta por lotes.
+     */
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    /**
+     * Número máximo de IDs por consulta IN a la base de datos.
+     */
+    private static final int BATCH_QUERY_CHUNK_SIZE = 1000;
+
+    /**
+     * Límites que sustituyen a los del filtro de precio cuando no se indican, para
+     * que las consultas por categoría siempre acoten el precio y lo resuelvan por
+     * índice: los precios son positivos y caben en NUMERIC(10, 2).
+     */
+    private static final BigDecimal PRICE_FLOOR = BigDecimal.ZERO;
+    private static final BigDecimal PRICE_CEILING = new BigDecimal("100000000");
+
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductIdFilter productIdFilter;
+    private final CategoryService categoryService;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final SingleFlight<Long, ProductResponseDTO> productLoads;
+    private final SingleFlight<CategoryPageRequest, ProductPageDTO> categoryLoads;
 
     /**
      * Constructor con inyección de dependencias.
      * 
      * @param productRepository Repositorio de productos
+     * @param productCache Cache de lectura de productos
+     * @param eventPublisher Publicador de eventos de cambio de productos
+     * @param meterRegistry Registro de métricas
+     * @param productIdFilter Filtro de IDs existentes
+     * @param categoryService Servicio del árbol de categorías
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
      */
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCache productCache,
+                          ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                          ProductIdFilter productIdFilter, CategoryService categoryService,
+                          ProductChangeFeedService productChangeFeedService) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+        this.productIdFilter = productIdFilter;
+        this.categoryService = categoryService;
+        this.productChangeFeedService = productChangeFeedService;
+        this.productLoads = new SingleFlight<>("findById", meterRegistry);
+        this.categoryLoads = new SingleFlight<>("findByCategory", meterRegistry);
     }
 
     /**
-     * Obtiene todos los productos del catálogo.
+     * Obtiene una página del catálogo mediante paginación keyset.
      * 
-     * @return Lista de DTOs de productos
+     * @param sort Criterio de ordenación
+     * @param cursor Cursor de la página anterior, o null para la primera página
+     * @param limit Tamaño máximo de la página
+     * @return Página de productos con el cursor de la siguiente
+     * @throws IllegalArgumentException si el tamaño de página no es válido
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDTO> findAll() {
-        return productRepository.findAll()
-                .stream()
-                .map(ProductResponseDTO::fromEntity)
-                .collect(Collectors.toList());
+    public ProductPageDTO findAll(ProductSort sort, KeysetCursor cursor, int limit) {
+        validatePageSize(limit);
+        if (sort == ProductSort.NAME) {
+            throw new IllegalArgumentException("La ordenación por nombre solo está disponible en las búsquedas por categoría");
+        }
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<ProductResponseDTO> products = switch (sort) {
+            case ID -> productRepository.findByIdGreaterThanOrderByIdAsc(
+                    cursor == null ? 0L : cursor.getLastId(), fetchLimit);
+            case CREATED_AT -> cursor == null
+                    ? productRepository.findByOrderByCreatedAtAscIdAsc(fetchLimit)
+                    : productRepository.findPageAfterCreatedAt(cursor.getCreatedAt(), cursor.getLastId(), fetchLimit);
+            case PRICE -> cursor == null
+                    ? productRepository.findByOrderByPriceAscIdAsc(fetchLimit)
+                    : productRepository.findPageAfterPrice(cursor.getPrice(), cursor.getLastId(), fetchLimit);
+            case NAME -> throw new IllegalStateException("Ordenación no soportada en el listado completo");
+        };
+        return toPage(products, sort, limit);
     }
 
     /**
-     * Obtiene un producto por su ID.
+     * Obtiene un producto por su ID, sirviéndolo desde la cache si está disponible.
+     * Las peticiones concurrentes del mismo ID comparten una única consulta y los
+     * IDs que el filtro de pertenencia descarta se responden sin consultar la base de datos.
+     * 
+     * No abre transacción propia: la consulta usa la transacción de solo lectura del
+     * repositorio, de modo que las llamadas que esperan una carga en curso no ocupan
+     * conexiones del pool.
      * 
      * @param id ID del producto
      * @return DTO del producto
      * @throws com.microshop.product.exception.ProductNotFoundException si no existe
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponseDTO findById(Long id) {
-        Product product = findProductByIdOrThrow(id);
-        return ProductResponseDTO.fromEntity(product);
+        if (!productIdFilter.mightContain(id)) {
+            throw productNotFound(id);
+        }
+        return productCache.getProduct(id, () -> productLoads.execute(id, () -> productRepository.findViewById(id)
+                .orElseThrow(() -> {
+                    productIdFilter.recordFalsePositive(id);
+                    return productNotFound(id);
+                })));
     }
 
     /**
-     * Busca productos por categoría.
+     * Obtiene varios productos por ID. Los productos en cache se sirven directamente
+     * y el resto se resuelve con consultas IN de hasta {@value #BATCH_QUERY_CHUNK_SIZE} IDs.
+     * El resultado conserva el orden de la petición (incluidos duplicados) y marca
+     * los IDs inexistentes en lugar de lanzar excepción.
      * 
-     * @param category Categoría a buscar
-     * @return Lista de DTOs de productos de la categoría
+     * @param ids IDs de los productos solicitados
+     * @return Un elemento por ID solicitado, en el mismo orden
+     * @throws IllegalArgumentException si la lista está vacía, contiene null o supera el máximo
      */
     @Transactional(readOnly = true)
-    public List<ProductResponseDTO> findByCategory(String category) {
-        return productRepository.findByCategoryIgnoreCase(category)
-                .stream()
-                .map(ProductResponseDTO::fromEntity)
+    public List<ProductBatchItemDTO> findByIds(List<Long> ids) {
+        validateBatch(ids);
+        Map<Long, ProductResponseDTO> found = productCache.getProducts(new LinkedHashSet<>(ids), this::loadProducts);
+        return ids.stream()
+                .map(id -> found.containsKey(id)
+                        ? ProductBatchItemDTO.found(found.get(id))
+                        : ProductBatchItemDTO.notFound(id))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene los atributos de un producto.
+     * 
+     * @param id ID del producto
+     * @return Atributos del producto ordenados por nombre
+     * @throws com.microshop.product.exception.ProductNotFoundException si no existe
+     */
+    @Transactional(readOnly = true)
+    public Map<String, String> findAttributes(Long id) {
+        List<ProductAttributeDTO> attributes = productRepository.findAttributesByProductId(id);
+        if (attributes.isEmpty() && !productRepository.existsById(id)) {
+            throw productNotFound(id);
+        }
+        Map<String, String> result = new TreeMap<>();
+        for (ProductAttributeDTO attribute : attributes) {
+            result.put(attribute.getName(), attribute.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Busca productos por categoría mediante paginación keyset, opcionalmente
+     * limitados a un rango de precio. Las páginas se sirven desde la cache si están
+     * disponibles y las peticiones concurrentes de la misma página comparten una
+     * única consulta, sin ocupar conexiones mientras esperan.
+     * 
+     * @param category Categoría a buscar
+     * @param minPrice Precio mínimo (incluido), o null
+     * @param maxPrice Precio máximo (excluido), o null
+     * @param sort Criterio de ordenación
+     * @param cursor Cursor de la página anterior, o null para la primera página
+     * @param limit Tamaño máximo de la página
+     * @return Página de productos de la categoría con el cursor de la siguiente
+     * @throws IllegalArgumentException si el tamaño de página o el rango de precio no son válidos
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProductPageDTO findByCategory(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                         ProductSort sort, KeysetCursor cursor, int limit) {
+        validatePageSize(limit);
+        if ((minPrice != null && minPrice.signum() < 0) || (maxPrice != null && maxPrice.signum() <= 0)) {
+            throw new IllegalArgumentException("Los precios del filtro deben ser positivos");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) >= 0) {
+            throw new IllegalArgumentException("El precio máximo debe ser mayor que el mínimo");
+        }
+        BigDecimal from = minPrice == null ? null : minPrice.stripTrailingZeros();
+        BigDecimal to = maxPrice == null ? null : maxPrice.stripTrailingZeros();
+        CategoryPageRequest request = new CategoryPageRequest(category.toLowerCase(Locale.ROOT), from, to, sort,
+                cursor == null ? null : cursor.encode(), limit);
+        return productCache.getCategoryPage(category, from, to, sort, cursor, limit,
+                () -> categoryLoads.execute(request, () -> loadCategoryPage(category,
+                        from == null ? PRICE_FLOOR : from, to == null ? PRICE_CEILING : to, sort, cursor, limit)));
+    }
+
+    /**
+     * Recorre el catálogo completo entregando cada producto al consumidor indicado.
+     * Las filas se leen por bloques mediante un cursor JDBC y se proyectan
+     * directamente a DTOs que no quedan retenidos en el contexto de persistencia,
+     * de modo que la memoria usada no depende del tamaño del catálogo.
+     * 
+     * @param consumer Consumidor que recibe cada producto en orden de ID
+     * @return Número de productos exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(Consumer<ProductResponseDTO> consumer) {
+        long exported = 0;
+        try (Stream<ProductResponseDTO> products = productRepository.streamAllByOrderByIdAsc()) {
+            Iterator<ProductResponseDTO> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                exported++;
+            }
+        }
+        return exported;
+    }
+
     /**
      * Crea un nuevo producto.
      * 
@@ -82,9 +271,14 @@ public class ProductService {
      * @return DTO del producto creado
      */
     public ProductResponseDTO create(ProductRequestDTO productRequestDTO) {
+        productIdFilter.holdFloorUntilCompletion();
         Product product = EntityMapper.toEntity(productRequestDTO);
+        product.setCategoryPath(categoryService.resolvePath(product.getCategory()));
+        product.setChangeSeq(productChangeFeedService.nextSequence());
         Product savedProduct = productRepository.save(product);
-        return ProductResponseDTO.fromEntity(savedProduct);
+        ProductResponseDTO created = ProductResponseDTO.fromEntity(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.created(created));
+        return created;
     }
 
     /**
@@ -96,10 +290,46 @@ public class ProductService {
      * @throws com.microshop.product.exception.ProductNotFoundException si no existe
      */
     public ProductResponseDTO update(Long id, ProductRequestDTO productRequestDTO) {
+        return update(id, productRequestDTO, null);
+    }
+
+    /**
+     * Actualiza un producto existente solo si su versión actual es la esperada
+     * (control de concurrencia optimista). Los cambios se escriben antes de
+     * devolver el resultado para que refleje la nueva versión; si otra transacción
+     * confirma una modificación entretanto, falla con
+     * {@link org.springframework.dao.OptimisticLockingFailureException}.
+     * 
+     * @param id ID del producto a actualizar
+     * @param productRequestDTO DTO con los nuevos datos
+     * @param expectedVersion Versión esperada, o null para actualizar sin condición
+     * @return DTO del producto actualizado
+     * @throws com.microshop.product.exception.ProductNotFoundException si no existe
+     * @throws PreconditionFailedException si la versión actual no es la esperada
+     * @throws InsufficientStockException si el nuevo stock no cubre las unidades
+     *         reservadas por los contadores en memoria
+     */
+    public ProductResponseDTO update(Long id, ProductRequestDTO productRequestDTO, Long expectedVersion) {
         Product product = findProductByIdOrThrow(id);
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new PreconditionFailedException("El producto con ID " + id + " fue modificado: versión actual "
+                    + product.getVersion() + ", esperada " + expectedVersion);
+        }
+        String previousCategory = product.getCategory();
+        // La fila se bloquea antes de modificar la entidad: la consulta vuelca el contexto de persistencia
+        long seq = productChangeFeedService.nextSequence();
+        int reserved = productRepository.lockReservedStockById(id).orElseThrow(() -> productNotFound(id));
+        if (productRequestDTO.getStock() < reserved) {
+            throw new InsufficientStockException("El stock del producto con ID " + id + " no puede ser "
+                    + productRequestDTO.getStock() + ": hay " + reserved + " unidades reservadas");
+        }
+        product.setChangeSeq(seq);
         EntityMapper.updateEntity(product, productRequestDTO);
-        Product updatedProduct = productRepository.save(product);
-        return ProductResponseDTO.fromEntity(updatedProduct);
+        product.setCategoryPath(categoryService.resolvePath(product.getCategory()));
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        ProductResponseDTO updated = ProductResponseDTO.fromEntity(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated, previousCategory));
+        return updated;
     }
 
     /**
@@ -109,10 +339,10 @@ public class ProductService {
      * @throws com.microshop.product.exception.ProductNotFoundException si no existe
      */
     public void delete(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ProductNotFoundException("Producto no encontrado con ID: " + id);
-        }
-        productRepository.deleteById(id);
+        Product product = findProductByIdOrThrow(id);
+        productChangeFeedService.recordDeletion(id);
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id, product.getCategory()));
     }
 
     // Métodos privados auxiliares
@@ -126,7 +356,124 @@ public class ProductService {
      */
     private Product findProductByIdOrThrow(Long id) {
         return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Producto no encontrado con ID: " + id));
+                .orElseThrow(() -> productNotFound(id));
+    }
+
+    private static ProductNotFoundException productNotFound(Long id) {
+        return new ProductNotFoundException("Producto no encontrado con ID: " + id);
+    }
+
+    /**
+     * Carga desde la base de datos los productos indicados, por bloques de IDs,
+     * omitiendo los que el filtro de pertenencia descarta.
+     * 
+     * @param ids IDs de los productos
+     * @return Productos existentes indexados por ID
+     */
+    private Map<Long, ProductResponseDTO> loadProducts(Collection<Long> ids) {
+        List<Long> pending = ids.stream()
+                .filter(productIdFilter::mightContain)
+                .collect(Collectors.toCollection(ArrayList::new));
+        Map<Long, ProductResponseDTO> loaded = new HashMap<>(pending.size() * 2);
+        for (int from = 0; from < pending.size(); from += BATCH_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(from + BATCH_QUERY_CHUNK_SIZE, pending.size()));
+            productRepository.findByIdIn(chunk).forEach(product -> loaded.put(product.getId(), product));
+        }
+        return loaded;
+    }
+
+    /**
+     * Carga desde la base de datos una página de productos de una categoría.
+     * 
+     * @param category Categoría a buscar
+     * @param minPrice Precio mínimo, incluido
+     * @param maxPrice Precio máximo, excluido
+     * @param sort Criterio de ordenación
+     * @param cursor Cursor de la página anterior, o null para la primera página
+     * @param limit Tamaño máximo de la página
+     * @return Página de productos de la categoría
+     */
+    private ProductPageDTO loadCategoryPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                            ProductSort sort, KeysetCursor cursor, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<ProductResponseDTO> products = switch (sort) {
+            case ID -> productRepository.findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                    category, minPrice, maxPrice, cursor == null ? 0L : cursor.getLastId(), fetchLimit);
+            case CREATED_AT -> cursor == null
+                    ? productRepository.findByCategoryIgnoreCaseOrderByCreatedAtAscIdAsc(
+                            category, minPrice, maxPrice, fetchLimit)
+                    : productRepository.findCategoryPageAfterCreatedAt(
+                            category, minPrice, maxPrice, cursor.getCreatedAt(), cursor.getLastId(), fetchLimit);
+            case PRICE -> cursor == null
+                    ? productRepository.findByCategoryIgnoreCaseOrderByPriceAscIdAsc(
+                            category, minPrice, maxPrice, fetchLimit)
+                    : productRepository.findCategoryPageAfterPrice(
+                            category, minPrice, maxPrice, cursor.getPrice(), cursor.getLastId(), fetchLimit);
+            case NAME -> cursor == null
+                    ? productRepository.findByCategoryIgnoreCaseOrderByNameAscIdAsc(
+                            category, minPrice, maxPrice, fetchLimit)
+                    : productRepository.findCategoryPageAfterName(
+                            category, minPrice, maxPrice, cursor.getName(), cursor.getLastId(), fetchLimit);
+        };
+        return toPage(products, sort, limit);
+    }
+
+    /**
+     * Valida el tamaño de página solicitado.
+     * 
+     * @param limit Tamaño de página
+     * @throws IllegalArgumentException si está fuera del rango permitido
+     */
+    private void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Valida la lista de IDs de una consulta por lotes.
+     * 
+     * @param ids IDs solicitados
+     * @throws IllegalArgumentException si está vacía, contiene null o supera el máximo
+     */
+    private void validateBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("La lista de IDs es obligatoria");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "La consulta por lotes admite como máximo " + MAX_BATCH_SIZE + " IDs");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("La lista de IDs no puede contener valores nulos");
+        }
+    }
+
+    /**
+     * Construye la página a partir de los productos leídos. Las consultas piden
+     * un elemento más que el tamaño de página para saber si existe página siguiente
+     * sin necesidad de un COUNT adicional.
+     * 
+     * @param products Productos leídos (hasta limit + 1)
+     * @param sort Criterio de ordenación usado
+     * @param limit Tamaño de página solicitado
+     * @return Página con el cursor de la siguiente, si existe
+     */
+    private ProductPageDTO toPage(List<ProductResponseDTO> products, ProductSort sort, int limit) {
+        boolean hasNext = products.size() > limit;
+        List<ProductResponseDTO> items = hasNext ? new ArrayList<>(products.subList(0, limit)) : products;
+        String nextCursor = hasNext
+                ? KeysetCursor.after(sort, items.get(items.size() - 1)).encode()
+                : null;
+        return new ProductPageDTO(items, nextCursor);
+    }
+
+    /**
+     * Clave de agrupación de cargas concurrentes de una página de categoría.
+     */
+    private record CategoryPageRequest(String category, BigDecimal minPrice, BigDecimal maxPrice, ProductSort sort,
+                                       String cursor, int limit) {
     }
 }
 
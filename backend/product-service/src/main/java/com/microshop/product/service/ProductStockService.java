@@ -0,0 +1,232 @@
+package com.microshop.product.service;
+
+import com.microshop.product.cache.HotStockCounters;
+import com.microshop.product.cache.ProductIdFilter;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductStockDTO;
+import com.microshop.product.dto.ProductStockRequestDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.exception.InsufficientStockException;
+import com.microshop.product.exception.ProductNotFoundException;
+import com.microshop.product.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio de operaciones atómicas sobre el stock de los productos.
+ *
+ * Cada operación es una única sentencia UPDATE condicional: la comprobación de
+ * stock y la escritura se hacen en la base de datos con la fila bloqueada, sin
+ * leer el producto antes, de modo que las peticiones concurrentes sobre el mismo
+ * producto no pierden actualizaciones ni dejan el stock en negativo. La misma
+ * sentencia devuelve el producto modificado (RETURNING, a través de las claves
+ * generadas de JDBC), sin volver a leerlo. Como el resto
+ * de escrituras, cada operación incrementa la versión del producto (las
+ * modificaciones con If-Match posteriores la detectan) y toma un número del feed
+ * de cambios.
+ *
+ * Los descuentos de los productos muy demandados ({@code product.stock.hot.product-ids})
+ * se hacen en memoria con {@link HotStockCounters}, sin transacción ni conexión a la
+ * base de datos, y se vuelcan periódicamente.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Service
+public class ProductStockService {
+
+    /**
+     * Columnas del producto que devuelven las sentencias, las de {@link ProductResponseDTO}.
+     */
+    private static final String[] RETURNED_COLUMNS =
+            {"id", "name", "description", "price", "stock", "category", "created_at", "version"};
+
+    /**
+     * Descuenta unidades solo si hay stock suficiente sin contar las unidades
+     * reservadas por los contadores en memoria ({@code reserved_stock}). La condición
+     * se evalúa con la fila bloqueada, de modo que las peticiones concurrentes nunca
+     * dejan el stock en negativo.
+     */
+    private static final String DECREMENT =
+            "UPDATE products SET stock = stock - ?, version = version + 1, change_seq = ? " +
+            "WHERE id = ? AND stock - reserved_stock >= ?";
+
+    /**
+     * Suma unidades siempre que el resultado no supere el máximo de un entero.
+     */
+    private static final String INCREMENT =
+            "UPDATE products SET stock = stock + ?, version = version + 1, change_seq = ? " +
+            "WHERE id = ? AND stock <= ?";
+
+    private final ProductRepository productRepository;
+    private final ProductIdFilter productIdFilter;
+    private final ProductChangeFeedService productChangeFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotStockCounters hotStockCounters;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param productRepository Repositorio de productos
+     * @param productIdFilter Filtro de IDs existentes
+     * @param productChangeFeedService Servicio del feed de cambios del catálogo
+     * @param eventPublisher Publicador de eventos de cambio de productos
+     * @param hotStockCounters Stock en memoria de los productos muy demandados
+     * @param jdbcTemplate JdbcTemplate para las sentencias de stock
+     * @param entityManager EntityManager que se sincroniza con las sentencias de stock
+     * @param transactionManager Gestor de transacciones de los descuentos en base de datos
+     */
+    @Autowired
+    public ProductStockService(ProductRepository productRepository, ProductIdFilter productIdFilter,
+                               ProductChangeFeedService productChangeFeedService,
+                               ApplicationEventPublisher eventPublisher, HotStockCounters hotStockCounters,
+                               JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productIdFilter = productIdFilter;
+        this.productChangeFeedService = productChangeFeedService;
+        this.eventPublisher = eventPublisher;
+        this.hotStockCounters = hotStockCounters;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Descuenta unidades del stock de un producto si hay suficientes. La
+     * transacción solo se abre si el producto no se vende desde memoria.
+     *
+     * @param id ID del producto
+     * @param quantity Unidades a descontar
+     * @return Stock resultante
+     * @throws ProductNotFoundException si el producto no existe
+     * @throws InsufficientStockException si el stock es menor que la cantidad
+     * @throws IllegalArgumentException si la cantidad no es válida
+     */
+    public ProductStockDTO decrement(Long id, int quantity) {
+        validateQuantity(quantity);
+        Optional<ProductStockDTO> hot = hotStockCounters.tryDecrement(id, quantity);
+        if (hot.isPresent()) {
+            return hot.get();
+        }
+        return transaction.execute(status -> decrementInDatabase(id, quantity));
+    }
+
+    /**
+     * Suma unidades al stock de un producto. En los productos muy demandados las
+     * unidades sumadas quedan sin reservar, disponibles para el siguiente bloque.
+     *
+     * @param id ID del producto
+     * @param quantity Unidades a sumar
+     * @return Stock resultante
+     * @throws ProductNotFoundException si el producto no existe
+     * @throws IllegalArgumentException si la cantidad no es válida o el stock superaría el máximo
+     */
+    @Transactional
+    public ProductStockDTO increment(Long id, int quantity) {
+        validateQuantity(quantity);
+        requireKnownId(id);
+        long seq = productChangeFeedService.nextSequence();
+        Optional<ProductResponseDTO> product = update(INCREMENT, quantity, seq, id, Integer.MAX_VALUE - quantity);
+        if (product.isEmpty()) {
+            productRepository.findStockById(id).orElseThrow(() -> productNotFound(id));
+            throw new IllegalArgumentException("El stock del producto con ID " + id + " superaría el máximo");
+        }
+        return changed(product.get());
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Descuenta el stock con un UPDATE condicional; debe ejecutarse dentro de una transacción.
+     */
+    private ProductStockDTO decrementInDatabase(Long id, int quantity) {
+        requireKnownId(id);
+        // El número del feed se toma antes de bloquear la fila del producto, como en el resto de escrituras
+        long seq = productChangeFeedService.nextSequence();
+        Optional<ProductResponseDTO> product = update(DECREMENT, quantity, seq, id, quantity);
+        if (product.isEmpty()) {
+            // La excepción deshace la transacción, incluido el número del feed reservado
+            int available = productRepository.findUnreservedStockById(id).orElseThrow(() -> productNotFound(id));
+            throw new InsufficientStockException("Stock insuficiente para el producto con ID " + id
+                    + ": disponibles " + available + ", solicitadas " + quantity);
+        }
+        return changed(product.get());
+    }
+
+    private static void validateQuantity(int quantity) {
+        if (quantity < 1 || quantity > ProductStockRequestDTO.MAX_QUANTITY) {
+            throw new IllegalArgumentException(
+                    "La cantidad debe estar entre 1 y " + ProductStockRequestDTO.MAX_QUANTITY);
+        }
+    }
+
+    /**
+     * Descarta sin tomar un número del feed los IDs que el filtro de
+     * pertenencia sabe inexistentes.
+     */
+    private void requireKnownId(Long id) {
+        if (!productIdFilter.mightContain(id)) {
+            throw productNotFound(id);
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia de stock y devuelve el producto tal como la dejó, o
+     * vacío si no modificó ninguna fila. Las escrituras pendientes de Hibernate se
+     * vuelcan antes y el contexto de persistencia se vacía después, para no servir
+     * el producto con el stock anterior.
+     */
+    private Optional<ProductResponseDTO> update(String sql, int quantity, long seq, Long id, int limit) {
+        entityManager.flush();
+        KeyHolder returned = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, RETURNED_COLUMNS);
+            statement.setInt(1, quantity);
+            statement.setLong(2, seq);
+            statement.setLong(3, id);
+            statement.setInt(4, limit);
+            return statement;
+        }, returned);
+        entityManager.clear();
+        List<Map<String, Object>> rows = returned.getKeyList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, Object> row = rows.get(0);
+        return Optional.of(new ProductResponseDTO(((Number) row.get("id")).longValue(), (String) row.get("name"),
+                (String) row.get("description"), (BigDecimal) row.get("price"),
+                ((Number) row.get("stock")).intValue(), (String) row.get("category"),
+                ((Timestamp) row.get("created_at")).toLocalDateTime(), ((Number) row.get("version")).longValue()));
+    }
+
+    /**
+     * Publica el cambio del producto para caches e índices.
+     */
+    private ProductStockDTO changed(ProductResponseDTO product) {
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product, product.getCategory()));
+        return new ProductStockDTO(product.getId(), product.getStock(), product.getVersion());
+    }
+
+    private static ProductNotFoundException productNotFound(Long id) {
+        return new ProductNotFoundException("Producto no encontrado con ID: " + id);
+    }
+}
@@ -3,6 +3,9 @@ package com.microshop.product.util;
 import com.microshop.product.dto.ProductRequestDTO;
 import com.microshop.product.model.Product;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Utilidad para mapear entre entidades y DTOs.
  * Centraliza la lógica de conversión para evitar duplicación.
@@ -25,6 +28,9 @@ public class EntityMapper {
         product.setPrice(dto.getPrice());
         product.setStock(dto.getStock());
         product.setCategory(dto.getCategory());
+        if (dto.getAttributes() != null) {
+            product.getAttributes().putAll(trimValues(dto.getAttributes()));
+        }
         return product;
     }
 
@@ -40,6 +46,19 @@ public class EntityMapper {
         product.setPrice(dto.getPrice());
         product.setStock(dto.getStock());
         product.setCategory(dto.getCategory());
+        if (dto.getAttributes() != null) {
+            Map<String, String> attributes = trimValues(dto.getAttributes());
+            product.getAttributes().keySet().retainAll(attributes.keySet());
+            product.getAttributes().putAll(attributes);
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private static Map<String, String> trimValues(Map<String, String> attributes) {
+        Map<String, String> trimmed = new HashMap<>();
+        attributes.forEach((name, value) -> trimmed.put(name, value.trim()));
+        return trimmed;
     }
 }
 
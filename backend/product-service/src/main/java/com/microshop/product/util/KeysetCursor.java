@@ -0,0 +1,134 @@
+package com.microshop.product.util;
+
+import com.microshop.product.dto.ProductResponseDTO;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación keyset de productos.
+ * Guarda el valor de la columna de ordenación y el ID del último elemento
+ * devuelto, de modo que la siguiente página se obtiene con un predicado
+ * {@code WHERE (valor, id) > (?, ?)} resuelto por índice, sin OFFSET.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final ProductSort sort;
+    private final String sortValue;
+    private final Long lastId;
+
+    private KeysetCursor(ProductSort sort, String sortValue, Long lastId) {
+        this.sort = sort;
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Crea un cursor para la ordenación por ID a partir del último ID visto.
+     *
+     * @param lastId ID del último producto recibido
+     * @return Cursor posicionado tras ese ID
+     */
+    public static KeysetCursor afterId(Long lastId) {
+        return new KeysetCursor(ProductSort.ID, null, lastId);
+    }
+
+    /**
+     * Crea el cursor que apunta al producto indicado según el criterio de ordenación.
+     *
+     * @param sort Criterio de ordenación de la página
+     * @param last Último producto de la página
+     * @return Cursor posicionado tras ese producto
+     */
+    public static KeysetCursor after(ProductSort sort, ProductResponseDTO last) {
+        String value = switch (sort) {
+            case ID -> null;
+            case CREATED_AT -> last.getCreatedAt().toString();
+            case PRICE -> last.getPrice().toPlainString();
+            case NAME -> last.getName();
+        };
+        return new KeysetCursor(sort, value, last.getId());
+    }
+
+    /**
+     * Decodifica un cursor opaco recibido del cliente.
+     *
+     * @param token Cursor codificado en Base64 URL-safe
+     * @param expectedSort Criterio de ordenación de la petición actual
+     * @return Cursor decodificado
+     * @throws IllegalArgumentException si el cursor es inválido o pertenece a otra ordenación
+     */
+    public static KeysetCursor decode(String token, ProductSort expectedSort) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+
+        // El valor de ordenación (un nombre) puede contener el separador: se toman
+        // el criterio hasta el primero y el ID desde el último
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == last || !expectedSort.getParameterName().equals(raw.substring(0, first))) {
+            throw new IllegalArgumentException("Cursor de paginación inválido para la ordenación " +
+                    expectedSort.getParameterName());
+        }
+        String sortValue = raw.substring(first + 1, last);
+
+        try {
+            KeysetCursor cursor = new KeysetCursor(expectedSort, sortValue.isEmpty() ? null : sortValue,
+                    Long.valueOf(raw.substring(last + 1)));
+            // Validar que el valor de ordenación es interpretable antes de usarlo en la consulta
+            switch (expectedSort) {
+                case CREATED_AT -> cursor.getCreatedAt();
+                case PRICE -> cursor.getPrice();
+                case NAME -> cursor.getName().length();
+                default -> { }
+            }
+            return cursor;
+        } catch (NumberFormatException | DateTimeParseException | NullPointerException ex) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * Codifica el cursor como token opaco para el cliente.
+     *
+     * @return Cursor codificado en Base64 URL-safe
+     */
+    public String encode() {
+        String raw = sort.getParameterName() + SEPARATOR
+                + (sortValue == null ? "" : sortValue) + SEPARATOR
+                + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ProductSort getSort() {
+        return sort;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return LocalDateTime.parse(sortValue);
+    }
+
+    public BigDecimal getPrice() {
+        return new BigDecimal(sortValue);
+    }
+
+    public String getName() {
+        return sortValue;
+    }
+}
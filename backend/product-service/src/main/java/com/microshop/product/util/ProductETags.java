@@ -0,0 +1,92 @@
+package com.microshop.product.util;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.exception.PreconditionFailedException;
+
+import java.util.List;
+
+/**
+ * Construcción e interpretación de las ETags de las respuestas de productos.
+ *
+ * La ETag de un producto es {@code "<id>-<versión>"}: la versión cambia con cada
+ * modificación, por lo que es un validador fuerte. La de una página se deriva de
+ * los pares (id, versión) de sus productos y del cursor siguiente, de modo que
+ * cambia si se crea, modifica o elimina cualquier producto de la página.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public final class ProductETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProductETags() {
+    }
+
+    /**
+     * ETag de un producto.
+     *
+     * @param product Producto
+     * @return ETag fuerte entre comillas
+     */
+    public static String of(ProductResponseDTO product) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "\"";
+    }
+
+    /**
+     * ETag agregada de una página de productos.
+     *
+     * @param items Productos de la página
+     * @param nextCursor Cursor de la página siguiente, o null
+     * @return ETag fuerte entre comillas
+     */
+    public static String ofPage(List<ProductResponseDTO> items, String nextCursor) {
+        long hash = FNV_OFFSET;
+        for (ProductResponseDTO item : items) {
+            hash = mix(hash, item.getId());
+            hash = mix(hash, item.getVersion() == null ? 0L : item.getVersion());
+        }
+        hash = mix(hash, nextCursor == null ? 0L : nextCursor.hashCode());
+        return "\"p" + items.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Obtiene la versión esperada de un producto a partir de la cabecera If-Match.
+     *
+     * @param ifMatch Valor de la cabecera If-Match, o null si no se envió
+     * @param id ID del producto que se va a modificar
+     * @return Versión esperada, o null si la cabecera no condiciona la versión (ausente o {@code *})
+     * @throws PreconditionFailedException si ninguna ETag de la cabecera corresponde al producto
+     */
+    public static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = id + "-";
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            // If-Match usa comparación fuerte: las ETags débiles nunca coinciden
+            if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+                continue;
+            }
+            value = value.substring(1, value.length() - 1);
+            if (value.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(value.substring(prefix.length()));
+                } catch (NumberFormatException ex) {
+                    // ETag ajena a este servicio: se ignora
+                }
+            }
+        }
+        throw new PreconditionFailedException("La cabecera If-Match no corresponde al producto con ID: " + id);
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
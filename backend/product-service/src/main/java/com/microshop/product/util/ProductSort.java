@@ -0,0 +1,48 @@
+package com.microshop.product.util;
+
+/**
+ * Criterios de ordenación soportados por los listados paginados de productos.
+ * Cada criterio se combina con el ID como desempate para que el orden sea
+ * total y la paginación por cursor (keyset) sea estable.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public enum ProductSort {
+
+    ID("id"),
+    CREATED_AT("created_at"),
+    PRICE("price"),
+    NAME("name");
+
+    private final String parameterName;
+
+    ProductSort(String parameterName) {
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * Nombre con el que se expone el criterio en la API.
+     *
+     * @return Nombre del parámetro de ordenación
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * Obtiene el criterio de ordenación a partir del valor del parámetro {@code sort}.
+     *
+     * @param value Valor recibido (case-insensitive)
+     * @return Criterio de ordenación correspondiente
+     * @throws IllegalArgumentException si el valor no corresponde a ningún criterio
+     */
+    public static ProductSort fromParameter(String value) {
+        for (ProductSort sort : values()) {
+            if (sort.parameterName.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Criterio de ordenación no soportado: " + value);
+    }
+}
@@ -0,0 +1,89 @@
+package com.microshop.product.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa cargas concurrentes de una misma clave (single-flight): mientras una
+ * carga está en curso, el resto de llamadas con la misma clave esperan su
+ * resultado en lugar de repetir la consulta. Los errores de la carga se
+ * propagan a todas las llamadas agrupadas.
+ *
+ * El número de llamadas que reutilizaron una carga en curso se publica en el
+ * contador {@value #COALESCED_METRIC}, etiquetado con la operación.
+ *
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del resultado
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class SingleFlight<K, V> {
+
+    public static final String COALESCED_METRIC = "product.singleflight.coalesced";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param operation Nombre de la operación, usado como etiqueta de la métrica
+     * @param meterRegistry Registro de métricas
+     */
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder(COALESCED_METRIC)
+                .description("Llamadas que reutilizaron una carga en curso de la misma clave")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la carga de la clave o, si ya hay una en curso, espera su resultado.
+     *
+     * @param key Clave de la carga
+     * @param loader Carga a ejecutar si no hay ninguna en curso
+     * @return Resultado de la carga
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            V result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.microshop.product.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de stock repartido en franjas (una por núcleo) para vender unidades
+ * desde muchos hilos a la vez sin disputarse una única variable.
+ *
+ * Cada franja guarda las unidades disponibles y las vendidas en su propia línea de
+ * caché, y cada hilo opera siempre sobre la misma franja con operaciones CAS. Cuando
+ * su franja no tiene bastantes unidades, el hilo las toma prestadas de las demás con
+ * un protocolo acotado: recorre el resto de franjas una sola vez, mueve a la suya
+ * como mucho las unidades que le faltan y vuelve a intentar la venta; si sigue sin
+ * poder, la venta falla aunque otros hilos liberen unidades después, y es quien
+ * llama el que decide si repone el contador. Nunca se venden más unidades de las
+ * añadidas con {@link #add(long)}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public class StripedStockCounter {
+
+    /**
+     * Posiciones del array por franja: 8 longs ocupan una línea de caché de 64 bytes.
+     */
+    private static final int STRIDE = 8;
+    private static final int AVAILABLE = 0;
+    private static final int SOLD = 1;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * Crea un contador con una franja por procesador disponible.
+     */
+    public StripedStockCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param stripes Número mínimo de franjas; se redondea a la siguiente potencia de dos
+     */
+    public StripedStockCounter(int stripes) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("El número de franjas debe estar entre 1 y 65536: " + stripes);
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        // Una línea de relleno más al principio para no compartirla con la cabecera del array
+        this.cells = new AtomicLongArray((size + 1) * STRIDE);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Vende unidades si el contador tiene suficientes.
+     *
+     * @param quantity Unidades a vender (positivas)
+     * @return true si se vendieron; false si no había suficientes tras el préstamo
+     */
+    public boolean tryTake(long quantity) {
+        int home = stripe();
+        if (take(home, quantity)) {
+            return true;
+        }
+        long missing = quantity - cells.get(index(home, AVAILABLE));
+        for (int i = 1; i <= mask && missing > 0; i++) {
+            missing -= borrow((home + i) & mask, home, missing);
+        }
+        return take(home, quantity);
+    }
+
+    /**
+     * Añade unidades disponibles a la franja del hilo actual.
+     *
+     * @param units Unidades a añadir
+     */
+    public void add(long units) {
+        cells.addAndGet(index(stripe(), AVAILABLE), units);
+    }
+
+    /**
+     * Devuelve como vendidas unidades que se habían retirado con {@link #drainSold()}
+     * y no se pudieron registrar.
+     *
+     * @param units Unidades vendidas a devolver
+     */
+    public void restoreSold(long units) {
+        cells.addAndGet(index(stripe(), SOLD), units);
+    }
+
+    /**
+     * Unidades disponibles en el contador; es una suma aproximada si hay ventas en curso.
+     *
+     * @return Unidades disponibles
+     */
+    public long available() {
+        return sum(AVAILABLE);
+    }
+
+    /**
+     * Unidades vendidas desde el último {@link #drainSold()}; aproximada si hay ventas en curso.
+     *
+     * @return Unidades vendidas pendientes
+     */
+    public long sold() {
+        return sum(SOLD);
+    }
+
+    /**
+     * Retira y devuelve las unidades vendidas desde la última llamada. Cada venta
+     * se cuenta exactamente una vez entre llamadas sucesivas.
+     *
+     * @return Unidades vendidas
+     */
+    public long drainSold() {
+        return drain(SOLD);
+    }
+
+    /**
+     * Retira y devuelve todas las unidades disponibles; después ninguna venta
+     * prospera hasta que se añadan unidades nuevas.
+     *
+     * @return Unidades disponibles retiradas
+     */
+    public long drainAvailable() {
+        return drain(AVAILABLE);
+    }
+
+    // Métodos privados auxiliares
+
+    private boolean take(int stripe, long quantity) {
+        int available = index(stripe, AVAILABLE);
+        long current;
+        do {
+            current = cells.get(available);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!cells.compareAndSet(available, current, current - quantity));
+        cells.addAndGet(index(stripe, SOLD), quantity);
+        return true;
+    }
+
+    /**
+     * Mueve a la franja {@code to} hasta {@code wanted} unidades de la franja {@code from}.
+     *
+     * @return Unidades movidas
+     */
+    private long borrow(int from, int to, long wanted) {
+        int source = index(from, AVAILABLE);
+        long current;
+        long moved;
+        do {
+            current = cells.get(source);
+            if (current <= 0) {
+                return 0;
+            }
+            moved = Math.min(current, wanted);
+        } while (!cells.compareAndSet(source, current, current - moved));
+        cells.addAndGet(index(to, AVAILABLE), moved);
+        return moved;
+    }
+
+    private long sum(int slot) {
+        long total = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            total += cells.get(index(stripe, slot));
+        }
+        return total;
+    }
+
+    private long drain(int slot) {
+        long total = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            total += cells.getAndSet(index(stripe, slot), 0);
+        }
+        return total;
+    }
+
+    /**
+     * Franja del hilo actual: el ID del hilo mezclado para repartir los hilos
+     * consecutivos de un pool entre franjas distintas.
+     */
+    private int stripe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int index(int stripe, int slot) {
+        return (stripe + 1) * STRIDE + slot;
+    }
+}
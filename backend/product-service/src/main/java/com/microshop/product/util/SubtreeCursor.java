@@ -0,0 +1,70 @@
+package com.microshop.product.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación keyset de los productos de un subárbol de
+ * categorías. Guarda la ruta de categoría y el ID del último producto devuelto,
+ * que es la posición en el índice {@code (category_path, id)}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+public final class SubtreeCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String path;
+    private final Long lastId;
+
+    /**
+     * Constructor con parámetros.
+     *
+     * @param path Ruta de categoría del último producto devuelto
+     * @param lastId ID del último producto devuelto
+     */
+    public SubtreeCursor(String path, Long lastId) {
+        this.path = path;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Decodifica un cursor opaco recibido del cliente.
+     *
+     * @param token Cursor codificado en Base64 URL-safe
+     * @return Cursor decodificado
+     * @throws IllegalArgumentException si el cursor es inválido
+     */
+    public static SubtreeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return new SubtreeCursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException también es una IllegalArgumentException
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * Codifica el cursor como token opaco para el cliente.
+     *
+     * @return Cursor codificado en Base64 URL-safe
+     */
+    public String encode() {
+        String raw = path + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+}
@@ -0,0 +1,29 @@
+-- Migración Flyway: Reservas de stock de los productos muy demandados
+-- Versión: 10
+-- Descripción: Las instancias que venden un producto desde contadores en memoria
+-- (product.stock.hot.product-ids) reservan su stock en bloques: reserved_stock suma
+-- las unidades reservadas por todas las instancias y product_stock_reservations
+-- registra las de cada una. Las ventas se descuentan de stock y de la reserva en
+-- volcados periódicos, que renuevan heartbeat_at; si una instancia cae, otra
+-- devuelve sus unidades reservadas al stock disponible cuando la reserva caduca.
+-- El stock nunca puede quedar por debajo de las unidades reservadas.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS reserved_stock INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD CONSTRAINT chk_reserved_stock_non_negative CHECK (reserved_stock >= 0);
+ALTER TABLE products ADD CONSTRAINT chk_stock_covers_reserved CHECK (stock >= reserved_stock);
+
+CREATE TABLE IF NOT EXISTS product_stock_reservations (
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    instance_id VARCHAR(36) NOT NULL,
+    units INTEGER NOT NULL CHECK (units >= 0),
+    heartbeat_at BIGINT NOT NULL,
+    PRIMARY KEY (product_id, instance_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_heartbeat ON product_stock_reservations (heartbeat_at);
+
+COMMENT ON COLUMN products.reserved_stock IS 'Unidades reservadas por contadores de stock en memoria, aún sin vender';
+COMMENT ON TABLE product_stock_reservations IS 'Unidades de stock reservadas por cada instancia para venderlas desde memoria';
+COMMENT ON COLUMN product_stock_reservations.instance_id IS 'Identificador aleatorio de la instancia, distinto en cada arranque';
+COMMENT ON COLUMN product_stock_reservations.units IS 'Unidades reservadas por la instancia y no volcadas como vendidas';
+COMMENT ON COLUMN product_stock_reservations.heartbeat_at IS 'Último volcado de la instancia (ms desde epoch); caducada, la reserva se libera';
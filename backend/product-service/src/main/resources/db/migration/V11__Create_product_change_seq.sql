@@ -0,0 +1,19 @@
+-- Migración Flyway: Secuencia del feed de cambios del catálogo
+-- Versión: 11
+-- Descripción: Los números del feed de cambios se toman de la secuencia
+-- product_change_seq en lugar de incrementar la fila de product_change_sequence,
+-- cuyo bloqueo serializaba todas las escrituras de productos hasta su commit.
+-- Cada transacción que escribe toma primero un número propio y lo publica con un
+-- bloqueo consultivo (pg_advisory_xact_lock) hasta que termina; los lectores del
+-- feed solo avanzan hasta justo antes del menor número publicado, de modo que un
+-- cambio que confirma tarde nunca queda detrás de lo ya leído. CACHE 1 mantiene el
+-- orden de nextval entre sesiones.
+
+CREATE SEQUENCE IF NOT EXISTS product_change_seq INCREMENT BY 1 CACHE 1;
+
+SELECT setval('product_change_seq', COALESCE(MAX(last_seq), 0) + 1, false) FROM product_change_sequence;
+
+ALTER TABLE product_change_sequence DROP COLUMN IF EXISTS last_seq;
+
+COMMENT ON SEQUENCE product_change_seq IS 'Números de secuencia del feed de cambios del catálogo';
+COMMENT ON TABLE product_change_sequence IS 'Marca de compactación de las lápidas del feed de cambios (fila única)';
@@ -0,0 +1,9 @@
+-- Migración Flyway: Índices para paginación keyset
+-- Versión: 2
+-- Descripción: Índices compuestos (columna de ordenación, id) que permiten resolver
+-- los listados paginados por cursor con un recorrido ordenado del índice,
+-- sin ordenar la tabla completa ni usar OFFSET.
+
+CREATE INDEX IF NOT EXISTS idx_product_created_at_id ON products(created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_product_price_id ON products(price, id);
@@ -0,0 +1,7 @@
+-- Migración Flyway: Añadir columna de versión a productos
+-- Versión: 3
+-- Descripción: Columna para control de concurrencia optimista (@Version) y ETags HTTP
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN products.version IS 'Versión del producto, se incrementa en cada modificación';
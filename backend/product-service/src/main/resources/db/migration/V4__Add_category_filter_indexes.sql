@@ -0,0 +1,18 @@
+-- Migración Flyway: Índices para los listados por categoría
+-- Versión: 4
+-- Descripción: Los listados por categoría comparan LOWER(category), que no puede
+-- usar idx_product_category. Se sustituye por índices funcionales compuestos
+-- (lower(category), columna de ordenación, id): cada listado paginado, con o sin
+-- rango de precio, se resuelve con un recorrido ordenado del índice de su ordenación.
+-- Los listados sin categoría por fecha de creación usan idx_product_created_at_id (V2).
+
+CREATE INDEX IF NOT EXISTS idx_product_category_lower_id ON products(lower(category), id);
+
+CREATE INDEX IF NOT EXISTS idx_product_category_lower_price_id ON products(lower(category), price, id);
+
+CREATE INDEX IF NOT EXISTS idx_product_category_lower_created_at_id ON products(lower(category), created_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_product_category_lower_name_id ON products(lower(category), name, id);
+
+-- Ninguna consulta compara ya la categoría sin normalizar
+DROP INDEX IF EXISTS idx_product_category;
@@ -0,0 +1,49 @@
+-- Migración Flyway: Árbol de categorías con rutas materializadas
+-- Versión: 5
+-- Descripción: Crea la tabla categories, convierte cada categoría plana existente
+-- en una categoría raíz y copia su ruta en los productos. Las rutas se comparan
+-- por código de carácter (COLLATE "C") para que un subárbol sea el rango
+-- [ruta, ruta con la barra final sustituida por '0') y se resuelva con un índice.
+
+CREATE TABLE IF NOT EXISTS categories (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    parent_id BIGINT REFERENCES categories(id),
+    path VARCHAR(1000) COLLATE "C" NOT NULL,
+    depth INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Los productos referencian la categoría por nombre, sin distinguir mayúsculas
+CREATE UNIQUE INDEX IF NOT EXISTS uk_category_name_lower ON categories(lower(name));
+
+CREATE INDEX IF NOT EXISTS idx_category_path ON categories(path);
+
+COMMENT ON TABLE categories IS 'Árbol de categorías del catálogo';
+COMMENT ON COLUMN categories.parent_id IS 'Categoría padre, o NULL para las categorías raíz';
+COMMENT ON COLUMN categories.path IS 'Ruta materializada con los IDs de los ancestros y el propio, p. ej. /3/17/';
+COMMENT ON COLUMN categories.depth IS 'Profundidad en el árbol (0 para las raíces)';
+
+-- Cada categoría plana pasa a ser una raíz; se conserva la grafía más frecuente
+INSERT INTO categories (id, name, path, depth)
+SELECT c.id, c.name, '/' || c.id || '/', 0
+FROM (
+    SELECT nextval('categories_id_seq') AS id, name
+    FROM (
+        SELECT DISTINCT ON (lower(category)) category AS name
+        FROM products
+        GROUP BY lower(category), category
+        ORDER BY lower(category), COUNT(*) DESC, category
+    ) names
+) c;
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS category_path VARCHAR(1000) COLLATE "C";
+
+COMMENT ON COLUMN products.category_path IS 'Ruta materializada de la categoría del producto';
+
+UPDATE products p
+SET category_path = c.path
+FROM categories c
+WHERE lower(p.category) = lower(c.name);
+
+CREATE INDEX IF NOT EXISTS idx_product_category_path_id ON products(category_path, id);
@@ -0,0 +1,17 @@
+-- Migración Flyway: Atributos de producto
+-- Versión: 6
+-- Descripción: Crea la tabla product_attributes con un par nombre-valor por fila
+-- (marca, color, talla...). Los filtros por atributos no se resuelven en SQL sino
+-- sobre el índice de bitmaps en memoria, que se carga desde esta tabla; la clave
+-- primaria sirve para leer los atributos de un producto.
+
+CREATE TABLE IF NOT EXISTS product_attributes (
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    attribute_name VARCHAR(50) NOT NULL,
+    attribute_value VARCHAR(100) NOT NULL,
+    PRIMARY KEY (product_id, attribute_name)
+);
+
+COMMENT ON TABLE product_attributes IS 'Atributos de los productos (marca, color, talla...)';
+COMMENT ON COLUMN product_attributes.attribute_name IS 'Nombre del atributo en minúsculas, p. ej. brand';
+COMMENT ON COLUMN product_attributes.attribute_value IS 'Valor del atributo, p. ej. Acme';
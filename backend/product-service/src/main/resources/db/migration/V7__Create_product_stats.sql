@@ -0,0 +1,17 @@
+-- Migración Flyway: Estadísticas de visitas de productos
+-- Versión: 7
+-- Descripción: Crea la tabla product_stats con la puntuación de popularidad de cada
+-- producto. Las visitas se cuentan en memoria y se vuelcan periódicamente en lotes;
+-- la puntuación decae exponencialmente y está referida al instante decayed_at.
+
+CREATE TABLE IF NOT EXISTS product_stats (
+    product_id BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    score DOUBLE PRECISION NOT NULL,
+    views BIGINT NOT NULL,
+    decayed_at BIGINT NOT NULL
+);
+
+COMMENT ON TABLE product_stats IS 'Visitas y puntuación de popularidad de los productos';
+COMMENT ON COLUMN product_stats.score IS 'Visitas ponderadas por 2^(-antigüedad / vida media), referidas a decayed_at';
+COMMENT ON COLUMN product_stats.views IS 'Visitas totales, sin decaimiento';
+COMMENT ON COLUMN product_stats.decayed_at IS 'Instante (ms desde epoch) al que está referida la puntuación';
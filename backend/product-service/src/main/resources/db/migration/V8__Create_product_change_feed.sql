@@ -0,0 +1,35 @@
+-- Migración Flyway: Feed de cambios del catálogo
+-- Versión: 8
+-- Descripción: Cada producto guarda el número de secuencia de su último cambio
+-- (change_seq) y las eliminaciones dejan una lápida en product_tombstones, de modo
+-- que GET /products/changes?since=N recorre solo lo cambiado desde N. Los números
+-- se asignan incrementando la única fila de product_change_sequence, cuyo bloqueo
+-- hace que las escrituras confirmen en orden de secuencia.
+
+-- Los productos existentes reciben su ID como primer número de secuencia
+ALTER TABLE products ADD COLUMN IF NOT EXISTS change_seq BIGINT;
+UPDATE products SET change_seq = id WHERE change_seq IS NULL;
+ALTER TABLE products ALTER COLUMN change_seq SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_product_change_seq ON products (change_seq);
+
+CREATE TABLE IF NOT EXISTS product_change_sequence (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    last_seq BIGINT NOT NULL,
+    compacted_seq BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO product_change_sequence (id, last_seq, compacted_seq)
+SELECT 1, COALESCE(MAX(id), 0), 0 FROM products
+ON CONFLICT (id) DO NOTHING;
+
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    change_seq BIGINT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_tombstone_deleted_at ON product_tombstones (deleted_at);
+
+COMMENT ON COLUMN products.change_seq IS 'Número de secuencia del último cambio del producto en el feed de cambios';
+COMMENT ON TABLE product_change_sequence IS 'Contador del feed de cambios (fila única) y marca de compactación de lápidas';
+COMMENT ON TABLE product_tombstones IS 'Productos eliminados, para los consumidores del feed de cambios; se compactan tras la retención';
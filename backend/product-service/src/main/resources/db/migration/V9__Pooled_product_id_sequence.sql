@@ -0,0 +1,34 @@
+-- Migración Flyway: Secuencia de IDs de producto por bloques
+-- Versión: 9
+-- Descripción: Los IDs de producto se toman de products_id_seq (creada por BIGSERIAL
+-- en V1) en bloques de 50: cada nextval reserva los 50 IDs anteriores al valor
+-- devuelto, que la instancia asigna sin volver a consultar la secuencia. Como
+-- Hibernate conoce el ID antes del INSERT, las altas se agrupan en lotes JDBC.
+-- El valor por defecto de la columna sigue usando la secuencia, así que las
+-- inserciones directas en SQL también reciben IDs únicos.
+
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+
+-- El bloque del siguiente nextval empieza después del último ID asignado, de modo
+-- que no se reutilizan los IDs de productos ya eliminados
+SELECT setval('products_id_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) FROM products),
+    (SELECT last_value FROM products_id_seq),
+    1), true);
+
+-- Con IDs por bloques, otra instancia puede crear un producto con un ID inferior
+-- al máximo existente. Cada instancia publica aquí el ID mínimo que aún puede
+-- asignar y lo renueva periódicamente; el filtro de IDs solo descarta los IDs
+-- inferiores al menor suelo de las instancias vivas.
+CREATE TABLE IF NOT EXISTS product_id_allocations (
+    instance_id VARCHAR(36) PRIMARY KEY,
+    floor_id BIGINT NOT NULL,
+    heartbeat_at BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_id_allocation_heartbeat ON product_id_allocations (heartbeat_at);
+
+COMMENT ON TABLE product_id_allocations IS 'ID mínimo que cada instancia puede asignar a un producto nuevo';
+COMMENT ON COLUMN product_id_allocations.instance_id IS 'Identificador aleatorio de la instancia, distinto en cada arranque';
+COMMENT ON COLUMN product_id_allocations.floor_id IS 'Ningún producto creado después por la instancia tendrá un ID menor';
+COMMENT ON COLUMN product_id_allocations.heartbeat_at IS 'Última renovación (ms desde epoch); caducada, la fila deja de contar';
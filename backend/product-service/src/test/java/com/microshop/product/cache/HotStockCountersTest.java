@@ -0,0 +1,265 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.dto.ProductSelectionDTO;
+import com.microshop.product.dto.ProductStockDTO;
+import com.microshop.product.event.CatalogChangedEvent;
+import com.microshop.product.exception.InsufficientStockException;
+import com.microshop.product.exception.ProductNotFoundException;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.service.ProductBulkAdminService;
+import com.microshop.product.service.ProductChangeFeedService;
+import com.microshop.product.service.ProductService;
+import com.microshop.product.service.ProductStockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de integración de HotStockCounters contra la base de datos de tests:
+ * reservas por bloques, volcado de las ventas y liberación de reservas.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("HotStockCounters Tests")
+class HotStockCountersTest {
+
+    private static final int BLOCK_SIZE = 10;
+    private static final long STALE_AFTER_MS = 30_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private ProductBulkAdminService productBulkAdminService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productId;
+    private HotStockCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        productId = productService.create(new ProductRequestDTO("Consola", "Edición limitada",
+                new BigDecimal("499.99"), 25, "Ofertas")).getId();
+        counters = new HotStockCounters(productRepository, productChangeFeedService, eventPublisher, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), List.of(productId), BLOCK_SIZE, STALE_AFTER_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM product_stock_reservations");
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Debería vender desde memoria reservando un bloque sin tocar el stock hasta el volcado")
+    void shouldSellFromReservedBlock() {
+        ProductStockDTO result = counters.tryDecrement(productId, 3).orElseThrow();
+
+        assertEquals(22, result.getStock());
+        assertEquals(Map.of("stock", 25, "reserved_stock", BLOCK_SIZE), stockRow());
+        assertEquals(BLOCK_SIZE, reservedUnits(counters.instanceId()));
+        assertFalse(counters.tryDecrement(productId + 1, 1).isPresent());
+    }
+
+    @Test
+    @DisplayName("El descuento en base de datos solo debería vender el stock no reservado")
+    void databaseDecrementShouldSkipReservedUnits() {
+        counters.tryDecrement(productId, 1);
+
+        productStockService.decrement(productId, 15);
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> productStockService.decrement(productId, 1));
+
+        assertEquals("Stock insuficiente para el producto con ID " + productId + ": disponibles 0, solicitadas 1",
+                ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("El volcado debería descontar las ventas del stock y de la reserva")
+    void flushShouldPersistSales() {
+        for (int i = 0; i < 4; i++) {
+            counters.tryDecrement(productId, 3);
+        }
+        long versionBefore = productRepository.findViewById(productId).orElseThrow().getVersion();
+
+        counters.flush(System.currentTimeMillis());
+
+        // 12 vendidas de dos bloques de 10: quedan 8 reservadas
+        assertEquals(Map.of("stock", 13, "reserved_stock", 8), stockRow());
+        assertEquals(8, reservedUnits(counters.instanceId()));
+        assertEquals(versionBefore + 1, productRepository.findViewById(productId).orElseThrow().getVersion());
+        assertEquals(13, productService.findById(productId).getStock());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar la venta cuando no queda stock sin reservar")
+    void shouldRejectWhenStockIsExhausted() {
+        assertTrue(counters.tryDecrement(productId, 20).isPresent());
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> counters.tryDecrement(productId, 6));
+
+        assertEquals("Stock insuficiente para el producto con ID " + productId + ": disponibles 5, solicitadas 6",
+                ex.getMessage());
+        assertTrue(counters.tryDecrement(productId, 5).isPresent());
+    }
+
+    @Test
+    @DisplayName("Las ventas concurrentes no deberían vender más que el stock reservado")
+    void concurrentSalesShouldNotOversell() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> sales = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                sales.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return counters.tryDecrement(productId, 5).isPresent();
+                    } catch (InsufficientStockException ex) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int sold = 0;
+            for (Future<Boolean> sale : sales) {
+                sold += sale.get() ? 5 : 0;
+            }
+
+            counters.flush(System.currentTimeMillis());
+
+            assertTrue(sold <= 25);
+            Map<String, Object> row = stockRow();
+            assertEquals(25 - sold, row.get("stock"));
+            assertEquals(row.get("reserved_stock"), reservedUnits(counters.instanceId()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("PUT no debería dejar el stock por debajo de las unidades reservadas")
+    void updateShouldNotDropStockBelowReserved() {
+        counters.tryDecrement(productId, 1);
+
+        assertThrows(InsufficientStockException.class, () -> productService.update(productId,
+                new ProductRequestDTO("Consola", "Edición limitada", new BigDecimal("499.99"), 5, "Ofertas")));
+
+        assertEquals(Map.of("stock", 25, "reserved_stock", BLOCK_SIZE), stockRow());
+    }
+
+    @Test
+    @DisplayName("Debería descartar el contador de los productos eliminados por lotes")
+    void catalogChangeShouldDiscardDeletedProducts() {
+        counters.tryDecrement(productId, 1);
+
+        productBulkAdminService.delete(new ProductSelectionDTO(List.of(productId), null));
+        counters.onCatalogChanged(CatalogChangedEvent.bulk(1));
+
+        assertThrows(ProductNotFoundException.class, () -> counters.tryDecrement(productId, 1));
+    }
+
+    @Test
+    @DisplayName("Debería dar por vendidas las reservas caducadas de otras instancias")
+    void shouldReleaseStaleReservations() {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("UPDATE products SET reserved_stock = 7 WHERE id = ?", productId);
+        jdbcTemplate.update("INSERT INTO product_stock_reservations (product_id, instance_id, units, heartbeat_at) "
+                + "VALUES (?, 'instancia-caida', 7, ?)", productId, now - STALE_AFTER_MS - 1);
+
+        assertEquals(0, counters.releaseStale(now - STALE_AFTER_MS - 1));
+        assertEquals(1, counters.releaseStale(now - STALE_AFTER_MS));
+
+        // Parte de las unidades puede estar vendida sin volcar: se descuentan todas
+        assertEquals(Map.of("stock", 18, "reserved_stock", 0), stockRow());
+        assertEquals(0, reservedUnits("instancia-caida"));
+    }
+
+    @Test
+    @DisplayName("Tras una caída no debería volver a vender las unidades vendidas sin volcar")
+    void recoveryShouldNotOversellUnflushedSales() {
+        counters.tryDecrement(productId, 4);
+        HotStockCounters survivor = new HotStockCounters(productRepository, productChangeFeedService, eventPublisher,
+                jdbcTemplate, transactionManager, new SimpleMeterRegistry(), List.of(productId), BLOCK_SIZE,
+                STALE_AFTER_MS);
+
+        assertEquals(1, survivor.releaseStale(System.currentTimeMillis() + 1));
+        assertEquals(Map.of("stock", 15, "reserved_stock", 0), stockRow());
+
+        // Si la instancia no había caído, sus ventas ya están descontadas y no se vuelven a volcar
+        counters.flush(System.currentTimeMillis());
+        assertEquals(Map.of("stock", 15, "reserved_stock", 0), stockRow());
+        assertEquals(0, survivor.tryDecrement(productId, 15).orElseThrow().getStock());
+    }
+
+    @Test
+    @DisplayName("Al detenerse debería volcar las ventas y devolver las unidades sin vender")
+    void shutdownShouldReleaseUnsoldUnits() {
+        counters.tryDecrement(productId, 4);
+
+        counters.releaseOnShutdown();
+
+        assertEquals(Map.of("stock", 21, "reserved_stock", 0), stockRow());
+        assertEquals(0, reservedUnits(counters.instanceId()));
+        assertFalse(counters.tryDecrement(productId, 1).isPresent());
+    }
+
+    // Métodos privados auxiliares
+
+    private Map<String, Object> stockRow() {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT stock, reserved_stock FROM products WHERE id = ?", productId);
+        return Map.of("stock", ((Number) row.get("stock")).intValue(),
+                "reserved_stock", ((Number) row.get("reserved_stock")).intValue());
+    }
+
+    private int reservedUnits(String instanceId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(units), 0) FROM product_stock_reservations "
+                + "WHERE product_id = ? AND instance_id = ?", Integer.class, productId, instanceId);
+    }
+}
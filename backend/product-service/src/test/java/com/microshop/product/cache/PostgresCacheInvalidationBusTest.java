@@ -0,0 +1,107 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.ProductServiceApplication;
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test de coherencia de cache entre dos instancias del servicio que comparten
+ * la misma base de datos PostgreSQL.
+ *
+ * Requiere una base de datos accesible: {@code PRODUCT_TEST_PG_URL=jdbc:postgresql://localhost:5432/microshopdb}
+ * (usuario y contraseña opcionales en {@code PRODUCT_TEST_PG_USERNAME} y {@code PRODUCT_TEST_PG_PASSWORD}).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("postgres")
+@EnabledIfEnvironmentVariable(named = "PRODUCT_TEST_PG_URL", matches = ".+")
+@DisplayName("PostgresCacheInvalidationBus Tests")
+class PostgresCacheInvalidationBusTest {
+
+    private static final long PROPAGATION_TIMEOUT_MS = 5_000;
+
+    private ConfigurableApplicationContext instanceA;
+    private ConfigurableApplicationContext instanceB;
+
+    @BeforeEach
+    void setUp() {
+        instanceA = startInstance();
+        instanceB = startInstance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        instanceA.close();
+        instanceB.close();
+    }
+
+    @Test
+    @DisplayName("Una actualización en una instancia debería invalidar la cache de la otra")
+    void shouldInvalidateCacheOfOtherInstanceAfterUpdate() throws Exception {
+        ProductService serviceA = instanceA.getBean(ProductService.class);
+        ProductService serviceB = instanceB.getBean(ProductService.class);
+
+        ProductResponseDTO created = serviceB.create(request("Original"));
+        assertEquals("Original", serviceA.findById(created.getId()).getName());
+
+        serviceB.update(created.getId(), request("Actualizado"));
+
+        assertEquals("Actualizado", awaitName(serviceA, created.getId(), "Actualizado"));
+        serviceB.delete(created.getId());
+    }
+
+    private String awaitName(ProductService service, Long id, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MS;
+        String name = service.findById(id).getName();
+        while (!expected.equals(name) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            name = service.findById(id).getName();
+        }
+        return name;
+    }
+
+    private static ProductRequestDTO request(String name) {
+        ProductRequestDTO request = new ProductRequestDTO();
+        request.setName(name);
+        request.setDescription("Producto de prueba de invalidación");
+        request.setPrice(new BigDecimal("10.00"));
+        request.setStock(1);
+        request.setCategory("Invalidation");
+        return request;
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(ProductServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + System.getenv("PRODUCT_TEST_PG_URL"),
+                        "spring.datasource.username=" + env("PRODUCT_TEST_PG_USERNAME", "microshop"),
+                        "spring.datasource.password=" + env("PRODUCT_TEST_PG_PASSWORD", "microshop123"),
+                        "spring.jpa.show-sql=false",
+                        "product.cache.invalidation.enabled=true",
+                        "product.cache.invalidation.poll-timeout-ms=100",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.enabled=false",
+                        "spring.cloud.service-registry.auto-registration.enabled=false")
+                .run();
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,79 @@
+package com.microshop.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microshop.product.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios de la aplicación de notificaciones de PostgresCacheInvalidationBus,
+ * sin base de datos.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("PostgresCacheInvalidationBus dispatch Tests")
+class PostgresCacheInvalidationDispatchTest {
+
+    private ApplicationEventPublisher eventPublisher;
+    private PostgresCacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        bus = new PostgresCacheInvalidationBus(mock(JdbcTemplate.class), new DataSourceProperties(),
+                eventPublisher, mock(ProductCache.class), new ObjectMapper(), "product_cache_invalidation",
+                100, 100);
+    }
+
+    @Test
+    @DisplayName("Debería seguir aplicando notificaciones después de una que falla")
+    void shouldKeepApplyingNotificationsAfterFailure() {
+        // El listener de la cache falla con el producto 1
+        doThrow(new IllegalStateException("listener roto")).when(eventPublisher).publishEvent(
+                argThat((Object event) -> event instanceof ProductChangedEvent changed
+                        && Long.valueOf(1L).equals(changed.getProductId())));
+
+        bus.dispatch(new PGNotification[] {
+                notification("{no es json"),
+                notification(payload(1L)),
+                notification(payload(2L))
+        });
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        List<Long> productIds = events.getAllValues().stream()
+                .map(event -> ((ProductChangedEvent) event).getProductId())
+                .toList();
+        assertEquals(List.of(1L, 2L), productIds);
+    }
+
+    // Métodos privados auxiliares
+
+    private static String payload(long productId) {
+        return "{\"origin\":\"otra-instancia\",\"type\":\"UPDATED\",\"productId\":" + productId
+                + ",\"previousCategory\":\"Periféricos\",\"currentCategory\":\"Periféricos\",\"catalog\":false}";
+    }
+
+    private static PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+}
@@ -0,0 +1,143 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.model.Product;
+import com.microshop.product.repository.ProductIdAllocationRepository;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.service.ProductChangeFeedService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test del protocolo de suelos de ProductIdFilter entre dos instancias que
+ * comparten la base de datos: una asigna IDs mientras la otra reconstruye y
+ * sincroniza su filtro sin parar.
+ *
+ * El filtro del contexto se desactiva para que solo cuenten los suelos de las
+ * dos instancias del test.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest(properties = "product.id-filter.enabled=false")
+@ActiveProfiles("test")
+@DisplayName("ProductIdFilter concurrency Tests")
+class ProductIdFilterConcurrencyTest {
+
+    private static final int ALLOCATIONS_PER_BLOCK = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
+    @Autowired
+    private ProductIdAllocationRepository productIdAllocationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(id -> jdbcTemplate.update("DELETE FROM products WHERE id = ?", id));
+    }
+
+    @Test
+    @DisplayName("Una reconstrucción concurrente con las altas de otra instancia no debería descartar ningún producto")
+    void rebuildRacingAllocationShouldNeverRejectCommittedProduct() throws Exception {
+        ProductIdFilter reader = filter();
+        ProductIdFilter writer = filter();
+        reader.register();
+        writer.register();
+        long first = nextBlockStart();
+        while (first < writer.floor()) {
+            first = nextBlockStart();
+        }
+        // El bloque intermedio queda sin usar, como si lo hubiera reservado una tercera instancia
+        nextBlockStart();
+        long second = nextBlockStart();
+        // La instancia lectora ya pasó a un bloque posterior: su suelo no protege los IDs de la otra
+        reader.onProductCreated(new ProductChangedEvent(ProductChangedEvent.Type.CREATED,
+                second + 10L * Product.ID_ALLOCATION_SIZE, null, null, "Filtro", false));
+        reader.rebuild();
+
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture<Void> syncing = CompletableFuture.runAsync(() -> {
+            while (!stop.get()) {
+                reader.rebuild();
+                reader.catchUp();
+            }
+        });
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            for (long block : new long[] {first, second}) {
+                for (int i = 0; i < ALLOCATIONS_PER_BLOCK; i++) {
+                    long id = block + i;
+                    transaction.executeWithoutResult(status -> {
+                        writer.holdFloorUntilCompletion();
+                        insert(id);
+                        writer.onProductCreated(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, id,
+                                null, null, "Filtro", false));
+                    });
+                    created.add(id);
+                    writer.catchUp();
+                    assertTrue(reader.mightContain(id), "El filtro descartó el producto confirmado " + id);
+                }
+            }
+        } finally {
+            stop.set(true);
+            syncing.get(30, TimeUnit.SECONDS);
+        }
+
+        reader.catchUp();
+        for (Long id : created) {
+            assertTrue(reader.mightContain(id), "El filtro descartó el producto confirmado " + id);
+        }
+        // El suelo de la otra instancia ya pasó el primer bloque: sus IDs libres se descartan
+        assertFalse(reader.mightContain(first + ALLOCATIONS_PER_BLOCK));
+    }
+
+    // Métodos privados auxiliares
+
+    private ProductIdFilter filter() {
+        return new ProductIdFilter(productRepository, productChangeFeedService, productIdAllocationRepository,
+                transactionManager, new SimpleMeterRegistry(), true, 600_000);
+    }
+
+    /**
+     * Reserva un bloque de IDs de la secuencia, igual que Hibernate.
+     */
+    private long nextBlockStart() {
+        long hi = jdbcTemplate.queryForObject("SELECT nextval('products_id_seq')", Long.class);
+        return hi - (Product.ID_ALLOCATION_SIZE - 1);
+    }
+
+    private void insert(long id) {
+        jdbcTemplate.update("INSERT INTO products (id, name, price, stock, category, created_at, version, " +
+                "change_seq) VALUES (?, ?, 1.00, 1, 'Filtro', CURRENT_TIMESTAMP, 0, ?)",
+                id, "Producto " + id, productChangeFeedService.nextSequence());
+    }
+}
@@ -0,0 +1,251 @@
+package com.microshop.product.cache;
+
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.model.ProductIdAllocation;
+import com.microshop.product.repository.ProductIdAllocationRepository;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.service.ProductChangeFeedService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ProductIdFilter.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductIdFilter Tests")
+class ProductIdFilterTest {
+
+    private ProductRepository productRepository;
+    private ProductChangeFeedService productChangeFeedService;
+    private ProductIdAllocationRepository productIdAllocationRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductIdFilter productIdFilter;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productChangeFeedService = mock(ProductChangeFeedService.class);
+        productIdAllocationRepository = mock(ProductIdAllocationRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        productIdFilter = new ProductIdFilter(productRepository, productChangeFeedService,
+                productIdAllocationRepository, mock(PlatformTransactionManager.class), meterRegistry, true, 600_000);
+    }
+
+    @Test
+    @DisplayName("Debería dejar pasar todos los IDs mientras no se haya construido")
+    void shouldPassEverythingBeforeRebuild() {
+        assertTrue(productIdFilter.mightContain(1L));
+        assertTrue(productIdFilter.mightContain(999L));
+    }
+
+    @Test
+    @DisplayName("Debería descartar los IDs inexistentes dentro del rango cubierto")
+    void shouldRejectMissingIdsWithinCoveredRange() {
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 64L, 130L));
+        floorAt(131L);
+
+        productIdFilter.rebuild();
+
+        assertTrue(productIdFilter.mightContain(1L));
+        assertTrue(productIdFilter.mightContain(64L));
+        assertTrue(productIdFilter.mightContain(130L));
+        assertFalse(productIdFilter.mightContain(3L));
+        assertFalse(productIdFilter.mightContain(129L));
+        assertEquals(2.0, meterRegistry.get("product.id_filter.rejected").counter().count());
+        assertEquals(3.0, meterRegistry.get("product.id_filter.passed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Debería dejar pasar los IDs posteriores al último ID cubierto")
+    void shouldPassIdsAboveCoveredRange() {
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L));
+        floorAt(3L);
+
+        productIdFilter.rebuild();
+
+        assertTrue(productIdFilter.mightContain(3L));
+        assertTrue(productIdFilter.mightContain(10_000L));
+    }
+
+    @Test
+    @DisplayName("Debería reflejar altas y bajas sin esperar a la reconstrucción")
+    void shouldApplyCreatesAndDeletes() {
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 500L));
+        floorAt(501L);
+        productIdFilter.rebuild();
+
+        productIdFilter.onProductDeleted(ProductChangedEvent.deleted(2L, "Electronics"));
+        productIdFilter.onProductCreated(ProductChangedEvent.remote(ProductChangedEvent.Type.CREATED,
+                3L, null, "Electronics"));
+        productIdFilter.onProductCreated(ProductChangedEvent.remote(ProductChangedEvent.Type.CREATED,
+                10_000L, null, "Electronics"));
+
+        assertFalse(productIdFilter.mightContain(2L));
+        assertTrue(productIdFilter.mightContain(3L));
+        assertTrue(productIdFilter.mightContain(10_000L));
+    }
+
+    @Test
+    @DisplayName("Debería dejar pasar los IDs de bloques que otra instancia aún puede asignar")
+    void shouldPassIdsAboveOtherInstancesFloor() {
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 500L));
+        // Otra instancia tiene el bloque 51-100, reservado antes que el del ID 500
+        floorAt(51L);
+
+        productIdFilter.rebuild();
+
+        assertFalse(productIdFilter.mightContain(3L));
+        assertTrue(productIdFilter.mightContain(60L));
+        assertTrue(productIdFilter.mightContain(499L));
+    }
+
+    @Test
+    @DisplayName("Debería marcar las altas de otras instancias leídas del feed de cambios antes de subir el suelo")
+    void shouldCatchUpWithChangeFeed() {
+        when(productChangeFeedService.horizon()).thenReturn(10L);
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 500L));
+        floorAt(51L);
+        productIdFilter.rebuild();
+        assertTrue(productIdFilter.mightContain(60L));
+
+        // La otra instancia crea el ID 60 y pasa a un bloque posterior al del ID 500
+        when(productChangeFeedService.horizon()).thenReturn(12L);
+        when(productRepository.findChanges(eq(10L), eq(12L), any(Limit.class)))
+                .thenReturn(List.of(new ProductChangeDTO(12L, 60L, false)));
+        floorAt(501L);
+        productIdFilter.catchUp();
+
+        assertTrue(productIdFilter.mightContain(60L));
+        assertFalse(productIdFilter.mightContain(61L));
+        productIdFilter.catchUp();
+        verify(productRepository).findChanges(eq(12L), eq(12L), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Debería publicar como suelo el inicio posible del bloque del último ID asignado")
+    void shouldPublishFloorBelowLastAssignedBlock() {
+        when(productRepository.findMaxId()).thenReturn(200L);
+        productIdFilter.register();
+        assertEquals(201L, productIdFilter.floor());
+
+        productIdFilter.onProductCreated(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, 260L, null,
+                null, "Electronics", false));
+        assertEquals(211L, productIdFilter.floor());
+
+        // Las altas de otras instancias no mueven el suelo de esta
+        productIdFilter.onProductCreated(ProductChangedEvent.remote(ProductChangedEvent.Type.CREATED,
+                900L, null, "Electronics"));
+        assertEquals(211L, productIdFilter.floor());
+        verify(productIdAllocationRepository, atLeastOnce()).save(any(ProductIdAllocation.class));
+    }
+
+    @Test
+    @DisplayName("Debería escribir el suelo solo cuando cambia")
+    void shouldWriteFloorOnlyWhenItChanges() {
+        when(productRepository.findMaxId()).thenReturn(200L);
+        productIdFilter.register();
+        productIdFilter.catchUp();
+        productIdFilter.catchUp();
+        verify(productIdAllocationRepository, times(1)).save(any(ProductIdAllocation.class));
+
+        productIdFilter.onProductCreated(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, 260L, null,
+                null, "Electronics", false));
+        productIdFilter.catchUp();
+        verify(productIdAllocationRepository, times(2)).save(any(ProductIdAllocation.class));
+    }
+
+    @Test
+    @DisplayName("No debería sincronizar una vez cerrado el contexto")
+    void shouldStopSyncingOnceContextCloses() {
+        productIdFilter.onContextClosed();
+
+        productIdFilter.catchUp();
+        productIdFilter.rebuild();
+
+        verifyNoInteractions(productIdAllocationRepository, productChangeFeedService);
+        verify(productRepository, never()).streamAllIds();
+    }
+
+    @Test
+    @DisplayName("Debería retener el suelo mientras una transacción de alta está en curso")
+    void shouldHoldFloorUntilTransactionCompletes() {
+        when(productRepository.findMaxId()).thenReturn(200L);
+        productIdFilter.register();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productIdFilter.holdFloorUntilCompletion();
+            // Otra transacción pasa a un bloque posterior mientras la primera sigue abierta
+            productIdFilter.onProductCreated(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, 400L, null,
+                    null, "Electronics", false));
+            assertEquals(201L, productIdFilter.floor());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(351L, productIdFilter.floor());
+    }
+
+    @Test
+    @DisplayName("Debería contar como falsos positivos solo los IDs del rango cubierto")
+    void shouldTrackFalsePositiveRatio() {
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L));
+        floorAt(3L);
+        productIdFilter.rebuild();
+
+        productIdFilter.mightContain(1L);
+        productIdFilter.mightContain(2L);
+        productIdFilter.recordFalsePositive(2L);
+        productIdFilter.recordFalsePositive(50L);
+
+        assertEquals(1.0, meterRegistry.get("product.id_filter.false_positives").counter().count());
+        assertEquals(0.5, meterRegistry.get("product.id_filter.false_positive.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("No debería descartar nada si está desactivado")
+    void shouldPassEverythingWhenDisabled() {
+        ProductIdFilter disabled = new ProductIdFilter(productRepository, productChangeFeedService,
+                productIdAllocationRepository, mock(PlatformTransactionManager.class), meterRegistry, false, 600_000);
+
+        disabled.rebuild();
+
+        assertTrue(disabled.mightContain(3L));
+    }
+
+    /**
+     * Fija el menor suelo de IDs de las instancias vivas.
+     */
+    private void floorAt(long floor) {
+        when(productIdAllocationRepository.findMinFloor(anyLong())).thenReturn(Optional.of(floor));
+    }
+}
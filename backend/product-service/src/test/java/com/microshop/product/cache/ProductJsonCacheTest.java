@@ -0,0 +1,91 @@
+package com.microshop.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microshop.product.dto.ProductBatchItemDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests unitarios para ProductJsonCache.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductJsonCache Tests")
+class ProductJsonCacheTest {
+
+    private ObjectMapper objectMapper;
+    private ProductJsonCache productJsonCache;
+    private ProductResponseDTO laptop;
+    private ProductResponseDTO mouse;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        productJsonCache = new ProductJsonCache(
+                new ConcurrentMapCacheManager(ProductJsonCache.PRODUCT_JSON), objectMapper);
+        laptop = new ProductResponseDTO(1L, "Laptop HP", "Laptop HP 15.6 pulgadas", new BigDecimal("899.99"),
+                10, "Electronics", LocalDateTime.of(2024, 1, 1, 10, 30), 0L);
+        mouse = new ProductResponseDTO(2L, "Mouse \"Logitech\"", null, new BigDecimal("29.90"),
+                50, "Accessories", LocalDateTime.of(2024, 2, 1, 8, 0), 3L);
+    }
+
+    @Test
+    @DisplayName("Debería reutilizar el fragmento mientras el producto no cambie")
+    void shouldReuseFragmentForUnchangedProduct() {
+        byte[] first = productJsonCache.toJson(laptop);
+        byte[] second = productJsonCache.toJson(copyOf(laptop));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Debería volver a serializar cuando el producto cambia o se invalida")
+    void shouldReserializeChangedOrEvictedProduct() throws Exception {
+        byte[] first = productJsonCache.toJson(laptop);
+
+        ProductResponseDTO changed = copyOf(laptop);
+        changed.setPrice(new BigDecimal("799.99"));
+        byte[] updated = productJsonCache.toJson(changed);
+        assertEquals(objectMapper.writeValueAsString(changed), new String(updated, StandardCharsets.UTF_8));
+
+        productJsonCache.onProductChanged(ProductChangedEvent.deleted(1L, "Electronics"));
+        assertNotSame(updated, productJsonCache.toJson(changed));
+        assertNotSame(first, updated);
+    }
+
+    @Test
+    @DisplayName("Debería producir el mismo JSON que Jackson al concatenar fragmentos")
+    void shouldMatchJacksonOutputWhenConcatenating() throws Exception {
+        productJsonCache.toJson(laptop);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(laptop, mouse)),
+                new String(productJsonCache.toJsonArray(List.of(laptop, mouse)), StandardCharsets.UTF_8));
+        assertEquals("[]", new String(productJsonCache.toJsonArray(List.of()), StandardCharsets.UTF_8));
+
+        List<ProductBatchItemDTO> batch = List.of(ProductBatchItemDTO.found(mouse),
+                ProductBatchItemDTO.notFound(999L), ProductBatchItemDTO.found(laptop));
+        assertEquals(objectMapper.writeValueAsString(batch),
+                new String(productJsonCache.toBatchJsonArray(batch), StandardCharsets.UTF_8));
+    }
+
+    private static ProductResponseDTO copyOf(ProductResponseDTO product) {
+        return new ProductResponseDTO(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), product.getCategory(), product.getCreatedAt(),
+                product.getVersion());
+    }
+}
@@ -0,0 +1,163 @@
+package com.microshop.product.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microshop.product.cache.CategoryTreeCache;
+import com.microshop.product.dto.CategoryRequestDTO;
+import com.microshop.product.dto.ProductRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests de integración para CategoryController.
+ *
+ * Las recargas del árbol en memoria se ejecutan tras confirmar la transacción, que
+ * en estos tests nunca se confirma: cada test recarga el árbol explícitamente.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("CategoryController Integration Tests")
+class CategoryControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    private Long electronicsId;
+    private Long phonesId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Descarta categorías de otros tests, deshechas al terminar su transacción
+        categoryTreeCache.reload();
+        electronicsId = createCategory("Electrónica", null);
+        phonesId = createCategory("Teléfonos", electronicsId);
+        createCategory("Accesorios", electronicsId);
+        createProduct("Portátil", "Electrónica");
+        createProduct("Móvil", "Teléfonos");
+        createProduct("Camiseta", "Ropa");
+        categoryTreeCache.reload();
+    }
+
+    @Test
+    @DisplayName("Debería devolver el árbol de categorías anidado y ordenado por nombre")
+    void shouldGetCategoryTree() throws Exception {
+        mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Electrónica')].children[0].name").value("Accesorios"))
+                .andExpect(jsonPath("$[?(@.name == 'Electrónica')].children[1].name").value("Teléfonos"))
+                .andExpect(jsonPath("$[?(@.name == 'Ropa')].depth").value(0));
+    }
+
+    @Test
+    @DisplayName("Debería devolver las migas de pan desde la raíz")
+    void shouldGetBreadcrumb() throws Exception {
+        mockMvc.perform(get("/categories/{id}/breadcrumb", phonesId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Electrónica"))
+                .andExpect(jsonPath("$[1].name").value("Teléfonos"))
+                .andExpect(jsonPath("$[1].depth").value(1));
+    }
+
+    @Test
+    @DisplayName("Debería paginar los productos de todo el subárbol")
+    void shouldPaginateSubtreeProducts() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/categories/{id}/products", electronicsId)
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Portátil"))
+                .andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/categories/{id}/products", electronicsId)
+                .param("limit", "1")
+                .param("cursor", firstPage.getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Móvil"))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Debería limitar los productos de una subcategoría a su subárbol")
+    void shouldGetOnlyChildCategoryProducts() throws Exception {
+        mockMvc.perform(get("/categories/{id}/products", phonesId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Móvil"));
+    }
+
+    @Test
+    @DisplayName("Debería retornar 404 para una categoría inexistente")
+    void shouldReturn404WhenCategoryNotFound() throws Exception {
+        mockMvc.perform(get("/categories/{id}/breadcrumb", 999999))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Categoría no encontrada"));
+
+        mockMvc.perform(get("/categories/{id}/products", 999999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un nombre de categoría duplicado sin distinguir mayúsculas")
+    void shouldRejectDuplicateCategoryName() throws Exception {
+        mockMvc.perform(post("/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CategoryRequestDTO("electrónica", null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería retornar 404 si la categoría padre no existe")
+    void shouldReturn404WhenParentNotFound() throws Exception {
+        mockMvc.perform(post("/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CategoryRequestDTO("Tablets", 999999L))))
+                .andExpect(status().isNotFound());
+    }
+
+    // Métodos privados auxiliares
+
+    private Long createCategory(String name, Long parentId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CategoryRequestDTO(name, parentId))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private void createProduct(String name, String category) throws Exception {
+        ProductRequestDTO request = new ProductRequestDTO(name, name + " de prueba",
+                new BigDecimal("99.99"), 5, category);
+        mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+}
@@ -1,22 +1,44 @@
 package com.microshop.product.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microshop.product.cache.ProductCache;
+import com.microshop.product.cache.ProductJsonCache;
+import com.microshop.product.dto.ProductBatchRequestDTO;
 import com.microshop.product.dto.ProductRequestDTO;
 import com.microshop.product.model.Product;
 import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.search.ProductAttributeIndex;
+import com.microshop.product.search.ProductCatalogReplica;
+import com.microshop.product.search.ProductFacetIndex;
+import com.microshop.product.search.ProductPopularityIndex;
+import com.microshop.product.search.ProductSuggestIndex;
+import com.microshop.product.search.ProductTextIndex;
+import com.microshop.product.service.ProductChangeFeedService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -42,12 +64,41 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductJsonCache productJsonCache;
+
+    @Autowired
+    private ProductTextIndex productTextIndex;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductCatalogReplica productCatalogReplica;
+
+    @Autowired
+    private ProductAttributeIndex productAttributeIndex;
+
+    @Autowired
+    private ProductPopularityIndex productPopularityIndex;
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
     private Product testProduct;
 
     @BeforeEach
     void setUp() {
         productRepository.deleteAll();
-        
+        productCache.clear();
+        productJsonCache.clear();
+
         testProduct = new Product();
         testProduct.setName("Test Laptop");
         testProduct.setDescription("Test Laptop Description");
@@ -68,6 +119,77 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].price").value(999.99));
     }
 
+    @Test
+    @DisplayName("Debería paginar el listado con cursor")
+    void shouldPaginateProductsWithCursor() throws Exception {
+        Product cheaper = new Product();
+        cheaper.setName("Test Mouse");
+        cheaper.setDescription("Test Mouse Description");
+        cheaper.setPrice(new BigDecimal("29.99"));
+        cheaper.setStock(50);
+        cheaper.setCategory("Electronics");
+        productRepository.save(cheaper);
+
+        String nextCursor = mockMvc.perform(get("/products")
+                .param("sort", "price")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test Mouse"))
+                .andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/products")
+                .param("sort", "price")
+                .param("limit", "1")
+                .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test Laptop"))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Debería paginar por ID con el parámetro after")
+    void shouldPaginateProductsAfterId() throws Exception {
+        mockMvc.perform(get("/products")
+                .param("after", String.valueOf(testProduct.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Debería retornar 400 con un cursor inválido")
+    void shouldReturn400WhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/products")
+                .param("sort", "created_at")
+                .param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería exportar el catálogo en formato NDJSON")
+    void shouldExportCatalogAsNdjson() throws Exception {
+        Product product2 = new Product();
+        product2.setName("Test Mouse");
+        product2.setDescription("Test Mouse Description");
+        product2.setPrice(new BigDecimal("29.99"));
+        product2.setStock(50);
+        product2.setCategory("Electronics");
+        productRepository.save(product2);
+
+        String body = mockMvc.perform(get("/products/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ProductController.NDJSON_MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(body.endsWith("\n"));
+        assertEquals("Test Laptop", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("Test Mouse", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
     @Test
     @DisplayName("Debería obtener un producto por ID")
     void shouldGetProductById() throws Exception {
@@ -88,6 +210,37 @@ class ProductControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Debería obtener productos por lote conservando el orden")
+    void shouldGetProductsBatchInRequestOrder() throws Exception {
+        mockMvc.perform(get("/products/batch")
+                .param("ids", "999," + testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(999))
+                .andExpect(jsonPath("$[0].found").value(false))
+                .andExpect(jsonPath("$[1].found").value(true))
+                .andExpect(jsonPath("$[1].product.name").value("Test Laptop"));
+    }
+
+    @Test
+    @DisplayName("Debería obtener productos por lote con la lista en el cuerpo")
+    void shouldPostProductsBatch() throws Exception {
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new ProductBatchRequestDTO(List.of(testProduct.getId(), 999L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].product.id").value(testProduct.getId()))
+                .andExpect(jsonPath("$[1].found").value(false));
+
+        mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Debería buscar productos por categoría")
     void shouldSearchProductsByCategory() throws Exception {
@@ -110,6 +263,475 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].category").value("Electronics"));
     }
 
+    @Test
+    @DisplayName("Debería filtrar por rango de precio y paginar por nombre dentro de una categoría")
+    void shouldSearchCategoryByPriceRangeSortedByName() throws Exception {
+        for (String[] values : new String[][] {{"Zoom Webcam", "60.00"}, {"Cable | USB-C", "20.00"},
+                {"Mouse", "25.00"}, {"Adaptador", "5.00"}}) {
+            Product product = new Product();
+            product.setName(values[0]);
+            product.setDescription(values[0] + " Description");
+            product.setPrice(new BigDecimal(values[1]));
+            product.setStock(5);
+            product.setCategory("Electronics");
+            productRepository.save(product);
+        }
+
+        // El nombre del cursor contiene el separador interno del cursor
+        String nextCursor = mockMvc.perform(get("/products/search")
+                .param("category", "electronics")
+                .param("minPrice", "10")
+                .param("maxPrice", "999.99")
+                .param("sort", "name")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Cable | USB-C"))
+                .andReturn().getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/products/search")
+                .param("category", "electronics")
+                .param("minPrice", "10")
+                .param("maxPrice", "999.99")
+                .param("sort", "name")
+                .param("limit", "5")
+                .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Mouse"))
+                .andExpect(jsonPath("$[1].name").value("Zoom Webcam"))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/products/search")
+                .param("category", "Electronics")
+                .param("minPrice", "25")
+                .param("sort", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].name").value("Mouse"))
+                .andExpect(jsonPath("$[2].name").value("Test Laptop"));
+
+        mockMvc.perform(get("/products/search")
+                .param("category", "Electronics")
+                .param("minPrice", "50")
+                .param("maxPrice", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products")
+                .param("sort", "name"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería buscar productos por texto ordenados por relevancia")
+    void shouldSearchProductsByText() throws Exception {
+        Product mouse = new Product();
+        mouse.setName("Ratón inalámbrico");
+        mouse.setDescription("Ratón compatible con cualquier laptop");
+        mouse.setPrice(new BigDecimal("29.99"));
+        mouse.setStock(50);
+        mouse.setCategory("Electronics");
+        mouse = productRepository.save(mouse);
+        productTextIndex.rebuild();
+
+        mockMvc.perform(get("/products/search/text")
+                .param("q", "LAPTOP"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(testProduct.getId()))
+                .andExpect(jsonPath("$[1].id").value(mouse.getId()));
+
+        mockMvc.perform(get("/products/search/text")
+                .param("q", "raton"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Ratón inalámbrico"));
+
+        mockMvc.perform(get("/products/search/text")
+                .param("q", "inalambirco")
+                .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(mouse.getId()));
+
+        mockMvc.perform(get("/products/search/text")
+                .param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería sugerir categorías y productos por prefijo")
+    void shouldSuggestByPrefix() throws Exception {
+        productSuggestIndex.rebuild();
+
+        mockMvc.perform(get("/products/suggest")
+                .param("prefix", "ele"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30, public"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].text").value("Electronics"))
+                .andExpect(jsonPath("$[0].type").value("CATEGORY"));
+
+        mockMvc.perform(get("/products/suggest")
+                .param("prefix", "test l"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Test Laptop"))
+                .andExpect(jsonPath("$[0].productId").value(testProduct.getId()));
+
+        mockMvc.perform(get("/products/suggest")
+                .param("prefix", "test")
+                .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería devolver los recuentos de facetas y mantenerlos al modificar productos")
+    void shouldCountFacets() throws Exception {
+        productFacetIndex.rebuild();
+
+        mockMvc.perform(get("/products/facets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.categories[0].category").value("Electronics"))
+                .andExpect(jsonPath("$.categories[0].count").value(1))
+                .andExpect(jsonPath("$.priceRanges[5].from").value(500))
+                .andExpect(jsonPath("$.priceRanges[5].count").value(1));
+
+        ProductRequestDTO update = new ProductRequestDTO();
+        update.setName("Test Laptop");
+        update.setDescription("Test Laptop Description");
+        update.setPrice(new BigDecimal("49.99"));
+        update.setStock(10);
+        update.setCategory("Outlet");
+        mockMvc.perform(put("/products/{id}", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        // La transacción del test no se confirma: la reconciliación incorpora el cambio
+        productFacetIndex.rebuild();
+
+        mockMvc.perform(get("/products/facets")
+                .param("category", "outlet")
+                .param("minPrice", "25")
+                .param("maxPrice", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.categories.length()").value(1))
+                .andExpect(jsonPath("$.categories[0].category").value("Outlet"))
+                .andExpect(jsonPath("$.priceRanges[1].count").value(1))
+                .andExpect(jsonPath("$.priceRanges[5].count").value(0));
+
+        mockMvc.perform(get("/products/facets")
+                .param("minPrice", "30"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería filtrar y ordenar el catálogo desde la réplica en memoria")
+    void shouldQueryCatalog() throws Exception {
+        Product mouse = new Product();
+        mouse.setName("Test Mouse");
+        mouse.setDescription("Test Mouse Description");
+        mouse.setPrice(new BigDecimal("19.99"));
+        mouse.setStock(0);
+        mouse.setCategory("Electronics");
+        mouse = productRepository.save(mouse);
+        Product monitor = new Product();
+        monitor.setName("Test Monitor");
+        monitor.setDescription("Test Monitor Description");
+        monitor.setPrice(new BigDecimal("249.99"));
+        monitor.setStock(3);
+        monitor.setCategory("Electronics");
+        monitor = productRepository.save(monitor);
+        productCatalogReplica.rebuild();
+
+        mockMvc.perform(get("/products/query")
+                .param("category", "electronics")
+                .param("sort", "price")
+                .param("order", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(testProduct.getId()))
+                .andExpect(jsonPath("$[2].id").value(mouse.getId()));
+
+        mockMvc.perform(get("/products/query")
+                .param("minPrice", "10")
+                .param("maxPrice", "999.99")
+                .param("inStock", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(monitor.getId()));
+
+        // Consulta que se usa mientras la réplica no está construida
+        List<Long> fallback = productRepository.queryCatalog("ELECTRONICS", new BigDecimal("10"), null, true,
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")), Limit.of(20)).stream()
+                .map(product -> product.getId())
+                .toList();
+        assertEquals(List.of(testProduct.getId(), monitor.getId()), fallback);
+
+        mockMvc.perform(get("/products/query")
+                .param("order", "up"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/query")
+                .param("minPrice", "50")
+                .param("maxPrice", "50"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería guardar atributos y filtrar por ellos con bitmaps")
+    void shouldFilterByAttributes() throws Exception {
+        Long redShirt = createWithAttributes("Camiseta roja", Map.of("brand", "Acme", "color", "Rojo", "size", "M"));
+        Long blueShirt = createWithAttributes("Camiseta azul", Map.of("brand", "acme", "color", "Azul", "size", "XL"));
+        createWithAttributes("Pantalón", Map.of("brand", "Globex", "color", "Rojo"));
+        productAttributeIndex.rebuild();
+
+        mockMvc.perform(get("/products/{id}/attributes", blueShirt))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.brand").value("acme"))
+                .andExpect(jsonPath("$.size").value("XL"));
+
+        MvcResult firstPage = mockMvc.perform(get("/products/filter")
+                .param("q", "brand:ACME AND (color:rojo OR NOT size:m)")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(redShirt))
+                .andExpect(header().exists(ProductController.NEXT_CURSOR_HEADER))
+                .andReturn();
+        mockMvc.perform(get("/products/filter")
+                .param("q", "brand:ACME AND (color:rojo OR NOT size:m)")
+                .param("limit", "1")
+                .param("cursor", firstPage.getResponse().getHeader(ProductController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(blueShirt))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/products/filter").param("q", "brand:acme AND"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/{id}/attributes", 999999))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Debería ordenar los productos populares por visitas volcadas por lotes")
+    void shouldRankPopularProducts() throws Exception {
+        Product shirt = productRepository.save(new Product("Camiseta", "Camiseta básica",
+                new BigDecimal("9.99"), 5, "Ropa"));
+        Product jacket = productRepository.save(new Product("Chaqueta", "Chaqueta de invierno",
+                new BigDecimal("59.99"), 5, "Ropa"));
+        viewProduct(testProduct.getId(), 1);
+        viewProduct(shirt.getId(), 3);
+        viewProduct(jacket.getId(), 2);
+        productPopularityIndex.flush();
+        viewProduct(jacket.getId(), 2);
+        productPopularityIndex.flush();
+        productPopularityIndex.rebuild();
+
+        mockMvc.perform(get("/products/popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(jacket.getId()))
+                .andExpect(jsonPath("$[1].id").value(shirt.getId()))
+                .andExpect(jsonPath("$[2].id").value(testProduct.getId()));
+        mockMvc.perform(get("/products/popular").param("category", "ROPA").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(jacket.getId()));
+        mockMvc.perform(get("/products/popular").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería devolver los cambios del catálogo en orden de secuencia")
+    void shouldReturnCatalogChangesSinceSequence() throws Exception {
+        Long mouseId = createProduct("Ratón");
+        Long keyboardId = createProduct("Teclado");
+        ProductRequestDTO update = new ProductRequestDTO("Ratón inalámbrico", "Ratón de prueba",
+                new BigDecimal("24.99"), 5, "Electronics");
+        mockMvc.perform(put("/products/{id}", mouseId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/products/{id}", keyboardId))
+                .andExpect(status().isNoContent());
+
+        // Cada producto aparece una vez con su último cambio; el eliminado, como lápida
+        mockMvc.perform(get("/products/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(2))
+                .andExpect(jsonPath("$.changes[0].productId").value(mouseId))
+                .andExpect(jsonPath("$.changes[0].deleted").value(false))
+                .andExpect(jsonPath("$.changes[0].product.name").value("Ratón inalámbrico"))
+                .andExpect(jsonPath("$.changes[1].productId").value(keyboardId))
+                .andExpect(jsonPath("$.changes[1].deleted").value(true))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        MvcResult firstPage = mockMvc.perform(get("/products/changes").param("since", "0").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].productId").value(mouseId))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        long lastSeq = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("lastSeq").asLong();
+        mockMvc.perform(get("/products/changes").param("since", String.valueOf(lastSeq)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].productId").value(keyboardId))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        assertEquals(1, productChangeFeedService.compactTombstones(LocalDateTime.now().plusSeconds(1)));
+        mockMvc.perform(get("/products/changes").param("since", String.valueOf(lastSeq)))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/products/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1));
+        mockMvc.perform(get("/products/changes").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería importar productos de forma masiva con un resultado por elemento")
+    @ExtendWith(OutputCaptureExtension.class)
+    void shouldImportProductsInBulk(CapturedOutput output) throws Exception {
+        String body = "["
+                + "{\"name\": \"Teclado\", \"price\": 49.99, \"stock\": 10, \"category\": \"Electronics\"},"
+                + "{\"name\": \"Sin precio\", \"stock\": 1, \"category\": \"Electronics\"},"
+                + "{\"id\": " + testProduct.getId() + ", \"name\": \"Test Laptop Pro\", \"price\": 1099.99,"
+                + " \"stock\": 8, \"category\": \"Electronics\"},"
+                + "{\"id\": 999999, \"name\": \"Fantasma\", \"price\": 1, \"stock\": 1, \"category\": \"Otros\"},"
+                + "{\"name\": \"Precio texto\", \"price\": \"caro\", \"stock\": 1, \"category\": \"Otros\"},"
+                + "{\"name\": \"Camiseta\", \"price\": 9.99, \"stock\": 5, \"category\": \"Ropa\","
+                + " \"attributes\": {\"color\": \"rojo\"}}"
+                + "]";
+
+        MvcResult result = mockMvc.perform(post("/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.items.length()").value(6))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.items[2].status").value("UPDATED"))
+                .andExpect(jsonPath("$.items[2].id").value(testProduct.getId()))
+                .andExpect(jsonPath("$.items[3].error").value("Producto no encontrado con ID: 999999"))
+                .andExpect(jsonPath("$.items[4].status").value("FAILED"))
+                .andExpect(jsonPath("$.items[5].index").value(5))
+                .andReturn();
+        // Los elementos válidos se guardan en un solo bloque, sin reintentarlos uno a uno
+        assertFalse(output.getOut().contains("se reintenta elemento a elemento"));
+        Long shirtId = objectMapper.readTree(result.getResponse().getContentAsString())
+                .at("/items/5/id").asLong();
+
+        mockMvc.perform(get("/products/{id}", testProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Laptop Pro"));
+        mockMvc.perform(get("/products/{id}/attributes", shirtId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.color").value("rojo"));
+        mockMvc.perform(get("/products/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(3));
+        mockMvc.perform(post("/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"Roto\""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("La importación CSV debería responder 501 si la base de datos no es PostgreSQL")
+    void shouldRejectCsvImportWithoutPostgres() throws Exception {
+        mockMvc.perform(post("/products/import")
+                .contentType("text/csv")
+                .content("id,name,description,price,stock,category\n,Teclado,,49.99,10,Electronics\n"))
+                .andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    @DisplayName("Debería descontar y reponer stock de forma atómica")
+    void shouldDecrementAndIncrementStock() throws Exception {
+        mockMvc.perform(post("/products/{id}/stock/decrement", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(testProduct.getId()))
+                .andExpect(jsonPath("$.stock").value(7))
+                .andExpect(jsonPath("$.version").value(testProduct.getVersion() + 1));
+
+        mockMvc.perform(post("/products/{id}/stock/decrement", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 8}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(
+                        "Stock insuficiente para el producto con ID " + testProduct.getId()
+                                + ": disponibles 7, solicitadas 8"));
+
+        mockMvc.perform(post("/products/{id}/stock/increment", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(12));
+        assertEquals(12, productRepository.findStockById(testProduct.getId()).orElseThrow());
+
+        mockMvc.perform(post("/products/{id}/stock/decrement", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 0}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/products/{id}/stock/decrement", 999999L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 1}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Debería ajustar precios, reponer y eliminar productos por lotes")
+    void shouldApplyBulkAdminOperations() throws Exception {
+        Long otherId = createProduct("Ratón");
+
+        mockMvc.perform(post("/products/bulk/price")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"category\": \"electronics\", \"type\": \"PERCENTAGE\", \"value\": 10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2))
+                .andExpect(jsonPath("$.notFound").isEmpty());
+        assertEquals(0, new BigDecimal("21.99").compareTo(
+                productRepository.findByIdIn(List.of(otherId)).get(0).getPrice()));
+
+        mockMvc.perform(post("/products/bulk/restock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [" + testProduct.getId() + ", 999999], \"quantity\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(999999));
+        assertEquals(14, productRepository.findStockById(testProduct.getId()).orElseThrow());
+
+        mockMvc.perform(post("/products/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [" + otherId + "], \"category\": \"Electronics\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/products/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [" + otherId + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1));
+        assertTrue(productRepository.findStockById(otherId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar nombres de atributo inválidos")
+    void shouldRejectInvalidAttributeNames() throws Exception {
+        ProductRequestDTO request = new ProductRequestDTO("Camiseta", "Camiseta básica",
+                new BigDecimal("9.99"), 5, "Ropa");
+        request.setAttributes(Map.of("Color Principal", "Rojo"));
+
+        mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Debería crear un nuevo producto")
     void shouldCreateProduct() throws Exception {
@@ -164,6 +786,49 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.stock").value(5));
     }
 
+    @Test
+    @DisplayName("Debería responder 304 cuando la ETag de If-None-Match sigue vigente")
+    void shouldReturn304WhenETagMatches() throws Exception {
+        String etag = mockMvc.perform(get("/products/{id}", testProduct.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + testProduct.getId() + "-0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products/{id}", testProduct.getId())
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String listEtag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/products").header("If-None-Match", listEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Debería aplicar la actualización condicional según If-Match")
+    void shouldHonourIfMatchOnUpdate() throws Exception {
+        ProductRequestDTO updateDTO = new ProductRequestDTO("Updated Laptop", "Updated Description",
+                new BigDecimal("1299.99"), 5, "Electronics");
+        String body = objectMapper.writeValueAsString(updateDTO);
+        String currentEtag = "\"" + testProduct.getId() + "-0\"";
+
+        mockMvc.perform(put("/products/{id}", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", currentEtag)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + testProduct.getId() + "-1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/products/{id}", testProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", currentEtag)
+                .content(body))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @DisplayName("Debería eliminar un producto")
     void shouldDeleteProduct() throws Exception {
@@ -180,5 +845,35 @@ class ProductControllerIntegrationTest {
         mockMvc.perform(delete("/products/{id}", 999L))
                 .andExpect(status().isNotFound());
     }
-}
 
+    // Métodos privados auxiliares
+
+    private void viewProduct(Long id, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            mockMvc.perform(get("/products/{id}", id)).andExpect(status().isOk());
+        }
+    }
+
+    private Long createProduct(String name) throws Exception {
+        ProductRequestDTO request = new ProductRequestDTO(name, name + " de prueba",
+                new BigDecimal("19.99"), 5, "Electronics");
+        MvcResult result = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private Long createWithAttributes(String name, Map<String, String> attributes) throws Exception {
+        ProductRequestDTO request = new ProductRequestDTO(name, name + " de prueba",
+                new BigDecimal("19.99"), 5, "Ropa");
+        request.setAttributes(attributes);
+        MvcResult result = mockMvc.perform(post("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
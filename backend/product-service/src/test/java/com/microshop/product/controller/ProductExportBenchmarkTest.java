@@ -0,0 +1,179 @@
+package com.microshop.product.controller;
+
+import com.microshop.product.repository.ProductRepository;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de memoria de la exportación NDJSON del catálogo.
+ * Carga catálogos de distintos tamaños en la base de datos del perfil de test y
+ * los exporta a través del controlador, el servicio y el repositorio reales,
+ * comprobando que se escriben todas las filas y que el heap retenido durante el
+ * recorrido no crece con el número de filas.
+ *
+ * La base de datos H2 se abre con {@code LAZY_QUERY_EXECUTION=1} para que lea el
+ * resultado bajo demanda, como el cursor de PostgreSQL con fetch size, en lugar
+ * de materializarlo completo antes de devolver la primera fila.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductExportBenchmarkTest}.
+ * Los tamaños se pueden ajustar con {@code -Dexport.benchmark.rows=10000,1000000}; las filas
+ * de H2 en memoria también ocupan heap, así que los tamaños grandes requieren ampliarlo.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LAZY_QUERY_EXECUTION=1",
+        "product.id-filter.enabled=false"
+})
+@ActiveProfiles("test")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("ProductController Export Benchmark")
+class ProductExportBenchmarkTest {
+
+    private static final int SAMPLES_PER_RUN = 20;
+    private static final long MAX_HEAP_GROWTH_BYTES = 8L * 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Autowired
+    private ProductController productController;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("El heap retenido debería mantenerse plano al crecer el catálogo")
+    void heapShouldStayFlatRegardlessOfCatalogSize() throws Exception {
+        long[] sizes = Arrays.stream(System.getProperty("export.benchmark.rows", "10000,100000,500000")
+                        .split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .toArray();
+
+        System.out.printf("%12s %14s %16s %12s%n", "filas", "bytes", "heap retenido", "ms");
+        long smallestGrowth = -1;
+        long largestGrowth = -1;
+        for (long rows : sizes) {
+            seedCatalog(rows);
+            long[] result = runExport(rows);
+            System.out.printf("%12d %14d %13d KB %12d%n", rows, result[0], result[1] / 1024, result[2]);
+            assertTrue(result[1] < MAX_HEAP_GROWTH_BYTES,
+                    "La exportación de " + rows + " filas retuvo " + result[1] / 1024 + " KB");
+            if (smallestGrowth < 0) {
+                smallestGrowth = result[1];
+            }
+            largestGrowth = result[1];
+        }
+
+        assertTrue(largestGrowth - smallestGrowth < MAX_HEAP_GROWTH_BYTES,
+                "El heap retenido creció " + (largestGrowth - smallestGrowth) / 1024 + " KB");
+    }
+
+    /**
+     * Completa el catálogo hasta el número de filas indicado.
+     */
+    private void seedCatalog(long rows) {
+        long existing = productRepository.count();
+        jdbcTemplate.update("INSERT INTO products (id, name, description, price, stock, category, created_at, " +
+                "version, change_seq) " +
+                "SELECT NEXT VALUE FOR products_id_seq, 'Producto ' || X, 'Descripción del producto sintético ' || X, " +
+                "MOD(X, 100000) / 100.0 + 0.01, MOD(X, 500), 'Categoría ' || MOD(X, 50), " +
+                "TIMESTAMP '2024-01-01 00:00:00' + X * INTERVAL '1' SECOND, 0, 0 " +
+                "FROM SYSTEM_RANGE(?, ?)", existing + 1, rows);
+    }
+
+    /**
+     * Ejecuta una exportación completa y devuelve bytes escritos, crecimiento máximo
+     * del heap retenido (medido tras GC en varios puntos del recorrido) y duración.
+     */
+    private long[] runExport(long rows) throws Exception {
+        long baseline = retainedHeap();
+        CountingOutputStream output = new CountingOutputStream(Math.max(1, rows / SAMPLES_PER_RUN), baseline);
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return output;
+            }
+        };
+
+        long start = System.nanoTime();
+        productController.exportProducts(response);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(rows, output.lines);
+        return new long[] {output.bytes, output.maxRetained - baseline, elapsedMs};
+    }
+
+    private long retainedHeap() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Salida que descarta los datos, cuenta bytes y líneas escritas y mide el heap
+     * retenido cada cierto número de líneas, mientras el cursor sigue abierto.
+     */
+    private class CountingOutputStream extends ServletOutputStream {
+        private final long sampleEvery;
+        private long bytes;
+        private long lines;
+        private long maxRetained;
+
+        CountingOutputStream(long sampleEvery, long baseline) {
+            this.sampleEvery = sampleEvery;
+            this.maxRetained = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n' && ++lines % sampleEvery == 0) {
+                maxRetained = Math.max(maxRetained, retainedHeap());
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.ProductServiceApplication;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba con EXPLAIN que los listados por categoría se resuelven con los índices
+ * funcionales de la migración V4 y no con un recorrido secuencial de la tabla.
+ * Analiza el SQL que genera Hibernate para cada consulta del repositorio, de modo
+ * que un cambio en la consulta (por ejemplo, volver a comparar con UPPER) hace
+ * fallar el test.
+ *
+ * Requiere una base de datos accesible: {@code PRODUCT_TEST_PG_URL=jdbc:postgresql://localhost:5432/microshopdb}
+ * (usuario y contraseña opcionales en {@code PRODUCT_TEST_PG_USERNAME} y {@code PRODUCT_TEST_PG_PASSWORD}).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("postgres")
+@EnabledIfEnvironmentVariable(named = "PRODUCT_TEST_PG_URL", matches = ".+")
+@DisplayName("Category Query Plan Tests")
+class CategoryQueryPlanTest {
+
+    private static final int SEEDED_PRODUCTS = 200_000;
+    private static final String CATEGORY_PREFIX = "Plan-";
+    private static final String CATEGORY = "plan-7";
+    private static final BigDecimal MIN_PRICE = new BigDecimal("10");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("50");
+    private static final Limit LIMIT = Limit.of(51);
+
+    private static ConfigurableApplicationContext instance;
+    private static ProductRepository productRepository;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        instance = new SpringApplicationBuilder(ProductServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + System.getenv("PRODUCT_TEST_PG_URL"),
+                        "spring.datasource.username=" + env("PRODUCT_TEST_PG_USERNAME", "microshop"),
+                        "spring.datasource.password=" + env("PRODUCT_TEST_PG_PASSWORD", "microshop123"),
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + SqlCapture.class.getName(),
+                        "product.cache.invalidation.enabled=false",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.enabled=false",
+                        "spring.cloud.service-registry.auto-registration.enabled=false")
+                .run();
+        productRepository = instance.getBean(ProductRepository.class);
+        jdbcTemplate = instance.getBean(JdbcTemplate.class);
+
+        // 100 categorías de 2000 productos: una categoría es el 0,5 % de la tabla
+        jdbcTemplate.update("INSERT INTO products (name, description, price, stock, category, created_at, version, " +
+                "change_seq) " +
+                "SELECT 'Producto plan ' || g, 'Producto para analizar planes', (g % 10000 + 1) / 100.0, g % 50, " +
+                "'" + CATEGORY_PREFIX + "' || (g % 100), now() - g * interval '1 second', 0, 0 " +
+                "FROM generate_series(1, ?) g", SEEDED_PRODUCTS);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.update("DELETE FROM products WHERE category LIKE ?", CATEGORY_PREFIX + "%");
+        }
+        if (instance != null) {
+            instance.close();
+        }
+    }
+
+    @Test
+    @DisplayName("El listado por ID de una categoría con rango de precio debería usar el índice funcional")
+    void categoryPageByIdShouldUseIndex() {
+        String plan = explain(() -> productRepository.findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                CATEGORY, MIN_PRICE, MAX_PRICE, 0L, LIMIT), CATEGORY, MIN_PRICE, MAX_PRICE, 0L, LIMIT.max());
+
+        assertUsesIndex(plan, "idx_product_category_lower_");
+    }
+
+    @Test
+    @DisplayName("El listado por precio de una categoría debería recorrer el índice (categoría, precio)")
+    void categoryPageByPriceShouldUseIndex() {
+        String plan = explain(() -> productRepository.findByCategoryIgnoreCaseOrderByPriceAscIdAsc(
+                CATEGORY, MIN_PRICE, MAX_PRICE, LIMIT), CATEGORY, MIN_PRICE, MAX_PRICE, LIMIT.max());
+        String nextPlan = explain(() -> productRepository.findCategoryPageAfterPrice(
+                CATEGORY, MIN_PRICE, MAX_PRICE, new BigDecimal("20"), 1L, LIMIT),
+                CATEGORY, MIN_PRICE, MAX_PRICE, new BigDecimal("20"), new BigDecimal("20"), 1L, LIMIT.max());
+
+        assertUsesIndex(plan, "idx_product_category_lower_price_id");
+        assertUsesIndex(nextPlan, "idx_product_category_lower_price_id");
+    }
+
+    @Test
+    @DisplayName("Los listados por fecha y por nombre de una categoría deberían usar el índice funcional")
+    void categoryPageByCreatedAtAndNameShouldUseIndex() {
+        String byCreatedAt = explain(() -> productRepository.findByCategoryIgnoreCaseOrderByCreatedAtAscIdAsc(
+                CATEGORY, MIN_PRICE, MAX_PRICE, LIMIT), CATEGORY, MIN_PRICE, MAX_PRICE, LIMIT.max());
+        String byName = explain(() -> productRepository.findCategoryPageAfterName(
+                CATEGORY, MIN_PRICE, MAX_PRICE, "Producto plan 5", 1L, LIMIT),
+                CATEGORY, MIN_PRICE, MAX_PRICE, "Producto plan 5", "Producto plan 5", 1L, LIMIT.max());
+
+        assertUsesIndex(byCreatedAt, "idx_product_category_lower_");
+        assertUsesIndex(byName, "idx_product_category_lower_");
+    }
+
+    @Test
+    @DisplayName("La búsqueda por categoría sin paginar debería usar el índice funcional")
+    void findByCategoryIgnoreCaseShouldUseIndex() {
+        String plan = explain(() -> productRepository.findByCategoryIgnoreCase(CATEGORY), CATEGORY);
+
+        assertUsesIndex(plan, "idx_product_category_lower_");
+    }
+
+    // Métodos privados auxiliares
+
+    /**
+     * Ejecuta la consulta del repositorio para obtener el SQL que genera Hibernate y
+     * devuelve el plan de ese SQL con los parámetros indicados, en el orden en que
+     * aparecen en la consulta.
+     */
+    private static String explain(Runnable query, Object... parameters) {
+        SqlCapture.STATEMENTS.clear();
+        query.run();
+        String sql = SqlCapture.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().contains("from products"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet plan = statement.executeQuery()) {
+                    while (plan.next()) {
+                        lines.add(plan.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            }
+        });
+    }
+
+    private static void assertUsesIndex(String plan, String indexPrefix) {
+        assertFalse(plan.contains("Seq Scan on products"), "Recorrido secuencial de la tabla:\n" + plan);
+        assertTrue(plan.contains(indexPrefix), "El plan no usa " + indexPrefix + ":\n" + plan);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Registra el SQL que Hibernate envía a la base de datos.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
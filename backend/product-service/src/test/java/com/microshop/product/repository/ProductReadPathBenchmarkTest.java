@@ -0,0 +1,135 @@
+package com.microshop.product.repository;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.model.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark que compara el listado de productos cargando entidades gestionadas
+ * (camino anterior: entidad + instantánea de Hibernate + copia al DTO) con la
+ * proyección directa a DTO usada por ProductService. Mide bytes asignados y
+ * tiempo de CPU por petición en el hilo actual.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductReadPathBenchmarkTest}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("Product Read Path Benchmark")
+class ProductReadPathBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 20_000;
+    private static final int PAGE_SIZE = 200;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int MEASURED_REQUESTS = 5_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= CATALOG_SIZE; i++) {
+            rows.add(new Object[] {"Producto " + i, "Descripción del producto " + i,
+                    BigDecimal.valueOf(i % 100_000 + 1, 2), i % 500, "Categoría " + i % 50,
+                    Timestamp.valueOf(base.plusSeconds(i)), 0L});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, description, price, stock, category, created_at, " +
+                "version) VALUES (NEXT VALUE FOR products_id_seq, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("La proyección a DTO debería asignar menos memoria que la carga de entidades")
+    void projectionShouldAllocateLessThanEntityHydration() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Supplier<List<ProductResponseDTO>> entityPath = () -> readWrite.execute(status -> entityManager
+                .createQuery("SELECT p FROM Product p WHERE p.id > :id ORDER BY p.id ASC", Product.class)
+                .setParameter("id", 0L)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList().stream()
+                .map(ProductResponseDTO::fromEntity)
+                .collect(Collectors.toList()));
+        Supplier<List<ProductResponseDTO>> projectionPath = () -> readOnly.execute(status ->
+                productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(PAGE_SIZE)));
+
+        assertEquals(entityPath.get().size(), projectionPath.get().size());
+        measure(entityPath, WARMUP_REQUESTS);
+        measure(projectionPath, WARMUP_REQUESTS);
+
+        long[] entity = measure(entityPath, MEASURED_REQUESTS);
+        long[] projection = measure(projectionPath, MEASURED_REQUESTS);
+
+        System.out.printf("%-12s %16s %16s%n", "camino", "bytes/petición", "CPU µs/petición");
+        System.out.printf("%-12s %16d %16d%n", "entidades", entity[0], entity[1] / 1_000);
+        System.out.printf("%-12s %16d %16d%n", "proyección", projection[0], projection[1] / 1_000);
+
+        assertTrue(projection[0] < entity[0],
+                "La proyección asignó " + projection[0] + " bytes/petición frente a " + entity[0]);
+    }
+
+    /**
+     * Ejecuta el camino indicado y devuelve bytes asignados y nanosegundos de CPU por petición.
+     */
+    private long[] measure(Supplier<List<ProductResponseDTO>> path, int requests) {
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < requests; i++) {
+            path.get();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+        return new long[] {allocated / requests, cpu / requests};
+    }
+}
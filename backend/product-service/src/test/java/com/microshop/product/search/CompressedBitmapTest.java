@@ -0,0 +1,135 @@
+package com.microshop.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para CompressedBitmap, comparando sus resultados con {@link BitSet}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("CompressedBitmap Tests")
+class CompressedBitmapTest {
+
+    private static final int UNIVERSE = 300_000;
+
+    @Test
+    @DisplayName("Debería añadir, consultar y eliminar valores")
+    void shouldAddContainAndRemove() {
+        CompressedBitmap bitmap = CompressedBitmap.of(5, 70_000, 5, 1 << 30);
+
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(6));
+
+        bitmap.remove(70_000);
+        bitmap.remove(12);
+
+        assertEquals(2, bitmap.cardinality());
+        assertFalse(bitmap.contains(70_000));
+        assertArrayEquals(new int[] {5, 1 << 30}, bitmap.select(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    @DisplayName("Debería pasar de array a bitmap y volver sin perder valores")
+    void shouldConvertContainers() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 10_000; value += 2) {
+            bitmap.add(value);
+        }
+        assertEquals(5000, bitmap.cardinality());
+        assertTrue(bitmap.sizeInBytes() >= 8192);
+
+        for (int value = 0; value < 10_000; value += 4) {
+            bitmap.remove(value);
+        }
+
+        assertEquals(2500, bitmap.cardinality());
+        assertTrue(bitmap.contains(9998));
+        assertFalse(bitmap.contains(9996));
+    }
+
+    @Test
+    @DisplayName("Debería ocupar 2 bytes por valor en los bloques poco poblados")
+    void shouldKeepSparseBlocksSmall() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 100; value++) {
+            bitmap.add(value * 1000);
+        }
+
+        assertTrue(bitmap.sizeInBytes() < 1024, "Tamaño: " + bitmap.sizeInBytes());
+    }
+
+    @Test
+    @DisplayName("Debería calcular AND, OR y AND NOT igual que BitSet")
+    void shouldMatchBitSetOperations() {
+        Random random = new Random(42);
+        double[] densities = {0.0005, 0.01, 0.2, 0.9};
+        for (double first : densities) {
+            for (double second : densities) {
+                BitSet expectedFirst = randomBits(random, first);
+                BitSet expectedSecond = randomBits(random, second);
+                CompressedBitmap bitmapFirst = toBitmap(expectedFirst);
+                CompressedBitmap bitmapSecond = toBitmap(expectedSecond);
+
+                BitSet and = (BitSet) expectedFirst.clone();
+                and.and(expectedSecond);
+                BitSet or = (BitSet) expectedFirst.clone();
+                or.or(expectedSecond);
+                BitSet andNot = (BitSet) expectedFirst.clone();
+                andNot.andNot(expectedSecond);
+
+                assertBitmapEquals(and, bitmapFirst.and(bitmapSecond));
+                assertBitmapEquals(or, bitmapFirst.or(bitmapSecond));
+                assertBitmapEquals(andNot, bitmapFirst.andNot(bitmapSecond));
+                assertBitmapEquals(expectedFirst, bitmapFirst);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Debería seleccionar los valores posteriores a uno dado")
+    void shouldSelectAfterValue() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 200_000; value += 3) {
+            bitmap.add(value);
+        }
+
+        assertArrayEquals(new int[] {0, 3, 6}, bitmap.select(-1, 3));
+        assertArrayEquals(new int[] {65_538, 65_541}, bitmap.select(65_535, 2));
+        assertArrayEquals(new int[] {199_998}, bitmap.select(199_997, 5));
+        assertEquals(0, bitmap.select(199_998, 5).length);
+    }
+
+    // Métodos privados auxiliares
+
+    private static BitSet randomBits(Random random, double density) {
+        BitSet bits = new BitSet(UNIVERSE);
+        for (int value = 0; value < UNIVERSE; value++) {
+            if (random.nextDouble() < density) {
+                bits.set(value);
+            }
+        }
+        return bits;
+    }
+
+    private static CompressedBitmap toBitmap(BitSet bits) {
+        return CompressedBitmap.of(bits.stream().toArray());
+    }
+
+    private static void assertBitmapEquals(BitSet expected, CompressedBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.select(-1, UNIVERSE));
+    }
+}
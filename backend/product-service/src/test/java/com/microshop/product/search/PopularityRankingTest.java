@@ -0,0 +1,90 @@
+package com.microshop.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para PopularityRanking.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("PopularityRanking Tests")
+class PopularityRankingTest {
+
+    private static final double HALF_LIFE_MS = 3_600_000;
+
+    @Test
+    @DisplayName("Debería ordenar por popularidad en el catálogo y en cada categoría")
+    void shouldRankByCategory() {
+        PopularityRanking ranking = new PopularityRanking(10);
+        ranking.offer(1L, "Ropa", rank(5, 0));
+        ranking.offer(2L, "Electrónica", rank(50, 0));
+        ranking.offer(3L, "ropa", rank(20, 0));
+
+        assertEquals(List.of(2L, 3L, 1L), ranking.top(null, 10));
+        assertEquals(List.of(3L, 1L), ranking.top("ROPA ", 10));
+        assertEquals(List.of(2L), ranking.top(null, 1));
+        assertEquals(List.of(), ranking.top("Hogar", 10));
+    }
+
+    @Test
+    @DisplayName("Debería dar más peso a las visitas recientes")
+    void shouldDecayOldViews() {
+        PopularityRanking ranking = new PopularityRanking(10);
+        // 100 visitas hace cuatro vidas medias equivalen a 6,25 visitas ahora
+        ranking.offer(1L, "Ropa", rank(100, 0));
+        ranking.offer(2L, "Ropa", rank(10, (long) (4 * HALF_LIFE_MS)));
+        ranking.offer(3L, "Ropa", rank(5, (long) (4 * HALF_LIFE_MS)));
+
+        assertEquals(List.of(2L, 1L, 3L), ranking.top("ropa", 10));
+        assertEquals(PopularityRanking.rank(50, 0, HALF_LIFE_MS),
+                PopularityRanking.rank(25, (long) HALF_LIFE_MS, HALF_LIFE_MS), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Debería conservar solo los más populares de cada montículo")
+    void shouldKeepTopK() {
+        PopularityRanking ranking = new PopularityRanking(2);
+        for (long id = 1; id <= 5; id++) {
+            ranking.offer(id, id % 2 == 0 ? "Par" : "Impar", rank(id, 0));
+        }
+
+        assertEquals(List.of(5L, 4L), ranking.top(null, 10));
+        assertEquals(List.of(4L, 2L), ranking.top("par", 10));
+        assertEquals(List.of(5L, 3L), ranking.top("impar", 10));
+        assertEquals(4, ranking.size());
+
+        ranking.offer(1L, "Impar", rank(100, 0));
+        assertEquals(List.of(1L, 5L), ranking.top(null, 10));
+        assertEquals(List.of(1L, 5L), ranking.top("impar", 10));
+        assertEquals(3, ranking.size());
+    }
+
+    @Test
+    @DisplayName("Debería mover los productos que cambian de categoría y retirar los eliminados")
+    void shouldMoveAndRemoveProducts() {
+        PopularityRanking ranking = new PopularityRanking(10);
+        ranking.offer(1L, "Ropa", rank(5, 0));
+        ranking.offer(2L, "Ropa", rank(8, 0));
+
+        ranking.offer(1L, "Hogar", rank(6, 0));
+        ranking.remove(2L);
+
+        assertEquals(List.of(1L), ranking.top(null, 10));
+        assertEquals(List.of(1L), ranking.top("hogar", 10));
+        assertTrue(ranking.top("ropa", 10).isEmpty());
+        assertEquals(1, ranking.size());
+    }
+
+    // Métodos privados auxiliares
+
+    private static double rank(double score, long decayedAt) {
+        return PopularityRanking.rank(score, decayedAt, HALF_LIFE_MS);
+    }
+}
@@ -0,0 +1,123 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductAttributeDTO;
+import com.microshop.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark de memoria y latencia del índice de atributos con un millón de
+ * productos. Cada producto tiene marca (200 valores con distribución sesgada),
+ * color, talla y, uno de cada tres, material. Las expresiones combinan entre dos
+ * y cuatro términos con AND, OR y NOT.
+ *
+ * Informa de la memoria de los bitmaps comprimidos frente a la de un bitmap sin
+ * comprimir por valor, y de la latencia p50/p99 de los filtros.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductAttributeIndexBenchmarkTest}.
+ * El tamaño se puede ajustar con {@code -Dattributes.benchmark.rows=1000000}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("ProductAttributeIndex Benchmark")
+class ProductAttributeIndexBenchmarkTest {
+
+    private static final int BRANDS = 200;
+    private static final String[] COLORS = {"rojo", "azul", "verde", "negro", "blanco", "gris", "amarillo",
+            "rosa", "morado", "naranja", "marrón", "beige"};
+    private static final String[] SIZES = {"xs", "s", "m", "l", "xl", "xxl"};
+    private static final int MATERIALS = 20;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int MEASURED_QUERIES = 5_000;
+    private static final long MAX_P99_MICROS = 5_000;
+
+    @Test
+    @DisplayName("Los filtros deberían tardar menos de 5 ms (p99) y ocupar menos que bitmaps sin comprimir")
+    void filtersShouldBeFastAndCompact() {
+        long rows = Long.getLong("attributes.benchmark.rows", 1_000_000L);
+        ProductRepository repository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(repository.streamAllIds()).thenAnswer(invocation -> LongStream.rangeClosed(1, rows).boxed());
+        when(repository.streamAllAttributes()).thenAnswer(invocation -> LongStream.rangeClosed(1, rows)
+                .boxed()
+                .flatMap(ProductAttributeIndexBenchmarkTest::syntheticAttributes));
+        ProductAttributeIndex index = new ProductAttributeIndex(repository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry());
+
+        long start = System.nanoTime();
+        index.rebuild();
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        int values = BRANDS + COLORS.length + SIZES.length + MATERIALS;
+        long compressedBytes = index.memoryBytes();
+        long uncompressedBytes = (values + 1) * ((rows + 1) / 8);
+        System.out.printf("Índice de %d productos construido en %d ms: %d KB (%.1f bytes/producto); "
+                        + "bitmaps sin comprimir: %d KB%n",
+                rows, buildMillis, compressedBytes / 1024, (double) compressedBytes / rows, uncompressedBytes / 1024);
+
+        Random random = new Random(42);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.filter(randomFilter(random), null, 50);
+        }
+        long[] micros = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            AttributeFilter filter = randomFilter(random);
+            long filterStart = System.nanoTime();
+            index.filter(filter, null, 50);
+            micros[i] = (System.nanoTime() - filterStart) / 1_000;
+        }
+        Arrays.sort(micros);
+        long p50 = micros[MEASURED_QUERIES / 2];
+        long p99 = micros[MEASURED_QUERIES * 99 / 100];
+        System.out.printf("p50 %d µs, p99 %d µs, máx %d µs%n", p50, p99, micros[MEASURED_QUERIES - 1]);
+
+        assertTrue(p99 < MAX_P99_MICROS, "p99 de " + p99 + " µs");
+        assertTrue(compressedBytes < uncompressedBytes,
+                "Memoria de " + compressedBytes + " bytes frente a " + uncompressedBytes + " sin comprimir");
+    }
+
+    private static Stream<ProductAttributeDTO> syntheticAttributes(long id) {
+        Random random = new Random(id);
+        // Marcas sesgadas: las de menor índice concentran la mayoría de productos
+        int brand = (int) (BRANDS * Math.pow(random.nextDouble(), 3));
+        Stream<ProductAttributeDTO> attributes = Stream.of(
+                new ProductAttributeDTO(id, "brand", "marca" + brand),
+                new ProductAttributeDTO(id, "color", COLORS[random.nextInt(COLORS.length)]),
+                new ProductAttributeDTO(id, "size", SIZES[random.nextInt(SIZES.length)]));
+        return random.nextInt(3) == 0
+                ? Stream.concat(attributes, Stream.of(
+                        new ProductAttributeDTO(id, "material", "material" + random.nextInt(MATERIALS))))
+                : attributes;
+    }
+
+    private static AttributeFilter randomFilter(Random random) {
+        String brand = "brand:marca" + random.nextInt(BRANDS);
+        String color = "color:" + COLORS[random.nextInt(COLORS.length)];
+        String otherColor = "color:" + COLORS[random.nextInt(COLORS.length)];
+        String size = "size:" + SIZES[random.nextInt(SIZES.length)];
+        String material = "material:material" + random.nextInt(MATERIALS);
+        String expression = switch (random.nextInt(5)) {
+            case 0 -> brand + " AND " + color;
+            case 1 -> "(" + color + " OR " + otherColor + ") AND " + size;
+            case 2 -> brand + " AND NOT " + size;
+            case 3 -> "NOT " + color + " AND (" + material + " OR " + size + ")";
+            default -> brand + " AND (" + color + " OR " + otherColor + ") AND NOT " + material;
+        };
+        return AttributeFilter.parse(expression);
+    }
+}
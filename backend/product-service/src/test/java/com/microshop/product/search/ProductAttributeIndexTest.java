@@ -0,0 +1,146 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductAttributeDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ProductAttributeIndex y las expresiones de AttributeFilter.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductAttributeIndex Tests")
+class ProductAttributeIndexTest {
+
+    private ProductRepository productRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductAttributeIndex productAttributeIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        productAttributeIndex = new ProductAttributeIndex(productRepository, mock(PlatformTransactionManager.class),
+                meterRegistry);
+        stubCatalog();
+        productAttributeIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Debería combinar términos con AND, OR y NOT")
+    void shouldCombineTerms() {
+        assertEquals(List.of(1L, 2L), filter("brand:acme"));
+        assertEquals(List.of(1L), filter("brand:ACME AND color:rojo"));
+        assertEquals(List.of(1L, 3L), filter("color:rojo OR color:\"Azul Marino\""));
+        assertEquals(List.of(2L, 3L, 4L), filter("NOT color:rojo"));
+        assertEquals(List.of(2L), filter("brand:acme AND NOT color:rojo"));
+        assertEquals(List.of(1L, 2L), filter("brand:acme AND (size:m OR NOT color:rojo)"));
+        assertEquals(List.of(3L, 4L), filter("not brand:acme and not size:xl or size:l"));
+        assertEquals(List.of(), filter("brand:inexistente"));
+    }
+
+    @Test
+    @DisplayName("Debería paginar los resultados en orden de ID")
+    void shouldPageById() {
+        assertEquals(List.of(3L, 4L), productAttributeIndex.filter(AttributeFilter.parse("NOT size:xl"), 1L, 2));
+        assertEquals(List.of(4L), productAttributeIndex.filter(AttributeFilter.parse("NOT size:xl"), 3L, 2));
+    }
+
+    @Test
+    @DisplayName("Debería paginar entre bloques de 65536 IDs")
+    void shouldPageAcrossBlocks() {
+        AttributePostings postings = new AttributePostings();
+        for (long id : new long[] {10, 65_535, 65_536, 200_000, 300_000}) {
+            postings.addProduct(id);
+            postings.addAttribute(id, "color", id == 65_536 ? "azul" : "rojo");
+        }
+
+        AttributeFilter rojo = AttributeFilter.parse("color:rojo");
+        assertEquals(List.of(10L, 65_535L, 200_000L), postings.filter(rojo, null, 3));
+        assertEquals(List.of(200_000L, 300_000L), postings.filter(rojo, 65_535L, 5));
+        assertEquals(List.of(65_536L), postings.filter(AttributeFilter.parse("NOT color:rojo"), 10L, 5));
+        assertEquals(List.of(), postings.filter(rojo, 300_000L, 5));
+    }
+
+    @Test
+    @DisplayName("Debería aplicar los cambios de productos tras confirmarse")
+    void shouldApplyProductChanges() {
+        when(productRepository.findAttributesByProductId(2L)).thenReturn(List.of(
+                new ProductAttributeDTO(2L, "brand", "Globex"), new ProductAttributeDTO(2L, "color", "Rojo")));
+        productAttributeIndex.onProductChanged(ProductChangedEvent.remote(
+                ProductChangedEvent.Type.UPDATED, 2L, null, null));
+        productAttributeIndex.onProductChanged(ProductChangedEvent.deleted(1L, "Ropa"));
+
+        assertEquals(List.of(2L), filter("color:rojo"));
+        assertEquals(List.of(2L, 3L), filter("brand:globex"));
+        assertEquals(List.of(), filter("brand:acme"));
+        assertEquals(List.of(3L, 4L), filter("NOT color:rojo"));
+    }
+
+    @Test
+    @DisplayName("Debería filtrar desde la base de datos mientras el índice no está listo")
+    void shouldFallBackBeforeFirstBuild() {
+        ProductAttributeIndex notReady = new ProductAttributeIndex(productRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        stubCatalog();
+
+        assertFalse(notReady.isReady());
+        assertEquals(List.of(1L), notReady.filter(AttributeFilter.parse("color:rojo"), null, 10));
+    }
+
+    @Test
+    @DisplayName("Debería publicar la memoria ocupada por los bitmaps")
+    void shouldReportMemory() {
+        assertTrue(productAttributeIndex.memoryBytes() > 0);
+        assertEquals(productAttributeIndex.memoryBytes(),
+                meterRegistry.get("product.attributes.index.memory").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar expresiones inválidas")
+    void shouldRejectInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> AttributeFilter.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> AttributeFilter.parse("brand"));
+        assertThrows(IllegalArgumentException.class, () -> AttributeFilter.parse("brand:acme AND"));
+        assertThrows(IllegalArgumentException.class, () -> AttributeFilter.parse("(brand:acme"));
+        assertThrows(IllegalArgumentException.class, () -> AttributeFilter.parse("brand:\"acme"));
+        assertThrows(IllegalArgumentException.class, () -> AttributeFilter.parse("brand:acme)"));
+        assertThrows(IllegalArgumentException.class,
+                () -> AttributeFilter.parse("a:1" + " OR a:1".repeat(AttributeFilter.MAX_TERMS)));
+    }
+
+    // Métodos privados auxiliares
+
+    private List<Long> filter(String expression) {
+        return productAttributeIndex.filter(AttributeFilter.parse(expression), null, 100);
+    }
+
+    private void stubCatalog() {
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 3L, 4L));
+        when(productRepository.streamAllAttributes()).thenReturn(Stream.of(
+                new ProductAttributeDTO(1L, "brand", "Acme"),
+                new ProductAttributeDTO(1L, "color", "Rojo"),
+                new ProductAttributeDTO(1L, "size", "M"),
+                new ProductAttributeDTO(2L, "brand", "acme"),
+                new ProductAttributeDTO(2L, "size", "XL"),
+                new ProductAttributeDTO(3L, "brand", "Globex"),
+                new ProductAttributeDTO(3L, "color", "Azul marino"),
+                new ProductAttributeDTO(3L, "size", "L")));
+    }
+}
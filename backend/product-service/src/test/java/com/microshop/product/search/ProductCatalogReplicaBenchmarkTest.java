@@ -0,0 +1,96 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.util.ProductSort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark de latencia de la réplica por columnas con un millón de productos.
+ * Mezcla consultas con y sin categoría, rangos de precio de distinta amplitud,
+ * filtro de stock y las tres ordenaciones en ambos sentidos.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductCatalogReplicaBenchmarkTest}.
+ * El tamaño se puede ajustar con {@code -Dreplica.benchmark.rows=1000000}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("ProductCatalogReplica Benchmark")
+class ProductCatalogReplicaBenchmarkTest {
+
+    private static final int CATEGORIES = 50;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int MEASURED_QUERIES = 5_000;
+    private static final long MAX_P99_MICROS = 5_000;
+
+    @Test
+    @DisplayName("Las consultas deberían tardar menos de 5 ms (p99) con un millón de productos")
+    void queriesShouldStayUnderFiveMilliseconds() {
+        long rows = Long.getLong("replica.benchmark.rows", 1_000_000L);
+        ProductRepository repository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(repository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> LongStream.rangeClosed(1, rows)
+                .mapToObj(ProductCatalogReplicaBenchmarkTest::syntheticProduct));
+        ProductCatalogReplica replica = new ProductCatalogReplica(repository, mock(PlatformTransactionManager.class));
+
+        long start = System.nanoTime();
+        replica.rebuild();
+        System.out.printf("Réplica de %d productos construida en %d ms%n",
+                rows, (System.nanoTime() - start) / 1_000_000);
+
+        Random random = new Random(42);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            replica.query(randomQuery(random));
+        }
+        long[] micros = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            CatalogQuery query = randomQuery(random);
+            long queryStart = System.nanoTime();
+            replica.query(query);
+            micros[i] = (System.nanoTime() - queryStart) / 1_000;
+        }
+        Arrays.sort(micros);
+        long p50 = micros[MEASURED_QUERIES / 2];
+        long p99 = micros[MEASURED_QUERIES * 99 / 100];
+        System.out.printf("p50 %d µs, p99 %d µs, máx %d µs%n", p50, p99, micros[MEASURED_QUERIES - 1]);
+
+        assertTrue(p99 < MAX_P99_MICROS, "p99 de " + p99 + " µs");
+    }
+
+    private static ProductResponseDTO syntheticProduct(long id) {
+        Random random = new Random(id);
+        BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(200_000), 2);
+        return new ProductResponseDTO(id, "Producto " + id, null, price, random.nextInt(4) == 0 ? 0 : 10,
+                "Categoría " + random.nextInt(CATEGORIES), LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id), 0L);
+    }
+
+    private static CatalogQuery randomQuery(Random random) {
+        String category = random.nextBoolean() ? "Categoría " + random.nextInt(CATEGORIES) : null;
+        BigDecimal minPrice = null;
+        BigDecimal maxPrice = null;
+        if (random.nextBoolean()) {
+            int from = random.nextInt(1_500);
+            minPrice = BigDecimal.valueOf(from);
+            maxPrice = BigDecimal.valueOf(from + 1 + random.nextInt(500));
+        }
+        ProductSort sort = ProductSort.values()[random.nextInt(ProductSort.values().length)];
+        return new CatalogQuery(category, minPrice, maxPrice, random.nextBoolean(), sort, random.nextBoolean(), 20);
+    }
+}
@@ -0,0 +1,132 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.util.ProductSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ProductCatalogReplica.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductCatalogReplica Tests")
+class ProductCatalogReplicaTest {
+
+    private ProductRepository productRepository;
+    private ProductCatalogReplica productCatalogReplica;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productCatalogReplica = new ProductCatalogReplica(productRepository, mock(PlatformTransactionManager.class));
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product(1L, "Electronics", "199.99", 5, 3),
+                product(2L, "Electronics", "49.50", 0, 1),
+                product(3L, "electronics", "99.99", 2, 2),
+                product(4L, "Books", "12.00", 10, 4),
+                product(5L, "Electronics", "49.50", 1, 5)));
+        productCatalogReplica.rebuild();
+    }
+
+    @Test
+    @DisplayName("No debería estar lista hasta la primera construcción")
+    void shouldNotBeReadyBeforeRebuild() {
+        ProductCatalogReplica empty = new ProductCatalogReplica(productRepository,
+                mock(PlatformTransactionManager.class));
+
+        assertFalse(empty.isReady());
+        assertTrue(productCatalogReplica.isReady());
+    }
+
+    @Test
+    @DisplayName("Debería filtrar por categoría, rango de precio y stock")
+    void shouldFilter() {
+        assertEquals(List.of(1L, 2L, 3L, 5L), productCatalogReplica.query(query("ELECTRONICS", null, null, false)));
+        assertEquals(List.of(2L, 3L, 5L), productCatalogReplica.query(query(null, "49.50", "199.99", false)));
+        assertEquals(List.of(3L, 5L), productCatalogReplica.query(query("electronics", "0", "100", true)));
+        assertEquals(List.of(), productCatalogReplica.query(query("Toys", null, null, false)));
+    }
+
+    @Test
+    @DisplayName("Debería devolver los primeros según la ordenación, desempatando por ID")
+    void shouldSortTopK() {
+        assertEquals(List.of(4L, 2L, 5L), productCatalogReplica.query(
+                new CatalogQuery(null, null, null, false, ProductSort.PRICE, false, 3)));
+        assertEquals(List.of(1L, 3L, 2L, 5L), productCatalogReplica.query(
+                new CatalogQuery("Electronics", null, null, false, ProductSort.PRICE, true, 10)));
+        assertEquals(List.of(5L, 4L), productCatalogReplica.query(
+                new CatalogQuery(null, null, null, false, ProductSort.CREATED_AT, true, 2)));
+        assertEquals(List.of(5L, 4L), productCatalogReplica.query(
+                new CatalogQuery(null, null, null, false, ProductSort.ID, true, 2)));
+    }
+
+    @Test
+    @DisplayName("Debería mantener el top-k correcto con muchos productos")
+    void shouldKeepTopKOverManyRows() {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(LongStream.rangeClosed(1, 5000)
+                .mapToObj(id -> product(id, "Cables", String.valueOf(id * 7919 % 5000 + 1), 1, 0)));
+        productCatalogReplica.rebuild();
+
+        List<Long> cheapest = productCatalogReplica.query(
+                new CatalogQuery(null, null, null, false, ProductSort.PRICE, false, 5));
+
+        assertEquals(5, cheapest.size());
+        for (int i = 0; i < cheapest.size(); i++) {
+            assertEquals(i + 1, cheapest.get(i) * 7919 % 5000 + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Debería aplicar altas, modificaciones y bajas")
+    void shouldApplyChanges() {
+        productCatalogReplica.onProductChanged(ProductChangedEvent.created(
+                product(6L, "Books", "15.00", 3, 6)));
+        productCatalogReplica.onProductChanged(ProductChangedEvent.updated(
+                product(1L, "Books", "9.99", 5, 3), "Electronics"));
+        productCatalogReplica.onProductChanged(ProductChangedEvent.deleted(4L, "Books"));
+
+        assertEquals(List.of(1L, 6L), productCatalogReplica.query(query("books", null, null, false)));
+        assertEquals(List.of(2L, 3L, 5L), productCatalogReplica.query(query("electronics", null, null, false)));
+    }
+
+    @Test
+    @DisplayName("Debería recargar el producto de los cambios remotos")
+    void shouldReloadRemoteChanges() {
+        when(productRepository.findViewById(2L))
+                .thenReturn(Optional.of(product(2L, "Electronics", "49.50", 8, 1)));
+
+        productCatalogReplica.onProductChanged(ProductChangedEvent.remote(ProductChangedEvent.Type.UPDATED,
+                2L, "Electronics", "Electronics"));
+
+        assertEquals(List.of(2L, 5L), productCatalogReplica.query(query("electronics", "0", "50", true)));
+    }
+
+    private static CatalogQuery query(String category, String minPrice, String maxPrice, boolean inStock) {
+        return new CatalogQuery(category, minPrice == null ? null : new BigDecimal(minPrice),
+                maxPrice == null ? null : new BigDecimal(maxPrice), inStock, ProductSort.ID, false, 10);
+    }
+
+    private static ProductResponseDTO product(Long id, String category, String price, int stock, int day) {
+        return new ProductResponseDTO(id, "Producto " + id, null, new BigDecimal(price), stock, category,
+                LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(day), 0L);
+    }
+}
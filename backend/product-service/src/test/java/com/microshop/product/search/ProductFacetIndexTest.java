@@ -0,0 +1,164 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductFacetsDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ProductFacetIndex.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductFacetIndex Tests")
+class ProductFacetIndexTest {
+
+    private static final BigDecimal[] BANDS = {new BigDecimal("50"), new BigDecimal("100")};
+
+    private ProductRepository productRepository;
+    private ProductFacetIndex productFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productFacetIndex = new ProductFacetIndex(productRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), BANDS);
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product(1L, "Electrónica", "20.00"),
+                product(2L, "Electrónica", "75.00"),
+                product(3L, "electrónica", "150.00"),
+                product(4L, "Hogar", "30.00"),
+                product(5L, "Hogar", "50.00")));
+        productFacetIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Debería contar por categoría y rango de precio sin distinguir mayúsculas")
+    void shouldCountByCategoryAndPriceBand() {
+        ProductFacetsDTO facets = productFacetIndex.facets(null, null, null);
+
+        assertEquals(5, facets.getTotal());
+        assertEquals(List.of("Electrónica=3", "Hogar=2"), categories(facets));
+        assertEquals(List.of(2L, 2L, 1L), bandCounts(facets));
+        assertEquals(new BigDecimal("50"), facets.getPriceRanges().get(1).getFrom());
+        assertEquals(null, facets.getPriceRanges().get(2).getTo());
+    }
+
+    @Test
+    @DisplayName("Debería aplicar a cada faceta los filtros de las demás")
+    void shouldScopeCountsToFilters() {
+        ProductFacetsDTO facets = productFacetIndex.facets("HOGAR", BigDecimal.ZERO, new BigDecimal("50"));
+
+        assertEquals(1, facets.getTotal());
+        assertEquals(List.of("Electrónica=1", "Hogar=1"), categories(facets));
+        assertEquals(List.of(1L, 1L, 0L), bandCounts(facets));
+
+        ProductFacetsDTO unknown = productFacetIndex.facets("Juguetes", null, null);
+        assertEquals(0, unknown.getTotal());
+        assertEquals(List.of(0L, 0L, 0L), bandCounts(unknown));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productFacetIndex.facets(null, new BigDecimal("10"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> productFacetIndex.facets(null, new BigDecimal("100"), new BigDecimal("50")));
+    }
+
+    @Test
+    @DisplayName("Debería mover los contadores con los cambios de categoría y de precio")
+    void shouldApplyChanges() {
+        productFacetIndex.onProductChanged(ProductChangedEvent.created(product(6L, "Juguetes", "10.00")));
+        productFacetIndex.onProductChanged(ProductChangedEvent.updated(product(2L, "Hogar", "120.00"),
+                "Electrónica"));
+        productFacetIndex.onProductChanged(ProductChangedEvent.updated(product(2L, "Hogar", "120.00"),
+                "Electrónica"));
+        productFacetIndex.onProductChanged(ProductChangedEvent.deleted(1L, "Electrónica"));
+        productFacetIndex.onProductChanged(ProductChangedEvent.deleted(1L, "Electrónica"));
+
+        ProductFacetsDTO facets = productFacetIndex.facets(null, null, null);
+
+        assertEquals(5, facets.getTotal());
+        assertEquals(List.of("Hogar=3", "Electrónica=1", "Juguetes=1"), categories(facets));
+        assertEquals(List.of(2L, 1L, 2L), bandCounts(facets));
+    }
+
+    @Test
+    @DisplayName("Debería recargar el producto de los cambios remotos")
+    void shouldReloadRemoteChanges() {
+        when(productRepository.findViewById(4L)).thenReturn(Optional.of(product(4L, "Jardín", "30.00")));
+
+        productFacetIndex.onProductChanged(ProductChangedEvent.remote(ProductChangedEvent.Type.UPDATED,
+                4L, "Hogar", "Jardín"));
+
+        assertEquals(List.of("Electrónica=3", "Hogar=1", "Jardín=1"),
+                categories(productFacetIndex.facets(null, null, null)));
+    }
+
+    @Test
+    @DisplayName("Debería corregir y contabilizar las desviaciones al reconciliar")
+    void shouldReconcileDrift() {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product(1L, "Electrónica", "20.00"),
+                product(2L, "Electrónica", "75.00"),
+                product(3L, "Electrónica", "150.00"),
+                product(4L, "Hogar", "30.00"),
+                product(5L, "Hogar", "150.00"),
+                product(7L, "Hogar", "10.00")));
+
+        assertEquals(2, productFacetIndex.rebuild());
+        assertEquals(List.of(3L, 1L, 2L), bandCounts(productFacetIndex.facets(null, null, null)));
+        verify(productRepository, never()).countByCategoryAndPrice();
+    }
+
+    @Test
+    @DisplayName("Debería usar una consulta agregada mientras no se han construido los contadores")
+    void shouldFallBackToAggregateQuery() {
+        ProductFacetIndex empty = new ProductFacetIndex(productRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), BANDS);
+        when(productRepository.countByCategoryAndPrice()).thenReturn(List.of(
+                new Object[]{"Hogar", new BigDecimal("30.00"), 4L},
+                new Object[]{"Hogar", new BigDecimal("300.00"), 1L}));
+
+        assertFalse(empty.isReady());
+        assertTrue(productFacetIndex.isReady());
+        assertEquals(List.of(4L, 0L, 1L), bandCounts(empty.facets("hogar", null, null)));
+    }
+
+    private static List<String> categories(ProductFacetsDTO facets) {
+        return facets.getCategories().stream()
+                .map(facet -> facet.getCategory() + "=" + facet.getCount())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> bandCounts(ProductFacetsDTO facets) {
+        return facets.getPriceRanges().stream()
+                .map(ProductFacetsDTO.PriceRangeFacet::getCount)
+                .collect(Collectors.toList());
+    }
+
+    private static ProductResponseDTO product(Long id, String category, String price) {
+        return new ProductResponseDTO(id, "Producto " + id, null, new BigDecimal(price), 1, category,
+                LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+    }
+}
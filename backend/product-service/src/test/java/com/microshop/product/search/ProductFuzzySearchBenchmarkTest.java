@@ -0,0 +1,139 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark de la búsqueda tolerante a erratas sobre un millón de nombres de
+ * producto sintéticos. Los nombres se forman con un vocabulario amplio de palabras
+ * pronunciables y las consultas son palabras del catálogo con una o dos erratas
+ * (sustitución, borrado, inserción o transposición). Además de la latencia,
+ * comprueba que la mayoría de las consultas encuentran el producto original.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductFuzzySearchBenchmarkTest}.
+ * El tamaño se puede ajustar con {@code -Dfuzzy.benchmark.rows=1000000}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("Fuzzy Search Benchmark")
+class ProductFuzzySearchBenchmarkTest {
+
+    private static final String CONSONANTS = "bcdfglmnprstvz";
+    private static final String VOWELS = "aeiou";
+    private static final int VOCABULARY_SIZE = 200_000;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int MEASURED_QUERIES = 5_000;
+    private static final long MAX_P99_MICROS = 10_000;
+    private static final double MIN_RECALL = 0.9;
+
+    @Test
+    @DisplayName("Las consultas con erratas deberían tardar menos de 10 ms (p99) con un millón de productos")
+    void fuzzyQueriesShouldStayUnderTenMilliseconds() {
+        long rows = Long.getLong("fuzzy.benchmark.rows", 1_000_000L);
+        ProductRepository repository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(repository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> LongStream.rangeClosed(1, rows)
+                .mapToObj(ProductFuzzySearchBenchmarkTest::syntheticProduct));
+        ProductTextIndex index = new ProductTextIndex(repository, mock(PlatformTransactionManager.class));
+
+        long start = System.nanoTime();
+        index.rebuild();
+        System.out.printf("Índice de %d productos construido en %d ms%n",
+                rows, (System.nanoTime() - start) / 1_000_000);
+
+        Random random = new Random(42);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            long id = 1 + random.nextInt((int) rows);
+            index.search(misspell(nameWords(id)[0], random), 20, true);
+        }
+        long[] micros = new long[MEASURED_QUERIES];
+        int found = 0;
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long id = 1 + random.nextInt((int) rows);
+            String[] words = nameWords(id);
+            String query = misspell(words[0], random) + " " + words[1];
+            long queryStart = System.nanoTime();
+            boolean hit = index.search(query, 20, true).contains(id);
+            micros[i] = (System.nanoTime() - queryStart) / 1_000;
+            found += hit ? 1 : 0;
+        }
+        Arrays.sort(micros);
+        long p50 = micros[MEASURED_QUERIES / 2];
+        long p99 = micros[MEASURED_QUERIES * 99 / 100];
+        double recall = (double) found / MEASURED_QUERIES;
+        System.out.printf("p50 %d µs, p99 %d µs, máx %d µs, encontrados %.1f %%%n",
+                p50, p99, micros[MEASURED_QUERIES - 1], recall * 100);
+
+        assertTrue(p99 < MAX_P99_MICROS, "p99 de " + p99 + " µs");
+        assertTrue(recall >= MIN_RECALL, "Encontrados " + recall);
+    }
+
+    private static ProductResponseDTO syntheticProduct(long id) {
+        return new ProductResponseDTO(id, String.join(" ", nameWords(id)), null, BigDecimal.ONE, 1,
+                "Categoría " + id % 50, LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+    }
+
+    private static String[] nameWords(long id) {
+        Random random = new Random(id);
+        String[] words = new String[3];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = word(random.nextInt(VOCABULARY_SIZE));
+        }
+        return words;
+    }
+
+    /**
+     * Palabra pronunciable de tres a cinco sílabas determinada por su posición en el vocabulario.
+     */
+    private static String word(int rank) {
+        Random random = new Random(rank * 31L + 7);
+        StringBuilder word = new StringBuilder();
+        int syllables = 3 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())))
+                    .append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Aplica una o dos erratas aleatorias a la palabra.
+     */
+    private static String misspell(String word, Random random) {
+        StringBuilder result = new StringBuilder(word);
+        int edits = 1 + random.nextInt(2);
+        for (int e = 0; e < edits; e++) {
+            int position = 1 + random.nextInt(result.length() - 2);
+            char letter = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(4)) {
+                case 0 -> result.setCharAt(position, letter);
+                case 1 -> result.deleteCharAt(position);
+                case 2 -> result.insert(position, letter);
+                default -> {
+                    char current = result.charAt(position);
+                    result.setCharAt(position, result.charAt(position + 1));
+                    result.setCharAt(position + 1, current);
+                }
+            }
+        }
+        return result.toString();
+    }
+}
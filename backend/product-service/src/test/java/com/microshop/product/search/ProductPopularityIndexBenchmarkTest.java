@@ -0,0 +1,96 @@
+package com.microshop.product.search;
+
+import com.microshop.product.repository.ProductStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark del coste de contar una visita en el detalle de producto, con varios
+ * hilos visitando a la vez un catálogo de 100.000 productos en el que unos pocos
+ * concentran la mayoría de visitas.
+ *
+ * Informa del coste medio por visita con un hilo y con todos los hilos en
+ * paralelo, que debe quedar muy por debajo de la latencia de la petición.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductPopularityIndexBenchmarkTest}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("ProductPopularityIndex Benchmark")
+class ProductPopularityIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int THREADS = 8;
+    private static final int VIEWS_PER_THREAD = 2_000_000;
+    private static final double MAX_NANOS_PER_VIEW = 500;
+
+    @Test
+    @DisplayName("Contar una visita debería costar menos de 500 ns con hilos concurrentes")
+    void recordViewShouldBeCheap() throws Exception {
+        ProductPopularityIndex index = new ProductPopularityIndex(mock(ProductStatsRepository.class),
+                mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 24);
+
+        recordViews(index, 1);
+        double singleThread = recordViews(index, 1);
+        double concurrent = recordViews(index, THREADS);
+        System.out.printf("Coste por visita: %.1f ns con 1 hilo, %.1f ns con %d hilos%n",
+                singleThread, concurrent, THREADS);
+
+        assertTrue(concurrent < MAX_NANOS_PER_VIEW, "Coste por visita de " + concurrent + " ns");
+    }
+
+    /**
+     * @return Nanosegundos medios que tarda cada hilo en contar una visita
+     */
+    private static double recordViews(ProductPopularityIndex index, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> elapsed = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                elapsed.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    long[] ids = new long[VIEWS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        // Visitas sesgadas: los productos de menor ID concentran la mayoría
+                        ids[i] = 1 + (long) (PRODUCTS * Math.pow(random.nextDouble(), 4));
+                    }
+                    start.await();
+                    long begin = System.nanoTime();
+                    for (long id : ids) {
+                        index.recordView(id);
+                    }
+                    return System.nanoTime() - begin;
+                }));
+            }
+            start.countDown();
+            long total = 0;
+            for (Future<Long> future : elapsed) {
+                total += future.get();
+            }
+            return (double) total / threads / VIEWS_PER_THREAD;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark de latencia del autocompletado bajo carga concurrente. Construye el
+ * índice con un millón de nombres sintéticos y lanza desde varios hilos prefijos
+ * de 1 a 8 caracteres, como los que genera la caja de búsqueda en cada pulsación.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductSuggestIndexBenchmarkTest}.
+ * El tamaño se puede ajustar con {@code -Dsuggest.benchmark.rows=1000000}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("ProductSuggestIndex Benchmark")
+class ProductSuggestIndexBenchmarkTest {
+
+    private static final String[] WORDS = {"portátil", "monitor", "teclado", "ratón", "auriculares", "cable",
+        "cargador", "funda", "altavoz", "cámara", "impresora", "router", "disco", "memoria", "tablet"};
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int QUERIES_PER_THREAD = 50_000;
+    private static final long MAX_P99_MICROS = 1_000;
+
+    @Test
+    @DisplayName("El p99 debería quedar por debajo de 1 ms con carga concurrente")
+    void suggestionsShouldStaySubMillisecond() throws Exception {
+        long rows = Long.getLong("suggest.benchmark.rows", 1_000_000L);
+        ProductRepository repository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(repository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> LongStream.rangeClosed(1, rows)
+                .mapToObj(ProductSuggestIndexBenchmarkTest::syntheticProduct));
+        ProductSuggestIndex index = new ProductSuggestIndex(repository, mock(PlatformTransactionManager.class));
+
+        long start = System.nanoTime();
+        index.rebuild();
+        System.out.printf("Índice de %d productos construido en %d ms con %d hilos de consulta%n",
+                rows, (System.nanoTime() - start) / 1_000_000, THREADS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            runQueries(index, executor, 1);
+            long[] micros = runQueries(index, executor, 2);
+            Arrays.sort(micros);
+            long p50 = micros[micros.length / 2];
+            long p99 = micros[(int) (micros.length * 0.99)];
+            System.out.printf("p50 %d µs, p99 %d µs, máx %d µs%n", p50, p99, micros[micros.length - 1]);
+
+            assertTrue(p99 < MAX_P99_MICROS, "p99 de " + p99 + " µs");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long[] runQueries(ProductSuggestIndex index, ExecutorService executor, long seed)
+            throws Exception {
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(seed * 1000 + t);
+            results.add(executor.submit(() -> {
+                long[] micros = new long[QUERIES_PER_THREAD];
+                for (int i = 0; i < QUERIES_PER_THREAD; i++) {
+                    String name = syntheticName(1 + random.nextInt(1_000_000));
+                    String prefix = name.substring(0, Math.min(name.length(), 1 + random.nextInt(8)));
+                    long queryStart = System.nanoTime();
+                    index.suggest(prefix, 10);
+                    micros[i] = (System.nanoTime() - queryStart) / 1_000;
+                }
+                return micros;
+            }));
+        }
+        long[] all = new long[THREADS * QUERIES_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(results.get(t).get(), 0, all, t * QUERIES_PER_THREAD, QUERIES_PER_THREAD);
+        }
+        return all;
+    }
+
+    private static ProductResponseDTO syntheticProduct(long id) {
+        return new ProductResponseDTO(id, syntheticName(id), null, BigDecimal.ONE, 1,
+                WORDS[(int) (id % WORDS.length)], LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(id), 0L);
+    }
+
+    private static String syntheticName(long id) {
+        return WORDS[(int) (id % WORDS.length)] + " " + Long.toString(id * 7919 % 1_000_003, 36)
+                + " modelo " + id;
+    }
+}
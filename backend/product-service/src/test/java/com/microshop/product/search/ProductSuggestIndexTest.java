@@ -0,0 +1,105 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductSuggestionDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ProductSuggestIndex.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductSuggestIndex Tests")
+class ProductSuggestIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductSuggestIndex productSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productSuggestIndex = new ProductSuggestIndex(productRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("Debería sugerir categorías y después productos, los más recientes primero")
+    void shouldSuggestCategoriesThenRecentProducts() {
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product(1L, "Portátil HP", "Portátiles", 1),
+                product(2L, "Portátil Lenovo", "Portátiles", 3),
+                product(3L, "Portavasos", "Hogar", 2),
+                product(4L, "Monitor LG", "Monitores", 4)));
+        productSuggestIndex.rebuild();
+
+        List<ProductSuggestionDTO> suggestions = productSuggestIndex.suggest("PORT", 10);
+
+        assertEquals(List.of("Portátiles", "Portátil Lenovo", "Portavasos", "Portátil HP"), texts(suggestions));
+        assertEquals(ProductSuggestionDTO.Type.CATEGORY, suggestions.get(0).getType());
+        assertEquals(2L, suggestions.get(1).getProductId());
+        assertEquals(List.of("Portátiles", "Portátil Lenovo"), texts(productSuggestIndex.suggest("portatil", 2)));
+        assertEquals(List.of("Portátil HP"), texts(productSuggestIndex.suggest("portatil  h", 10)));
+        assertEquals(List.of(), productSuggestIndex.suggest("teclado", 10));
+    }
+
+    @Test
+    @DisplayName("Debería usar los mejores precalculados en prefijos con muchos productos")
+    void shouldUsePrecomputedTopForLargeRanges() {
+        long count = PrefixIndex.HEAVY_RANGE * 4L;
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(LongStream.rangeClosed(1, count)
+                .mapToObj(id -> product(id, "Cable " + id, "Cables", (int) id)));
+        productSuggestIndex.rebuild();
+
+        List<ProductSuggestionDTO> suggestions = productSuggestIndex.suggest("cable", 5);
+        List<ProductSuggestionDTO> narrower = productSuggestIndex.suggest("cable 1", 3);
+
+        assertEquals(List.of("Cables", "Cable " + count, "Cable " + (count - 1), "Cable " + (count - 2),
+                "Cable " + (count - 3)), texts(suggestions));
+        assertEquals(List.of("Cable 1024", "Cable 1023", "Cable 1022"), texts(narrower));
+    }
+
+    @Test
+    @DisplayName("Debería incorporar los cambios en la siguiente reconstrucción")
+    void shouldRefreshOnlyWhenStale() {
+        when(productRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.of(product(1L, "Teclado mecánico", "Periféricos", 1)))
+                .thenReturn(Stream.of(product(1L, "Teclado mecánico", "Periféricos", 1),
+                        product(2L, "Teclado inalámbrico", "Periféricos", 2)));
+        assertTrue(productSuggestIndex.suggest("tec", 10).isEmpty());
+        productSuggestIndex.rebuild();
+
+        productSuggestIndex.refreshIfStale();
+        assertEquals(List.of("Teclado mecánico"), texts(productSuggestIndex.suggest("teclado", 10)));
+
+        productSuggestIndex.onProductChanged(ProductChangedEvent.deleted(9L, "Periféricos"));
+        productSuggestIndex.refreshIfStale();
+        assertEquals(List.of("Teclado inalámbrico", "Teclado mecánico"),
+                texts(productSuggestIndex.suggest("teclado", 10)));
+    }
+
+    private static List<String> texts(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getText).collect(Collectors.toList());
+    }
+
+    private static ProductResponseDTO product(Long id, String name, String category, int day) {
+        return new ProductResponseDTO(id, name, null, new BigDecimal("10.00"), 1, category,
+                LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(day), 0L);
+    }
+}
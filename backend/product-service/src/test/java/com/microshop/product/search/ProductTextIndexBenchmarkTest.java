@@ -0,0 +1,107 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark de latencia del índice de texto sobre un catálogo sintético.
+ * Construye el índice con un vocabulario de frecuencias desiguales (pocos términos
+ * muy comunes y muchos raros) y mide los percentiles de consultas de uno a tres términos.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductTextIndexBenchmarkTest}.
+ * El tamaño se puede ajustar con {@code -Dtext.benchmark.rows=1000000}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("ProductTextIndex Benchmark")
+class ProductTextIndexBenchmarkTest {
+
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int MEASURED_QUERIES = 5_000;
+    private static final long MAX_P99_MICROS = 10_000;
+
+    @Test
+    @DisplayName("Las consultas deberían tardar menos de 10 ms (p99) con un millón de productos")
+    void queriesShouldStayUnderTenMilliseconds() {
+        long rows = Long.getLong("text.benchmark.rows", 1_000_000L);
+        ProductRepository repository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(repository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> LongStream.rangeClosed(1, rows)
+                .mapToObj(ProductTextIndexBenchmarkTest::syntheticProduct));
+        ProductTextIndex index = new ProductTextIndex(repository, mock(PlatformTransactionManager.class));
+
+        long start = System.nanoTime();
+        index.rebuild();
+        System.out.printf("Índice de %d productos construido en %d ms%n",
+                rows, (System.nanoTime() - start) / 1_000_000);
+
+        Random random = new Random(42);
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            index.search(randomQuery(random), 20);
+        }
+        long[] micros = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            String query = randomQuery(random);
+            long queryStart = System.nanoTime();
+            index.search(query, 20);
+            micros[i] = (System.nanoTime() - queryStart) / 1_000;
+        }
+        Arrays.sort(micros);
+        long p50 = micros[MEASURED_QUERIES / 2];
+        long p99 = micros[MEASURED_QUERIES * 99 / 100];
+        System.out.printf("p50 %d µs, p99 %d µs, máx %d µs%n", p50, p99, micros[MEASURED_QUERIES - 1]);
+
+        assertTrue(p99 < MAX_P99_MICROS, "p99 de " + p99 + " µs");
+    }
+
+    private static ProductResponseDTO syntheticProduct(long id) {
+        Random random = new Random(id);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            name.append(word(random)).append(' ');
+        }
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            description.append(word(random)).append(' ');
+        }
+        return new ProductResponseDTO(id, name.toString(), description.toString(), BigDecimal.ONE, 1,
+                "Categoría " + id % 50, LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+    }
+
+    private static String randomQuery(Random random) {
+        int terms = 1 + random.nextInt(3);
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            query.append(word(random)).append(' ');
+        }
+        return query.toString();
+    }
+
+    /**
+     * Palabra con distribución aproximadamente Zipf: los primeros términos del
+     * vocabulario aparecen en una fracción importante del catálogo.
+     */
+    private static String word(Random random) {
+        int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble());
+        return "w" + Integer.toString(rank, 36);
+    }
+}
@@ -0,0 +1,136 @@
+package com.microshop.product.search;
+
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ProductTextIndex.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("ProductTextIndex Tests")
+class ProductTextIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductTextIndex productTextIndex;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productTextIndex = new ProductTextIndex(productRepository, mock(PlatformTransactionManager.class));
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                product(1L, "Laptop HP", "Portátil de 15.6 pulgadas para oficina"),
+                product(2L, "Funda para laptop", "Funda acolchada"),
+                product(3L, "Monitor LG", "Monitor para laptop y sobremesa, ideal para oficina"),
+                product(4L, "Teclado mecánico", null)));
+        productTextIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("No debería estar listo hasta la primera construcción")
+    void shouldNotBeReadyBeforeRebuild() {
+        ProductTextIndex empty = new ProductTextIndex(productRepository, mock(PlatformTransactionManager.class));
+
+        assertFalse(empty.isReady());
+        assertTrue(productTextIndex.isReady());
+    }
+
+    @Test
+    @DisplayName("Debería ordenar por relevancia dando más peso al nombre y a los textos cortos")
+    void shouldRankByRelevance() {
+        assertEquals(List.of(2L, 1L, 3L), productTextIndex.search("laptop", 10));
+        assertEquals(List.of(3L, 1L), productTextIndex.search("monitor oficina", 10));
+        assertEquals(List.of(2L), productTextIndex.search("laptop", 1));
+    }
+
+    @Test
+    @DisplayName("Debería ignorar mayúsculas, tildes y signos de puntuación")
+    void shouldNormalizeTerms() {
+        assertEquals(List.of(4L), productTextIndex.search("MECANICO!", 10));
+        assertEquals(List.of(1L), productTextIndex.search("portatil", 10));
+        assertEquals(List.of(), productTextIndex.search("¿?", 10));
+        assertEquals(List.of(), productTextIndex.search("inexistente", 10));
+    }
+
+    @Test
+    @DisplayName("Debería aplicar altas, modificaciones y bajas")
+    void shouldApplyChanges() {
+        productTextIndex.onProductChanged(ProductChangedEvent.created(
+                product(5L, "Ratón inalámbrico", "Compatible con laptop")));
+        productTextIndex.onProductChanged(ProductChangedEvent.updated(
+                product(4L, "Teclado inalámbrico", null), "Electronics"));
+        productTextIndex.onProductChanged(ProductChangedEvent.deleted(2L, "Electronics"));
+
+        assertEquals(List.of(4L, 5L), productTextIndex.search("inalambrico", 10));
+        assertEquals(List.of(), productTextIndex.search("mecanico", 10));
+        assertFalse(productTextIndex.search("laptop", 10).contains(2L));
+    }
+
+    @Test
+    @DisplayName("Debería corregir erratas en los términos solo en modo fuzzy")
+    void shouldCorrectTyposWhenFuzzy() {
+        productTextIndex.onProductChanged(ProductChangedEvent.created(
+                product(5L, "Ratón inalámbrico", null)));
+
+        assertEquals(List.of(), productTextIndex.search("latpop", 10));
+        assertEquals(List.of(2L, 1L, 3L), productTextIndex.search("latpop", 10, true));
+        assertEquals(List.of(4L), productTextIndex.search("tecaldo mecanco", 10, true));
+        assertEquals(List.of(5L), productTextIndex.search("inalambrco", 10, true));
+        assertEquals(List.of(1L), productTextIndex.search("laptop hp", 1, true));
+        assertEquals(List.of(), productTextIndex.search("xyzzyq", 10, true));
+    }
+
+    @Test
+    @DisplayName("Debería acotar la distancia de edición de las correcciones")
+    void shouldBoundEditDistance() {
+        FuzzyTermIndex terms = new FuzzyTermIndex();
+        terms.add("monitor");
+        terms.add("monitores");
+        terms.add("ratón");
+        terms.compact();
+        terms.add("teclado");
+
+        assertEquals(List.of("monitor"), terms.closest("monitr"));
+        assertEquals(List.of("monitor"), terms.closest("monitor"));
+        assertEquals(List.of("teclado"), terms.closest("tcelad"));
+        assertEquals(List.of(), terms.closest("mntr"));
+        assertEquals(List.of(), terms.closest("rtn"));
+        assertEquals(2, FuzzyTermIndex.distance("monitor", "montr", 2));
+        assertEquals(3, FuzzyTermIndex.distance("monitor", "mtr", 2));
+        assertFalse(FuzzyTermIndex.accepts("rtx4090"));
+    }
+
+    @Test
+    @DisplayName("Debería recargar el producto de los cambios remotos")
+    void shouldReloadRemoteChanges() {
+        when(productRepository.findViewById(4L)).thenReturn(Optional.of(product(4L, "Teclado gaming", null)));
+
+        productTextIndex.onProductChanged(ProductChangedEvent.remote(ProductChangedEvent.Type.UPDATED,
+                4L, "Electronics", "Electronics"));
+
+        assertEquals(List.of(4L), productTextIndex.search("gaming", 10));
+    }
+
+    private static ProductResponseDTO product(Long id, String name, String description) {
+        return new ProductResponseDTO(id, name, description, new BigDecimal("10.00"), 1, "Electronics",
+                LocalDateTime.of(2024, 1, 1, 0, 0), 0L);
+    }
+}
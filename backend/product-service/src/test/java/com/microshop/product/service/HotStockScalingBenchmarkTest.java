@@ -0,0 +1,149 @@
+package com.microshop.product.service;
+
+import com.microshop.product.cache.HotStockCounters;
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de escalado con los núcleos: hilos crecientes descuentan stock de un
+ * mismo producto, desde los contadores en memoria de HotStockCounters y con el
+ * UPDATE condicional en base de datos, cuyo rendimiento no crece con los hilos
+ * porque todos esperan el bloqueo de la misma fila.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=HotStockScalingBenchmarkTest}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("Hot Stock Scaling Benchmark")
+class HotStockScalingBenchmarkTest {
+
+    private static final int HOT_DECREMENTS = 2_000_000;
+    private static final int DATABASE_DECREMENTS = 4_000;
+    private static final int BLOCK_SIZE = 10_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM product_stock_reservations");
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Los descuentos en memoria deberían escalar con los hilos sin vender de más")
+    void hotCountersShouldScaleWithThreads() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-8s %16s %16s%n", "hilos", "memoria (op/s)", "base datos (op/s)");
+        double singleThread = 0;
+        double lastHot = 0;
+        double lastDatabase = 0;
+        for (int threads = 1; threads <= Math.max(cores, 2); threads *= 2) {
+            Long hotId = productService.create(product(HOT_DECREMENTS)).getId();
+            HotStockCounters counters = new HotStockCounters(productRepository, productChangeFeedService,
+                    eventPublisher, jdbcTemplate, transactionManager, new SimpleMeterRegistry(), List.of(hotId),
+                    BLOCK_SIZE, Long.MAX_VALUE);
+            lastHot = run(threads, HOT_DECREMENTS, () -> counters.tryDecrement(hotId, 1).orElseThrow());
+            counters.releaseOnShutdown();
+            assertEquals(0, productRepository.findStockById(hotId).orElseThrow());
+
+            Long databaseId = productService.create(product(DATABASE_DECREMENTS)).getId();
+            lastDatabase = run(threads, DATABASE_DECREMENTS, () -> productStockService.decrement(databaseId, 1));
+            assertEquals(0, productRepository.findStockById(databaseId).orElseThrow());
+
+            if (threads == 1) {
+                singleThread = lastHot;
+            }
+            System.out.printf("%-8d %16.0f %16.0f%n", threads, lastHot, lastDatabase);
+        }
+
+        assertTrue(lastHot > lastDatabase * 10, "Memoria " + lastHot + " op/s frente a " + lastDatabase);
+        if (cores >= 4) {
+            assertTrue(lastHot > singleThread * 1.5, "Sin escalado: " + singleThread + " -> " + lastHot + " op/s");
+        }
+    }
+
+    // Métodos privados auxiliares
+
+    private static ProductRequestDTO product(int stock) {
+        return new ProductRequestDTO("Producto relámpago", "Producto de una venta relámpago",
+                new BigDecimal("9.99"), stock, "Ofertas");
+    }
+
+    /**
+     * Reparte {@code total} descuentos entre {@code threads} hilos que arrancan a la vez.
+     *
+     * @return Descuentos por segundo
+     */
+    private static double run(int threads, int total, Runnable decrement) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int share = total / threads + (t < total % threads ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    for (int i = 0; i < share; i++) {
+                        decrement.run();
+                    }
+                    return null;
+                }));
+            }
+            long start = System.nanoTime();
+            ready.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return total / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
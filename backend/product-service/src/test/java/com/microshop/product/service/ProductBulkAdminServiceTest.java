@@ -0,0 +1,201 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductBulkUpdateResultDTO;
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.dto.ProductChangesDTO;
+import com.microshop.product.dto.ProductPriceAdjustmentDTO;
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.dto.ProductRestockRequestDTO;
+import com.microshop.product.dto.ProductSelectionDTO;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de integración de ProductBulkAdminService con bloques de dos productos,
+ * para que cada operación recorra varios bloques.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest(properties = "product.bulk.chunk-size=2")
+@ActiveProfiles("test")
+@DisplayName("ProductBulkAdminService Tests")
+class ProductBulkAdminServiceTest {
+
+    @Autowired
+    private ProductBulkAdminService productBulkAdminService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long mouseId;
+    private Long keyboardId;
+    private Long monitorId;
+    private Long laptopId;
+    private Long chairId;
+
+    @BeforeEach
+    void setUp() {
+        mouseId = create("Ratón", "10.00", 5, "Periféricos");
+        keyboardId = create("Teclado", "49.99", 3, "periféricos");
+        monitorId = create("Monitor", "199.99", 0, "Periféricos");
+        laptopId = create("Portátil", "999.00", 2, "Portátiles");
+        ProductRequestDTO chair = new ProductRequestDTO("Silla", null, new BigDecimal("150.00"), 7, "Muebles");
+        chair.setAttributes(Map.of("color", "negro"));
+        chairId = productService.create(chair).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM product_tombstones");
+        jdbcTemplate.update("DELETE FROM product_attributes");
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Debería ajustar en porcentaje el precio de toda una categoría sin distinguir mayúsculas")
+    void shouldAdjustCategoryPricesByPercentage() {
+        long before = productChangeFeedService.horizon();
+
+        ProductBulkUpdateResultDTO result = productBulkAdminService.adjustPrices(new ProductPriceAdjustmentDTO(
+                null, " PERIFÉRICOS ", ProductPriceAdjustmentDTO.Type.PERCENTAGE, new BigDecimal("-15")));
+
+        assertEquals(3, result.getAffected());
+        assertTrue(result.getNotFound().isEmpty());
+        Map<Long, ProductResponseDTO> products = products();
+        assertEquals(new BigDecimal("8.50"), products.get(mouseId).getPrice());
+        assertEquals(new BigDecimal("42.49"), products.get(keyboardId).getPrice());
+        assertEquals(new BigDecimal("169.99"), products.get(monitorId).getPrice());
+        assertEquals(new BigDecimal("999.00"), products.get(laptopId).getPrice());
+        assertEquals(1L, products.get(mouseId).getVersion());
+
+        // Cada producto modificado recibe su propio número del feed de cambios
+        ProductChangesDTO changes = productChangeFeedService.changesSince(before, 100);
+        assertEquals(List.of(mouseId, keyboardId, monitorId), changes.getChanges().stream()
+                .map(ProductChangeDTO::getProductId).sorted().toList());
+        assertEquals(3, changes.getChanges().stream().map(ProductChangeDTO::getSeq).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Debería sumar un importe al precio de una lista de IDs e informar los inexistentes")
+    void shouldAdjustPricesByAmountForIds() {
+        ProductBulkUpdateResultDTO result = productBulkAdminService.adjustPrices(new ProductPriceAdjustmentDTO(
+                List.of(laptopId, mouseId, 999_999L, laptopId), null,
+                ProductPriceAdjustmentDTO.Type.AMOUNT, new BigDecimal("5.50")));
+
+        assertEquals(2, result.getAffected());
+        assertEquals(List.of(999_999L), result.getNotFound());
+        assertEquals(new BigDecimal("15.50"), products().get(mouseId).getPrice());
+        assertEquals(new BigDecimal("1004.50"), products().get(laptopId).getPrice());
+    }
+
+    @Test
+    @DisplayName("No debería modificar ningún precio si alguno quedaría fuera de rango")
+    void shouldRejectAdjustmentLeavingInvalidPrices() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> productBulkAdminService.adjustPrices(new ProductPriceAdjustmentDTO(null, "Periféricos",
+                        ProductPriceAdjustmentDTO.Type.AMOUNT, new BigDecimal("-10.00"))));
+
+        assertEquals("El ajuste dejaría 1 productos con un precio fuera del rango permitido (0.01 - 99999999.99)",
+                ex.getMessage());
+        assertEquals(new BigDecimal("49.99"), products().get(keyboardId).getPrice());
+        assertThrows(IllegalArgumentException.class, () -> productBulkAdminService.adjustPrices(
+                new ProductPriceAdjustmentDTO(null, "Periféricos", ProductPriceAdjustmentDTO.Type.PERCENTAGE,
+                        new BigDecimal("-100"))));
+    }
+
+    @Test
+    @DisplayName("Debería exigir una lista de IDs o una categoría, pero no ambas")
+    void shouldRequireSingleSelection() {
+        assertThrows(IllegalArgumentException.class, () -> productBulkAdminService.delete(
+                new ProductSelectionDTO(List.of(mouseId), "Periféricos")));
+        assertThrows(IllegalArgumentException.class, () -> productBulkAdminService.delete(
+                new ProductSelectionDTO(List.of(), " ")));
+    }
+
+    @Test
+    @DisplayName("Debería reponer el stock de una lista de productos")
+    void shouldRestockProducts() {
+        ProductBulkUpdateResultDTO result = productBulkAdminService.restock(
+                new ProductRestockRequestDTO(List.of(mouseId, keyboardId, monitorId), 10));
+
+        assertEquals(3, result.getAffected());
+        Map<Long, ProductResponseDTO> products = products();
+        assertEquals(15, products.get(mouseId).getStock());
+        assertEquals(13, products.get(keyboardId).getStock());
+        assertEquals(10, products.get(monitorId).getStock());
+        assertEquals(2, products.get(laptopId).getStock());
+
+        jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = ?", Integer.MAX_VALUE - 5, laptopId);
+        assertThrows(IllegalArgumentException.class, () -> productBulkAdminService.restock(
+                new ProductRestockRequestDTO(List.of(mouseId, laptopId), 10)));
+        assertEquals(15, products().get(mouseId).getStock());
+    }
+
+    @Test
+    @DisplayName("Debería eliminar una categoría dejando las lápidas en el feed de cambios")
+    void shouldDeleteCategoryWithTombstones() {
+        long before = productChangeFeedService.horizon();
+
+        ProductBulkUpdateResultDTO result = productBulkAdminService.delete(
+                new ProductSelectionDTO(null, "periféricos"));
+
+        assertEquals(3, result.getAffected());
+        assertEquals(List.of(laptopId, chairId), products().keySet().stream().sorted().toList());
+        ProductChangesDTO changes = productChangeFeedService.changesSince(before, 100);
+        assertEquals(3, changes.getChanges().size());
+        assertTrue(changes.getChanges().stream().allMatch(ProductChangeDTO::isDeleted));
+    }
+
+    @Test
+    @DisplayName("Debería eliminar una lista de productos junto con sus atributos")
+    void shouldDeleteIdsWithAttributes() {
+        ProductBulkUpdateResultDTO result = productBulkAdminService.delete(
+                new ProductSelectionDTO(List.of(chairId, mouseId, 999_999L), null));
+
+        assertEquals(2, result.getAffected());
+        assertEquals(List.of(999_999L), result.getNotFound());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM product_attributes WHERE product_id = ?", Integer.class, chairId));
+        assertEquals(3, productRepository.count());
+    }
+
+    // Métodos privados auxiliares
+
+    private Long create(String name, String price, int stock, String category) {
+        return productService.create(new ProductRequestDTO(name, null, new BigDecimal(price), stock, category))
+                .getId();
+    }
+
+    private Map<Long, ProductResponseDTO> products() {
+        return productRepository.findByIdIn(List.of(mouseId, keyboardId, monitorId, laptopId, chairId)).stream()
+                .collect(Collectors.toMap(ProductResponseDTO::getId, Function.identity()));
+    }
+}
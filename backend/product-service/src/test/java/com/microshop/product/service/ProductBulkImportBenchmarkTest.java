@@ -0,0 +1,114 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductBulkResultDTO;
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark que compara el rendimiento, en productos por segundo, de la
+ * importación masiva (lectura en streaming, bloques por transacción e
+ * inserciones por lotes) con el alta individual de ProductService, una
+ * transacción por producto.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductBulkImportBenchmarkTest}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("Product Bulk Import Benchmark")
+class ProductBulkImportBenchmarkTest {
+
+    private static final int BULK_PRODUCTS = 50_000;
+    private static final int SINGLE_PRODUCTS = 5_000;
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("La importación masiva debería guardar más productos por segundo que las altas individuales")
+    void bulkImportShouldOutperformSingleCreates() throws IOException {
+        // Calentamiento de ambos caminos
+        productBulkService.importProducts(body(1_000));
+        for (int i = 0; i < 500; i++) {
+            productService.create(product(i));
+        }
+        productRepository.deleteAllInBatch();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_PRODUCTS; i++) {
+            productService.create(product(i));
+        }
+        double singleRate = SINGLE_PRODUCTS / seconds(start);
+
+        byte[] payload = body(BULK_PRODUCTS).readAllBytes();
+        start = System.nanoTime();
+        ProductBulkResultDTO result = productBulkService.importProducts(new ByteArrayInputStream(payload));
+        double bulkRate = BULK_PRODUCTS / seconds(start);
+
+        assertEquals(BULK_PRODUCTS, result.getCreated());
+        System.out.printf("%-12s %12s %16s%n", "camino", "productos", "productos/s");
+        System.out.printf("%-12s %12d %16.0f%n", "individual", SINGLE_PRODUCTS, singleRate);
+        System.out.printf("%-12s %12d %16.0f%n", "masivo", BULK_PRODUCTS, bulkRate);
+
+        assertTrue(bulkRate > singleRate,
+                "La importación masiva guardó " + bulkRate + " productos/s frente a " + singleRate);
+    }
+
+    // Métodos privados auxiliares
+
+    private static ProductRequestDTO product(int i) {
+        return new ProductRequestDTO("Producto " + i, "Descripción del producto " + i,
+                BigDecimal.valueOf(i % 100_000 + 1, 2), i % 500, "Categoría " + i % 50);
+    }
+
+    private static ByteArrayInputStream body(int products) {
+        StringBuilder json = new StringBuilder(products * 140).append('[');
+        for (int i = 0; i < products; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"Producto ").append(i)
+                    .append("\",\"description\":\"Descripción del producto ").append(i)
+                    .append("\",\"price\":").append(BigDecimal.valueOf(i % 100_000 + 1, 2))
+                    .append(",\"stock\":").append(i % 500)
+                    .append(",\"category\":\"Categoría ").append(i % 50)
+                    .append("\",\"attributes\":{\"color\":\"c").append(i % 8).append("\"}}");
+        }
+        return new ByteArrayInputStream(json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductChangeDTO;
+import com.microshop.product.dto.ProductChangesDTO;
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de integración de ProductChangeFeedService con escrituras concurrentes.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("ProductChangeFeedService Tests")
+class ProductChangeFeedServiceTest {
+
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM product_tombstones");
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("No debería avanzar más allá de un cambio que confirma después que otro posterior")
+    void shouldNotSkipLateCommittingChange() throws Exception {
+        long before = productChangeFeedService.horizon();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> late = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    Long id = productService.create(request("Tarde")).getId();
+                    written.countDown();
+                    await(release);
+                    return id;
+                }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+
+        // Un cambio posterior confirma mientras el primero sigue en curso
+        Long early = productService.create(request("Pronto")).getId();
+        ProductChangesDTO pending = productChangeFeedService.changesSince(before, 100);
+        assertTrue(pending.getChanges().isEmpty());
+
+        release.countDown();
+        Long lateId = late.get(10, TimeUnit.SECONDS);
+        ProductChangesDTO changes = productChangeFeedService.changesSince(pending.getLastSeq(), 100);
+        assertEquals(2, changes.getChanges().size());
+        assertTrue(changes.getChanges().stream().map(ProductChangeDTO::getProductId).toList()
+                .containsAll(List.of(lateId, early)));
+    }
+
+    // Métodos privados auxiliares
+
+    private static ProductRequestDTO request(String name) {
+        return new ProductRequestDTO(name, null, new BigDecimal("10.00"), 1, "Feed");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
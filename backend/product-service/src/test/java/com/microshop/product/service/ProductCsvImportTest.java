@@ -0,0 +1,191 @@
+package com.microshop.product.service;
+
+import com.microshop.product.ProductServiceApplication;
+import com.microshop.product.dto.ProductCsvImportErrorDTO;
+import com.microshop.product.dto.ProductCsvImportResultDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests de la importación CSV con COPY contra PostgreSQL: errores por línea,
+ * altas y modificaciones en una sola integración y restricciones de la tabla.
+ *
+ * Requiere una base de datos accesible: {@code PRODUCT_TEST_PG_URL=jdbc:postgresql://localhost:5432/microshopdb}
+ * (usuario y contraseña opcionales en {@code PRODUCT_TEST_PG_USERNAME} y {@code PRODUCT_TEST_PG_PASSWORD}).
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@Tag("postgres")
+@EnabledIfEnvironmentVariable(named = "PRODUCT_TEST_PG_URL", matches = ".+")
+@DisplayName("Product CSV Import Tests")
+class ProductCsvImportTest {
+
+    private static final String CATEGORY_PREFIX = "Csv-";
+    private static final String HEADER = "id,name,description,price,stock,category\n";
+
+    private static ConfigurableApplicationContext instance;
+    private static ProductCsvImportService productCsvImportService;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        instance = new SpringApplicationBuilder(ProductServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + System.getenv("PRODUCT_TEST_PG_URL"),
+                        "spring.datasource.username=" + env("PRODUCT_TEST_PG_USERNAME", "microshop"),
+                        "spring.datasource.password=" + env("PRODUCT_TEST_PG_PASSWORD", "microshop123"),
+                        "spring.jpa.show-sql=false",
+                        "product.cache.invalidation.enabled=false",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.enabled=false",
+                        "spring.cloud.service-registry.auto-registration.enabled=false")
+                .run();
+        productCsvImportService = instance.getBean(ProductCsvImportService.class);
+        jdbcTemplate = instance.getBean(JdbcTemplate.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM products WHERE category LIKE ?", CATEGORY_PREFIX + "%");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (instance != null) {
+            instance.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería crear y actualizar las líneas válidas e informar las inválidas con su número de línea")
+    void shouldMergeValidLinesAndReportInvalidOnes() {
+        ProductCsvImportResultDTO seed = productCsvImportService.importCsv(csv(
+                ",Teclado,Teclado mecánico,49.99,10,Csv-Periféricos\n"));
+        assertEquals(1, seed.getCreated());
+        Long keyboardId = jdbcTemplate.queryForObject(
+                "SELECT id FROM products WHERE name = 'Teclado' AND category LIKE 'Csv-%'", Long.class);
+
+        ProductCsvImportResultDTO result = productCsvImportService.importCsv(csv(
+                keyboardId + ",Teclado Pro,\"Teclado, mecánico\",59.99,8,Csv-Periféricos\n" +
+                ",Ratón,,19.99,25,Csv-Periféricos\n" +
+                ",Sin precio,,,3,Csv-Periféricos\n" +
+                ",Gratis,,0,3,Csv-Periféricos\n" +
+                "999999999,Fantasma,,1,1,Csv-Otros\n" +
+                ",Stock negativo,,5,-1,Csv-Otros\n"));
+
+        assertEquals(6, result.getRows());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(4L, 5L, 6L, 7L),
+                result.getErrors().stream().map(ProductCsvImportErrorDTO::getLine).toList());
+        assertEquals("Producto no encontrado con ID: 999999999", result.getErrors().get(2).getError());
+
+        Map<String, Object> keyboard = jdbcTemplate.queryForMap(
+                "SELECT name, description, price, stock, version FROM products WHERE id = ?", keyboardId);
+        assertEquals("Teclado Pro", keyboard.get("name"));
+        assertEquals("Teclado, mecánico", keyboard.get("description"));
+        assertEquals(0, new BigDecimal("59.99").compareTo((BigDecimal) keyboard.get("price")));
+        assertEquals(8, keyboard.get("stock"));
+        assertEquals(1L, ((Number) keyboard.get("version")).longValue());
+    }
+
+    @Test
+    @DisplayName("Debería descartar con su número de línea el stock por debajo de las unidades reservadas")
+    void shouldRejectStockBelowReservedPerLine() {
+        productCsvImportService.importCsv(csv(",Consola,,299.99,10,Csv-Consolas\n"));
+        Long consoleId = jdbcTemplate.queryForObject(
+                "SELECT id FROM products WHERE category = 'Csv-Consolas'", Long.class);
+        jdbcTemplate.update("UPDATE products SET reserved_stock = 5 WHERE id = ?", consoleId);
+
+        ProductCsvImportResultDTO result = productCsvImportService.importCsv(csv(
+                consoleId + ",Consola,,299.99,3,Csv-Consolas\n" +
+                ",Mando,,59.99,20,Csv-Consolas\n"));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(0, result.getUpdated());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertEquals("El stock no puede ser 3: hay 5 unidades reservadas", result.getErrors().get(0).getError());
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class,
+                consoleId));
+    }
+
+    @Test
+    @DisplayName("Un ID repetido debería quedarse con la última línea")
+    void shouldKeepLastLineForRepeatedIds() {
+        productCsvImportService.importCsv(csv(",Monitor,,199.99,4,Csv-Pantallas\n"));
+        Long monitorId = jdbcTemplate.queryForObject(
+                "SELECT id FROM products WHERE category = 'Csv-Pantallas'", Long.class);
+
+        ProductCsvImportResultDTO result = productCsvImportService.importCsv(csv(
+                monitorId + ",Monitor 24,,179.99,4,Csv-Pantallas\n" +
+                monitorId + ",Monitor 27,,249.99,2,Csv-Pantallas\n"));
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertEquals("Monitor 27", jdbcTemplate.queryForObject(
+                "SELECT name FROM products WHERE id = ?", String.class, monitorId));
+    }
+
+    @Test
+    @DisplayName("Los IDs de las altas no deberían coincidir con los que reserva Hibernate")
+    void shouldAssignIdsFromSequenceBlocks() {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            lines.append(",Producto CSV ").append(i).append(",,1.50,1,Csv-Lote\n");
+        }
+
+        ProductCsvImportResultDTO result = productCsvImportService.importCsv(csv(lines.toString()));
+
+        assertEquals(120, result.getCreated());
+        assertEquals(120, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT id) FROM products WHERE category = 'Csv-Lote'", Integer.class));
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT max(id) <= (SELECT last_value FROM products_id_seq) FROM products " +
+                "WHERE category = 'Csv-Lote'", Boolean.class));
+    }
+
+    @Test
+    @DisplayName("Un CSV mal formado no debería guardar nada")
+    void shouldRejectMalformedCsv() {
+        assertThrows(IllegalArgumentException.class, () -> productCsvImportService.importCsv(csv(
+                ",Teclado,,49.99,10,Csv-Periféricos\n" +
+                ",\"Sin cerrar,,1,1,Csv-Periféricos\n")));
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE category LIKE 'Csv-%'", Integer.class));
+    }
+
+    // Métodos privados auxiliares
+
+    private static InputStream csv(String lines) {
+        return new ByteArrayInputStream((HEADER + lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -1,27 +1,47 @@
 package com.microshop.product.service;
 
+import com.microshop.product.cache.ProductCache;
+import com.microshop.product.cache.ProductIdFilter;
+import com.microshop.product.dto.ProductBatchItemDTO;
+import com.microshop.product.dto.ProductPageDTO;
 import com.microshop.product.dto.ProductRequestDTO;
 import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.event.ProductChangedEvent;
+import com.microshop.product.exception.InsufficientStockException;
+import com.microshop.product.exception.PreconditionFailedException;
 import com.microshop.product.exception.ProductNotFoundException;
 import com.microshop.product.model.Product;
+import com.microshop.product.repository.ProductIdAllocationRepository;
 import com.microshop.product.repository.ProductRepository;
+import com.microshop.product.util.KeysetCursor;
+import com.microshop.product.util.ProductSort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,7 +57,18 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ProductChangeFeedService productChangeFeedService;
+
+    private ProductCache productCache;
+    private ProductIdAllocationRepository productIdAllocationRepository;
+    private ProductIdFilter productIdFilter;
     private ProductService productService;
 
     private Product testProduct;
@@ -45,6 +76,15 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        productCache = new ProductCache(
+                new ConcurrentMapCacheManager(ProductCache.PRODUCTS, ProductCache.PRODUCTS_BY_CATEGORY));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        productIdAllocationRepository = mock(ProductIdAllocationRepository.class);
+        productIdFilter = new ProductIdFilter(productRepository, mock(ProductChangeFeedService.class),
+                productIdAllocationRepository, mock(PlatformTransactionManager.class), meterRegistry, true, 600_000);
+        productService = new ProductService(productRepository, productCache, eventPublisher, meterRegistry,
+                productIdFilter, categoryService, productChangeFeedService);
+
         testProduct = new Product();
         testProduct.setId(1L);
         testProduct.setName("Laptop HP");
@@ -75,25 +115,82 @@ class ProductServiceTest {
         product2.setCategory("Accessories");
         product2.setCreatedAt(LocalDateTime.now());
 
-        List<Product> products = Arrays.asList(testProduct, product2);
-        when(productRepository.findAll()).thenReturn(products);
+        List<ProductResponseDTO> products = Arrays.asList(
+                ProductResponseDTO.fromEntity(testProduct), ProductResponseDTO.fromEntity(product2));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))).thenReturn(products);
 
         // When
-        List<ProductResponseDTO> result = productService.findAll();
+        ProductPageDTO result = productService.findAll(ProductSort.ID, null, 50);
 
         // Then
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Laptop HP", result.get(0).getName());
-        assertEquals("Mouse Logitech", result.get(1).getName());
-        verify(productRepository, times(1)).findAll();
+        assertEquals(2, result.getItems().size());
+        assertEquals("Laptop HP", result.getItems().get(0).getName());
+        assertEquals("Mouse Logitech", result.getItems().get(1).getName());
+        assertFalse(result.hasNext());
+        verify(productRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51));
+    }
+
+    @Test
+    @DisplayName("Debería devolver el cursor de la página siguiente cuando hay más productos")
+    void shouldReturnNextCursorWhenMoreProductsExist() {
+        // Given
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Mouse Logitech");
+        product2.setPrice(new BigDecimal("29.99"));
+        product2.setStock(50);
+        product2.setCategory("Accessories");
+        product2.setCreatedAt(LocalDateTime.now());
+
+        when(productRepository.findByOrderByPriceAscIdAsc(Limit.of(2)))
+                .thenReturn(Arrays.asList(ProductResponseDTO.fromEntity(product2),
+                        ProductResponseDTO.fromEntity(testProduct)));
+
+        // When
+        ProductPageDTO result = productService.findAll(ProductSort.PRICE, null, 1);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertTrue(result.hasNext());
+        KeysetCursor cursor = KeysetCursor.decode(result.getNextCursor(), ProductSort.PRICE);
+        assertEquals(2L, cursor.getLastId());
+        assertEquals(new BigDecimal("29.99"), cursor.getPrice());
+    }
+
+    @Test
+    @DisplayName("Debería continuar la paginación desde el cursor recibido")
+    void shouldContinuePaginationFromCursor() {
+        // Given
+        KeysetCursor cursor = KeysetCursor.decode(
+                KeysetCursor.after(ProductSort.PRICE, ProductResponseDTO.fromEntity(testProduct)).encode(),
+                ProductSort.PRICE);
+        when(productRepository.findPageAfterPrice(new BigDecimal("899.99"), 1L, Limit.of(11)))
+                .thenReturn(List.of());
+
+        // When
+        ProductPageDTO result = productService.findAll(ProductSort.PRICE, cursor, 10);
+
+        // Then
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.hasNext());
+        verify(productRepository).findPageAfterPrice(new BigDecimal("899.99"), 1L, Limit.of(11));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar tamaños de página fuera de rango")
+    void shouldRejectInvalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> productService.findAll(ProductSort.ID, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.findAll(ProductSort.ID, null, ProductService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     @DisplayName("Debería encontrar un producto por ID")
     void shouldFindProductById() {
         // Given
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(ProductResponseDTO.fromEntity(testProduct)));
 
         // When
         ProductResponseDTO result = productService.findById(1L);
@@ -103,18 +200,130 @@ class ProductServiceTest {
         assertEquals("Laptop HP", result.getName());
         assertEquals(new BigDecimal("899.99"), result.getPrice());
         assertEquals("Electronics", result.getCategory());
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findViewById(1L);
     }
 
     @Test
     @DisplayName("Debería lanzar excepción cuando el producto no existe")
     void shouldThrowExceptionWhenProductNotFound() {
         // Given
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findViewById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ProductNotFoundException.class, () -> productService.findById(999L));
-        verify(productRepository, times(1)).findById(999L);
+        verify(productRepository, times(1)).findViewById(999L);
+    }
+
+    @Test
+    @DisplayName("Debería descartar IDs inexistentes sin consultar la base de datos")
+    void shouldRejectMissingIdsWithoutQuerying() {
+        // Given
+        when(productRepository.streamAllIds()).thenReturn(Stream.of(1L, 1000L));
+        when(productIdAllocationRepository.findMinFloor(anyLong())).thenReturn(Optional.of(1001L));
+        productIdFilter.rebuild();
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class, () -> productService.findById(999L));
+        when(productRepository.findByIdIn(List.of(1L))).thenReturn(List.of(ProductResponseDTO.fromEntity(testProduct)));
+        List<ProductBatchItemDTO> result = productService.findByIds(List.of(1L, 999L));
+        assertTrue(result.get(0).isFound());
+        assertFalse(result.get(1).isFound());
+        verify(productRepository, never()).findViewById(999L);
+    }
+
+    @Test
+    @DisplayName("Debería servir lecturas repetidas desde la cache")
+    void shouldServeRepeatedReadsFromCache() {
+        // Given
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(ProductResponseDTO.fromEntity(testProduct)));
+
+        // When
+        ProductResponseDTO first = productService.findById(1L);
+        ProductResponseDTO second = productService.findById(1L);
+
+        // Then
+        assertSame(first, second);
+        verify(productRepository, times(1)).findViewById(1L);
+    }
+
+    @Test
+    @DisplayName("Debería invalidar el producto y sus categorías anterior y nueva")
+    void shouldEvictProductAndAffectedCategories() {
+        // Given
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(ProductResponseDTO.fromEntity(testProduct)));
+        when(productRepository.findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(anyString(), any(), any(), eq(0L), any()))
+                .thenReturn(List.of(ProductResponseDTO.fromEntity(testProduct)));
+        productService.findById(1L);
+        productService.findByCategory("Electronics", null, null, ProductSort.ID, null, 50);
+        productService.findByCategory("Computers", null, null, ProductSort.ID, null, 50);
+        productService.findByCategory("Accessories", null, null, ProductSort.ID, null, 50);
+
+        // When
+        productCache.onProductChanged(ProductChangedEvent.updated(
+                ProductResponseDTO.fromEntity(testProduct), "computers"));
+        productService.findById(1L);
+        productService.findByCategory("Electronics", null, null, ProductSort.ID, null, 50);
+        productService.findByCategory("Computers", null, null, ProductSort.ID, null, 50);
+        productService.findByCategory("Accessories", null, null, ProductSort.ID, null, 50);
+
+        // Then
+        verify(productRepository, times(2)).findViewById(1L);
+        verify(productRepository, times(2))
+                .findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("Electronics"), any(), any(), eq(0L), any());
+        verify(productRepository, times(2))
+                .findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("Computers"), any(), any(), eq(0L), any());
+        verify(productRepository, times(1))
+                .findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("Accessories"), any(), any(), eq(0L), any());
+    }
+
+    @Test
+    @DisplayName("Debería obtener productos por lote en el orden solicitado marcando los inexistentes")
+    void shouldFindProductsByIdsInRequestOrder() {
+        // Given
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Mouse Logitech");
+        product2.setPrice(new BigDecimal("29.99"));
+        product2.setStock(50);
+        product2.setCategory("Accessories");
+        when(productRepository.findViewById(1L)).thenReturn(Optional.of(ProductResponseDTO.fromEntity(testProduct)));
+        productService.findById(1L);
+        when(productRepository.findByIdIn(List.of(2L, 999L))).thenReturn(List.of(ProductResponseDTO.fromEntity(product2)));
+
+        // When
+        List<ProductBatchItemDTO> result = productService.findByIds(List.of(2L, 999L, 1L, 2L));
+
+        // Then
+        assertEquals(List.of(2L, 999L, 1L, 2L), result.stream().map(ProductBatchItemDTO::getId).toList());
+        assertEquals(List.of(true, false, true, true), result.stream().map(ProductBatchItemDTO::isFound).toList());
+        assertNull(result.get(1).getProduct());
+        assertEquals("Laptop HP", result.get(2).getProduct().getName());
+        verify(productRepository, times(1)).findByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Debería dividir los lotes grandes en varias consultas IN")
+    void shouldChunkLargeBatchQueries() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(productRepository.findByIdIn(any())).thenReturn(List.of());
+
+        // When
+        List<ProductBatchItemDTO> result = productService.findByIds(ids);
+
+        // Then
+        assertEquals(2500, result.size());
+        assertTrue(result.stream().noneMatch(ProductBatchItemDTO::isFound));
+        verify(productRepository, times(3)).findByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar lotes vacíos o demasiado grandes")
+    void shouldRejectInvalidBatch() {
+        assertThrows(IllegalArgumentException.class, () -> productService.findByIds(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> productService.findByIds(
+                LongStream.rangeClosed(1, ProductService.MAX_BATCH_SIZE + 1).boxed().toList()));
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -130,18 +339,45 @@ class ProductServiceTest {
         product2.setCategory("Electronics");
         product2.setCreatedAt(LocalDateTime.now());
 
-        List<Product> products = Arrays.asList(testProduct, product2);
-        when(productRepository.findByCategoryIgnoreCase("Electronics")).thenReturn(products);
+        List<ProductResponseDTO> products = Arrays.asList(
+                ProductResponseDTO.fromEntity(testProduct), ProductResponseDTO.fromEntity(product2));
+        when(productRepository.findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc("Electronics",
+                BigDecimal.ZERO, new BigDecimal("100000000"), 0L, Limit.of(51)))
+                .thenReturn(products);
 
         // When
-        List<ProductResponseDTO> result = productService.findByCategory("Electronics");
+        ProductPageDTO result = productService.findByCategory("Electronics", null, null, ProductSort.ID, null, 50);
 
         // Then
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Electronics", result.get(0).getCategory());
-        assertEquals("Electronics", result.get(1).getCategory());
-        verify(productRepository, times(1)).findByCategoryIgnoreCase("Electronics");
+        assertEquals(2, result.getItems().size());
+        assertEquals("Electronics", result.getItems().get(0).getCategory());
+        assertEquals("Electronics", result.getItems().get(1).getCategory());
+        verify(productRepository, times(1))
+                .findByCategoryIgnoreCaseAndIdGreaterThanOrderByIdAsc("Electronics",
+                BigDecimal.ZERO, new BigDecimal("100000000"), 0L, Limit.of(51));
+    }
+
+    @Test
+    @DisplayName("Debería exportar el catálogo completo en orden de ID")
+    void shouldExportCatalogInIdOrder() {
+        // Given
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Mouse Logitech");
+        product2.setPrice(new BigDecimal("29.99"));
+        product2.setStock(50);
+        product2.setCategory("Accessories");
+        when(productRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                ProductResponseDTO.fromEntity(testProduct), ProductResponseDTO.fromEntity(product2)));
+        List<Long> exportedIds = new ArrayList<>();
+
+        // When
+        long exported = productService.exportAll(product -> exportedIds.add(product.getId()));
+
+        // Then
+        assertEquals(2, exported);
+        assertEquals(List.of(1L, 2L), exportedIds);
     }
 
     @Test
@@ -159,6 +395,7 @@ class ProductServiceTest {
         assertEquals(new BigDecimal("899.99"), result.getPrice());
         assertEquals(10, result.getStock());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -182,7 +419,8 @@ class ProductServiceTest {
         updatedProduct.setCreatedAt(LocalDateTime.now());
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.lockReservedStockById(1L)).thenReturn(Optional.of(0));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
 
         // When
         ProductResponseDTO result = productService.update(1L, updateDTO);
@@ -193,34 +431,73 @@ class ProductServiceTest {
         assertEquals(new BigDecimal("999.99"), result.getPrice());
         assertEquals(5, result.getStock());
         verify(productRepository, times(1)).findById(1L);
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProductChangedEvent.Type.UPDATED, event.getValue().getType());
+        assertEquals("Electronics", event.getValue().getPreviousCategory());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar la actualización si la versión esperada no coincide")
+    void shouldRejectUpdateWhenVersionDoesNotMatch() {
+        // Given
+        testProduct.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> productService.update(1L, productRequestDTO, 2L));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar la actualización si el nuevo stock no cubre el reservado")
+    void shouldRejectUpdateBelowReservedStock() {
+        // Given
+        productRequestDTO.setStock(5);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.lockReservedStockById(1L)).thenReturn(Optional.of(8));
+
+        // When & Then
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> productService.update(1L, productRequestDTO));
+        assertEquals("El stock del producto con ID 1 no puede ser 5: hay 8 unidades reservadas", ex.getMessage());
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     @DisplayName("Debería eliminar un producto")
     void shouldDeleteProduct() {
         // Given
-        when(productRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(productRepository).deleteById(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        doNothing().when(productRepository).delete(testProduct);
 
         // When
         productService.delete(1L);
 
         // Then
-        verify(productRepository, times(1)).existsById(1L);
-        verify(productRepository, times(1)).deleteById(1L);
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).delete(testProduct);
+        verify(productChangeFeedService).recordDeletion(1L);
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProductChangedEvent.Type.DELETED, event.getValue().getType());
+        assertEquals("Electronics", event.getValue().getPreviousCategory());
     }
 
     @Test
     @DisplayName("Debería lanzar excepción al eliminar producto inexistente")
     void shouldThrowExceptionWhenDeletingNonExistentProduct() {
         // Given
-        when(productRepository.existsById(999L)).thenReturn(false);
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ProductNotFoundException.class, () -> productService.delete(999L));
-        verify(productRepository, times(1)).existsById(999L);
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository, times(1)).findById(999L);
+        verify(productRepository, never()).delete(any(Product.class));
+        verifyNoInteractions(eventPublisher);
     }
 }
 
@@ -0,0 +1,149 @@
+package com.microshop.product.service;
+
+import com.microshop.product.dto.ProductRequestDTO;
+import com.microshop.product.dto.ProductResponseDTO;
+import com.microshop.product.exception.InsufficientStockException;
+import com.microshop.product.exception.PreconditionFailedException;
+import com.microshop.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de contención: cientos de hilos descuentan stock del mismo producto.
+ * Compara el descuento atómico de ProductStockService (un UPDATE condicional) con
+ * el camino anterior de leer el producto y guardarlo con PUT, que bajo contención
+ * rechaza casi todas las escrituras por conflicto de versión.
+ *
+ * Se ejecuta bajo demanda: {@code mvn test -Dbenchmarks=true -Dtest=ProductStockContentionBenchmarkTest}.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("Product Stock Contention Benchmark")
+class ProductStockContentionBenchmarkTest {
+
+    private static final int THREADS = 200;
+    private static final int DECREMENTS_PER_THREAD = 50;
+    private static final int INITIAL_STOCK = 8_000;
+
+    @Autowired
+    private ProductStockService productStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("El descuento atómico no debería vender más stock del disponible ni perder descuentos")
+    void atomicDecrementShouldNeverOversell() throws Exception {
+        Long atomicId = productService.create(product(INITIAL_STOCK)).getId();
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long start = System.nanoTime();
+        runConcurrently(() -> {
+            for (int i = 0; i < DECREMENTS_PER_THREAD; i++) {
+                try {
+                    productStockService.decrement(atomicId, 1);
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException ex) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+        double atomicRate = THREADS * DECREMENTS_PER_THREAD / seconds(start);
+
+        Long updateId = productService.create(product(INITIAL_STOCK)).getId();
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        start = System.nanoTime();
+        runConcurrently(() -> {
+            for (int i = 0; i < DECREMENTS_PER_THREAD; i++) {
+                ProductResponseDTO current = productRepository.findViewById(updateId).orElseThrow();
+                ProductRequestDTO request = product(current.getStock() - 1);
+                try {
+                    productService.update(updateId, request, current.getVersion());
+                    updated.incrementAndGet();
+                } catch (PreconditionFailedException | OptimisticLockingFailureException ex) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+        double updateRate = THREADS * DECREMENTS_PER_THREAD / seconds(start);
+
+        System.out.printf("%-12s %10s %10s %12s %14s%n", "camino", "aplicados", "rechazos", "stock final", "peticiones/s");
+        System.out.printf("%-12s %10d %10d %12d %14.0f%n", "atómico", sold.get(), rejected.get(),
+                productRepository.findStockById(atomicId).orElseThrow(), atomicRate);
+        System.out.printf("%-12s %10d %10d %12d %14.0f%n", "leer+PUT", updated.get(), conflicts.get(),
+                productRepository.findStockById(updateId).orElseThrow(), updateRate);
+
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(THREADS * DECREMENTS_PER_THREAD - INITIAL_STOCK, rejected.get());
+        assertEquals(0, productRepository.findStockById(atomicId).orElseThrow());
+        assertEquals(INITIAL_STOCK - updated.get(), productRepository.findStockById(updateId).orElseThrow());
+    }
+
+    // Métodos privados auxiliares
+
+    private static ProductRequestDTO product(int stock) {
+        return new ProductRequestDTO("Producto disputado", "Producto con mucha demanda",
+                new BigDecimal("19.99"), stock, "Ofertas");
+    }
+
+    /**
+     * Ejecuta la tarea en {@value #THREADS} hilos que arrancan a la vez.
+     */
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            ready.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.microshop.product.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para SingleFlight.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("findById", meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Las llamadas concurrentes de la misma clave deberían compartir una única carga")
+    void shouldShareInFlightLoadBetweenConcurrentCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                awaitCoalesced(CALLERS - 1);
+                return "producto-1";
+            })));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "duplicado";
+                })));
+            }
+
+            for (Future<String> result : results) {
+                assertEquals("producto-1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS - 1, coalescedCount());
+    }
+
+    @Test
+    @DisplayName("Debería propagar el error de la carga y permitir reintentar después")
+    void shouldPropagateFailureAndAllowRetry() {
+        IllegalStateException failure = new IllegalStateException("fallo");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute(1L, () -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, thrown);
+        assertEquals("producto-1", singleFlight.execute(1L, () -> "producto-1"));
+        assertEquals(0, coalescedCount());
+    }
+
+    private void awaitCoalesced(int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get(SingleFlight.COALESCED_METRIC).tag("operation", "findById").counter().count();
+    }
+}
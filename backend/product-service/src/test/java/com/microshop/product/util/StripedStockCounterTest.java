@@ -0,0 +1,127 @@
+package com.microshop.product.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para StripedStockCounter.
+ *
+ * @author Microshop Platform
+ * @version 1.0.0
+ */
+@DisplayName("StripedStockCounter Tests")
+class StripedStockCounterTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    @DisplayName("Debería vender las unidades añadidas y rechazar las que faltan")
+    void shouldSellAddedUnits() {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(5);
+
+        assertTrue(counter.tryTake(3));
+        assertFalse(counter.tryTake(3));
+        assertTrue(counter.tryTake(2));
+        assertEquals(0, counter.available());
+        assertEquals(5, counter.sold());
+    }
+
+    @Test
+    @DisplayName("Debería tomar prestadas las unidades de las demás franjas")
+    void shouldBorrowFromOtherStripes() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8);
+        // Cada hilo añade unidades a su propia franja
+        runConcurrently(8, () -> counter.add(10));
+
+        assertTrue(counter.tryTake(80));
+        assertEquals(0, counter.available());
+        assertFalse(counter.tryTake(1));
+    }
+
+    @Test
+    @DisplayName("Con hilos concurrentes no debería vender más unidades de las disponibles")
+    void shouldNeverOversellUnderContention() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(4);
+        counter.add(10_000);
+        List<Integer> sales = runConcurrently(THREADS, () -> {
+            int sold = 0;
+            for (int i = 0; i < 1_000; i++) {
+                if (counter.tryTake(1)) {
+                    sold++;
+                }
+            }
+            return sold;
+        });
+
+        assertEquals(10_000, sales.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, counter.available());
+        assertEquals(10_000, counter.drainSold());
+        assertEquals(0, counter.drainSold());
+    }
+
+    @Test
+    @DisplayName("Debería retirar las unidades disponibles y devolver las ventas no registradas")
+    void shouldDrainAvailableAndRestoreSold() {
+        StripedStockCounter counter = new StripedStockCounter(2);
+        counter.add(7);
+        counter.tryTake(2);
+
+        long sold = counter.drainSold();
+        counter.restoreSold(sold);
+
+        assertEquals(5, counter.drainAvailable());
+        assertFalse(counter.tryTake(1));
+        assertEquals(2, counter.sold());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un número de franjas no válido")
+    void shouldRejectInvalidStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedStockCounter(0));
+    }
+
+    // Métodos privados auxiliares
+
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        runConcurrently(threads, () -> {
+            task.run();
+            return 0;
+        });
+    }
+
+    private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    ready.await();
+                    return task.call();
+                }));
+            }
+            ready.countDown();
+            List<T> results = new ArrayList<>(threads);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}